@@ -166,7 +166,7 @@ public class Service implements ServiceContext {
 
 
     /**
-     * Starts the service.This includes starting the message bus and endpoints.
+     * Starts the service.This includes starting the message bus, the persistence and endpoints.
      *
      * @throws de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException if starting message bus fails
      * @throws de.fraunhofer.iosb.ilt.faaast.service.exception.EndpointException if starting endpoints fails
@@ -175,6 +175,7 @@ public class Service implements ServiceContext {
     public void start() throws MessageBusException, EndpointException {
         LOGGER.info("Get command for starting FA³ST Service");
         messageBus.start();
+        persistence.start();
         for (Endpoint endpoint: endpoints) {
             LOGGER.info("Starting endpoint {}", endpoint.getClass().getSimpleName());
             endpoint.start();
@@ -184,12 +185,15 @@ public class Service implements ServiceContext {
 
 
     /**
-     * Stop the service. This includes stopping the message bus and all endpoints.
+     * Stop the service. This includes stopping the asset connection manager, the message bus, all endpoints and the
+     * persistence.
      */
     public void stop() {
         LOGGER.info("Get command for stopping FA³ST Service");
+        assetConnectionManager.stop();
         messageBus.stop();
         endpoints.forEach(Endpoint::stop);
+        persistence.stop();
     }
 
 
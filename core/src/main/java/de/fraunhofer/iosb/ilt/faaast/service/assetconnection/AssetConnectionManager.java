@@ -18,58 +18,194 @@ import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
 import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.InvalidConfigurationException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.Response;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementChangeEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementValueByPathRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementValuesRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.DataElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ElementValueHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.LambdaExceptionHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceResolutionCache;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
 import io.adminshell.aas.v3.model.IdentifierType;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * Manages all asset connections and provides convenient functions to find/access providers.
+ *
+ * <p>Values received from subscription providers are applied to the service in batches: new values are collected while
+ * the previous batch is being applied and then applied together via a single
+ * {@link de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementValuesRequest}. If an element receives
+ * multiple values in the meantime, only the latest one is applied.
  */
 public class AssetConnectionManager {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssetConnectionManager.class);
     private final List<AssetConnection> connections;
     private final CoreConfig coreConfig;
     private final ServiceContext serviceContext;
+    private final ReferenceResolutionCache referenceResolutionCache;
+    private final Map<Reference, DataElementValue> pendingValues = new LinkedHashMap<>();
+    private ExecutorService valueUpdateExecutor;
+    private boolean valueUpdateScheduled;
+    private boolean stopped;
 
     public AssetConnectionManager(CoreConfig coreConfig, List<AssetConnection> connections, ServiceContext context) throws ConfigurationException, AssetConnectionException {
         this.coreConfig = coreConfig;
         this.connections = connections != null ? connections : new ArrayList<>();
         this.serviceContext = context;
+        this.referenceResolutionCache = createReferenceResolutionCache(context);
         validateConnections();
         for (var assetConnection: connections) {
             final Map<Reference, AssetSubscriptionProvider> subscriptionProviders = assetConnection.getSubscriptionProviders();
             for (var subscriptionInfo: subscriptionProviders.entrySet()) {
-                subscriptionInfo.getValue().addNewDataListener((DataElementValue data) -> {
-                    serviceContext.execute(SetSubmodelElementValueByPathRequest.builder()
-                            .submodelId(new DefaultIdentifier.Builder()
-                                    .identifier(subscriptionInfo.getKey().getKeys().get(0).getValue())
-                                    .idType(IdentifierType.IRI)
-                                    .build())
-                            .path(subscriptionInfo.getKey().getKeys().subList(1, subscriptionInfo.getKey().getKeys().size()))
-                            .value(data)
-                            .build());
-                });
+                subscriptionInfo.getValue().addNewDataListener((DataElementValue data) -> onNewData(subscriptionInfo.getKey(), data));
             }
         }
     }
 
 
+    /**
+     * Adds a value received from a subscription provider to the pending values and schedules applying them if not
+     * already scheduled.
+     *
+     * @param reference the element the value belongs to
+     * @param value the new value
+     */
+    private void onNewData(Reference reference, DataElementValue value) {
+        synchronized (pendingValues) {
+            if (stopped) {
+                return;
+            }
+            // re-insert so that the order of the batch reflects the order of the latest updates
+            pendingValues.remove(reference);
+            pendingValues.put(reference, value);
+            if (valueUpdateScheduled) {
+                return;
+            }
+            valueUpdateScheduled = true;
+            if (valueUpdateExecutor == null) {
+                valueUpdateExecutor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                        .namingPattern("AssetConnectionValueUpdate-%d")
+                        .daemon(true)
+                        .build());
+            }
+            valueUpdateExecutor.execute(this::applyPendingValues);
+        }
+    }
+
+
+    /**
+     * Stops applying values received from subscription providers. Values already received are still applied, values
+     * received afterwards are discarded.
+     */
+    public void stop() {
+        ExecutorService executor;
+        synchronized (pendingValues) {
+            stopped = true;
+            executor = valueUpdateExecutor;
+            valueUpdateExecutor = null;
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                LOGGER.warn("applying values received from asset connections did not finish in time");
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e) {
+            LOGGER.error("interrupted while waiting for shutdown.", e);
+            Thread.currentThread().interrupt();
+        }
+        synchronized (pendingValues) {
+            pendingValues.clear();
+        }
+    }
+
+
+    /**
+     * Applies all pending values with a single request. If the request fails, e.g. because one of the elements does not
+     * exist, the values are applied one by one so that a single invalid element does not affect the others.
+     */
+    private void applyPendingValues() {
+        Map<Reference, DataElementValue> values;
+        synchronized (pendingValues) {
+            values = new LinkedHashMap<>(pendingValues);
+            pendingValues.clear();
+            valueUpdateScheduled = false;
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+        Response response = serviceContext.execute(SetSubmodelElementValuesRequest.builder()
+                .values(new LinkedHashMap<>(values))
+                .build());
+        if (response != null && response.getStatusCode() != null && response.getStatusCode().isSuccess()) {
+            return;
+        }
+        values.forEach((reference, value) -> {
+            Response singleResponse = serviceContext.execute(SetSubmodelElementValueByPathRequest.builder()
+                    .submodelId(new DefaultIdentifier.Builder()
+                            .identifier(reference.getKeys().get(0).getValue())
+                            .idType(IdentifierType.IRI)
+                            .build())
+                    .path(reference.getKeys().subList(1, reference.getKeys().size()))
+                    .value(value)
+                    .build());
+            if (singleResponse == null || singleResponse.getStatusCode() == null || !singleResponse.getStatusCode().isSuccess()) {
+                LOGGER.warn("could not apply value received from asset connection (reference: {})", AasUtils.asString(reference));
+            }
+        });
+    }
+
+
+    /**
+     * Creates a cache for resolving references that is invalidated whenever elements are created, updated or deleted.
+     * Without message bus, references are always resolved against the environment.
+     *
+     * @param context the service context
+     * @return the cache or null if it cannot be kept up-to-date
+     */
+    private static ReferenceResolutionCache createReferenceResolutionCache(ServiceContext context) {
+        if (context == null || context.getMessageBus() == null) {
+            return null;
+        }
+        ReferenceResolutionCache result = new ReferenceResolutionCache();
+        try {
+            context.getMessageBus().subscribe(SubscriptionInfo.create(ElementChangeEventMessage.class, x -> result.invalidate()));
+        }
+        catch (MessageBusException e) {
+            LOGGER.warn("could not subscribe to element changes, references will not be cached", e);
+            return null;
+        }
+        return result;
+    }
+
+
     /**
      * Adds a new AssetConnection created from an AssetConnectionConfig.
      *
@@ -194,7 +330,12 @@ public class AssetConnectionManager {
     public boolean hasOperationProvider(Reference reference) {
         Reference temp = reference;
         try {
-            ReferenceHelper.completeReferenceWithProperKeyElements(temp, this.serviceContext.getAASEnvironment());
+            if (referenceResolutionCache != null) {
+                referenceResolutionCache.completeReferenceWithProperKeyElements(temp, serviceContext::getAASEnvironment);
+            }
+            else {
+                ReferenceHelper.completeReferenceWithProperKeyElements(temp, this.serviceContext.getAASEnvironment());
+            }
         }
         catch (ResourceNotFoundException ex) {
             // ignore
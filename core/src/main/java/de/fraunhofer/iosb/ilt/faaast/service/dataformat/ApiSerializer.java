@@ -23,6 +23,8 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
@@ -119,6 +121,22 @@ public interface ApiSerializer {
     }
 
 
+    /**
+     * Serializes given elements as array to stream using {@link #DEFAULT_CHARSET}. Implementations may serialize the
+     * elements one by one while consuming them so that they never need to be held in memory at the same time. The
+     * default implementation collects all elements first. The stream is not closed.
+     *
+     * @param out stream to serialize to
+     * @param elements elements to serialize
+     * @param modifier output modifier defining how to serialize
+     * @throws IOException if writing to the stream fails
+     * @throws SerializationException if serialization fails
+     */
+    public default void writeArray(OutputStream out, Stream<?> elements, OutputModifier modifier) throws IOException, SerializationException {
+        out.write(write(elements.collect(Collectors.toList()), modifier).getBytes(DEFAULT_CHARSET));
+    }
+
+
     /**
      * Serializes given obj to file.
      *
@@ -165,15 +165,20 @@ public class EnvironmentSerializationManager {
 
     /**
      * Gets the {@link de.fraunhofer.iosb.ilt.faaast.service.model.serialization.DataFormat} for a given file. This is
-     * based on the file extension and in a second step the content of the file.
+     * based on the file extension and in a second step the content of the file. The content is only parsed if the file
+     * extension is ambiguous.
      *
      * @param file the input file
      * @return the data format of the file
      * @throws DeserializationException if there is now data format matching the file extension
-     * @throws DeserializationException file cannot be deserialized in any supported data format
+     * @throws DeserializationException if file extension is ambiguous and file cannot be deserialized in any of the
+     *             potential data formats
      */
     public static DataFormat getDataFormat(File file) throws DeserializationException {
         List<DataFormat> potentialDataFormats = getPotentialDataFormats(file);
+        if (potentialDataFormats.size() == 1) {
+            return potentialDataFormats.get(0);
+        }
         for (DataFormat dataFormat: potentialDataFormats) {
             try {
                 deserializerFor(dataFormat).read(file);
@@ -18,41 +18,66 @@ import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
 import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
 import de.fraunhofer.iosb.ilt.faaast.service.dataformat.EnvironmentSerializationManager;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.TransactionConflictException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.aasx.AASXPackage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.aasx.PackageDescription;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.Change;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeType;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.history.ValueSample;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
-import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.ExecutionState;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationHandle;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationResult;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.blob.BlobStore;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.history.ValueHistory;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.manager.IdentifiablePersistenceManager;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.manager.PackagePersistenceManager;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.manager.ReferablePersistenceManager;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.ChangeJournal;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.EnvironmentLocks;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.IdentifiableIndex;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.OperationResultStore;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.QueryModifierHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.SubmodelElementIndex;
 import de.fraunhofer.iosb.ilt.faaast.service.typing.TypeExtractor;
 import de.fraunhofer.iosb.ilt.faaast.service.typing.TypeInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import de.fraunhofer.iosb.ilt.faaast.service.util.IdentifierHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceResolutionCache;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
+import io.adminshell.aas.v3.model.AnnotatedRelationshipElement;
+import io.adminshell.aas.v3.model.Asset;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
 import io.adminshell.aas.v3.model.ConceptDescription;
+import io.adminshell.aas.v3.model.Entity;
 import io.adminshell.aas.v3.model.Identifiable;
 import io.adminshell.aas.v3.model.Identifier;
+import io.adminshell.aas.v3.model.Key;
 import io.adminshell.aas.v3.model.Operation;
 import io.adminshell.aas.v3.model.OperationVariable;
 import io.adminshell.aas.v3.model.Referable;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultAssetAdministrationShellEnvironment;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import org.apache.commons.lang3.StringUtils;
+import java.util.stream.Collectors;
 
 
 /**
@@ -60,27 +85,75 @@ import org.apache.commons.lang3.StringUtils;
  * actions with the element of the corresponding {@link io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment}
  * in memory. An implementation can override the methods to perform custom actions.
  *
+ * <p>Access to the environment is guarded by {@link EnvironmentLocks}, i.e. reads and writes to different submodels can
+ * be executed concurrently while modifications of the top-level lists of identifiables are exclusive. Implementations
+ * accessing {@link #aasEnvironment} directly must acquire the appropriate lock via {@link #environmentLocks}.
+ *
+ * <p>With copy-on-write enabled, transactions use optimistic concurrency control. Stored identifiables are never
+ * modified but replaced, i.e. every stored instance is an immutable version. Reads within a transaction record the
+ * version they observed and writes are deferred until commit, so readers and other transactions are never blocked by
+ * an open transaction. On commit, exclusive access is acquired only to check that none of the observed versions has
+ * been replaced in the meantime and to apply the deferred writes. If a version has been replaced, the commit fails
+ * with a {@link TransactionConflictException} and no changes are applied. As writes are deferred, a transaction can
+ * not observe its own changes, i.e. all reads of a transaction must precede its first write. Reading after writing
+ * fails with an {@link IllegalStateException}. Writes to identifiables written before within the same transaction are
+ * not checked until they are applied on commit.
+ *
+ * <p>Without copy-on-write, stored elements are modified in place, so there are no previous versions readers could be
+ * served from. Transactions then are atomic multi-write transactions that hold exclusive access to the environment
+ * until they are finished.
+ *
+ * <p>In both cases, every write applied within a transaction records how to revert it, i.e. the previous submodel
+ * element at its location for writes to submodel elements and the previous identifiable otherwise. As writes replace
+ * elements instead of modifying them, previous versions are kept without copying them.
+ *
+ * <p>All changes are recorded in a {@link ChangeJournal} if enabled. Rolling back a transaction discards the changes
+ * recorded within the transaction. The journal keeps the stored instances as values without copying them. Without
+ * copy-on-write, these instances may be modified in place by later writes, i.e. values are copied when reading the
+ * journal and reflect the state of the element at that time. Reading the journal requires shared access to the whole
+ * environment, i.e. changes of
+ * transactions that are not finished yet are never observed.
+ *
  * @param <T> type of the corresponding configuration class
  */
 public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>> implements Persistence<T> {
 
     protected static final String MSG_MODIFIER_NOT_NULL = "modifier must be non-null";
+    protected static final String MSG_PAGING_INFO_NOT_NULL = "pagingInfo must be non-null";
+    // same order as used by IdentifiablePersistenceManager.remove(Identifier)
+    private static final List<Class<? extends Identifiable>> IDENTIFIABLE_TYPES = List.of(
+            AssetAdministrationShell.class,
+            ConceptDescription.class,
+            Asset.class,
+            Submodel.class);
     protected AssetAdministrationShellEnvironment aasEnvironment;
     protected CoreConfig coreConfig;
     protected T config;
     protected ServiceContext context;
+    protected final EnvironmentLocks environmentLocks;
+    protected final IdentifiableIndex identifiableIndex;
+    protected final SubmodelElementIndex submodelElementIndex;
     protected final IdentifiablePersistenceManager identifiablePersistenceManager;
-    protected final Map<String, OperationHandle> operationHandleMap;
-    protected final Map<String, OperationResult> operationResultMap;
+    protected OperationResultStore operationResultStore;
     protected final PackagePersistenceManager packagePersistenceManager;
     protected final ReferablePersistenceManager referablePersistenceManager;
+    protected final ReferenceResolutionCache referenceResolutionCache;
+    protected BlobStore blobStore;
+    protected ChangeJournal changeJournal;
+    protected ValueHistory valueHistory;
+    private final ThreadLocal<InMemoryTransaction> transactions = new ThreadLocal<>();
 
     protected AbstractInMemoryPersistence() {
-        operationResultMap = new ConcurrentHashMap<>();
-        operationHandleMap = new ConcurrentHashMap<>();
-        identifiablePersistenceManager = new IdentifiablePersistenceManager();
-        referablePersistenceManager = new ReferablePersistenceManager();
+        operationResultStore = new OperationResultStore(0, Integer.MAX_VALUE);
+        environmentLocks = new EnvironmentLocks();
+        identifiableIndex = new IdentifiableIndex();
+        submodelElementIndex = new SubmodelElementIndex();
+        identifiablePersistenceManager = new IdentifiablePersistenceManager(identifiableIndex, submodelElementIndex);
+        referablePersistenceManager = new ReferablePersistenceManager(identifiableIndex, submodelElementIndex);
         packagePersistenceManager = new PackagePersistenceManager();
+        referenceResolutionCache = new ReferenceResolutionCache();
+        changeJournal = new ChangeJournal(0);
+        valueHistory = new ValueHistory(0, 0, 0);
     }
 
 
@@ -93,6 +166,9 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
         this.coreConfig = coreConfig;
         this.config = config;
         this.context = context;
+        operationResultStore = new OperationResultStore(config.getOperationResultTtl(), config.getOperationResultMaxEntries());
+        changeJournal = new ChangeJournal(config.getChangeJournalMaxEntries());
+        valueHistory = new ValueHistory(config.getValueHistoryMaxSamples(), config.getValueHistoryResolution(), config.getValueHistoryRetention());
         initAASEnvironment(config);
     }
 
@@ -103,7 +179,7 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
      * @param config the configuration to use
      */
     protected void initAASEnvironment(T config) {
-        try {
+        try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
             if (config.getEnvironment() != null) {
                 aasEnvironment = config.isDecoupleEnvironment() ? DeepCopyHelper.deepCopy(config.getEnvironment()) : config.getEnvironment();
             }
@@ -112,13 +188,82 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
                         .deserialize(config.getInitialModel())
                         .getEnvironment();
             }
+            initPersistenceManagers();
         }
         catch (DeserializationException e) {
             throw new IllegalArgumentException("Error deserializing AAS Environment", e);
         }
+    }
+
+
+    /**
+     * Passes the current AASEnvironment to all persistence managers and (re-)creates all indexes. Indexes are only used
+     * if the environment is owned exclusively by this persistence, i.e. it is not the non-decoupled environment provided
+     * via configuration that might be modified from outside. The same applies to moving blob values to the blob store.
+     * Callers must hold exclusive access to the environment.
+     */
+    protected void initPersistenceManagers() {
+        boolean exclusive = config == null || aasEnvironment != config.getEnvironment();
+        boolean copyOnWrite = config != null && config.isCopyOnWrite();
+        initBlobStore(exclusive);
+        if (blobStore != null) {
+            blobStore.externalize(aasEnvironment);
+        }
+        identifiableIndex.setActive(exclusive);
+        submodelElementIndex.setActive(exclusive);
+        identifiablePersistenceManager.setCopyOnWrite(copyOnWrite);
+        referablePersistenceManager.setCopyOnWrite(copyOnWrite);
+        packagePersistenceManager.setCopyOnWrite(copyOnWrite);
         identifiablePersistenceManager.setAasEnvironment(aasEnvironment);
         referablePersistenceManager.setAasEnvironment(aasEnvironment);
         packagePersistenceManager.setAasEnvironment(aasEnvironment);
+        referenceResolutionCache.invalidate();
+    }
+
+
+    private void initBlobStore(boolean exclusive) {
+        if (blobStore != null) {
+            blobStore.clear();
+            blobStore = null;
+        }
+        if (!exclusive || config == null || !config.isBlobStore()) {
+            return;
+        }
+        try {
+            blobStore = BlobStore.createTemporary(config.getBlobStoreMinSize());
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Error creating blob store", e);
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Subscribes the value history to value changes, if enabled.
+     */
+    @Override
+    public void start() throws MessageBusException {
+        if (valueHistory.isEnabled()) {
+            valueHistory.start(context.getMessageBus());
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Deletes all values held in the blob store and the value history, if any.
+     */
+    @Override
+    public void stop() {
+        if (blobStore != null) {
+            blobStore.clear();
+        }
+        if (context != null) {
+            valueHistory.stop(context.getMessageBus());
+        }
     }
 
 
@@ -133,21 +278,158 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If copy-on-write is enabled, a snapshot of the current environment is returned. The snapshot shares all
+     * elements with the environment but is not affected by later modifications. It must be treated as read-only.
+     * Otherwise, the environment itself is returned without any locking, i.e. it may be modified concurrently while
+     * being read. Request handlers should therefore use the query methods like
+     * {@link #get(String, List, QueryModifier)} instead.
+     */
     @Override
     public AssetAdministrationShellEnvironment getEnvironment() {
-        return aasEnvironment;
+        ensureReadable();
+        if (aasEnvironment == null || !isCopyOnWrite()) {
+            return aasEnvironment;
+        }
+        AssetAdministrationShellEnvironment result = new DefaultAssetAdministrationShellEnvironment();
+        result.setAssetAdministrationShells(aasEnvironment.getAssetAdministrationShells());
+        result.setSubmodels(aasEnvironment.getSubmodels());
+        result.setConceptDescriptions(aasEnvironment.getConceptDescriptions());
+        result.setAssets(aasEnvironment.getAssets());
+        return result;
+    }
+
+
+    /**
+     * Checks whether copy-on-write is enabled. In this case, stored elements are never modified in place and read
+     * operations return shared instances with query modifiers applied as projection.
+     *
+     * @return true if copy-on-write is enabled, otherwise false
+     */
+    protected boolean isCopyOnWrite() {
+        return config != null && config.isCopyOnWrite();
+    }
+
+
+    /**
+     * Loads the content of the submodel a reference points into if the persistence loads submodels lazily. Called
+     * while holding at least read access to the submodel before its content is accessed. Does nothing by default.
+     *
+     * @param reference reference pointing to or into a submodel
+     */
+    protected void loadSubmodel(Reference reference) {}
+
+
+    /**
+     * Loads the content of a submodel if the persistence loads submodels lazily. Called while holding at least read
+     * access to the submodel before its content is accessed. Does nothing by default.
+     *
+     * @param id the identifier of the submodel, may also be the identifier of any other identifiable
+     */
+    protected void loadSubmodel(Identifier id) {}
+
+
+    /**
+     * Adds the content of submodels about to be returned by a query if the persistence loads submodels lazily. Called
+     * while holding read access to all submodels with the submodels matching the query, i.e. after filtering and
+     * paging. The submodels are copies unless copy-on-write is enabled. Returns the submodels unchanged by default.
+     *
+     * @param submodels the submodels to return
+     * @return the submodels including their content
+     */
+    protected List<Submodel> completeSubmodels(List<Submodel> submodels) {
+        return submodels;
+    }
+
+
+    /**
+     * Finds the identifier of the submodel a reference points into.
+     *
+     * @param reference the reference
+     * @return the identifier of the submodel or null if the reference does not point into a submodel
+     */
+    private static String submodelIdOf(Reference reference) {
+        if (reference == null || reference.getKeys() == null) {
+            return null;
+        }
+        for (int i = reference.getKeys().size() - 1; i >= 0; i--) {
+            Key key = reference.getKeys().get(i);
+            if (key.getType() == null) {
+                // key types are not yet completed, the submodel cannot be determined reliably
+                return null;
+            }
+            Class<?> keyType = AasUtils.keyTypeToClass(key.getType());
+            if (keyType != null && Identifiable.class.isAssignableFrom(keyType)) {
+                return Submodel.class.isAssignableFrom(keyType) ? key.getValue() : null;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Acquires the locks required by {@link #put(Reference, Reference, SubmodelElement)}.
+     *
+     * @param parent reference to the parent, may be null
+     * @param referenceToSubmodelElement reference to the submodel element, may be null
+     * @return handle to release the locks
+     */
+    protected EnvironmentLocks.Handle lockForPut(Reference parent, Reference referenceToSubmodelElement) {
+        return lockForWrite(parent != null ? parent : referenceToSubmodelElement);
+    }
+
+
+    /**
+     * Acquires the locks required by {@link #remove(Reference)}.
+     *
+     * @param reference reference to the element to remove
+     * @return handle to release the locks
+     */
+    protected EnvironmentLocks.Handle lockForRemove(Reference reference) {
+        // removing a top-level element modifies the top-level lists
+        return ReferenceHelper.isNullOrEmpty(ReferenceHelper.getParent(reference))
+                ? environmentLocks.writeAll()
+                : lockForWrite(reference);
+    }
+
+
+    private EnvironmentLocks.Handle lockForWrite(Reference reference) {
+        // copy-on-write replaces the submodel within the top-level list and therefore requires exclusive access
+        return isCopyOnWrite()
+                ? environmentLocks.writeAll()
+                : environmentLocks.writeSubmodel(submodelIdOf(reference));
+    }
+
+
+    private <R extends Referable> R applyQueryModifier(R referable, QueryModifier modifier) {
+        return isCopyOnWrite()
+                ? QueryModifierHelper.projectQueryModifier(referable, modifier)
+                : QueryModifierHelper.applyQueryModifier(referable, modifier);
+    }
+
+
+    private <R extends Referable> List<R> applyQueryModifier(List<R> list, QueryModifier modifier) {
+        return isCopyOnWrite()
+                ? QueryModifierHelper.projectQueryModifier(list, modifier)
+                : QueryModifierHelper.applyQueryModifier(list, modifier);
     }
 
 
     @Override
     public <I extends Identifiable> I get(Identifier id, QueryModifier modifier) throws ResourceNotFoundException {
+        ensureReadable();
         if (id == null) {
             return null;
         }
         Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
-        return QueryModifierHelper.applyQueryModifier(
-                (I) identifiablePersistenceManager.getIdentifiableById(id),
-                modifier);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(id.getIdentifier())) {
+            loadSubmodel(id);
+            I result = identifiablePersistenceManager.getIdentifiableById(id);
+            observe(result.getClass(), id);
+            return applyQueryModifier(result, modifier);
+        }
     }
 
 
@@ -156,47 +438,113 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
     }
 
 
+    /**
+     * Ensures that the current thread does not read after writing within a transaction with deferred writes, as it
+     * would not observe its own changes.
+     *
+     * @throws IllegalStateException if the current thread has deferred writes
+     */
+    private void ensureReadable() {
+        InMemoryTransaction current = transactions.get();
+        if (current != null && current.deferred && !current.applying && !current.writes.isEmpty()) {
+            throw new IllegalStateException("reading after writing within a transaction is not supported with copy-on-write enabled");
+        }
+    }
+
+
     @Override
     public SubmodelElement get(Reference reference, QueryModifier modifier) throws ResourceNotFoundException {
         ensureInitialized();
+        ensureReadable();
         if (ReferenceHelper.isNullOrEmpty(reference)) {
             return null;
         }
         Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
-        ReferenceHelper.completeReferenceWithProperKeyElements(reference, aasEnvironment);
-        return QueryModifierHelper.applyQueryModifier(
-                referablePersistenceManager.getSubmodelElement(reference, modifier),
-                modifier);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(submodelIdOf(reference))) {
+            loadSubmodel(reference);
+            referenceResolutionCache.completeReferenceWithProperKeyElements(reference, aasEnvironment);
+            SubmodelElement result = referablePersistenceManager.getSubmodelElement(reference, modifier);
+            observeSubmodel(reference);
+            return applyQueryModifier(result, modifier);
+        }
     }
 
 
     @Override
     public List<AssetAdministrationShell> get(String idShort, List<AssetIdentification> assetIds, QueryModifier modifier) {
         ensureInitialized();
+        ensureReadable();
         Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
-        return QueryModifierHelper.applyQueryModifier(
-                identifiablePersistenceManager.getAASs(idShort, assetIds),
-                modifier);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+            return applyQueryModifier(
+                    identifiablePersistenceManager.getAASs(idShort, assetIds),
+                    modifier);
+        }
+    }
+
+
+    @Override
+    public Page<AssetAdministrationShell> get(String idShort, List<AssetIdentification> assetIds, QueryModifier modifier, PagingInfo pagingInfo) {
+        ensureInitialized();
+        ensureReadable();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        Ensure.requireNonNull(pagingInfo, MSG_PAGING_INFO_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+            return identifiablePersistenceManager.getAASs(idShort, assetIds, pagingInfo)
+                    .withContent(x -> applyQueryModifier(x, modifier));
+        }
     }
 
 
     @Override
     public List<Submodel> get(String idShort, Reference semanticId, QueryModifier modifier) {
         ensureInitialized();
+        ensureReadable();
         Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
-        return QueryModifierHelper.applyQueryModifier(
-                identifiablePersistenceManager.getSubmodels(idShort, semanticId),
-                modifier);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            return applyQueryModifier(
+                    completeSubmodels(identifiablePersistenceManager.getSubmodels(idShort, semanticId)),
+                    modifier);
+        }
+    }
+
+
+    @Override
+    public Page<Submodel> get(String idShort, Reference semanticId, QueryModifier modifier, PagingInfo pagingInfo) {
+        ensureInitialized();
+        ensureReadable();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        Ensure.requireNonNull(pagingInfo, MSG_PAGING_INFO_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            return identifiablePersistenceManager.getSubmodels(idShort, semanticId, pagingInfo)
+                    .withContent(x -> applyQueryModifier(completeSubmodels(x), modifier));
+        }
     }
 
 
     @Override
     public List<ConceptDescription> get(String idShort, Reference isCaseOf, Reference dataSpecification, QueryModifier modifier) {
         ensureInitialized();
+        ensureReadable();
         Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
-        return QueryModifierHelper.applyQueryModifier(
-                identifiablePersistenceManager.getConceptDescriptions(idShort, isCaseOf, dataSpecification),
-                modifier);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+            return applyQueryModifier(
+                    identifiablePersistenceManager.getConceptDescriptions(idShort, isCaseOf, dataSpecification),
+                    modifier);
+        }
+    }
+
+
+    @Override
+    public Page<ConceptDescription> get(String idShort, Reference isCaseOf, Reference dataSpecification, QueryModifier modifier, PagingInfo pagingInfo) {
+        ensureInitialized();
+        ensureReadable();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        Ensure.requireNonNull(pagingInfo, MSG_PAGING_INFO_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+            return identifiablePersistenceManager.getConceptDescriptions(idShort, isCaseOf, dataSpecification, pagingInfo)
+                    .withContent(x -> applyQueryModifier(x, modifier));
+        }
     }
 
 
@@ -214,21 +562,48 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
 
     @Override
     public OperationResult getOperationResult(String handleId) {
-        if (StringUtils.isNoneBlank(handleId)) {
-            return operationResultMap.getOrDefault(handleId, null);
-        }
-        return null;
+        return operationResultStore.getResult(handleId);
+    }
+
+
+    /**
+     * Gets metrics about the results of asynchronous operations currently kept by this persistence.
+     *
+     * @return the metrics
+     */
+    public OperationResultStore.Metrics getOperationResultMetrics() {
+        return operationResultStore.getMetrics();
     }
 
 
     @Override
     public List<SubmodelElement> getSubmodelElements(Reference reference, Reference semanticId, QueryModifier modifier) throws ResourceNotFoundException {
         ensureInitialized();
+        ensureReadable();
         Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
-        ReferenceHelper.completeReferenceWithProperKeyElements(reference, aasEnvironment);
-        return QueryModifierHelper.applyQueryModifier(
-                referablePersistenceManager.getSubmodelElements(reference, semanticId),
-                modifier);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(submodelIdOf(reference))) {
+            loadSubmodel(reference);
+            referenceResolutionCache.completeReferenceWithProperKeyElements(reference, aasEnvironment);
+            return applyQueryModifier(
+                    referablePersistenceManager.getSubmodelElements(reference, semanticId),
+                    modifier);
+        }
+    }
+
+
+    @Override
+    public Page<SubmodelElement> getSubmodelElements(Reference reference, Reference semanticId, QueryModifier modifier, PagingInfo pagingInfo)
+            throws ResourceNotFoundException {
+        ensureInitialized();
+        ensureReadable();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        Ensure.requireNonNull(pagingInfo, MSG_PAGING_INFO_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(submodelIdOf(reference))) {
+            loadSubmodel(reference);
+            referenceResolutionCache.completeReferenceWithProperKeyElements(reference, aasEnvironment);
+            return referablePersistenceManager.getSubmodelElements(reference, semanticId, pagingInfo)
+                    .withContent(x -> applyQueryModifier(x, modifier));
+        }
     }
 
 
@@ -237,19 +612,130 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
         ensureInitialized();
         Ensure.requireNonNull(submodelElement, "submodelElement must be non-null");
         Ensure.require(parent != null || referenceToSubmodelElement != null, "either parent or referenceToSubmodelElement must be non-null");
-        if (parent != null) {
-            ReferenceHelper.completeReferenceWithProperKeyElements(parent, aasEnvironment);
+        if (isDeferring()) {
+            Reference parentRef = parent != null ? parent : ReferenceHelper.getParent(referenceToSubmodelElement);
+            String submodelId = submodelIdOf(parentRef);
+            if (!isWritten(submodelId)) {
+                try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(submodelId)) {
+                    loadSubmodel(parentRef);
+                    referenceResolutionCache.completeReferenceWithProperKeyElements(parentRef, aasEnvironment);
+                    if (referablePersistenceManager.resolve(parentRef) == null) {
+                        throw new ResourceNotFoundException(String.format("Resource not found by reference %s", AasUtils.asString(parentRef)));
+                    }
+                    observeSubmodel(parentRef);
+                }
+            }
+            markWritten(submodelId);
+            SubmodelElement copy = DeepCopyHelper.deepCopy(submodelElement, SubmodelElement.class);
+            defer(() -> put(parent, referenceToSubmodelElement, copy));
+            return submodelElement;
         }
-        if (referenceToSubmodelElement != null) {
-            ReferenceHelper.completeReferenceWithProperKeyElements(referenceToSubmodelElement, aasEnvironment);
+        try (EnvironmentLocks.Handle lock = lockForPut(parent, referenceToSubmodelElement)) {
+            loadSubmodel(parent != null ? parent : referenceToSubmodelElement);
+            if (parent != null) {
+                referenceResolutionCache.completeReferenceWithProperKeyElements(parent, aasEnvironment);
+            }
+            if (referenceToSubmodelElement != null) {
+                referenceResolutionCache.completeReferenceWithProperKeyElements(referenceToSubmodelElement, aasEnvironment);
+            }
+            if (isStructuralChange(parent, referenceToSubmodelElement, submodelElement)) {
+                referenceResolutionCache.invalidate();
+            }
+            recordPut(parent != null ? parent : ReferenceHelper.getParent(referenceToSubmodelElement), submodelElement);
+            SubmodelElement result = referablePersistenceManager.putSubmodelElement(parent, referenceToSubmodelElement, externalize(submodelElement));
+            if (parent != null) {
+                journal(ChangeType.CREATED, AasUtils.toReference(parent, result), result);
+            }
+            else {
+                journal(ChangeType.UPDATED, referenceToSubmodelElement, result);
+            }
+            return result;
         }
-        return referablePersistenceManager.putSubmodelElement(parent, referenceToSubmodelElement, submodelElement);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Unless the current thread already has an active transaction, the elements are put within a new transaction,
+     * i.e. either all or none of them are put.
+     */
+    @Override
+    public void putAll(Map<Reference, SubmodelElement> submodelElements) throws ResourceNotFoundException {
+        ensureInitialized();
+        Ensure.requireNonNull(submodelElements, "submodelElements must be non-null");
+        if (transactions.get() != null) {
+            for (Map.Entry<Reference, SubmodelElement> entry: submodelElements.entrySet()) {
+                put(null, entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        // no user code runs within this transaction, so deferring the writes would not shorten the exclusive access
+        try (Transaction newTransaction = beginTransaction(false)) {
+            putAll(submodelElements);
+            newTransaction.commit();
+        }
+    }
+
+
+    /**
+     * Checks whether putting a submodel element may change how references are resolved, i.e. whether it is not just
+     * replacing an element without children by an element of the same type.
+     *
+     * @param parent reference to the parent, may be null
+     * @param referenceToSubmodelElement completed reference to the submodel element, may be null
+     * @param submodelElement the new submodel element
+     * @return true if the structure of the environment may change, otherwise false
+     */
+    private static boolean isStructuralChange(Reference parent, Reference referenceToSubmodelElement, SubmodelElement submodelElement) {
+        if (parent != null || referenceToSubmodelElement == null || referenceToSubmodelElement.getKeys().isEmpty()) {
+            return true;
+        }
+        Key last = referenceToSubmodelElement.getKeys().get(referenceToSubmodelElement.getKeys().size() - 1);
+        return last.getType() != AasUtils.referableToKeyType(submodelElement)
+                || SubmodelElementCollection.class.isAssignableFrom(submodelElement.getClass())
+                || Entity.class.isAssignableFrom(submodelElement.getClass())
+                || AnnotatedRelationshipElement.class.isAssignableFrom(submodelElement.getClass())
+                || Operation.class.isAssignableFrom(submodelElement.getClass());
+    }
+
+
+    /**
+     * Moves the values of all blobs within an element to the blob store if enabled.
+     *
+     * @param <R> type of the element
+     * @param referable the element
+     * @return the element itself or its replacement if the element is a blob
+     */
+    protected <R extends Referable> R externalize(R referable) {
+        return blobStore != null ? blobStore.externalize(referable) : referable;
     }
 
 
     @Override
     public Identifiable put(Identifiable identifiable) {
-        return identifiablePersistenceManager.put(identifiable);
+        if (isDeferring()) {
+            Ensure.requireNonNull(identifiable, "identifiable must be non-null");
+            try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+                observe(identifiable.getClass(), identifiable.getIdentification());
+            }
+            markWritten(identifiable.getIdentification().getIdentifier());
+            Identifiable copy = DeepCopyHelper.deepCopy(identifiable, Identifiable.class);
+            defer(() -> put(copy));
+            return identifiable;
+        }
+        try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+            referenceResolutionCache.invalidate();
+            if (identifiable == null) {
+                return identifiablePersistenceManager.put(null);
+            }
+            recordPut(identifiable.getClass(), identifiable.getIdentification());
+            Class<? extends Identifiable> baseType = getBaseType(identifiable.getClass());
+            boolean exists = baseType != null && identifiableIndex.get(baseType, identifiable.getIdentification()) != null;
+            Identifiable result = identifiablePersistenceManager.put(externalize(identifiable));
+            journal(exists ? ChangeType.UPDATED : ChangeType.CREATED, AasUtils.toReference(result), result);
+            return result;
+        }
     }
 
 
@@ -267,43 +753,486 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
 
     @Override
     public OperationHandle putOperationContext(String handleId, String requestId, OperationResult operationResult) {
-        OperationResult operationResultLocal = operationResult != null
-                ? operationResult
-                : new OperationResult.Builder()
-                        .executionState(ExecutionState.INITIATED)
-                        .requestId(requestId)
-                        .build();
-        String handleIdLocal = handleId;
-        if (StringUtils.isBlank(handleId)) {
-            handleIdLocal = UUID.randomUUID().toString();
-            OperationHandle operationHandle = new OperationHandle.Builder()
-                    .requestId(requestId)
-                    .handleId(handleIdLocal)
-                    .build();
-            operationHandleMap.put(operationHandle.getHandleId(), operationHandle);
-        }
-        operationResultMap.put(handleIdLocal, operationResultLocal);
-        return operationHandleMap.get(handleIdLocal);
+        return operationResultStore.put(handleId, requestId, operationResult);
     }
 
 
     @Override
     public void remove(Identifier id) throws ResourceNotFoundException {
-        if (id != null) {
-            identifiablePersistenceManager.remove(id);
+        if (id != null && isDeferring()) {
+            deferRemove(id, () -> remove(id));
+        }
+        else if (id != null) {
+            try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+                referenceResolutionCache.invalidate();
+                recordRemove(id);
+                Identifiable identifiable = findIdentifiable(id);
+                List<AssetAdministrationShell> referencingShells = getReferencingShells(identifiable);
+                identifiablePersistenceManager.remove(id);
+                journalRemove(identifiable, referencingShells);
+            }
         }
     }
 
 
     @Override
     public void remove(Reference reference) throws ResourceNotFoundException {
-        if (reference != null) {
-            ReferenceHelper.completeReferenceWithProperKeyElements(reference, aasEnvironment);
-            referablePersistenceManager.remove(reference);
+        if (reference != null && isDeferring()) {
+            if (ReferenceHelper.isNullOrEmpty(ReferenceHelper.getParent(reference))) {
+                deferRemove(IdentifierHelper.parseIdentifier(reference.getKeys().get(0).getValue()), () -> remove(reference));
+                return;
+            }
+            String submodelId = submodelIdOf(reference);
+            if (!isWritten(submodelId)) {
+                try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(submodelId)) {
+                    loadSubmodel(reference);
+                    referenceResolutionCache.completeReferenceWithProperKeyElements(reference, aasEnvironment);
+                    referablePersistenceManager.getSubmodelElement(reference, QueryModifier.DEFAULT);
+                    observeSubmodel(reference);
+                }
+            }
+            markWritten(submodelId);
+            defer(() -> remove(reference));
+        }
+        else if (reference != null) {
+            try (EnvironmentLocks.Handle lock = lockForRemove(reference)) {
+                if (!ReferenceHelper.isNullOrEmpty(ReferenceHelper.getParent(reference))) {
+                    loadSubmodel(reference);
+                }
+                referenceResolutionCache.completeReferenceWithProperKeyElements(reference, aasEnvironment);
+                referenceResolutionCache.invalidate();
+                if (!ReferenceHelper.isNullOrEmpty(ReferenceHelper.getParent(reference))) {
+                    recordRemove(reference);
+                    referablePersistenceManager.remove(reference);
+                    journal(ChangeType.DELETED, reference, null);
+                    return;
+                }
+                Identifier id = IdentifierHelper.parseIdentifier(reference.getKeys().get(0).getValue());
+                recordRemove(id);
+                Identifiable identifiable = findIdentifiable(id);
+                List<AssetAdministrationShell> referencingShells = getReferencingShells(identifiable);
+                referablePersistenceManager.remove(reference);
+                journalRemove(identifiable, referencingShells);
+            }
         }
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>With copy-on-write enabled, writes are deferred until commit and other threads are not blocked by the
+     * transaction. Committing fails with a {@link TransactionConflictException} if an identifiable read or written within
+     * the
+     * transaction has been replaced by another thread in the meantime. Without copy-on-write, the transaction holds
+     * exclusive access to the whole environment until it is finished. See class description for details.
+     */
+    @Override
+    public Transaction beginTransaction() {
+        return beginTransaction(isCopyOnWrite());
+    }
+
+
+    private Transaction beginTransaction(boolean deferred) {
+        ensureInitialized();
+        if (transactions.get() != null) {
+            throw new IllegalStateException("nested transactions are not supported");
+        }
+        InMemoryTransaction result = deferred
+                ? new InMemoryTransaction(null, true)
+                : new InMemoryTransaction(environmentLocks.writeAll(), false);
+        transactions.set(result);
+        return result;
+    }
+
+
+    /**
+     * Begins a transaction for a single write of an implementation that needs to revert the write if persisting it
+     * fails, e.g. in {@link #prepareCommit()}. The transaction takes over the given lock and releases it when it is
+     * finished, before {@link #afterTransaction(boolean)} is called. If the current thread already has an active
+     * transaction, the write joins that transaction, i.e. finishing the returned transaction only releases the lock.
+     * Must not be called while writes of the current thread are deferred.
+     *
+     * @param lock the lock required for the write, already acquired by the caller
+     * @return the transaction
+     */
+    protected Transaction beginWrite(EnvironmentLocks.Handle lock) {
+        Ensure.requireNonNull(lock, "lock must be non-null");
+        ensureInitialized();
+        if (transactions.get() == null) {
+            InMemoryTransaction result = new InMemoryTransaction(lock, false);
+            transactions.set(result);
+            return result;
+        }
+        return new Transaction() {
+            private boolean active = true;
+
+            @Override
+            public void commit() {
+                release();
+            }
+
+
+            @Override
+            public void rollback() {
+                // changes are reverted by the joined transaction
+                release();
+            }
+
+
+            @Override
+            public boolean isActive() {
+                return active;
+            }
+
+
+            private void release() {
+                if (!active) {
+                    throw new IllegalStateException("transaction is not active");
+                }
+                active = false;
+                lock.close();
+            }
+        };
+    }
+
+
+    /**
+     * Checks whether writes of the current thread are deferred, i.e. whether it has an active transaction with
+     * copy-on-write enabled that is not being committed yet. Implementations overriding write operations must not
+     * acquire locks or perform side effects in that case but delegate to this class, which records the write to apply
+     * it on commit.
+     *
+     * @return true if writes of the current thread are deferred, otherwise false
+     */
+    protected boolean isDeferring() {
+        InMemoryTransaction current = transactions.get();
+        return current != null && current.deferred && !current.applying;
+    }
+
+
+    /**
+     * Called when a transaction of the current thread is committed after all of its changes have been applied, while
+     * still holding exclusive access to the environment. Implementations may persist the changes of the transaction
+     * here. If this method throws an exception, all changes of the transaction are rolled back. Does nothing by
+     * default.
+     */
+    protected void prepareCommit() {}
+
+
+    /**
+     * Called after a transaction of the current thread has been finished and all locks held by the transaction have
+     * been released. Does nothing by default.
+     *
+     * @param committed true if the transaction has been committed, false if it has been rolled back
+     */
+    protected void afterTransaction(boolean committed) {}
+
+
+    private void defer(DeferredWrite write) {
+        transactions.get().writes.add(write);
+    }
+
+
+    private void deferRemove(Identifier id, DeferredWrite write) throws ResourceNotFoundException {
+        if (!isWritten(id.getIdentifier())) {
+            try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+                Identifiable identifiable = identifiablePersistenceManager.getIdentifiableById(id);
+                observe(identifiable.getClass(), id);
+            }
+        }
+        markWritten(id.getIdentifier());
+        defer(write);
+    }
+
+
+    /**
+     * Checks whether the current thread has deferred a write to an identifiable within its transaction. As the write is
+     * not applied yet, checking the existence of the identifiable or of its elements is deferred until commit.
+     *
+     * @param id the identifier of the identifiable
+     * @return true if a write to the identifiable has been deferred, otherwise false
+     */
+    private boolean isWritten(String id) {
+        return id != null && transactions.get().written.contains(id.toLowerCase(Locale.ROOT));
+    }
+
+
+    private void markWritten(String id) {
+        if (id != null) {
+            transactions.get().written.add(id.toLowerCase(Locale.ROOT));
+        }
+    }
+
+
+    /**
+     * Records the version of an identifiable observed by the current thread if it has an active transaction with
+     * deferred writes and the identifiable has not been observed before within this transaction. Callers must hold
+     * read access to the top-level lists of identifiables.
+     *
+     * @param type the type of the identifiable
+     * @param id the identifier
+     */
+    private void observe(Class<?> type, Identifier id) {
+        if (!isDeferring() || id == null || id.getIdentifier() == null) {
+            return;
+        }
+        Class<? extends Identifiable> baseType = getBaseType(type);
+        if (baseType != null) {
+            transactions.get().observed.computeIfAbsent(keyOf(baseType, id), x -> new ObservedVersion(baseType, id, identifiableIndex.get(baseType, id)));
+        }
+    }
+
+
+    private void observeSubmodel(Reference reference) {
+        String submodelId = submodelIdOf(reference);
+        if (submodelId != null) {
+            observe(Submodel.class, IdentifierHelper.parseIdentifier(submodelId));
+        }
+    }
+
+
+    private static String keyOf(Class<? extends Identifiable> baseType, Identifier id) {
+        return baseType.getSimpleName() + ":" + id.getIdentifier().toLowerCase(Locale.ROOT);
+    }
+
+
+    @Override
+    public ChangeSet getChanges(String journalId, long since, int limit) {
+        ensureInitialized();
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            ChangeSet result = changeJournal.getChanges(journalId, since, limit);
+            if (!isCopyOnWrite() && result.getChanges() != null) {
+                result.setChanges(result.getChanges().stream()
+                        .map(x -> Change.builder()
+                                .version(x.getVersion())
+                                .type(x.getType())
+                                .element(x.getElement())
+                                .value(x.getValue() != null ? DeepCopyHelper.deepCopy(x.getValue(), Referable.class) : null)
+                                .build())
+                        .collect(Collectors.toList()));
+            }
+            return result;
+        }
+    }
+
+
+    @Override
+    public List<ValueSample> getValueHistory(Reference reference, long from, long to) {
+        if (!valueHistory.isEnabled()) {
+            throw new UnsupportedOperationException("value history is disabled");
+        }
+        return valueHistory.get(reference, from, to);
+    }
+
+
+    /**
+     * Records how to revert putting a submodel element if the current thread has an active transaction, i.e. how to
+     * restore the element currently stored at the same location or how to remove the new element if there is none.
+     * Callers must hold write access to the submodel.
+     *
+     * @param parent completed reference to the parent
+     * @param submodelElement the new submodel element
+     */
+    private void recordPut(Reference parent, SubmodelElement submodelElement) {
+        if (!isRecording() || ReferenceHelper.isNullOrEmpty(parent)) {
+            return;
+        }
+        Reference reference = AasUtils.toReference(parent, submodelElement);
+        Referable previous = findReferable(reference);
+        if (previous == null) {
+            addUndo(() -> remove(reference));
+        }
+        else if (SubmodelElement.class.isAssignableFrom(previous.getClass())) {
+            // putting an element replaces the previous one at the same position
+            addUndo(() -> put(parent, null, (SubmodelElement) previous));
+        }
+    }
+
+
+    /**
+     * Records how to revert removing a submodel element if the current thread has an active transaction, i.e. how to
+     * re-insert the element at its current position within its parent. Callers must hold write access to the submodel.
+     *
+     * @param reference completed reference to the submodel element
+     */
+    private void recordRemove(Reference reference) {
+        if (!isRecording()) {
+            return;
+        }
+        Referable previous = findReferable(reference);
+        if (previous == null || !SubmodelElement.class.isAssignableFrom(previous.getClass())) {
+            return;
+        }
+        Reference parent = ReferenceHelper.getParent(reference);
+        int position = referablePersistenceManager.indexOf(reference);
+        addUndo(() -> {
+            try (EnvironmentLocks.Handle lock = lockForPut(parent, null)) {
+                loadSubmodel(parent);
+                referenceResolutionCache.invalidate();
+                referablePersistenceManager.insertSubmodelElement(parent, (SubmodelElement) previous, position);
+            }
+        });
+    }
+
+
+    /**
+     * Records how to revert removing an identifiable by {@link #remove(Identifier)} if the current thread has an active
+     * transaction. As removing a submodel also removes all references to it, the references of the shells referencing it
+     * are recorded as well. Callers must hold exclusive access to the environment.
+     *
+     * @param id the identifier
+     */
+    private void recordRemove(Identifier id) {
+        if (!isRecording()) {
+            return;
+        }
+        Identifiable identifiable = findIdentifiable(id);
+        if (identifiable == null) {
+            return;
+        }
+        recordPut(identifiable.getClass(), id);
+        Reference submodelRef = AasUtils.toReference(identifiable);
+        for (AssetAdministrationShell shell: getReferencingShells(identifiable)) {
+            if (isCopyOnWrite()) {
+                // shells are replaced instead of modified
+                recordPut(AssetAdministrationShell.class, shell.getIdentification());
+                continue;
+            }
+            int position = shell.getSubmodels().indexOf(submodelRef);
+            addUndo(() -> {
+                try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+                    AssetAdministrationShell current = identifiableIndex.get(AssetAdministrationShell.class, shell.getIdentification());
+                    if (current != null && !current.getSubmodels().contains(submodelRef)) {
+                        current.getSubmodels().add(Math.min(position, current.getSubmodels().size()), submodelRef);
+                    }
+                }
+            });
+        }
+    }
+
+
+    private Referable findReferable(Reference reference) {
+        try {
+            return referablePersistenceManager.resolve(reference);
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Finds an identifiable of any type by its identifier. Callers must hold exclusive access to the environment.
+     *
+     * @param id the identifier
+     * @return the identifiable or null if there is none
+     */
+    private Identifiable findIdentifiable(Identifier id) {
+        for (Class<? extends Identifiable> type: IDENTIFIABLE_TYPES) {
+            Identifiable identifiable = identifiableIndex.get(type, id);
+            if (identifiable != null) {
+                return identifiable;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Gets all shells referencing an identifiable, i.e. the shells that are modified when it is removed. Callers must
+     * hold exclusive access to the environment.
+     *
+     * @param identifiable the identifiable, may be null
+     * @return the shells referencing the identifiable if it is a submodel, otherwise an empty list
+     */
+    private List<AssetAdministrationShell> getReferencingShells(Identifiable identifiable) {
+        if (identifiable == null || !Submodel.class.isAssignableFrom(identifiable.getClass())) {
+            return List.of();
+        }
+        Reference submodelRef = AasUtils.toReference(identifiable);
+        return aasEnvironment.getAssetAdministrationShells().stream()
+                .filter(x -> x.getSubmodels().contains(submodelRef))
+                .collect(Collectors.toList());
+    }
+
+
+    private static Class<? extends Identifiable> getBaseType(Class<?> type) {
+        return IDENTIFIABLE_TYPES.stream()
+                .filter(x -> x.isAssignableFrom(type))
+                .findFirst()
+                .orElse(null);
+    }
+
+
+    /**
+     * Records a change in the change journal. Unless copy-on-write is enabled, the value is copied as stored elements
+     * are modified in place. Callers must hold write access to the changed element.
+     *
+     * @param type the type of change
+     * @param reference reference to the changed element
+     * @param value the new value, null if the element has been deleted
+     */
+    private void journal(ChangeType type, Reference reference, Referable value) {
+        changeJournal.append(type, reference, value);
+    }
+
+
+    /**
+     * Records the removal of an identifiable in the change journal. As removing a submodel also removes all references
+     * to it, the shells referencing it are recorded as updated. Callers must hold exclusive access to the environment.
+     *
+     * @param identifiable the removed identifiable, may be null
+     * @param referencingShells the shells that referenced the identifiable before it has been removed
+     */
+    private void journalRemove(Identifiable identifiable, List<AssetAdministrationShell> referencingShells) {
+        if (identifiable == null) {
+            return;
+        }
+        journal(ChangeType.DELETED, AasUtils.toReference(identifiable), null);
+        for (AssetAdministrationShell shell: referencingShells) {
+            AssetAdministrationShell current = identifiableIndex.get(AssetAdministrationShell.class, shell.getIdentification());
+            journal(ChangeType.UPDATED, AasUtils.toReference(current), current);
+        }
+    }
+
+
+    /**
+     * Records how to revert putting an identifiable if the current thread has an active transaction, i.e. how to restore
+     * the identifiable currently stored or how to remove the new one if there is none. As putting an identifiable
+     * replaces the stored instance instead of modifying it, the current instance is kept without copying it. Callers
+     * must hold write access to the identifiable.
+     *
+     * @param type the type of the identifiable
+     * @param id the identifier
+     */
+    private void recordPut(Class<? extends Identifiable> type, Identifier id) {
+        if (!isRecording() || id == null || id.getIdentifier() == null) {
+            return;
+        }
+        Class<? extends Identifiable> baseType = getBaseType(type);
+        if (baseType == null) {
+            return;
+        }
+        loadSubmodel(id);
+        Identifiable previous = identifiableIndex.get(baseType, id);
+        addUndo(previous != null
+                ? () -> put(previous)
+                : () -> remove(id));
+    }
+
+
+    private void addUndo(UndoEntry entry) {
+        transactions.get().undoLog.add(entry);
+    }
+
+
+    private boolean isRecording() {
+        InMemoryTransaction current = transactions.get();
+        return current != null && !current.rollingBack && (!current.deferred || current.applying);
+    }
+
+
     @Override
     public void remove(String packageId) {
         throw new UnsupportedOperationException();
@@ -312,7 +1241,10 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
 
     @Override
     public TypeInfo<?> getTypeInfo(Reference reference) {
-        return TypeExtractor.extractTypeInfo(AasUtils.resolve(reference, getEnvironment()));
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(submodelIdOf(reference))) {
+            loadSubmodel(reference);
+            return TypeExtractor.extractTypeInfo(referablePersistenceManager.resolve(reference));
+        }
     }
 
 
@@ -321,15 +1253,191 @@ public abstract class AbstractInMemoryPersistence<T extends PersistenceConfig<?>
         if (reference == null) {
             throw new IllegalArgumentException("reference must be non-null");
         }
-        Referable referable = AasUtils.resolve(reference, getEnvironment());
-        if (referable == null) {
-            throw new IllegalArgumentException(String.format("reference could not be resolved (reference: %s)", AasUtils.asString(reference)));
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(submodelIdOf(reference))) {
+            loadSubmodel(reference);
+            Referable referable = referablePersistenceManager.resolve(reference);
+            if (referable == null) {
+                throw new IllegalArgumentException(String.format("reference could not be resolved (reference: %s)", AasUtils.asString(reference)));
+            }
+            if (!Operation.class.isAssignableFrom(referable.getClass())) {
+                throw new IllegalArgumentException(String.format("reference points to invalid type (reference: %s, expected type: Operation, actual type: %s)",
+                        AasUtils.asString(reference),
+                        referable.getClass()));
+            }
+            return ((Operation) referable).getOutputVariables().toArray(new OperationVariable[0]);
         }
-        if (!Operation.class.isAssignableFrom(referable.getClass())) {
-            throw new IllegalArgumentException(String.format("reference points to invalid type (reference: %s, expected type: Operation, actual type: %s)",
-                    AasUtils.asString(reference),
-                    referable.getClass()));
+    }
+
+    /**
+     * A write operation deferred until the transaction is committed.
+     */
+    @FunctionalInterface
+    private interface DeferredWrite {
+
+        public void apply() throws ResourceNotFoundException;
+    }
+
+    private static class ObservedVersion {
+
+        private final Class<? extends Identifiable> type;
+        private final Identifier id;
+        private final Identifiable version;
+
+        private ObservedVersion(Class<? extends Identifiable> type, Identifier id, Identifiable version) {
+            this.type = type;
+            this.id = id;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Reverts a write applied within a transaction.
+     */
+    @FunctionalInterface
+    private interface UndoEntry {
+
+        public void restore() throws ResourceNotFoundException;
+    }
+
+    private class InMemoryTransaction implements Transaction {
+
+        private final Thread owner;
+        private final boolean deferred;
+        private final List<DeferredWrite> writes;
+        private final Map<String, ObservedVersion> observed;
+        private final Set<String> written;
+        private final List<UndoEntry> undoLog;
+        private EnvironmentLocks.Handle lock;
+        private long journalVersion;
+        private boolean active;
+        private boolean applying;
+        private boolean rollingBack;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param lock the lock held until the transaction is finished, null if writes are deferred
+         * @param deferred true if writes are deferred until commit
+         */
+        private InMemoryTransaction(EnvironmentLocks.Handle lock, boolean deferred) {
+            this.owner = Thread.currentThread();
+            this.lock = lock;
+            this.deferred = deferred;
+            this.journalVersion = changeJournal.getVersion();
+            this.writes = new ArrayList<>();
+            this.observed = new HashMap<>();
+            this.written = new HashSet<>();
+            this.undoLog = new ArrayList<>();
+            this.active = true;
+        }
+
+
+        @Override
+        public void commit() throws ResourceNotFoundException {
+            ensureActive();
+            boolean committed = false;
+            try {
+                if (deferred) {
+                    lock = environmentLocks.writeAll();
+                    journalVersion = changeJournal.getVersion();
+                    validate();
+                    applying = true;
+                    for (DeferredWrite write: writes) {
+                        write.apply();
+                    }
+                }
+                prepareCommit();
+                committed = true;
+            }
+            catch (ResourceNotFoundException | RuntimeException e) {
+                undo();
+                throw e;
+            }
+            finally {
+                finish(committed);
+            }
+        }
+
+
+        /**
+         * Checks that none of the versions observed within the transaction has been replaced. Callers must hold
+         * exclusive access to the environment.
+         *
+         * @throws TransactionConflictException if an observed version has been replaced
+         */
+        private void validate() {
+            for (ObservedVersion entry: observed.values()) {
+                if (identifiableIndex.get(entry.type, entry.id) != entry.version) {
+                    throw new TransactionConflictException(String.format("transaction conflicts with a concurrent modification of %s",
+                            IdentifierHelper.asString(entry.id)));
+                }
+            }
+        }
+
+
+        @Override
+        public void rollback() {
+            ensureActive();
+            try {
+                undo();
+            }
+            finally {
+                finish(false);
+            }
+        }
+
+
+        private void undo() {
+            rollingBack = true;
+            try {
+                for (int i = undoLog.size() - 1; i >= 0; i--) {
+                    restore(undoLog.get(i));
+                }
+            }
+            finally {
+                changeJournal.truncate(journalVersion);
+            }
+        }
+
+
+        private void restore(UndoEntry entry) {
+            try {
+                entry.restore();
+            }
+            catch (ResourceNotFoundException | IllegalArgumentException e) {
+                // element has not been created because the write failed or has been removed again within the transaction
+            }
+        }
+
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+
+        private void ensureActive() {
+            if (!active) {
+                throw new IllegalStateException("transaction is not active");
+            }
+            if (owner != Thread.currentThread()) {
+                throw new IllegalStateException("transaction must be finished by the thread that started it");
+            }
+        }
+
+
+        private void finish(boolean committed) {
+            active = false;
+            writes.clear();
+            observed.clear();
+            written.clear();
+            undoLog.clear();
+            transactions.remove();
+            if (lock != null) {
+                lock.close();
+                lock = null;
+            }
+            afterTransaction(committed);
         }
-        return ((Operation) referable).getOutputVariables().toArray(new OperationVariable[0]);
     }
 }
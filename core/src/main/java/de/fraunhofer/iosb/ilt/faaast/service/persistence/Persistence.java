@@ -15,12 +15,17 @@
 package de.fraunhofer.iosb.ilt.faaast.service.persistence;
 
 import de.fraunhofer.iosb.ilt.faaast.service.config.Configurable;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.aasx.AASXPackage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.aasx.PackageDescription;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.history.ValueSample;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationHandle;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationResult;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.typing.TypeInfo;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
@@ -33,6 +38,7 @@ import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -94,6 +100,23 @@ public interface Persistence<C extends PersistenceConfig> extends Configurable<C
     public List<AssetAdministrationShell> get(String idShort, List<AssetIdentification> assetIds, QueryModifier modifier);
 
 
+    /**
+     * Same as {@link #get(String, List, QueryModifier)} but only returns the page selected by pagingInfo.
+     * Implementations should override this method to avoid materializing the complete result.
+     *
+     * @param idShort of the AssetAdministrationShells which should be considered. This parameter is optional and may be
+     *            null
+     * @param assetIds list of asset ids to filter by. This parameter is optional and may be null
+     * @param modifier QueryModifier to define Level and Extent of the query
+     * @param pagingInfo paging information
+     * @return page of AssetAdministrationShells
+     * @throws IllegalArgumentException if modifier is null or the cursor of pagingInfo is invalid
+     */
+    public default Page<AssetAdministrationShell> get(String idShort, List<AssetIdentification> assetIds, QueryModifier modifier, PagingInfo pagingInfo) {
+        return Page.of(get(idShort, assetIds, modifier), pagingInfo);
+    }
+
+
     /**
      * All Submodels with a specific semanticId or a specific idShort. If semanticId and idShort are null, all Submodels
      * will be returned.
@@ -107,6 +130,22 @@ public interface Persistence<C extends PersistenceConfig> extends Configurable<C
     public List<Submodel> get(String idShort, Reference semanticId, QueryModifier modifier);
 
 
+    /**
+     * Same as {@link #get(String, Reference, QueryModifier)} but only returns the page selected by pagingInfo.
+     * Implementations should override this method to avoid materializing the complete result.
+     *
+     * @param idShort of the Submodels which should be considered. This parameter is optional and may be null
+     * @param semanticId of the Submodels which should be considered. This parameter is optional and may be null
+     * @param modifier QueryModifier to define Level and Extent of the query
+     * @param pagingInfo paging information
+     * @return page of Submodels
+     * @throws IllegalArgumentException if modifier is null or the cursor of pagingInfo is invalid
+     */
+    public default Page<Submodel> get(String idShort, Reference semanticId, QueryModifier modifier, PagingInfo pagingInfo) {
+        return Page.of(get(idShort, semanticId, modifier), pagingInfo);
+    }
+
+
     /**
      * All Submodel Elements including their hierarchy.
      *
@@ -121,6 +160,25 @@ public interface Persistence<C extends PersistenceConfig> extends Configurable<C
     public List<SubmodelElement> getSubmodelElements(Reference reference, Reference semanticId, QueryModifier modifier) throws ResourceNotFoundException;
 
 
+    /**
+     * Same as {@link #getSubmodelElements(Reference, Reference, QueryModifier)} but only returns the page selected by
+     * pagingInfo. Implementations should override this method to avoid materializing the complete result.
+     *
+     * @param reference of the Submodel or of the parent Submodel Element
+     * @param semanticId of the Submodel Elements which should be considered. This parameter is optional and may be null
+     * @param modifier QueryModifier to define Level and Extent of the query
+     * @param pagingInfo paging information
+     * @return page of Submodel Elements
+     * @throws de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException if reference does not point to
+     *             valid resource
+     * @throws IllegalArgumentException if modifier is null or the cursor of pagingInfo is invalid
+     */
+    public default Page<SubmodelElement> getSubmodelElements(Reference reference, Reference semanticId, QueryModifier modifier, PagingInfo pagingInfo)
+            throws ResourceNotFoundException {
+        return Page.of(getSubmodelElements(reference, semanticId, modifier), pagingInfo);
+    }
+
+
     /**
      * All Concept Descriptions with a specific idShort, isCaseOf-reference or dataSpecification-reference. If idShort,
      * isCaseOf and dataSpecification are null, all Concept Descriptions will be returned.
@@ -136,6 +194,24 @@ public interface Persistence<C extends PersistenceConfig> extends Configurable<C
     public List<ConceptDescription> get(String idShort, Reference isCaseOf, Reference dataSpecification, QueryModifier modifier);
 
 
+    /**
+     * Same as {@link #get(String, Reference, Reference, QueryModifier)} but only returns the page selected by
+     * pagingInfo. Implementations should override this method to avoid materializing the complete result.
+     *
+     * @param idShort of the Concept Description which should considered. This parameter is optional and may be null
+     * @param isCaseOf of the Concept Description which should considered. This parameter is optional and may be null
+     * @param dataSpecification of the Concept Description which should considered. This parameter is optional and may
+     *            be null
+     * @param modifier QueryModifier to define Level and Extent of the query
+     * @param pagingInfo paging information
+     * @return page of Concept Descriptions
+     * @throws IllegalArgumentException if modifier is null or the cursor of pagingInfo is invalid
+     */
+    public default Page<ConceptDescription> get(String idShort, Reference isCaseOf, Reference dataSpecification, QueryModifier modifier, PagingInfo pagingInfo) {
+        return Page.of(get(idShort, isCaseOf, dataSpecification, modifier), pagingInfo);
+    }
+
+
     /**
      * Get a specific AASX package by its packageId.
      *
@@ -176,6 +252,29 @@ public interface Persistence<C extends PersistenceConfig> extends Configurable<C
     public SubmodelElement put(Reference parent, Reference referenceToSubmodelElement, SubmodelElement submodelElement) throws ResourceNotFoundException;
 
 
+    /**
+     * Creates or updates multiple submodel elements at once, e.g. to apply a batch of value changes. Compared to calling
+     * {@link #put(Reference, Reference, SubmodelElement)} for each element, implementations should resolve and apply
+     * all elements with a single lock acquisition and persist the changes only once.
+     *
+     * <p>If the current thread has an active transaction, the elements are put within this transaction. The default
+     * implementation puts the elements one after another, i.e. it is not atomic unless called within a transaction.
+     *
+     * @param submodelElements the submodel elements by reference to the element to create or update, iteration order
+     *            is preserved
+     * @throws ResourceNotFoundException if the parent of any of the elements cannot be resolved
+     * @throws IllegalArgumentException if submodelElements is null
+     */
+    public default void putAll(Map<Reference, SubmodelElement> submodelElements) throws ResourceNotFoundException {
+        if (submodelElements == null) {
+            throw new IllegalArgumentException("submodelElements must be non-null");
+        }
+        for (Map.Entry<Reference, SubmodelElement> entry: submodelElements.entrySet()) {
+            put(null, entry.getKey(), entry.getValue());
+        }
+    }
+
+
     /**
      * Create or Update an AASX package.
      *
@@ -279,4 +378,71 @@ public interface Persistence<C extends PersistenceConfig> extends Configurable<C
      */
     public OperationVariable[] getOperationOutputVariables(Reference reference);
 
+
+    /**
+     * Starts a transaction for the current thread. All following write operations of this thread until the
+     * transaction is committed or rolled back are applied atomically, i.e. they can be reverted and other threads do
+     * not observe intermediate states. Transactions can not be nested.
+     *
+     * <p>The default implementation does not provide any isolation, i.e. changes are applied immediately and rolling
+     * back is not supported. Implementations should override this method.
+     *
+     * @return the transaction
+     * @throws IllegalStateException if the current thread already has an active transaction
+     */
+    public default Transaction beginTransaction() {
+        return Transaction.none();
+    }
+
+
+    /**
+     * Gets all changes made to the AAS environment after the given version of the change journal. Changes made within
+     * a transaction become visible once it is committed, changes of rolled back transactions are never visible.
+     *
+     * <p>The default implementation does not keep a change journal. Implementations should override this method.
+     *
+     * @param journalId the id of the journal the version belongs to, may be null
+     * @param since the version to get the changes after
+     * @param limit the maximum number of changes to return
+     * @return the changes, incomplete if the requested changes are no longer available
+     * @throws IllegalArgumentException if limit is not positive
+     * @throws UnsupportedOperationException if the persistence does not keep a change journal
+     */
+    public default ChangeSet getChanges(String journalId, long since, int limit) {
+        throw new UnsupportedOperationException("persistence does not keep a change journal");
+    }
+
+
+    /**
+     * Gets the recorded values of a property within a time range. Values are recorded as reported by
+     * {@link de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage}s.
+     *
+     * <p>The default implementation does not keep a value history. Implementations should override this method.
+     *
+     * @param reference the reference to the property
+     * @param from the start of the time range in milliseconds since epoch (inclusive)
+     * @param to the end of the time range in milliseconds since epoch (inclusive)
+     * @return the recorded values ordered by timestamp
+     * @throws IllegalArgumentException if reference is null
+     * @throws UnsupportedOperationException if the persistence does not keep a value history
+     */
+    public default List<ValueSample> getValueHistory(Reference reference, long from, long to) {
+        throw new UnsupportedOperationException("persistence does not keep a value history");
+    }
+
+
+    /**
+     * Starts the persistence, e.g. subscribes to the message bus. Called when the service is started after the message
+     * bus has been started.
+     *
+     * @throws MessageBusException if subscribing to the message bus fails
+     */
+    public default void start() throws MessageBusException {}
+
+
+    /**
+     * Stops the persistence, e.g. writes pending changes and releases resources. Called when the service is stopped.
+     */
+    public default void stop() {}
+
 }
@@ -31,18 +31,54 @@ import java.util.Objects;
 public class PersistenceConfig<T extends Persistence> extends Config<T> {
 
     private static final boolean DEFAULT_DECOUPLE_ENVIRONMENT = true;
+    private static final boolean DEFAULT_COPY_ON_WRITE = false;
+    private static final boolean DEFAULT_BLOB_STORE = false;
+    private static final int DEFAULT_BLOB_STORE_MIN_SIZE = 4096;
+    private static final long DEFAULT_OPERATION_RESULT_TTL = 3600000;
+    private static final int DEFAULT_OPERATION_RESULT_MAX_ENTRIES = 10000;
+    private static final int DEFAULT_CHANGE_JOURNAL_MAX_ENTRIES = 0;
+    private static final int DEFAULT_VALUE_HISTORY_MAX_SAMPLES = 0;
+    private static final long DEFAULT_VALUE_HISTORY_RESOLUTION = 0;
+    private static final long DEFAULT_VALUE_HISTORY_RETENTION = 0;
     private File initialModel;
     private AssetAdministrationShellEnvironment environment;
     private boolean decoupleEnvironment;
+    private boolean copyOnWrite;
+    private boolean blobStore;
+    private int blobStoreMinSize;
+    private long operationResultTtl;
+    private int operationResultMaxEntries;
+    private int changeJournalMaxEntries;
+    private int valueHistoryMaxSamples;
+    private long valueHistoryResolution;
+    private long valueHistoryRetention;
 
     public PersistenceConfig(File initialModel) {
         this.initialModel = initialModel;
         decoupleEnvironment = DEFAULT_DECOUPLE_ENVIRONMENT;
+        copyOnWrite = DEFAULT_COPY_ON_WRITE;
+        blobStore = DEFAULT_BLOB_STORE;
+        blobStoreMinSize = DEFAULT_BLOB_STORE_MIN_SIZE;
+        operationResultTtl = DEFAULT_OPERATION_RESULT_TTL;
+        operationResultMaxEntries = DEFAULT_OPERATION_RESULT_MAX_ENTRIES;
+        changeJournalMaxEntries = DEFAULT_CHANGE_JOURNAL_MAX_ENTRIES;
+        valueHistoryMaxSamples = DEFAULT_VALUE_HISTORY_MAX_SAMPLES;
+        valueHistoryResolution = DEFAULT_VALUE_HISTORY_RESOLUTION;
+        valueHistoryRetention = DEFAULT_VALUE_HISTORY_RETENTION;
     }
 
 
     public PersistenceConfig() {
         decoupleEnvironment = DEFAULT_DECOUPLE_ENVIRONMENT;
+        copyOnWrite = DEFAULT_COPY_ON_WRITE;
+        blobStore = DEFAULT_BLOB_STORE;
+        blobStoreMinSize = DEFAULT_BLOB_STORE_MIN_SIZE;
+        operationResultTtl = DEFAULT_OPERATION_RESULT_TTL;
+        operationResultMaxEntries = DEFAULT_OPERATION_RESULT_MAX_ENTRIES;
+        changeJournalMaxEntries = DEFAULT_CHANGE_JOURNAL_MAX_ENTRIES;
+        valueHistoryMaxSamples = DEFAULT_VALUE_HISTORY_MAX_SAMPLES;
+        valueHistoryResolution = DEFAULT_VALUE_HISTORY_RESOLUTION;
+        valueHistoryRetention = DEFAULT_VALUE_HISTORY_RETENTION;
     }
 
 
@@ -97,6 +133,150 @@ public class PersistenceConfig<T extends Persistence> extends Config<T> {
     }
 
 
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+
+    /**
+     * If true then stored elements are never modified in place. Instead, every write replaces the affected
+     * identifiable by a modified copy. Read operations then return the stored instances without copying them, i.e.
+     * returned elements must be treated as read-only.
+     *
+     * @param copyOnWrite flag indicating whether to use copy-on-write
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+
+    public boolean isBlobStore() {
+        return blobStore;
+    }
+
+
+    /**
+     * If true then values of blobs are kept in memory-mapped files outside of the Java heap instead of in the model.
+     *
+     * @param blobStore flag indicating whether to use a blob store
+     */
+    public void setBlobStore(boolean blobStore) {
+        this.blobStore = blobStore;
+    }
+
+
+    public int getBlobStoreMinSize() {
+        return blobStoreMinSize;
+    }
+
+
+    /**
+     * Sets the minimum size in bytes of blob values to keep in the blob store. Smaller values are kept on the heap.
+     *
+     * @param blobStoreMinSize the minimum size in bytes
+     */
+    public void setBlobStoreMinSize(int blobStoreMinSize) {
+        this.blobStoreMinSize = blobStoreMinSize;
+    }
+
+
+    public long getOperationResultTtl() {
+        return operationResultTtl;
+    }
+
+
+    /**
+     * Sets the time in milliseconds results of finished asynchronous operations are kept after their last update.
+     * Values less than or equal to 0 keep results until they are evicted due to
+     * {@link #setOperationResultMaxEntries(int)}.
+     *
+     * @param operationResultTtl the time to live in milliseconds
+     */
+    public void setOperationResultTtl(long operationResultTtl) {
+        this.operationResultTtl = operationResultTtl;
+    }
+
+
+    public int getOperationResultMaxEntries() {
+        return operationResultMaxEntries;
+    }
+
+
+    /**
+     * Sets the maximum number of results of finished asynchronous operations to keep. If exceeded, the least recently
+     * used results are evicted. Results of running operations are always kept.
+     *
+     * @param operationResultMaxEntries the maximum number of results
+     */
+    public void setOperationResultMaxEntries(int operationResultMaxEntries) {
+        this.operationResultMaxEntries = operationResultMaxEntries;
+    }
+
+
+    public int getChangeJournalMaxEntries() {
+        return changeJournalMaxEntries;
+    }
+
+
+    /**
+     * Sets the maximum number of changes to keep in the change journal. If exceeded, the oldest changes are evicted and
+     * clients requesting them have to re-read the whole model. 0 disables the change journal, which is the default.
+     *
+     * @param changeJournalMaxEntries the maximum number of changes
+     */
+    public void setChangeJournalMaxEntries(int changeJournalMaxEntries) {
+        this.changeJournalMaxEntries = changeJournalMaxEntries;
+    }
+
+
+    public int getValueHistoryMaxSamples() {
+        return valueHistoryMaxSamples;
+    }
+
+
+    /**
+     * Sets the maximum number of values to keep per property in the value history. If exceeded, the oldest values are
+     * evicted. 0 disables the value history.
+     *
+     * @param valueHistoryMaxSamples the maximum number of values per property
+     */
+    public void setValueHistoryMaxSamples(int valueHistoryMaxSamples) {
+        this.valueHistoryMaxSamples = valueHistoryMaxSamples;
+    }
+
+
+    public long getValueHistoryResolution() {
+        return valueHistoryResolution;
+    }
+
+
+    /**
+     * Sets the resolution of the value history in milliseconds, i.e. only the latest value within each interval of this
+     * length is kept. Values less than or equal to 0 keep every value.
+     *
+     * @param valueHistoryResolution the resolution in milliseconds
+     */
+    public void setValueHistoryResolution(long valueHistoryResolution) {
+        this.valueHistoryResolution = valueHistoryResolution;
+    }
+
+
+    public long getValueHistoryRetention() {
+        return valueHistoryRetention;
+    }
+
+
+    /**
+     * Sets the time in milliseconds values are kept in the value history. Values less than or equal to 0 keep values
+     * until they are evicted due to {@link #setValueHistoryMaxSamples(int)}.
+     *
+     * @param valueHistoryRetention the retention time in milliseconds
+     */
+    public void setValueHistoryRetention(long valueHistoryRetention) {
+        this.valueHistoryRetention = valueHistoryRetention;
+    }
+
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -111,13 +291,24 @@ public class PersistenceConfig<T extends Persistence> extends Config<T> {
         final PersistenceConfig<?> other = (PersistenceConfig<?>) obj;
         return Objects.equals(this.initialModel, other.initialModel)
                 && Objects.equals(this.decoupleEnvironment, other.decoupleEnvironment)
+                && Objects.equals(this.copyOnWrite, other.copyOnWrite)
+                && Objects.equals(this.blobStore, other.blobStore)
+                && Objects.equals(this.blobStoreMinSize, other.blobStoreMinSize)
+                && Objects.equals(this.operationResultTtl, other.operationResultTtl)
+                && Objects.equals(this.operationResultMaxEntries, other.operationResultMaxEntries)
+                && Objects.equals(this.changeJournalMaxEntries, other.changeJournalMaxEntries)
+                && Objects.equals(this.valueHistoryMaxSamples, other.valueHistoryMaxSamples)
+                && Objects.equals(this.valueHistoryResolution, other.valueHistoryResolution)
+                && Objects.equals(this.valueHistoryRetention, other.valueHistoryRetention)
                 && Objects.equals(this.environment, other.environment);
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), this.initialModel, this.decoupleEnvironment, this.environment);
+        return Objects.hash(super.hashCode(), this.initialModel, this.decoupleEnvironment, this.copyOnWrite, this.blobStore, this.blobStoreMinSize,
+                this.operationResultTtl, this.operationResultMaxEntries, this.changeJournalMaxEntries, this.valueHistoryMaxSamples, this.valueHistoryResolution,
+                this.valueHistoryRetention, this.environment);
     }
 
     /**
@@ -146,6 +337,60 @@ public class PersistenceConfig<T extends Persistence> extends Config<T> {
             return getSelf();
         }
 
+
+        public B copyOnWrite(boolean value) {
+            getBuildingInstance().setCopyOnWrite(value);
+            return getSelf();
+        }
+
+
+        public B blobStore(boolean value) {
+            getBuildingInstance().setBlobStore(value);
+            return getSelf();
+        }
+
+
+        public B blobStoreMinSize(int value) {
+            getBuildingInstance().setBlobStoreMinSize(value);
+            return getSelf();
+        }
+
+
+        public B operationResultTtl(long value) {
+            getBuildingInstance().setOperationResultTtl(value);
+            return getSelf();
+        }
+
+
+        public B operationResultMaxEntries(int value) {
+            getBuildingInstance().setOperationResultMaxEntries(value);
+            return getSelf();
+        }
+
+
+        public B changeJournalMaxEntries(int value) {
+            getBuildingInstance().setChangeJournalMaxEntries(value);
+            return getSelf();
+        }
+
+
+        public B valueHistoryMaxSamples(int value) {
+            getBuildingInstance().setValueHistoryMaxSamples(value);
+            return getSelf();
+        }
+
+
+        public B valueHistoryResolution(long value) {
+            getBuildingInstance().setValueHistoryResolution(value);
+            return getSelf();
+        }
+
+
+        public B valueHistoryRetention(long value) {
+            getBuildingInstance().setValueHistoryRetention(value);
+            return getSelf();
+        }
+
     }
 
     /**
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence;
+
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.TransactionConflictException;
+
+
+/**
+ * A transaction spanning multiple write operations on a {@link Persistence}. Changes made by the thread that started
+ * the
+ * transaction become visible to others only as a whole, i.e. other threads either see the state before the transaction
+ * started or after it has been committed. A transaction that is neither committed nor rolled back is rolled back when
+ * closed, so it is intended to be used with try-with-resources.
+ *
+ * <p>A transaction must be finished by the thread that started it.
+ */
+public interface Transaction extends AutoCloseable {
+
+    /**
+     * Makes all changes of the transaction permanent and ends the transaction. If committing fails, all changes of the
+     * transaction are rolled back.
+     *
+     * @throws ResourceNotFoundException if a change can not be applied because the element it refers to does not exist
+     * @throws TransactionConflictException if the transaction conflicts with a concurrent modification
+     * @throws IllegalStateException if the transaction is not active
+     */
+    public void commit() throws ResourceNotFoundException;
+
+
+    /**
+     * Reverts all changes of the transaction and ends the transaction.
+     *
+     * @throws IllegalStateException if the transaction is not active
+     * @throws UnsupportedOperationException if the persistence does not support reverting changes
+     */
+    public void rollback();
+
+
+    /**
+     * Checks whether the transaction is still active, i.e. neither committed nor rolled back.
+     *
+     * @return true if active, otherwise false
+     */
+    public boolean isActive();
+
+
+    /**
+     * Rolls back the transaction if it is still active.
+     */
+    @Override
+    public default void close() {
+        if (isActive()) {
+            rollback();
+        }
+    }
+
+
+    /**
+     * Creates a transaction for persistences that do not support transactions. Changes are applied immediately and can
+     * not be rolled back, i.e. commit does nothing and the transaction never is active.
+     *
+     * @return a transaction without isolation
+     */
+    public static Transaction none() {
+        return new Transaction() {
+            @Override
+            public void commit() {
+                // changes are applied immediately
+            }
+
+
+            @Override
+            public void rollback() {
+                throw new UnsupportedOperationException("persistence does not support rolling back transactions");
+            }
+
+
+            @Override
+            public boolean isActive() {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.blob;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Immutable;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Handle to the content of a blob kept in a {@link BlobStore}. The content is held in a read-only memory-mapped buffer
+ * outside of the Java heap and is released once the handle is no longer referenced.
+ */
+@Immutable
+public final class BlobHandle {
+
+    private final ByteBuffer buffer;
+
+    BlobHandle(ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer();
+    }
+
+
+    /**
+     * Gets the size of the content in bytes.
+     *
+     * @return the size of the content
+     */
+    public int getSize() {
+        return buffer.capacity();
+    }
+
+
+    /**
+     * Reads the content into a new byte array on the heap.
+     *
+     * @return the content
+     */
+    public byte[] read() {
+        byte[] result = new byte[buffer.capacity()];
+        buffer.duplicate().rewind().get(result);
+        return result;
+    }
+
+
+    /**
+     * Opens a stream to read the content without copying it to the heap.
+     *
+     * @return stream of the content
+     */
+    public InputStream openStream() {
+        return new ByteBufferBackedInputStream(buffer.duplicate().rewind());
+    }
+}
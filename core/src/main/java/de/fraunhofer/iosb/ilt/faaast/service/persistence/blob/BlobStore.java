@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.blob;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.AnnotatedRelationshipElement;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.Blob;
+import io.adminshell.aas.v3.model.DataElement;
+import io.adminshell.aas.v3.model.Entity;
+import io.adminshell.aas.v3.model.Operation;
+import io.adminshell.aas.v3.model.OperationVariable;
+import io.adminshell.aas.v3.model.Referable;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultOperationVariable;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Keeps the values of {@link Blob}s in memory-mapped files outside of the Java heap. Values are referenced from the
+ * model via {@link StoredBlob} and {@link BlobHandle}. Each value is stored in a separate file which is deleted once
+ * its handle is no longer referenced. The directory is deleted together with the last file after the store has been
+ * closed.
+ *
+ * <p>Values smaller than a configurable minimum size are kept on the heap as the overhead of a separate file would
+ * outweigh the benefit.
+ */
+public class BlobStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlobStore.class);
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final String TEMP_DIRECTORY_PREFIX = "faaast-blobs";
+    private final Path directory;
+    private final int minSize;
+    private final AtomicBoolean closed;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param directory the directory to store the values in, will be created if it does not exist
+     * @param minSize minimum size in bytes of values to store
+     * @throws IOException if creating the directory fails
+     */
+    public BlobStore(Path directory, int minSize) throws IOException {
+        Ensure.requireNonNull(directory, "directory must be non-null");
+        Ensure.require(minSize >= 0, "minSize must be non-negative");
+        this.directory = Files.createDirectories(directory);
+        this.minSize = minSize;
+        this.closed = new AtomicBoolean(false);
+    }
+
+
+    /**
+     * Creates a new instance using a new temporary directory.
+     *
+     * @param minSize minimum size in bytes of values to store
+     * @return the new instance
+     * @throws IOException if creating the directory fails
+     */
+    public static BlobStore createTemporary(int minSize) throws IOException {
+        return new BlobStore(Files.createTempDirectory(TEMP_DIRECTORY_PREFIX), minSize);
+    }
+
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+
+    /**
+     * Stores a value.
+     *
+     * @param value the value
+     * @return handle to the stored value
+     * @throws IOException if writing the value fails
+     */
+    public BlobHandle put(byte[] value) throws IOException {
+        Ensure.requireNonNull(value, "value must be non-null");
+        Path file = directory.resolve(UUID.randomUUID().toString());
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer source = ByteBuffer.wrap(value);
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, value.length);
+        }
+        catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        BlobHandle result = new BlobHandle(buffer);
+        CLEANER.register(result, new DeleteFile(file, directory, closed));
+        return result;
+    }
+
+
+    /**
+     * Moves the values of all blobs within an environment into the store. The list of submodels of the environment is
+     * replaced if any submodel contains such a blob, the submodels themselves are not modified.
+     *
+     * @param environment the environment
+     */
+    public void externalize(AssetAdministrationShellEnvironment environment) {
+        if (environment != null && environment.getSubmodels() != null) {
+            environment.setSubmodels((List<Submodel>) externalizeAll(environment.getSubmodels()));
+        }
+    }
+
+
+    /**
+     * Moves the values of all blobs within an element into the store. The element is not modified. Instead, the blobs
+     * are replaced by {@link StoredBlob}s within a copy of the element that only copies the path to each replaced blob
+     * and shares everything else with the element.
+     *
+     * @param <T> type of the element
+     * @param referable the element
+     * @return the element itself if it does not contain any blob to store, otherwise its copy
+     */
+    public <T extends Referable> T externalize(T referable) {
+        if (referable == null) {
+            return null;
+        }
+        if (Blob.class.isAssignableFrom(referable.getClass())) {
+            return (T) externalizeBlob((Blob) referable);
+        }
+        if (Submodel.class.isAssignableFrom(referable.getClass())) {
+            Collection<SubmodelElement> elements = externalizeAll(((Submodel) referable).getSubmodelElements());
+            if (elements != ((Submodel) referable).getSubmodelElements()) {
+                Submodel result = DeepCopyHelper.shallowCopy(referable, Submodel.class);
+                result.setSubmodelElements((List<SubmodelElement>) elements);
+                return (T) result;
+            }
+        }
+        else if (SubmodelElementCollection.class.isAssignableFrom(referable.getClass())) {
+            Collection<SubmodelElement> values = externalizeAll(((SubmodelElementCollection) referable).getValues());
+            if (values != ((SubmodelElementCollection) referable).getValues()) {
+                SubmodelElementCollection result = DeepCopyHelper.shallowCopy(referable, SubmodelElementCollection.class);
+                result.setValues(values);
+                return (T) result;
+            }
+        }
+        else if (Entity.class.isAssignableFrom(referable.getClass())) {
+            Collection<SubmodelElement> statements = externalizeAll(((Entity) referable).getStatements());
+            if (statements != ((Entity) referable).getStatements()) {
+                Entity result = DeepCopyHelper.shallowCopy(referable, Entity.class);
+                result.setStatements((List<SubmodelElement>) statements);
+                return (T) result;
+            }
+        }
+        else if (AnnotatedRelationshipElement.class.isAssignableFrom(referable.getClass())) {
+            Collection<DataElement> annotations = externalizeAll(((AnnotatedRelationshipElement) referable).getAnnotations());
+            if (annotations != ((AnnotatedRelationshipElement) referable).getAnnotations()) {
+                AnnotatedRelationshipElement result = DeepCopyHelper.shallowCopy(referable, AnnotatedRelationshipElement.class);
+                result.setAnnotations((List<DataElement>) annotations);
+                return (T) result;
+            }
+        }
+        else if (Operation.class.isAssignableFrom(referable.getClass())) {
+            return (T) externalizeOperation((Operation) referable);
+        }
+        return referable;
+    }
+
+
+    /**
+     * Closes the store. Files are not deleted immediately as their values may still be referenced, e.g. by elements
+     * returned to readers. Instead, each file is deleted once its handle is no longer referenced and the directory is
+     * deleted together with the last file.
+     */
+    public void clear() {
+        closed.set(true);
+        deleteDirectoryIfEmpty(directory);
+    }
+
+
+    /**
+     * Externalizes all elements of a collection.
+     *
+     * @param <T> type of the elements
+     * @param elements the elements
+     * @return the collection itself if none of its elements has been replaced, otherwise a new list containing the
+     *         replacements
+     */
+    private <T extends Referable> Collection<T> externalizeAll(Collection<T> elements) {
+        if (elements == null) {
+            return null;
+        }
+        List<T> result = new ArrayList<>(elements.size());
+        boolean modified = false;
+        for (T element: elements) {
+            T replacement = externalize(element);
+            modified |= replacement != element;
+            result.add(replacement);
+        }
+        return modified ? result : elements;
+    }
+
+
+    private Operation externalizeOperation(Operation operation) {
+        List<OperationVariable> inputVariables = externalizeVariables(operation.getInputVariables());
+        List<OperationVariable> inoutputVariables = externalizeVariables(operation.getInoutputVariables());
+        List<OperationVariable> outputVariables = externalizeVariables(operation.getOutputVariables());
+        if (inputVariables == operation.getInputVariables()
+                && inoutputVariables == operation.getInoutputVariables()
+                && outputVariables == operation.getOutputVariables()) {
+            return operation;
+        }
+        Operation result = DeepCopyHelper.shallowCopy(operation, Operation.class);
+        result.setInputVariables(inputVariables);
+        result.setInoutputVariables(inoutputVariables);
+        result.setOutputVariables(outputVariables);
+        return result;
+    }
+
+
+    private List<OperationVariable> externalizeVariables(List<OperationVariable> variables) {
+        if (variables == null) {
+            return null;
+        }
+        List<OperationVariable> result = new ArrayList<>(variables.size());
+        boolean modified = false;
+        for (OperationVariable variable: variables) {
+            SubmodelElement value = variable != null ? externalize(variable.getValue()) : null;
+            if (variable != null && value != variable.getValue()) {
+                result.add(new DefaultOperationVariable.Builder()
+                        .value(value)
+                        .build());
+                modified = true;
+            }
+            else {
+                result.add(variable);
+            }
+        }
+        return modified ? result : variables;
+    }
+
+
+    private static void deleteDirectoryIfEmpty(Path directory) {
+        try {
+            Files.deleteIfExists(directory);
+        }
+        catch (DirectoryNotEmptyException e) {
+            // deleted together with the last file
+        }
+        catch (IOException e) {
+            LOGGER.debug("Could not delete blob store directory {}", directory, e);
+        }
+    }
+
+
+    private Blob externalizeBlob(Blob blob) {
+        if (StoredBlob.class.isAssignableFrom(blob.getClass()) && !hasInlineValue((StoredBlob) blob)) {
+            return blob;
+        }
+        byte[] value = StoredBlob.class.isAssignableFrom(blob.getClass())
+                ? ((StoredBlob) blob).getInlineValue()
+                : blob.getValue();
+        if (value == null || value.length < minSize) {
+            return blob;
+        }
+        try {
+            StoredBlob result = asStoredBlob(blob);
+            result.setHandle(put(value));
+            return result;
+        }
+        catch (IOException e) {
+            LOGGER.warn("Could not move value of blob to blob store, keeping it in memory (idShort: {})", blob.getIdShort(), e);
+            return blob;
+        }
+    }
+
+
+    private static boolean hasInlineValue(StoredBlob blob) {
+        return blob.getInlineValue() != null;
+    }
+
+
+    private static StoredBlob asStoredBlob(Blob blob) {
+        StoredBlob result = new StoredBlob();
+        result.setMimeType(blob.getMimeType());
+        result.setCategory(blob.getCategory());
+        result.setDescriptions(blob.getDescriptions());
+        result.setDisplayNames(blob.getDisplayNames());
+        result.setIdShort(blob.getIdShort());
+        result.setExtensions(blob.getExtensions());
+        result.setQualifiers(blob.getQualifiers());
+        result.setEmbeddedDataSpecifications(blob.getEmbeddedDataSpecifications());
+        result.setKind(blob.getKind());
+        result.setSemanticId(blob.getSemanticId());
+        return result;
+    }
+
+    private static class DeleteFile implements Runnable {
+
+        private final Path file;
+        private final Path directory;
+        private final AtomicBoolean closed;
+
+        private DeleteFile(Path file, Path directory, AtomicBoolean closed) {
+            this.file = file;
+            this.directory = directory;
+            this.closed = closed;
+        }
+
+
+        @Override
+        public void run() {
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException e) {
+                file.toFile().deleteOnExit();
+                return;
+            }
+            if (closed.get()) {
+                deleteDirectoryIfEmpty(directory);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.blob;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Derived;
+import io.adminshell.aas.v3.model.Blob;
+import io.adminshell.aas.v3.model.impl.DefaultBlob;
+import java.util.Arrays;
+import java.util.Objects;
+
+
+/**
+ * {@link Blob} whose value is kept in a {@link BlobStore} instead of on the heap. The value is only read from the store
+ * when accessed via {@link #getValue()}. Copies created by
+ * {@link de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper} share the same {@link BlobHandle}.
+ *
+ * <p>Setting a value keeps it on the heap until the blob is stored in the persistence again.
+ */
+public class StoredBlob extends DefaultBlob implements Blob {
+
+    private BlobHandle handle;
+
+    @JsonIgnore
+    public BlobHandle getHandle() {
+        return handle;
+    }
+
+
+    /**
+     * Sets the handle to the value in the blob store. Any value kept on the heap is discarded.
+     *
+     * @param handle the handle
+     */
+    public void setHandle(BlobHandle handle) {
+        this.handle = handle;
+        if (handle != null) {
+            super.setValue(null);
+        }
+    }
+
+
+    /**
+     * Gets the value if it is kept on the heap, i.e. if it is not kept in a {@link BlobStore}.
+     *
+     * @return the value kept on the heap or null
+     */
+    @JsonIgnore
+    public byte[] getInlineValue() {
+        return super.getValue();
+    }
+
+
+    /**
+     * Sets the value kept on the heap without discarding the handle.
+     *
+     * @param value the value
+     */
+    public void setInlineValue(byte[] value) {
+        super.setValue(value);
+    }
+
+
+    /**
+     * Checks whether the blob has a value without reading it.
+     *
+     * @return true if the blob has a value, otherwise false
+     */
+    public boolean hasValue() {
+        return handle != null || super.getValue() != null;
+    }
+
+
+    @Override
+    @Derived
+    public byte[] getValue() {
+        return handle != null ? handle.read() : super.getValue();
+    }
+
+
+    @Override
+    public void setValue(byte[] value) {
+        handle = null;
+        super.setValue(value);
+    }
+
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || !Blob.class.isAssignableFrom(obj.getClass())) {
+            return false;
+        }
+        Blob other = (Blob) obj;
+        return Objects.equals(getMimeType(), other.getMimeType())
+                && Objects.equals(getCategory(), other.getCategory())
+                && Objects.equals(getDescriptions(), other.getDescriptions())
+                && Objects.equals(getDisplayNames(), other.getDisplayNames())
+                && Objects.equals(getIdShort(), other.getIdShort())
+                && Objects.equals(getExtensions(), other.getExtensions())
+                && Objects.equals(getQualifiers(), other.getQualifiers())
+                && Objects.equals(getEmbeddedDataSpecifications(), other.getEmbeddedDataSpecifications())
+                && Objects.equals(getKind(), other.getKind())
+                && Objects.equals(getSemanticId(), other.getSemanticId())
+                && (hasSameHandle(other) || Arrays.equals(getValue(), other.getValue()));
+    }
+
+
+    private boolean hasSameHandle(Blob other) {
+        return handle != null
+                && StoredBlob.class.isAssignableFrom(other.getClass())
+                && handle == ((StoredBlob) other).handle;
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getMimeType(), getIdShort(), getSemanticId());
+    }
+}
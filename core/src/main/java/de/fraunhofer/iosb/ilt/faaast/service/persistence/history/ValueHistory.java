@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.history;
+
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.history.ValueSample;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementDeleteEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.Key;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Keeps a bounded history of the values of properties as reported by {@link ValueChangeEventMessage}s. For each
+ * property a separate {@link ValueSeries} is kept outside of the Java heap. Only numeric and boolean values are
+ * recorded, other values are ignored.
+ *
+ * <p>The history is reduced in two ways. If a resolution is set, at most one sample, i.e. the latest value, is kept per
+ * interval of that length. If a retention time is set, samples older than that are removed. Additionally, the number of
+ * samples per property is limited.
+ *
+ * <p>The history of an element is discarded when the element or any of its parents is deleted.
+ */
+public class ValueHistory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValueHistory.class);
+    private final int maxSamples;
+    private final long resolution;
+    private final long retention;
+    private final Map<List<String>, ValueSeries> series;
+    private final List<SubscriptionId> subscriptions;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSamples maximum number of samples to keep per property, 0 disables the history
+     * @param resolution length of the intervals in milliseconds to keep at most one sample for, values less than or
+     *            equal to 0 keep all samples
+     * @param retention time in milliseconds to keep samples, values less than or equal to 0 keep samples until they
+     *            are evicted due to maxSamples
+     * @throws IllegalArgumentException if maxSamples is negative
+     */
+    public ValueHistory(int maxSamples, long resolution, long retention) {
+        Ensure.require(maxSamples >= 0, "maxSamples must be non-negative");
+        this.maxSamples = maxSamples;
+        this.resolution = resolution;
+        this.retention = retention;
+        this.series = new ConcurrentHashMap<>();
+        this.subscriptions = new ArrayList<>();
+    }
+
+
+    /**
+     * Checks whether values are recorded.
+     *
+     * @return true if values are recorded, otherwise false
+     */
+    public boolean isEnabled() {
+        return maxSamples > 0;
+    }
+
+
+    /**
+     * Subscribes to value changes and deletions of elements. Does nothing if the history is disabled or already
+     * started.
+     *
+     * @param messageBus the message bus to subscribe to
+     * @throws MessageBusException if subscribing fails
+     */
+    public synchronized void start(MessageBus<?> messageBus) throws MessageBusException {
+        Ensure.requireNonNull(messageBus, "messageBus must be non-null");
+        if (!isEnabled() || !subscriptions.isEmpty()) {
+            return;
+        }
+        subscriptions.add(messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> record(x.getElement(), x.getNewValue(), System.currentTimeMillis()))));
+        subscriptions.add(messageBus.subscribe(SubscriptionInfo.create(
+                ElementDeleteEventMessage.class,
+                x -> remove(x.getElement()))));
+    }
+
+
+    /**
+     * Unsubscribes from the message bus and discards all recorded values.
+     *
+     * @param messageBus the message bus subscribed to
+     */
+    public synchronized void stop(MessageBus<?> messageBus) {
+        for (SubscriptionId subscription: subscriptions) {
+            try {
+                messageBus.unsubscribe(subscription);
+            }
+            catch (MessageBusException e) {
+                LOGGER.warn("unsubscribing value history from message bus failed", e);
+            }
+        }
+        subscriptions.clear();
+        series.clear();
+    }
+
+
+    /**
+     * Records a value. Values other than numeric or boolean property values are ignored.
+     *
+     * @param reference the reference to the property
+     * @param value the new value
+     * @param timestamp the timestamp in milliseconds since epoch
+     */
+    public void record(Reference reference, ElementValue value, long timestamp) {
+        if (!isEnabled() || reference == null) {
+            return;
+        }
+        Double number = toNumber(value);
+        if (number == null) {
+            return;
+        }
+        series.computeIfAbsent(toKey(reference), x -> new ValueSeries(maxSamples))
+                .add(timestamp, number, resolution, retention > 0 ? timestamp - retention : Long.MIN_VALUE);
+    }
+
+
+    /**
+     * Gets the recorded values of a property within a time range.
+     *
+     * @param reference the reference to the property
+     * @param from the start of the time range in milliseconds since epoch (inclusive)
+     * @param to the end of the time range in milliseconds since epoch (inclusive)
+     * @return the recorded values ordered by timestamp, empty if no values have been recorded
+     * @throws IllegalArgumentException if reference is null
+     */
+    public List<ValueSample> get(Reference reference, long from, long to) {
+        Ensure.requireNonNull(reference, "reference must be non-null");
+        ValueSeries values = series.get(toKey(reference));
+        if (values == null) {
+            return new ArrayList<>();
+        }
+        return values.get(retention > 0 ? Math.max(from, System.currentTimeMillis() - retention) : from, to);
+    }
+
+
+    /**
+     * Discards the recorded values of an element and all its children.
+     *
+     * @param reference the reference to the element
+     */
+    public void remove(Reference reference) {
+        if (reference == null) {
+            return;
+        }
+        List<String> prefix = toKey(reference);
+        if (prefix.isEmpty()) {
+            return;
+        }
+        series.keySet().removeIf(x -> x.size() >= prefix.size() && x.subList(0, prefix.size()).equals(prefix));
+    }
+
+
+    private static List<String> toKey(Reference reference) {
+        return reference.getKeys().stream()
+                .filter(x -> x.getType() != KeyElements.ASSET_ADMINISTRATION_SHELL)
+                .map(Key::getValue)
+                .collect(Collectors.toList());
+    }
+
+
+    private static Double toNumber(ElementValue value) {
+        if (!PropertyValue.class.isInstance(value) || ((PropertyValue) value).getValue() == null) {
+            return null;
+        }
+        Object raw = ((PropertyValue) value).getValue().getValue();
+        if (Number.class.isInstance(raw)) {
+            return ((Number) raw).doubleValue();
+        }
+        if (Boolean.class.isInstance(raw)) {
+            return Boolean.TRUE.equals(raw) ? 1.0 : 0.0;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.history;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.history.ValueSample;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+
+/**
+ * Bounded ring buffer of the recorded values of a single property. Timestamps and values are stored column-wise in a
+ * direct buffer outside of the Java heap, i.e. each sample takes 16 bytes regardless of the number of samples. The
+ * buffer grows on demand up to the maximum number of samples, afterwards the oldest samples are overwritten.
+ *
+ * <p>Samples are always ordered by timestamp. Samples older than the latest one are recorded with the timestamp of the
+ * latest one.
+ */
+class ValueSeries {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int SAMPLE_SIZE = Long.BYTES + Double.BYTES;
+    private final int maxSamples;
+    private LongBuffer timestamps;
+    private DoubleBuffer values;
+    private int capacity;
+    private int start;
+    private int size;
+
+    ValueSeries(int maxSamples) {
+        this.maxSamples = maxSamples;
+        allocate(Math.min(INITIAL_CAPACITY, maxSamples));
+    }
+
+
+    private void allocate(int newCapacity) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(newCapacity * SAMPLE_SIZE);
+        buffer.limit(newCapacity * Long.BYTES);
+        LongBuffer newTimestamps = buffer.slice().asLongBuffer();
+        buffer.limit(buffer.capacity());
+        buffer.position(newCapacity * Long.BYTES);
+        DoubleBuffer newValues = buffer.slice().asDoubleBuffer();
+        for (int i = 0; i < size; i++) {
+            newTimestamps.put(i, timestamps.get(index(i)));
+            newValues.put(i, values.get(index(i)));
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        capacity = newCapacity;
+        start = 0;
+    }
+
+
+    private int index(int position) {
+        return (start + position) % capacity;
+    }
+
+
+    /**
+     * Records a value. If resolution is positive and the latest sample belongs to the same interval of this length,
+     * the latest sample is replaced instead of adding a new one. Samples older than minTimestamp are removed.
+     *
+     * @param timestamp the timestamp in milliseconds since epoch
+     * @param value the value
+     * @param resolution the length of the intervals to keep at most one sample for in milliseconds
+     * @param minTimestamp the timestamp of the oldest sample to keep
+     */
+    synchronized void add(long timestamp, double value, long resolution, long minTimestamp) {
+        removeOlderThan(minTimestamp);
+        if (size > 0) {
+            int last = index(size - 1);
+            long lastTimestamp = timestamps.get(last);
+            timestamp = Math.max(timestamp, lastTimestamp);
+            if (resolution > 0 && Math.floorDiv(timestamp, resolution) == Math.floorDiv(lastTimestamp, resolution)) {
+                timestamps.put(last, timestamp);
+                values.put(last, value);
+                return;
+            }
+        }
+        if (size == capacity) {
+            if (capacity < maxSamples) {
+                allocate((int) Math.min((long) capacity * 2, maxSamples));
+            }
+            else {
+                start = index(1);
+                size--;
+            }
+        }
+        int next = index(size);
+        timestamps.put(next, timestamp);
+        values.put(next, value);
+        size++;
+    }
+
+
+    private void removeOlderThan(long minTimestamp) {
+        while (size > 0 && timestamps.get(start) < minTimestamp) {
+            start = index(1);
+            size--;
+        }
+    }
+
+
+    /**
+     * Gets all samples within a time range.
+     *
+     * @param from the start of the time range in milliseconds since epoch (inclusive)
+     * @param to the end of the time range in milliseconds since epoch (inclusive)
+     * @return the samples ordered by timestamp
+     */
+    synchronized List<ValueSample> get(long from, long to) {
+        List<ValueSample> result = new ArrayList<>();
+        for (int i = firstNotBefore(from); i < size; i++) {
+            long timestamp = timestamps.get(index(i));
+            if (timestamp > to) {
+                break;
+            }
+            result.add(ValueSample.builder()
+                    .timestamp(new Date(timestamp))
+                    .value(values.get(index(i)))
+                    .build());
+        }
+        return result;
+    }
+
+
+    private int firstNotBefore(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps.get(index(middle)) < timestamp) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -14,31 +14,33 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.persistence.manager;
 
-import com.google.common.base.Objects;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.GlobalAssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.SpecificAssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.EnvironmentHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.FilterHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.IdentifiableIndex;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.SubmodelElementIndex;
 import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
 import de.fraunhofer.iosb.ilt.faaast.service.util.IdentifierHelper;
-import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
 import io.adminshell.aas.v3.model.Asset;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
 import io.adminshell.aas.v3.model.ConceptDescription;
 import io.adminshell.aas.v3.model.Identifiable;
 import io.adminshell.aas.v3.model.Identifier;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
-import io.adminshell.aas.v3.model.impl.DefaultIdentifierKeyValuePair;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 
 
@@ -55,6 +57,36 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class IdentifiablePersistenceManager extends PersistenceManager {
 
+    private final IdentifiableIndex identifiableIndex;
+    private final SubmodelElementIndex submodelElementIndex;
+
+    public IdentifiablePersistenceManager() {
+        this(new IdentifiableIndex(), new SubmodelElementIndex());
+    }
+
+
+    /**
+     * Creates a new instance using existing indexes. The index of identifiables is re-created whenever a new
+     * environment is set, the index of submodel elements is updated when submodels are replaced or removed.
+     *
+     * @param identifiableIndex the index of identifiables
+     * @param submodelElementIndex the index of submodel elements
+     */
+    public IdentifiablePersistenceManager(IdentifiableIndex identifiableIndex, SubmodelElementIndex submodelElementIndex) {
+        Ensure.requireNonNull(identifiableIndex, "identifiableIndex must be non-null");
+        Ensure.requireNonNull(submodelElementIndex, "submodelElementIndex must be non-null");
+        this.identifiableIndex = identifiableIndex;
+        this.submodelElementIndex = submodelElementIndex;
+    }
+
+
+    @Override
+    public void setAasEnvironment(AssetAdministrationShellEnvironment aasEnvironment) {
+        super.setAasEnvironment(aasEnvironment);
+        identifiableIndex.rebuild(aasEnvironment);
+    }
+
+
     /**
      * Get an identifiable by its identifier.
      *
@@ -76,14 +108,11 @@ public class IdentifiablePersistenceManager extends PersistenceManager {
         if (id == null) {
             return null;
         }
-        return (T) Stream.of(aasEnvironment.getAssetAdministrationShells(),
-                aasEnvironment.getSubmodels(),
-                aasEnvironment.getConceptDescriptions(),
-                aasEnvironment.getAssets())
-                .flatMap(Collection::stream)
-                .filter(x -> x.getIdentification().getIdentifier().equalsIgnoreCase(id.getIdentifier()))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID, IdentifierHelper.asString(id))));
+        T result = identifiableIndex.get(id);
+        if (result == null) {
+            throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID, IdentifierHelper.asString(id)));
+        }
+        return (T) asResult(result, Identifiable.class);
     }
 
 
@@ -102,28 +131,53 @@ public class IdentifiablePersistenceManager extends PersistenceManager {
      */
     public List<AssetAdministrationShell> getAASs(String idShort, List<AssetIdentification> assetIds) {
         ensureInitialized();
-        List<AssetAdministrationShell> result = aasEnvironment.getAssetAdministrationShells()
-                .stream()
-                .filter(aas -> StringUtils.isAllBlank(idShort) || aas.getIdShort().equalsIgnoreCase(idShort))
-                // globalAssetId
-                .filter(aas -> assetIds == null || assetIds.stream().noneMatch(x -> GlobalAssetIdentification.class.isAssignableFrom(x.getClass()))
-                        || (aas.getAssetInformation() != null
-                                && assetIds.stream()
-                                        .filter(x -> GlobalAssetIdentification.class.isAssignableFrom(x.getClass()))
-                                        .map(GlobalAssetIdentification.class::cast)
-                                        .anyMatch(x -> Objects.equal(aas.getAssetInformation().getGlobalAssetId(), x.getReference()))))
-                // specificAssetId
-                .filter(aas -> assetIds == null || assetIds.stream().noneMatch(x -> SpecificAssetIdentification.class.isAssignableFrom(x.getClass()))
-                        || (aas.getAssetInformation() != null
-                                && assetIds.stream()
-                                        .filter(x -> SpecificAssetIdentification.class.isAssignableFrom(x.getClass()))
-                                        .map(x -> new DefaultIdentifierKeyValuePair.Builder()
-                                                .key(((SpecificAssetIdentification) x).getKey())
-                                                .value(((SpecificAssetIdentification) x).getValue())
-                                                .build())
-                                        .anyMatch(x -> aas.getAssetInformation().getSpecificAssetIds().contains(x))))
+        return asResult(findAASs(idShort, assetIds), AssetAdministrationShell.class);
+    }
+
+
+    /**
+     * Same as {@link #getAASs(String, List)} but only returns the page selected by pagingInfo. Only the elements of the
+     * page are copied.
+     *
+     * @param idShort of the searched asset administration shells
+     * @param assetIds list of asset identifications
+     * @param pagingInfo the paging information
+     * @return a page of asset administration shells matching the parameters
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    public Page<AssetAdministrationShell> getAASs(String idShort, List<AssetIdentification> assetIds, PagingInfo pagingInfo) {
+        ensureInitialized();
+        return page(candidateAASs(idShort, assetIds), x -> FilterHelper.matches(x, idShort, assetIds), pagingInfo)
+                .withContent(x -> asResult(x, AssetAdministrationShell.class));
+    }
+
+
+    private List<AssetAdministrationShell> findAASs(String idShort, List<AssetIdentification> assetIds) {
+        return candidateAASs(idShort, assetIds).stream()
+                .filter(x -> FilterHelper.matches(x, idShort, assetIds))
                 .collect(Collectors.toList());
-        return DeepCopyHelper.deepCopy(result, AssetAdministrationShell.class);
+    }
+
+
+    private List<AssetAdministrationShell> candidateAASs(String idShort, List<AssetIdentification> assetIds) {
+        List<AssetAdministrationShell> candidates = aasEnvironment.getAssetAdministrationShells();
+        if (!StringUtils.isAllBlank(idShort)) {
+            candidates = narrow(candidates, identifiableIndex.getByIdShort(AssetAdministrationShell.class, idShort));
+        }
+        if (assetIds != null) {
+            for (AssetIdentification assetId: assetIds) {
+                // multiple assetIds of the same kind are combined using OR, so only a single one can be used to narrow
+                if (GlobalAssetIdentification.class.isAssignableFrom(assetId.getClass()) && countOfType(assetIds, GlobalAssetIdentification.class) == 1) {
+                    candidates = narrow(candidates, identifiableIndex.getAssetAdministrationShellsByGlobalAssetId(((GlobalAssetIdentification) assetId).getReference()));
+                }
+                else if (SpecificAssetIdentification.class.isAssignableFrom(assetId.getClass()) && countOfType(assetIds, SpecificAssetIdentification.class) == 1) {
+                    candidates = narrow(candidates, identifiableIndex.getAssetAdministrationShellsBySpecificAssetId(
+                            ((SpecificAssetIdentification) assetId).getKey(),
+                            ((SpecificAssetIdentification) assetId).getValue()));
+                }
+            }
+        }
+        return candidates;
     }
 
 
@@ -137,13 +191,43 @@ public class IdentifiablePersistenceManager extends PersistenceManager {
      */
     public List<Submodel> getSubmodels(String idShort, Reference semanticId) {
         ensureInitialized();
-        List<Submodel> result = aasEnvironment.getSubmodels()
-                .stream()
-                .filter(x -> StringUtils.isAllBlank(idShort) || x.getIdShort().equalsIgnoreCase(idShort))
-                .filter(x -> semanticId == null || (x.getSemanticId() != null
-                        && ReferenceHelper.isEqualsIgnoringKeyType(x.getSemanticId(), semanticId)))
+        return asResult(findSubmodels(idShort, semanticId), Submodel.class);
+    }
+
+
+    /**
+     * Same as {@link #getSubmodels(String, Reference)} but only returns the page selected by pagingInfo. Only the
+     * elements of the page are copied.
+     *
+     * @param idShort of the searched submodels
+     * @param semanticId of the searched submodels
+     * @param pagingInfo the paging information
+     * @return a page of submodels matching the criteria
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    public Page<Submodel> getSubmodels(String idShort, Reference semanticId, PagingInfo pagingInfo) {
+        ensureInitialized();
+        return page(candidateSubmodels(idShort, semanticId), x -> FilterHelper.matches(x, idShort, semanticId), pagingInfo)
+                .withContent(x -> asResult(x, Submodel.class));
+    }
+
+
+    private List<Submodel> findSubmodels(String idShort, Reference semanticId) {
+        return candidateSubmodels(idShort, semanticId).stream()
+                .filter(x -> FilterHelper.matches(x, idShort, semanticId))
                 .collect(Collectors.toList());
-        return DeepCopyHelper.deepCopy(result, Submodel.class);
+    }
+
+
+    private List<Submodel> candidateSubmodels(String idShort, Reference semanticId) {
+        List<Submodel> candidates = aasEnvironment.getSubmodels();
+        if (!StringUtils.isAllBlank(idShort)) {
+            candidates = narrow(candidates, identifiableIndex.getByIdShort(Submodel.class, idShort));
+        }
+        if (semanticId != null) {
+            candidates = narrow(candidates, identifiableIndex.getSubmodelsBySemanticId(semanticId));
+        }
+        return candidates;
     }
 
 
@@ -158,16 +242,49 @@ public class IdentifiablePersistenceManager extends PersistenceManager {
      */
     public List<ConceptDescription> getConceptDescriptions(String idShort, Reference isCaseOf, Reference dataSpecification) {
         ensureInitialized();
-        List<ConceptDescription> result = aasEnvironment.getConceptDescriptions().stream()
-                .filter(x -> StringUtils.isAllBlank(idShort) || x.getIdShort().equalsIgnoreCase(idShort))
-                .filter(x -> isCaseOf == null || x.getIsCaseOfs().stream().anyMatch(y -> ReferenceHelper.isEqualsIgnoringKeyType(y, isCaseOf)))
-                .filter(x -> dataSpecification == null
-                        || (x.getEmbeddedDataSpecifications() != null
-                                && x.getEmbeddedDataSpecifications().stream()
-                                        .anyMatch(y -> y.getDataSpecification() != null
-                                                && ReferenceHelper.isEqualsIgnoringKeyType(y.getDataSpecification(), dataSpecification))))
+        return asResult(findConceptDescriptions(idShort, isCaseOf, dataSpecification), ConceptDescription.class);
+    }
+
+
+    /**
+     * Same as {@link #getConceptDescriptions(String, Reference, Reference)} but only returns the page selected by
+     * pagingInfo. Only the elements of the page are copied.
+     *
+     * @param idShort of the searched concept descriptions
+     * @param isCaseOf of the searched concept descriptions
+     * @param dataSpecification of the searched concept descriptions
+     * @param pagingInfo the paging information
+     * @return a page of all concept descriptions which matches at least one of the criteria
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    public Page<ConceptDescription> getConceptDescriptions(String idShort, Reference isCaseOf, Reference dataSpecification, PagingInfo pagingInfo) {
+        ensureInitialized();
+        return page(candidateConceptDescriptions(idShort, isCaseOf, dataSpecification),
+                x -> FilterHelper.matches(x, idShort, isCaseOf, dataSpecification),
+                pagingInfo)
+                        .withContent(x -> asResult(x, ConceptDescription.class));
+    }
+
+
+    private List<ConceptDescription> findConceptDescriptions(String idShort, Reference isCaseOf, Reference dataSpecification) {
+        return candidateConceptDescriptions(idShort, isCaseOf, dataSpecification).stream()
+                .filter(x -> FilterHelper.matches(x, idShort, isCaseOf, dataSpecification))
                 .collect(Collectors.toList());
-        return DeepCopyHelper.deepCopy(result, ConceptDescription.class);
+    }
+
+
+    private List<ConceptDescription> candidateConceptDescriptions(String idShort, Reference isCaseOf, Reference dataSpecification) {
+        List<ConceptDescription> candidates = aasEnvironment.getConceptDescriptions();
+        if (!StringUtils.isAllBlank(idShort)) {
+            candidates = narrow(candidates, identifiableIndex.getByIdShort(ConceptDescription.class, idShort));
+        }
+        if (isCaseOf != null) {
+            candidates = narrow(candidates, identifiableIndex.getConceptDescriptionsByIsCaseOf(isCaseOf));
+        }
+        if (dataSpecification != null) {
+            candidates = narrow(candidates, identifiableIndex.getConceptDescriptionsByDataSpecification(dataSpecification));
+        }
+        return candidates;
     }
 
 
@@ -188,20 +305,42 @@ public class IdentifiablePersistenceManager extends PersistenceManager {
         if (id == null) {
             return;
         }
-        Predicate<Identifiable> predicate = x -> x.getIdentification().getIdentifier().equalsIgnoreCase(id.getIdentifier());
-        if (aasEnvironment.getAssetAdministrationShells().removeIf(predicate)
-                || aasEnvironment.getConceptDescriptions().removeIf(predicate)
-                || aasEnvironment.getAssets().removeIf(predicate)) {
-            return;
+        Identifiable identifiable = identifiableIndex.get(AssetAdministrationShell.class, id);
+        if (identifiable == null) {
+            identifiable = identifiableIndex.get(ConceptDescription.class, id);
         }
-        Optional<Submodel> submodelToDelete = aasEnvironment.getSubmodels().stream().filter(predicate).findAny();
-        if (submodelToDelete.isPresent()) {
-            aasEnvironment.getSubmodels().remove(submodelToDelete.get());
-            Reference submodelRef = AasUtils.toReference(submodelToDelete.get());
-            aasEnvironment.getAssetAdministrationShells().forEach(x -> x.getSubmodels().remove(submodelRef));
-            return;
+        if (identifiable == null) {
+            identifiable = identifiableIndex.get(Asset.class, id);
+        }
+        if (identifiable == null) {
+            identifiable = identifiableIndex.get(Submodel.class, id);
+        }
+        if (identifiable == null) {
+            throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID, IdentifierHelper.asString(id)));
+        }
+        prepareListModification(identifiable.getClass());
+        EnvironmentHelper.removeFromList(listFor(identifiable), identifiable, identifiableIndex);
+        identifiableIndex.remove(identifiable);
+        if (Submodel.class.isAssignableFrom(identifiable.getClass())) {
+            submodelElementIndex.invalidate((Submodel) identifiable);
+            Reference submodelRef = AasUtils.toReference(identifiable);
+            if (copyOnWrite) {
+                prepareListModification(AssetAdministrationShell.class);
+                aasEnvironment.getAssetAdministrationShells().stream()
+                        .filter(x -> x.getSubmodels().contains(submodelRef))
+                        .collect(Collectors.toList())
+                        .forEach(x -> {
+                            AssetAdministrationShell aas = DeepCopyHelper.shallowCopy(x, AssetAdministrationShell.class);
+                            aas.setSubmodels(new ArrayList<>(x.getSubmodels()));
+                            aas.getSubmodels().remove(submodelRef);
+                            EnvironmentHelper.updateIdentifiableList(aasEnvironment.getAssetAdministrationShells(), x, aas, identifiableIndex);
+                            identifiableIndex.put(aas);
+                        });
+            }
+            else {
+                aasEnvironment.getAssetAdministrationShells().forEach(x -> x.getSubmodels().remove(submodelRef));
+            }
         }
-        throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID, IdentifierHelper.asString(id)));
     }
 
 
@@ -214,35 +353,91 @@ public class IdentifiablePersistenceManager extends PersistenceManager {
      * <li>{@link Asset}
      * </ul>
      *
+     * <p>If copy-on-write is enabled, a copy of the identifiable is stored so that later modifications of the passed
+     * instance do not affect the environment.
+     *
      * @param identifiable which should be added or updated
      * @return the added or updated identifiable
      */
     public Identifiable put(Identifiable identifiable) {
         ensureInitialized();
         Ensure.requireNonNull(identifiable, "identifiable must be non-null");
-        List<? extends Identifiable> list;
+        prepareListModification(identifiable.getClass());
+        List<? extends Identifiable> list = listFor(identifiable);
+        Identifiable stored = copyOnWrite
+                ? DeepCopyHelper.deepCopy(identifiable, Identifiable.class)
+                : identifiable;
+        Identifiable current = identifiableIndex.put(stored);
+        EnvironmentHelper.updateIdentifiableList(list, current, stored, identifiableIndex);
+        if (current != null && Submodel.class.isAssignableFrom(current.getClass())) {
+            submodelElementIndex.invalidate((Submodel) current);
+        }
+        return identifiable;
+    }
+
+
+    /**
+     * Selects a page of the candidates matching a filter. If the index is active, the candidates are sorted by their
+     * sequence number in the index and the cursor refers to the sequence number of the last returned element which is
+     * not affected by inserts and deletes. Otherwise, the cursor refers to the identifier of the last returned element.
+     *
+     * @param <T> type of the candidates
+     * @param candidates the candidates in the order of the environment
+     * @param filter the filter the elements must match
+     * @param pagingInfo the paging information
+     * @return the page
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    private <T extends Identifiable> Page<T> page(List<T> candidates, Predicate<T> filter, PagingInfo pagingInfo) {
+        if (identifiableIndex.isActive()) {
+            return Page.ofSorted(candidates, filter, pagingInfo, x -> Objects.requireNonNullElse(identifiableIndex.getSequence(x), -1L));
+        }
+        return Page.ofKeyed(candidates, filter, pagingInfo, x -> x.getIdentification() != null
+                ? x.getIdentification().getIdentifier()
+                : null);
+    }
+
+
+    /**
+     * Chooses the smaller list of candidates. Candidates obtained from the index are in the same order as in the
+     * environment so that narrowing does not affect the order of the result.
+     *
+     * @param <T> type of the candidates
+     * @param candidates the current candidates
+     * @param indexed candidates obtained from the index, null if the index could not be used
+     * @return the smaller list of candidates
+     */
+    private static <T> List<T> narrow(List<T> candidates, List<T> indexed) {
+        return indexed != null && indexed.size() < candidates.size() ? indexed : candidates;
+    }
+
+
+    private static long countOfType(List<AssetIdentification> assetIds, Class<? extends AssetIdentification> type) {
+        return assetIds.stream()
+                .filter(x -> type.isAssignableFrom(x.getClass()))
+                .count();
+    }
+
+
+    private List<? extends Identifiable> listFor(Identifiable identifiable) {
         if (Submodel.class.isAssignableFrom(identifiable.getClass())) {
-            list = aasEnvironment.getSubmodels();
+            return aasEnvironment.getSubmodels();
         }
         else if (AssetAdministrationShell.class.isAssignableFrom(identifiable.getClass())) {
-            list = aasEnvironment.getAssetAdministrationShells();
+            return aasEnvironment.getAssetAdministrationShells();
         }
         else if (ConceptDescription.class.isAssignableFrom(identifiable.getClass())) {
-            list = aasEnvironment.getConceptDescriptions();
+            return aasEnvironment.getConceptDescriptions();
         }
         else if (Asset.class.isAssignableFrom(identifiable.getClass())) {
-            list = aasEnvironment.getAssets();
-        }
-        else {
-            throw new IllegalArgumentException(String.format("illegal type for identifiable: %s. Must be one of: %s, %s, %s, %s",
-                    identifiable.getClass(),
-                    Submodel.class,
-                    AssetAdministrationShell.class,
-                    ConceptDescription.class,
-                    Asset.class));
+            return aasEnvironment.getAssets();
         }
-        EnvironmentHelper.updateIdentifiableList(list, identifiable);
-        return identifiable;
+        throw new IllegalArgumentException(String.format("illegal type for identifiable: %s. Must be one of: %s, %s, %s, %s",
+                identifiable.getClass(),
+                Submodel.class,
+                AssetAdministrationShell.class,
+                ConceptDescription.class,
+                Asset.class));
     }
 
 }
@@ -14,8 +14,17 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.persistence.manager;
 
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.Asset;
+import io.adminshell.aas.v3.model.AssetAdministrationShell;
 import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.ConceptDescription;
+import io.adminshell.aas.v3.model.Identifiable;
+import io.adminshell.aas.v3.model.Referable;
+import io.adminshell.aas.v3.model.Submodel;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -27,12 +36,83 @@ public abstract class PersistenceManager {
     protected static final String ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID = "Resource not found by id %s";
 
     protected AssetAdministrationShellEnvironment aasEnvironment;
+    protected boolean copyOnWrite;
 
     public void setAasEnvironment(AssetAdministrationShellEnvironment aasEnvironment) {
         this.aasEnvironment = aasEnvironment;
     }
 
 
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+
+    /**
+     * Enables or disables copy-on-write. If enabled, elements of the environment are never modified in place and
+     * results of read operations are not copied.
+     *
+     * @param copyOnWrite true to enable copy-on-write
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+
+    /**
+     * Prepares a list of elements of the environment to be returned to the caller. Without copy-on-write, the elements
+     * are deep copied as the caller may modify them.
+     *
+     * @param <T> type of the elements
+     * @param list the elements
+     * @param type type of the elements
+     * @return the elements to return
+     */
+    protected <T extends Referable> List<T> asResult(List<T> list, Class<T> type) {
+        return copyOnWrite ? list : DeepCopyHelper.deepCopy(list, type);
+    }
+
+
+    /**
+     * Prepares an element of the environment to be returned to the caller. Without copy-on-write, the element is deep
+     * copied as the caller may modify it.
+     *
+     * @param <T> type of the element
+     * @param element the element
+     * @param type type of the element
+     * @return the element to return
+     */
+    protected <T extends Referable> T asResult(T element, Class<T> type) {
+        return copyOnWrite ? element : DeepCopyHelper.deepCopy(element, type);
+    }
+
+
+    /**
+     * Replaces the top-level list of the environment containing identifiables of the given type by a copy if
+     * copy-on-write is enabled. Must be called before modifying the list so that lists handed out earlier remain
+     * unchanged.
+     *
+     * @param type type of the identifiables contained in the list to modify
+     */
+    protected void prepareListModification(Class<? extends Identifiable> type) {
+        if (!copyOnWrite) {
+            return;
+        }
+        if (AssetAdministrationShell.class.isAssignableFrom(type)) {
+            aasEnvironment.setAssetAdministrationShells(new ArrayList<>(aasEnvironment.getAssetAdministrationShells()));
+        }
+        else if (Submodel.class.isAssignableFrom(type)) {
+            aasEnvironment.setSubmodels(new ArrayList<>(aasEnvironment.getSubmodels()));
+        }
+        else if (ConceptDescription.class.isAssignableFrom(type)) {
+            aasEnvironment.setConceptDescriptions(new ArrayList<>(aasEnvironment.getConceptDescriptions()));
+        }
+        else if (Asset.class.isAssignableFrom(type)) {
+            aasEnvironment.setAssets(new ArrayList<>(aasEnvironment.getAssets()));
+        }
+    }
+
+
     /**
      * Helper method to ensure persistence manager is property initialized.
      *
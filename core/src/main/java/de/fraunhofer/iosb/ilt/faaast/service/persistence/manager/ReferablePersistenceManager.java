@@ -17,23 +17,36 @@ package de.fraunhofer.iosb.ilt.faaast.service.persistence.manager;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Extent;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.visitor.AssetAdministrationShellElementWalker;
 import de.fraunhofer.iosb.ilt.faaast.service.model.visitor.DefaultAssetAdministrationShellElementVisitor;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.EnvironmentHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.FilterHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.IdentifiableIndex;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.SubmodelElementIndex;
 import de.fraunhofer.iosb.ilt.faaast.service.util.CollectionHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
 import io.adminshell.aas.v3.model.Blob;
+import io.adminshell.aas.v3.model.Identifiable;
+import io.adminshell.aas.v3.model.Key;
 import io.adminshell.aas.v3.model.Referable;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
 import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 
 /**
@@ -41,6 +54,51 @@ import java.util.Objects;
  */
 public class ReferablePersistenceManager extends PersistenceManager {
 
+    private final IdentifiableIndex identifiableIndex;
+    private final SubmodelElementIndex submodelElementIndex;
+
+    public ReferablePersistenceManager() {
+        this(new IdentifiableIndex(), new SubmodelElementIndex());
+    }
+
+
+    /**
+     * Creates a new instance that uses the given indexes for lookups and keeps them up to date when modifying the
+     * environment.
+     *
+     * @param identifiableIndex the index of identifiables
+     * @param submodelElementIndex the index of submodel elements
+     */
+    public ReferablePersistenceManager(IdentifiableIndex identifiableIndex, SubmodelElementIndex submodelElementIndex) {
+        Ensure.requireNonNull(identifiableIndex, "identifiableIndex must be non-null");
+        Ensure.requireNonNull(submodelElementIndex, "submodelElementIndex must be non-null");
+        this.identifiableIndex = identifiableIndex;
+        this.submodelElementIndex = submodelElementIndex;
+    }
+
+
+    @Override
+    public void setAasEnvironment(AssetAdministrationShellEnvironment aasEnvironment) {
+        super.setAasEnvironment(aasEnvironment);
+        submodelElementIndex.clear();
+    }
+
+
+    /**
+     * Resolves a reference to the referenced element. References to submodels or submodel elements are resolved using
+     * the submodel element index, all others using
+     * {@link AasUtils#resolve(Reference, AssetAdministrationShellEnvironment)}.
+     *
+     * @param reference the reference to resolve
+     * @return the referenced element or null if the reference could not be resolved
+     * @throws IllegalArgumentException if resolving the reference fails
+     */
+    public Referable resolve(Reference reference) {
+        ensureInitialized();
+        return resolve(reference, Referable.class);
+    }
+
+
     /**
      * Get a submodel element by reference.
      *
@@ -56,8 +114,9 @@ public class ReferablePersistenceManager extends PersistenceManager {
             return null;
         }
         try {
-            SubmodelElement result = DeepCopyHelper.deepCopy(AasUtils.resolve(reference, aasEnvironment, SubmodelElement.class), SubmodelElement.class);
-            if (result != null && modifier.getExtent() == Extent.WITHOUT_BLOB_VALUE && Blob.class.isAssignableFrom(result.getClass())) {
+            SubmodelElement result = asResult(resolve(reference, SubmodelElement.class), SubmodelElement.class);
+            // with copy-on-write the result is shared and the modifier must be applied by the caller as projection
+            if (!copyOnWrite && result != null && modifier.getExtent() == Extent.WITHOUT_BLOB_VALUE && Blob.class.isAssignableFrom(result.getClass())) {
                 ((Blob) result).setValue(null);
             }
             return result;
@@ -84,10 +143,45 @@ public class ReferablePersistenceManager extends PersistenceManager {
      */
     public List<SubmodelElement> getSubmodelElements(Reference reference, Reference semanticId) throws ResourceNotFoundException {
         ensureInitialized();
+        return asResult(findSubmodelElements(reference, semanticId), SubmodelElement.class);
+    }
+
+
+    /**
+     * Same as {@link #getSubmodelElements(Reference, Reference)} but only returns the page selected by pagingInfo. Only
+     * the elements of the page are copied. The cursor refers to the idShort of the last returned element, see
+     * {@link Page#ofKeyed(List, java.util.function.Predicate, PagingInfo, java.util.function.Function)}.
+     *
+     * @param reference to the submodel or submodel element collection
+     * @param semanticId of the searched submodel elements
+     * @param pagingInfo the paging information
+     * @return a page of submodel elements
+     * @throws ResourceNotFoundException if resource is not found
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    public Page<SubmodelElement> getSubmodelElements(Reference reference, Reference semanticId, PagingInfo pagingInfo) throws ResourceNotFoundException {
+        ensureInitialized();
+        return Page.ofKeyed(candidateSubmodelElements(reference), x -> semanticId == null || FilterHelper.matches(x, semanticId), pagingInfo, SubmodelElement::getIdShort)
+                .withContent(x -> asResult(x, SubmodelElement.class));
+    }
+
+
+    private List<SubmodelElement> findSubmodelElements(Reference reference, Reference semanticId) throws ResourceNotFoundException {
+        List<SubmodelElement> result = candidateSubmodelElements(reference);
+        if (semanticId != null) {
+            return result.stream()
+                    .filter(x -> FilterHelper.matches(x, semanticId))
+                    .collect(Collectors.toList());
+        }
+        return new ArrayList<>(result);
+    }
+
+
+    private List<SubmodelElement> candidateSubmodelElements(Reference reference) throws ResourceNotFoundException {
         if (reference == null || reference.getKeys() == null || reference.getKeys().isEmpty()) {
             return List.of();
         }
-        Referable referable = AasUtils.resolve(reference, aasEnvironment);
+        Referable referable = resolve(reference, Referable.class);
         if (referable == null) {
             throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, AasUtils.asString(reference)));
         }
@@ -98,10 +192,9 @@ public class ReferablePersistenceManager extends PersistenceManager {
         else if (SubmodelElementCollection.class.isAssignableFrom(referable.getClass())) {
             result = ((SubmodelElementCollection) referable).getValues();
         }
-        if (semanticId != null) {
-            result.removeIf(x -> !Objects.equals(x.getSemanticId(), semanticId));
-        }
-        return DeepCopyHelper.deepCopy(result, SubmodelElement.class);
+        return result instanceof List
+                ? (List<SubmodelElement>) result
+                : new ArrayList<>(result);
     }
 
 
@@ -129,33 +222,103 @@ public class ReferablePersistenceManager extends PersistenceManager {
                 ? ReferenceHelper.getParent(reference)
                 : parent;
         Ensure.requireNonNull(parentRef, "could not determine parent reference");
-        Referable referable = AasUtils.resolve(parentRef, aasEnvironment);
+        return put(parentRef, submodelElement, -1);
+    }
+
+
+    /**
+     * Inserts a submodel element at a given position within its parent, e.g. to restore an element that has been
+     * removed. An existing element with the same idShort is replaced.
+     *
+     * @param parent reference to the parent
+     * @param submodelElement the submodel element to insert
+     * @param position the position within the parent, if negative or greater than the number of elements of the parent
+     *            the element is appended
+     * @return the inserted submodel element
+     * @throws ResourceNotFoundException if the parent is not found
+     */
+    public SubmodelElement insertSubmodelElement(Reference parent, SubmodelElement submodelElement, int position) throws ResourceNotFoundException {
+        ensureInitialized();
+        Ensure.requireNonNull(submodelElement, "submodelElement must be non-null");
+        Ensure.require(!ReferenceHelper.isNullOrEmpty(parent), "parent must be non-empty");
+        return put(parent, submodelElement, Math.max(position, 0));
+    }
+
+
+    /**
+     * Gets the position of a submodel element within its parent.
+     *
+     * @param reference reference to the submodel element
+     * @return the position or -1 if the submodel element is not found
+     */
+    public int indexOf(Reference reference) {
+        ensureInitialized();
+        Reference parentRef = ReferenceHelper.getParent(reference);
+        if (ReferenceHelper.isNullOrEmpty(parentRef)) {
+            return -1;
+        }
+        Referable element = resolve(reference, Referable.class);
+        Referable parent = resolve(parentRef, Referable.class);
+        if (element == null || parent == null) {
+            return -1;
+        }
+        int index = 0;
+        for (SubmodelElement child: childrenOf(parent)) {
+            if (child == element) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+
+    private SubmodelElement put(Reference parentRef, SubmodelElement submodelElement, int position) throws ResourceNotFoundException {
+        detachSubmodel(parentRef);
+        Referable referable = resolve(parentRef, Referable.class);
         if (referable == null) {
             throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, AasUtils.asString(parentRef)));
         }
-        Collection<SubmodelElement> submodelElements;
-        if (Submodel.class.isAssignableFrom(referable.getClass())) {
-            submodelElements = ((Submodel) referable).getSubmodelElements();
+        Collection<SubmodelElement> submodelElements = childrenOf(referable);
+        SubmodelElement current = submodelElements.stream()
+                .filter(x -> x.getIdShort().equalsIgnoreCase(submodelElement.getIdShort()))
+                .findFirst()
+                .orElse(null);
+        if (position < 0) {
+            CollectionHelper.put(submodelElements, current, submodelElement);
         }
-        else if (SubmodelElementCollection.class.isAssignableFrom(referable.getClass())) {
-            submodelElements = ((SubmodelElementCollection) referable).getValues();
+        else {
+            submodelElements.removeIf(x -> x == current);
+            CollectionHelper.add(submodelElements, Math.min(position, submodelElements.size()), submodelElement);
+        }
+        ElementLocation parentLocation = locate(parentRef);
+        if (parentLocation == null) {
+            submodelElementIndex.clear();
         }
         else {
-            throw new IllegalArgumentException(String.format("illegal parent type %s, must be one of %s, %s",
-                    referable.getClass(),
-                    Submodel.class,
-                    SubmodelElementCollection.class));
-        }
-        CollectionHelper.put(submodelElements,
-                submodelElements.stream()
-                        .filter(x -> x.getIdShort().equalsIgnoreCase(submodelElement.getIdShort()))
-                        .findFirst()
-                        .orElse(null),
-                submodelElement);
+            if (current != null) {
+                submodelElementIndex.remove(parentLocation.submodel, parentLocation.childPath(current.getIdShort()));
+            }
+            submodelElementIndex.put(parentLocation.submodel, parentLocation.idShortPath, referable, submodelElement);
+        }
         return submodelElement;
     }
 
 
+    private static Collection<SubmodelElement> childrenOf(Referable parent) {
+        if (Submodel.class.isAssignableFrom(parent.getClass())) {
+            return ((Submodel) parent).getSubmodelElements();
+        }
+        if (SubmodelElementCollection.class.isAssignableFrom(parent.getClass())) {
+            return ((SubmodelElementCollection) parent).getValues();
+        }
+        throw new IllegalArgumentException(String.format("illegal parent type %s, must be one of %s, %s",
+                parent.getClass(),
+                Submodel.class,
+                SubmodelElementCollection.class));
+    }
+
+
     /**
      * Remove a {@link Referable}.
      *
@@ -164,47 +327,224 @@ public class ReferablePersistenceManager extends PersistenceManager {
      */
     public void remove(Reference reference) throws ResourceNotFoundException {
         Ensure.require(!ReferenceHelper.isNullOrEmpty(reference), "reference must be non-empty");
-        final Referable referable = AasUtils.resolve(reference, aasEnvironment);
+        Reference parentRef = ReferenceHelper.getParent(reference);
+        if (parentRef != null) {
+            detachSubmodel(parentRef);
+        }
+        final Referable referable = resolve(reference, Referable.class);
         if (referable == null) {
             throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, AasUtils.asString(reference)));
         }
-        Reference parentRef = ReferenceHelper.getParent(reference);
         if (parentRef == null) {
+            prepareListModification(((Identifiable) referable).getClass());
             AssetAdministrationShellElementWalker.builder()
                     .visitor(new DefaultAssetAdministrationShellElementVisitor() {
                         @Override
                         public void visit(AssetAdministrationShell assetAdministrationShell) {
-                            aasEnvironment.getAssetAdministrationShells().remove(assetAdministrationShell);
+                            EnvironmentHelper.removeFromList(aasEnvironment.getAssetAdministrationShells(), assetAdministrationShell, identifiableIndex);
+                            identifiableIndex.remove(assetAdministrationShell);
                         }
 
 
                         @Override
                         public void visit(Submodel submodel) {
-                            aasEnvironment.getSubmodels().remove(submodel);
+                            EnvironmentHelper.removeFromList(aasEnvironment.getSubmodels(), submodel, identifiableIndex);
+                            identifiableIndex.remove(submodel);
+                            submodelElementIndex.invalidate(submodel);
                         }
                     })
                     .build()
                     .walk(referable);
             return;
         }
-        Referable parent = AasUtils.resolve(parentRef, aasEnvironment);
+        Referable parent = resolve(parentRef, Referable.class);
         Ensure.requireNonNull(parent, String.format("unable to resolve parent reference: %s", AasUtils.asString(parentRef)));
-        AssetAdministrationShellElementWalker.builder()
-                .visitor(new DefaultAssetAdministrationShellElementVisitor() {
-                    @Override
-                    public void visit(SubmodelElementCollection submodelElementCollection) {
-                        // type-safety guaranteed
-                        submodelElementCollection.getValues().remove(referable);
-                    }
-
-
-                    @Override
-                    public void visit(Submodel submodel) {
-                        // type-safety guaranteed
-                        submodel.getSubmodelElements().remove(referable);
-                    }
-                })
-                .build()
-                .walk(parent);
+        if (SubmodelElementCollection.class.isAssignableFrom(parent.getClass())) {
+            ((SubmodelElementCollection) parent).getValues().removeIf(x -> x == referable);
+        }
+        else if (Submodel.class.isAssignableFrom(parent.getClass())) {
+            ((Submodel) parent).getSubmodelElements().removeIf(x -> x == referable);
+        }
+        ElementLocation location = locate(reference);
+        if (location == null) {
+            submodelElementIndex.clear();
+        }
+        else {
+            submodelElementIndex.remove(location.submodel, location.idShortPath);
+        }
+    }
+
+
+    /**
+     * Replaces the submodel a reference points into by a copy if copy-on-write is enabled, so that the children of the
+     * referenced container can be modified without affecting instances handed out earlier. Only the submodel and the
+     * collections along the path to the referenced container are copied, all other elements are shared with the
+     * previous version.
+     *
+     * @param reference reference to the submodel or a collection within the submodel
+     */
+    private void detachSubmodel(Reference reference) {
+        if (!copyOnWrite) {
+            return;
+        }
+        List<Key> keys = reference.getKeys();
+        int submodelKeyIndex = -1;
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            Class<?> keyType = AasUtils.keyTypeToClass(keys.get(i).getType());
+            if (keyType != null && Identifiable.class.isAssignableFrom(keyType)) {
+                if (Submodel.class.isAssignableFrom(keyType)) {
+                    submodelKeyIndex = i;
+                }
+                break;
+            }
+        }
+        if (submodelKeyIndex < 0 || keys.get(submodelKeyIndex).getValue() == null) {
+            return;
+        }
+        Submodel current = identifiableIndex.get(Submodel.class, new DefaultIdentifier.Builder()
+                .identifier(keys.get(submodelKeyIndex).getValue())
+                .build());
+        if (current == null) {
+            return;
+        }
+        Submodel copy = DeepCopyHelper.shallowCopy(current, Submodel.class);
+        List<SubmodelElement> children = detachChildren(copy);
+        List<String> idShortPath = new ArrayList<>();
+        for (Key key: keys.subList(submodelKeyIndex + 1, keys.size())) {
+            int index = indexOf(children, key.getValue());
+            if (index < 0 || !SubmodelElementCollection.class.isAssignableFrom(children.get(index).getClass())) {
+                break;
+            }
+            SubmodelElementCollection collection = DeepCopyHelper.shallowCopy(children.get(index), SubmodelElementCollection.class);
+            children.set(index, collection);
+            children = detachChildren(collection);
+            idShortPath.add(key.getValue());
+        }
+        prepareListModification(Submodel.class);
+        EnvironmentHelper.updateIdentifiableList(aasEnvironment.getSubmodels(), current, copy, identifiableIndex);
+        identifiableIndex.put(copy);
+        submodelElementIndex.replace(current, copy, idShortPath);
+    }
+
+
+    /**
+     * Replaces the children of a container by a copy of the list of its children.
+     *
+     * @param container the submodel or collection
+     * @return the copied list of children
+     */
+    private static List<SubmodelElement> detachChildren(Referable container) {
+        List<SubmodelElement> result = new ArrayList<>(childrenOf(container));
+        if (Submodel.class.isAssignableFrom(container.getClass())) {
+            ((Submodel) container).setSubmodelElements(result);
+        }
+        else {
+            ((SubmodelElementCollection) container).setValues(result);
+        }
+        return result;
+    }
+
+
+    private static int indexOf(List<SubmodelElement> elements, String idShort) {
+        for (int i = 0; i < elements.size(); i++) {
+            if (Objects.equals(elements.get(i).getIdShort(), idShort)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    private <T extends Referable> T resolve(Reference reference, Class<T> type) {
+        T result = resolveFromIndex(reference, type);
+        return result != null
+                ? result
+                : AasUtils.resolve(reference, aasEnvironment, type);
+    }
+
+
+    private <T extends Referable> T resolveFromIndex(Reference reference, Class<T> type) {
+        if (!submodelElementIndex.isActive() || ReferenceHelper.isNullOrEmpty(reference)) {
+            return null;
+        }
+        Class<?> actualType = AasUtils.keyTypeToClass(reference.getKeys().get(reference.getKeys().size() - 1).getType());
+        if (actualType == null || !type.isAssignableFrom(actualType)) {
+            return null;
+        }
+        ElementLocation location = locate(reference);
+        if (location == null) {
+            return null;
+        }
+        Referable result = location.idShortPath.isEmpty()
+                ? location.submodel
+                : Optional.ofNullable(submodelElementIndex.get(location.submodel, location.idShortPath))
+                        .map(SubmodelElementIndex.Entry::getElement)
+                        .orElse(null);
+        return type.isInstance(result) ? type.cast(result) : null;
+    }
+
+
+    /**
+     * Determines the submodel and the idShort path of the element identified by a reference. Mirrors the behavior of
+     * {@link AasUtils#resolve(Reference, AssetAdministrationShellEnvironment)}, i.e. resolution starts at the last key
+     * referencing an identifiable which must be a submodel.
+     *
+     * @param reference the reference
+     * @return the location or null if the reference does not point to a submodel or an element within a submodel
+     */
+    private ElementLocation locate(Reference reference) {
+        List<Key> keys = reference.getKeys();
+        int submodelKeyIndex = -1;
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            Class<?> keyType = AasUtils.keyTypeToClass(keys.get(i).getType());
+            if (keyType != null && Identifiable.class.isAssignableFrom(keyType)) {
+                if (Submodel.class.isAssignableFrom(keyType)) {
+                    submodelKeyIndex = i;
+                }
+                break;
+            }
+        }
+        if (submodelKeyIndex < 0) {
+            return null;
+        }
+        Key submodelKey = keys.get(submodelKeyIndex);
+        if (submodelKey.getValue() == null || submodelKey.getIdType() == null) {
+            return null;
+        }
+        Submodel submodel = identifiableIndex.get(Submodel.class, new DefaultIdentifier.Builder()
+                .identifier(submodelKey.getValue())
+                .build());
+        if (submodel == null
+                || !submodelKey.getValue().equals(submodel.getIdentification().getIdentifier())
+                || submodel.getIdentification().getIdType() == null
+                || !submodelKey.getIdType().name().equals(submodel.getIdentification().getIdType().name())) {
+            return null;
+        }
+        List<String> idShortPath = new ArrayList<>();
+        for (int i = submodelKeyIndex + 1; i < keys.size(); i++) {
+            if (AasUtils.keyTypeToClass(keys.get(i).getType()) == null || keys.get(i).getValue() == null) {
+                return null;
+            }
+            idShortPath.add(keys.get(i).getValue());
+        }
+        return new ElementLocation(submodel, idShortPath);
+    }
+
+    private static class ElementLocation {
+
+        private final Submodel submodel;
+        private final List<String> idShortPath;
+
+        private ElementLocation(Submodel submodel, List<String> idShortPath) {
+            this.submodel = submodel;
+            this.idShortPath = idShortPath;
+        }
+
+
+        private List<String> childPath(String idShort) {
+            List<String> result = new ArrayList<>(idShortPath);
+            result.add(idShort);
+            return result;
+        }
     }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.Change;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeType;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.Referable;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * Bounded, monotonically versioned journal of changes made to the AAS environment. Each recorded change increments the
+ * version of the journal by one. If the journal is full, the oldest changes are evicted.
+ *
+ * <p>Every journal has a random id that changes whenever the journal is created, i.e. versions of different journals,
+ * e.g. before and after a restart, are not comparable.
+ *
+ * <p>Recorded values are kept as they are, i.e. callers must ensure that they are not modified afterwards.
+ */
+public class ChangeJournal {
+
+    private final String id;
+    private final Change[] changes;
+    private int start;
+    private int size;
+    private long version;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxEntries maximum number of changes to keep, 0 disables recording of changes
+     * @throws IllegalArgumentException if maxEntries is negative
+     */
+    public ChangeJournal(int maxEntries) {
+        Ensure.require(maxEntries >= 0, "maxEntries must be non-negative");
+        this.id = UUID.randomUUID().toString();
+        this.changes = new Change[maxEntries];
+    }
+
+
+    public String getId() {
+        return id;
+    }
+
+
+    /**
+     * Checks whether changes are recorded. If not, callers can skip preparing the values to record.
+     *
+     * @return true if changes are recorded, otherwise false
+     */
+    public boolean isEnabled() {
+        return changes.length > 0;
+    }
+
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Records a change.
+     *
+     * @param type the type of change
+     * @param element reference to the changed element
+     * @param value the new value of the element, null if the element has been deleted
+     * @return the version of the change
+     * @throws IllegalArgumentException if type or element is null
+     */
+    public synchronized long append(ChangeType type, Reference element, Referable value) {
+        Ensure.requireNonNull(type, "type must be non-null");
+        Ensure.requireNonNull(element, "element must be non-null");
+        version++;
+        if (!isEnabled()) {
+            return version;
+        }
+        Change change = Change.builder()
+                .version(version)
+                .type(type)
+                .element(element)
+                .value(value)
+                .build();
+        if (size == changes.length) {
+            changes[start] = change;
+            start = (start + 1) % changes.length;
+        }
+        else {
+            changes[(start + size) % changes.length] = change;
+            size++;
+        }
+        return version;
+    }
+
+
+    /**
+     * Discards all changes recorded after the given version and resets the version of the journal, e.g. when a
+     * transaction is rolled back. Callers must ensure that the discarded changes have not been read.
+     *
+     * @param version the version to revert to
+     */
+    public synchronized void truncate(long version) {
+        if (version >= this.version) {
+            return;
+        }
+        long discard = Math.min(this.version - version, size);
+        for (long i = 0; i < discard; i++) {
+            changes[(start + size - 1) % changes.length] = null;
+            size--;
+        }
+        this.version = Math.max(version, 0);
+    }
+
+
+    /**
+     * Gets all changes recorded after the given version. If the requested changes are no longer available, e.g. because
+     * they have been evicted or the version belongs to a different journal, an incomplete change set without any changes
+     * is returned.
+     *
+     * @param journalId the id of the journal the version belongs to, may be null
+     * @param since the version to get the changes after
+     * @param limit the maximum number of changes to return
+     * @return the changes
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    public synchronized ChangeSet getChanges(String journalId, long since, int limit) {
+        Ensure.require(limit > 0, "limit must be positive");
+        long oldest = version - size + 1;
+        if ((journalId != null && !id.equals(journalId)) || since < oldest - 1 || since > version) {
+            return ChangeSet.builder()
+                    .journalId(id)
+                    .version(version)
+                    .complete(false)
+                    .build();
+        }
+        int count = (int) Math.min(version - since, limit);
+        List<Change> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(changes[(int) ((start + since + 1 - oldest + i) % changes.length)]);
+        }
+        return ChangeSet.builder()
+                .journalId(id)
+                .version(since + count)
+                .complete(true)
+                .changes(result)
+                .build();
+    }
+}
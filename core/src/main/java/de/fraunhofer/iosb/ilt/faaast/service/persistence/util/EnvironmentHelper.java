@@ -69,4 +69,48 @@ public class EnvironmentHelper {
         CollectionHelper.add(list, index, (T) identifiable);
     }
 
+
+    /**
+     * Replaces an identifiable in a list or adds it at the end if there is nothing to replace. The element to replace is
+     * identified by object identity and located via {@link IdentifiableIndex#indexOf(List, Identifiable)}, i.e. by
+     * binary search if it is indexed.
+     *
+     * @param list to which the given identifiable should be added/updated
+     * @param current the element currently present in the list that should be replaced, may be null
+     * @param identifiable which should be added or updated
+     * @param identifiableIndex the index of the environment the list belongs to
+     * @param <T> type of the identifiable
+     */
+    public static <T extends Identifiable> void updateIdentifiableList(List<T> list, Identifiable current, Identifiable identifiable, IdentifiableIndex identifiableIndex) {
+        int index = identifiableIndex.indexOf(list, current);
+        if (index >= 0) {
+            list.set(index, (T) identifiable);
+        }
+        else {
+            CollectionHelper.add(list, -1, (T) identifiable);
+        }
+    }
+
+
+    /**
+     * Removes an identifiable from a list identified by object identity. The element is located via
+     * {@link IdentifiableIndex#indexOf(List, Identifiable)} and must therefore be removed from the list before it is
+     * removed from the index. Removing still shifts all subsequent elements of the list as the order of the list must
+     * be preserved.
+     *
+     * @param list the list to remove the element from
+     * @param element the element to remove
+     * @param identifiableIndex the index of the environment the list belongs to
+     * @param <T> type of the elements
+     * @return true if the element has been removed, otherwise false
+     */
+    public static <T extends Identifiable> boolean removeFromList(List<T> list, Identifiable element, IdentifiableIndex identifiableIndex) {
+        int index = identifiableIndex.indexOf(list, element);
+        if (index < 0) {
+            return false;
+        }
+        list.remove(index);
+        return true;
+    }
+
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import com.google.common.util.concurrent.Striped;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * Locks guarding concurrent access to an
+ * {@link io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment}.
+ *
+ * <p>There is one lock for the top-level lists of identifiables and a fixed number of striped locks for the content of
+ * submodels, keyed by the (case-insensitive) identifier of the submodel. Every operation first acquires the lock of the
+ * top-level lists and then the lock(s) of the submodel(s). This way, reads of any submodels and writes to different
+ * submodels can run in parallel, while modifying the top-level lists is exclusive.
+ *
+ * <p>All methods return a {@link Handle} that releases the acquired locks when closed and is intended to be used with
+ * try-with-resources. Locks are reentrant but cannot be upgraded from read to write.
+ */
+public class EnvironmentLocks {
+
+    private static final int DEFAULT_STRIPES = 64;
+    private final ReadWriteLock identifiablesLock;
+    private final Striped<ReadWriteLock> submodelLocks;
+
+    public EnvironmentLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param stripes the number of locks to use for submodels
+     * @throws IllegalArgumentException if stripes is less than 1
+     */
+    public EnvironmentLocks(int stripes) {
+        Ensure.require(stripes > 0, "stripes must be greater than 0");
+        identifiablesLock = new ReentrantReadWriteLock();
+        submodelLocks = Striped.readWriteLock(stripes);
+    }
+
+
+    /**
+     * Acquires read access to the top-level lists of identifiables. Does not grant access to the content of submodels.
+     *
+     * @return handle to release the locks
+     */
+    public Handle readIdentifiables() {
+        return acquire(identifiablesLock.readLock());
+    }
+
+
+    /**
+     * Acquires read access to the top-level lists of identifiables and to the content of all submodels.
+     *
+     * @return handle to release the locks
+     */
+    public Handle readAll() {
+        List<Lock> locks = new ArrayList<>();
+        locks.add(identifiablesLock.readLock());
+        for (int i = 0; i < submodelLocks.size(); i++) {
+            locks.add(submodelLocks.getAt(i).readLock());
+        }
+        return acquire(locks);
+    }
+
+
+    /**
+     * Acquires read access to the top-level lists of identifiables and to the content of a single submodel.
+     *
+     * @param submodelId identifier of the submodel, if null read access to all submodels is acquired
+     * @return handle to release the locks
+     */
+    public Handle readSubmodel(String submodelId) {
+        if (submodelId == null) {
+            return readAll();
+        }
+        return acquire(identifiablesLock.readLock(), submodelLocks.get(normalize(submodelId)).readLock());
+    }
+
+
+    /**
+     * Acquires read access to the top-level lists of identifiables and write access to the content of a single
+     * submodel.
+     *
+     * @param submodelId identifier of the submodel, if null exclusive access to the whole environment is acquired
+     * @return handle to release the locks
+     */
+    public Handle writeSubmodel(String submodelId) {
+        if (submodelId == null) {
+            return writeAll();
+        }
+        return acquire(identifiablesLock.readLock(), submodelLocks.get(normalize(submodelId)).writeLock());
+    }
+
+
+    /**
+     * Acquires exclusive access to the whole environment.
+     *
+     * @return handle to release the locks
+     */
+    public Handle writeAll() {
+        return acquire(identifiablesLock.writeLock());
+    }
+
+
+    private static Handle acquire(Lock... locks) {
+        return acquire(List.of(locks));
+    }
+
+
+    private static Handle acquire(List<Lock> locks) {
+        List<Lock> acquired = new ArrayList<>(locks.size());
+        try {
+            for (Lock lock: locks) {
+                lock.lock();
+                acquired.add(lock);
+            }
+        }
+        catch (RuntimeException e) {
+            release(acquired);
+            throw e;
+        }
+        return () -> release(acquired);
+    }
+
+
+    private static void release(List<Lock> locks) {
+        List<Lock> reversed = new ArrayList<>(locks);
+        Collections.reverse(reversed);
+        reversed.forEach(Lock::unlock);
+    }
+
+
+    private static String normalize(String identifier) {
+        return identifier.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Handle to release acquired locks.
+     */
+    @FunctionalInterface
+    public interface Handle extends AutoCloseable {
+
+        /**
+         * Releases the locks. Must be called exactly once.
+         */
+        @Override
+        public void close();
+    }
+}
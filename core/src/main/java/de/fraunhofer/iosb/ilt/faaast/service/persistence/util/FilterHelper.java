@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
+import de.fraunhofer.iosb.ilt.faaast.service.model.asset.GlobalAssetIdentification;
+import de.fraunhofer.iosb.ilt.faaast.service.model.asset.SpecificAssetIdentification;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.model.AssetAdministrationShell;
+import io.adminshell.aas.v3.model.ConceptDescription;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifierKeyValuePair;
+import java.util.List;
+import java.util.Objects;
+import org.apache.commons.lang3.StringUtils;
+
+
+/**
+ * Helper class providing the filter criteria used when querying elements of a persistence so that all persistence
+ * implementations apply the same semantics. A criterion that is null (or blank in case of idShort) always matches.
+ */
+public class FilterHelper {
+
+    private FilterHelper() {}
+
+
+    /**
+     * Checks whether an asset administration shell matches the given idShort and asset identifications. Multiple asset
+     * identifications of the same kind are combined using OR, different kinds using AND.
+     *
+     * @param aas the asset administration shell
+     * @param idShort the idShort to match
+     * @param assetIds the asset identifications to match
+     * @return true if the asset administration shell matches, otherwise false
+     */
+    public static boolean matches(AssetAdministrationShell aas, String idShort, List<AssetIdentification> assetIds) {
+        return matchesIdShort(aas.getIdShort(), idShort)
+                // globalAssetId
+                && (assetIds == null || assetIds.stream().noneMatch(x -> GlobalAssetIdentification.class.isAssignableFrom(x.getClass()))
+                        || (aas.getAssetInformation() != null
+                                && assetIds.stream()
+                                        .filter(x -> GlobalAssetIdentification.class.isAssignableFrom(x.getClass()))
+                                        .map(GlobalAssetIdentification.class::cast)
+                                        .anyMatch(x -> Objects.equals(aas.getAssetInformation().getGlobalAssetId(), x.getReference()))))
+                // specificAssetId
+                && (assetIds == null || assetIds.stream().noneMatch(x -> SpecificAssetIdentification.class.isAssignableFrom(x.getClass()))
+                        || (aas.getAssetInformation() != null
+                                && assetIds.stream()
+                                        .filter(x -> SpecificAssetIdentification.class.isAssignableFrom(x.getClass()))
+                                        .map(x -> new DefaultIdentifierKeyValuePair.Builder()
+                                                .key(((SpecificAssetIdentification) x).getKey())
+                                                .value(((SpecificAssetIdentification) x).getValue())
+                                                .build())
+                                        .anyMatch(x -> aas.getAssetInformation().getSpecificAssetIds().contains(x))));
+    }
+
+
+    /**
+     * Checks whether a submodel matches the given idShort and semanticId.
+     *
+     * @param submodel the submodel
+     * @param idShort the idShort to match
+     * @param semanticId the semanticId to match
+     * @return true if the submodel matches, otherwise false
+     */
+    public static boolean matches(Submodel submodel, String idShort, Reference semanticId) {
+        return matchesIdShort(submodel.getIdShort(), idShort)
+                && (semanticId == null || (submodel.getSemanticId() != null
+                        && ReferenceHelper.isEqualsIgnoringKeyType(submodel.getSemanticId(), semanticId)));
+    }
+
+
+    /**
+     * Checks whether a concept description matches the given idShort, isCaseOf and dataSpecification.
+     *
+     * @param conceptDescription the concept description
+     * @param idShort the idShort to match
+     * @param isCaseOf the isCaseOf to match
+     * @param dataSpecification the dataSpecification to match
+     * @return true if the concept description matches, otherwise false
+     */
+    public static boolean matches(ConceptDescription conceptDescription, String idShort, Reference isCaseOf, Reference dataSpecification) {
+        return matchesIdShort(conceptDescription.getIdShort(), idShort)
+                && (isCaseOf == null || conceptDescription.getIsCaseOfs().stream().anyMatch(y -> ReferenceHelper.isEqualsIgnoringKeyType(y, isCaseOf)))
+                && (dataSpecification == null
+                        || (conceptDescription.getEmbeddedDataSpecifications() != null
+                                && conceptDescription.getEmbeddedDataSpecifications().stream()
+                                        .anyMatch(y -> y.getDataSpecification() != null
+                                                && ReferenceHelper.isEqualsIgnoringKeyType(y.getDataSpecification(), dataSpecification))));
+    }
+
+
+    /**
+     * Checks whether a submodel element matches the given semanticId.
+     *
+     * @param submodelElement the submodel element
+     * @param semanticId the semanticId to match
+     * @return true if the submodel element matches, otherwise false
+     */
+    public static boolean matches(SubmodelElement submodelElement, Reference semanticId) {
+        return semanticId == null || Objects.equals(submodelElement.getSemanticId(), semanticId);
+    }
+
+
+    private static boolean matchesIdShort(String actual, String expected) {
+        return StringUtils.isAllBlank(expected) || (actual != null && actual.equalsIgnoreCase(expected));
+    }
+}
@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.Asset;
+import io.adminshell.aas.v3.model.AssetAdministrationShell;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.ConceptDescription;
+import io.adminshell.aas.v3.model.Identifiable;
+import io.adminshell.aas.v3.model.Identifier;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * Index of all {@link Identifiable}s contained in an {@link AssetAdministrationShellEnvironment} by type and
+ * identifier. Identifiers are compared case-insensitive.
+ *
+ * <p>The index does not observe the environment. Any code modifying the top-level lists of the environment must update
+ * the index accordingly. If the environment is shared with code outside the persistence, e.g. when it is passed in
+ * without being decoupled, the index should be deactivated via {@link #setActive(boolean)}. Lookups then fall back to
+ * scanning the environment so that external modifications are visible.
+ *
+ * <p>Additionally, secondary indexes are maintained to answer the queries supported by
+ * {@link de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence}, i.e. by idShort (case-insensitive), semanticId
+ * of submodels, globalAssetId and specificAssetIds of asset administration shells as well as isCaseOf and
+ * dataSpecification of concept descriptions. References are compared ignoring the type of their keys except for
+ * globalAssetId. Secondary lookups return the identifiables in the order of the corresponding list of the environment,
+ * i.e. sorted by sequence number (see below).
+ * They are only meant to narrow down the candidates, i.e. callers still need to apply their filter criteria.
+ *
+ * <p>Each indexed identifiable is assigned a sequence number that increases in the order in which identifiables are
+ * added and that is kept when an identifiable is replaced. As new identifiables are appended to the lists of the
+ * environment, each list is sorted by sequence number which allows locating an identifiable in its list via
+ * {@link #indexOf(List, Identifiable)} by binary search.
+ *
+ * <p>Following identifiables are supported:
+ * <ul>
+ * <li>{@link AssetAdministrationShell}
+ * <li>{@link Submodel}
+ * <li>{@link ConceptDescription}
+ * <li>{@link Asset}
+ * </ul>
+ */
+public class IdentifiableIndex {
+
+    /**
+     * Supported types in the order in which they are searched when looking up an identifiable by identifier only.
+     */
+    private static final List<Class<? extends Identifiable>> TYPES = List.of(
+            AssetAdministrationShell.class,
+            Submodel.class,
+            ConceptDescription.class,
+            Asset.class);
+
+    private final Map<Class<? extends Identifiable>, Map<String, Identifiable>> index;
+    private final Map<Class<? extends Identifiable>, Map<String, Long>> sequences;
+    private final Map<Class<? extends Identifiable>, SecondaryIndex<Identifiable>> idShortIndex;
+    private final Map<Class<? extends Identifiable>, List<SecondaryIndex<Identifiable>>> secondaryIndexesByType;
+    private final Map<Class<?>, Class<? extends Identifiable>> baseTypes;
+    private final SecondaryIndex<Identifiable> semanticIdIndex;
+    private final SecondaryIndex<Identifiable> globalAssetIdIndex;
+    private final SecondaryIndex<Identifiable> specificAssetIdIndex;
+    private final SecondaryIndex<Identifiable> isCaseOfIndex;
+    private final SecondaryIndex<Identifiable> dataSpecificationIndex;
+    private final List<SecondaryIndex<Identifiable>> secondaryIndexes;
+    private AssetAdministrationShellEnvironment environment;
+    private boolean active;
+    private long nextSequence;
+
+    public IdentifiableIndex() {
+        index = new LinkedHashMap<>();
+        sequences = new LinkedHashMap<>();
+        idShortIndex = new LinkedHashMap<>();
+        baseTypes = new ConcurrentHashMap<>();
+        TYPES.forEach(x -> {
+            index.put(x, new ConcurrentHashMap<>());
+            sequences.put(x, new ConcurrentHashMap<>());
+            idShortIndex.put(x, new SecondaryIndex<>(y -> y.getIdShort() != null
+                    ? List.of(normalize(y.getIdShort()))
+                    : null));
+        });
+        semanticIdIndex = new SecondaryIndex<>(forType(Submodel.class, x -> Collections.singletonList(keyIgnoringKeyType(x.getSemanticId()))));
+        globalAssetIdIndex = new SecondaryIndex<>(forType(AssetAdministrationShell.class, x -> x.getAssetInformation() != null
+                ? Collections.singletonList(key(x.getAssetInformation().getGlobalAssetId()))
+                : null));
+        specificAssetIdIndex = new SecondaryIndex<>(forType(AssetAdministrationShell.class, x -> x.getAssetInformation() != null
+                && x.getAssetInformation().getSpecificAssetIds() != null
+                        ? x.getAssetInformation().getSpecificAssetIds().stream()
+                                // only plain key-value pairs can match a query for a specificAssetId
+                                .filter(y -> y.getExternalSubjectId() == null && y.getSemanticId() == null)
+                                .map(y -> key(y.getKey(), y.getValue()))
+                                .collect(Collectors.toList())
+                        : null));
+        isCaseOfIndex = new SecondaryIndex<>(forType(ConceptDescription.class, x -> x.getIsCaseOfs() != null
+                ? x.getIsCaseOfs().stream()
+                        .map(IdentifiableIndex::keyIgnoringKeyType)
+                        .collect(Collectors.toList())
+                : null));
+        dataSpecificationIndex = new SecondaryIndex<>(forType(ConceptDescription.class, x -> x.getEmbeddedDataSpecifications() != null
+                ? x.getEmbeddedDataSpecifications().stream()
+                        .filter(Objects::nonNull)
+                        .map(y -> keyIgnoringKeyType(y.getDataSpecification()))
+                        .collect(Collectors.toList())
+                : null));
+        secondaryIndexes = List.of(semanticIdIndex, globalAssetIdIndex, specificAssetIdIndex, isCaseOfIndex, dataSpecificationIndex);
+        secondaryIndexesByType = Map.of(
+                AssetAdministrationShell.class, List.of(idShortIndex.get(AssetAdministrationShell.class), globalAssetIdIndex, specificAssetIdIndex),
+                Submodel.class, List.of(idShortIndex.get(Submodel.class), semanticIdIndex),
+                ConceptDescription.class, List.of(idShortIndex.get(ConceptDescription.class), isCaseOfIndex, dataSpecificationIndex),
+                Asset.class, List.of(idShortIndex.get(Asset.class)));
+        active = true;
+    }
+
+
+    public boolean isActive() {
+        return active;
+    }
+
+
+    /**
+     * Activates or deactivates the index. Changes take effect on the next call of
+     * {@link #rebuild(AssetAdministrationShellEnvironment)}.
+     *
+     * @param active if true, lookups are served from the index, otherwise by scanning the environment
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+
+    /**
+     * Discards the current content of the index and re-creates it from an environment.
+     *
+     * @param environment the environment to index, may be null
+     */
+    public void rebuild(AssetAdministrationShellEnvironment environment) {
+        clear();
+        this.environment = environment;
+        if (environment == null || !active) {
+            return;
+        }
+        addAll(environment.getAssetAdministrationShells());
+        addAll(environment.getSubmodels());
+        addAll(environment.getConceptDescriptions());
+        addAll(environment.getAssets());
+    }
+
+
+    /**
+     * Removes all entries from the index.
+     */
+    public void clear() {
+        index.values().forEach(Map::clear);
+        sequences.values().forEach(Map::clear);
+        nextSequence = 0;
+        idShortIndex.values().forEach(SecondaryIndex::clear);
+        secondaryIndexes.forEach(SecondaryIndex::clear);
+    }
+
+
+    /**
+     * Finds an identifiable by its identifier regardless of its type. If multiple identifiables of different types
+     * share the same identifier, the first match in the order {@link AssetAdministrationShell}, {@link Submodel},
+     * {@link ConceptDescription}, {@link Asset} is returned.
+     *
+     * @param <T> expected type of the identifiable
+     * @param id the identifier
+     * @return the identifiable or null if there is none
+     */
+    public <T extends Identifiable> T get(Identifier id) {
+        if (id == null || id.getIdentifier() == null) {
+            return null;
+        }
+        if (!active) {
+            return (T) TYPES.stream()
+                    .map(x -> scan(x, id))
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+        }
+        String key = normalize(id.getIdentifier());
+        for (Map<String, Identifiable> byId: index.values()) {
+            Identifiable result = byId.get(key);
+            if (result != null) {
+                return (T) result;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Finds an identifiable by its type and its identifier.
+     *
+     * @param <T> the type of the identifiable
+     * @param type the type of the identifiable
+     * @param id the identifier
+     * @return the identifiable or null if there is none
+     * @throws IllegalArgumentException if type is not supported
+     */
+    public <T extends Identifiable> T get(Class<T> type, Identifier id) {
+        if (id == null || id.getIdentifier() == null) {
+            return null;
+        }
+        if (!active) {
+            return scan(type, id);
+        }
+        return (T) index.get(baseTypeOf(type)).get(normalize(id.getIdentifier()));
+    }
+
+
+    /**
+     * Adds or replaces an identifiable in the index.
+     *
+     * @param identifiable the identifiable
+     * @return the identifiable that has previously been registered with the same type and identifier or null if there
+     *         was none
+     * @throws IllegalArgumentException if identifiable is null, its identifier is null or its type is not supported
+     */
+    public Identifiable put(Identifiable identifiable) {
+        Ensure.requireNonNull(identifiable, "identifiable must be non-null");
+        Ensure.requireNonNull(identifiable.getIdentification(), "identification must be non-null");
+        Ensure.requireNonNull(identifiable.getIdentification().getIdentifier(), "identifier must be non-null");
+        if (!active) {
+            return scan(identifiable.getClass(), identifiable.getIdentification());
+        }
+        Class<? extends Identifiable> type = baseTypeOf(identifiable.getClass());
+        String key = normalize(identifiable.getIdentification().getIdentifier());
+        Identifiable previous = index.get(type).put(key, identifiable);
+        if (previous != null) {
+            long sequence = sequences.get(type).get(key);
+            secondaryIndexesByType.get(type).forEach(x -> x.replace(previous, identifiable, sequence));
+        }
+        else {
+            long sequence = nextSequence++;
+            sequences.get(type).put(key, sequence);
+            secondaryIndexesByType.get(type).forEach(x -> x.add(identifiable, sequence));
+        }
+        return previous;
+    }
+
+
+    /**
+     * Removes an identifiable from the index. Nothing happens if the identifiable is not present in the index.
+     *
+     * @param identifiable the identifiable to remove
+     */
+    public void remove(Identifiable identifiable) {
+        if (identifiable == null
+                || identifiable.getIdentification() == null
+                || identifiable.getIdentification().getIdentifier() == null
+                || !active) {
+            return;
+        }
+        Class<? extends Identifiable> type = baseTypeOf(identifiable.getClass());
+        String key = normalize(identifiable.getIdentification().getIdentifier());
+        if (index.get(type).remove(key, identifiable)) {
+            long sequence = sequences.get(type).remove(key);
+            secondaryIndexesByType.get(type).forEach(x -> x.remove(identifiable, sequence));
+        }
+    }
+
+
+    /**
+     * Gets the sequence number of the identifiable registered with the same type and identifier as the given one. As
+     * sequence numbers are kept when replacing an identifiable, this also works for the instance that has just been
+     * replaced.
+     *
+     * @param identifiable the identifiable
+     * @return the sequence number or null if there is no identifiable with the same type and identifier in the index
+     *         or the index is not active
+     */
+    public Long getSequence(Identifiable identifiable) {
+        if (identifiable == null
+                || identifiable.getIdentification() == null
+                || identifiable.getIdentification().getIdentifier() == null
+                || !active) {
+            return null;
+        }
+        return sequenceOf(sequences.get(baseTypeOf(identifiable.getClass())), identifiable);
+    }
+
+
+    /**
+     * Finds the position of an identifiable in a list of the environment by object identity. If the identifiable is
+     * indexed, its position is located by binary search over the sequence numbers which requires the list to be
+     * sorted by sequence number. This holds for the lists of the indexed environment (and copies of them) as long as
+     * they are only modified by replacing elements in place, appending new elements and removing elements. If the
+     * identifiable is not indexed or the list is not sorted as expected, the list is scanned instead.
+     *
+     * @param list the list to search
+     * @param identifiable the identifiable to find
+     * @return the position of the identifiable in the list or -1 if it is not contained
+     */
+    public int indexOf(List<? extends Identifiable> list, Identifiable identifiable) {
+        if (list == null || identifiable == null) {
+            return -1;
+        }
+        Long sequence = getSequence(identifiable);
+        if (sequence != null) {
+            Map<String, Long> sequencesOfType = sequences.get(baseTypeOf(identifiable.getClass()));
+            int low = 0;
+            int high = list.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (list.get(middle) == identifiable) {
+                    return middle;
+                }
+                Long current = sequenceOf(sequencesOfType, list.get(middle));
+                if (current == null) {
+                    break;
+                }
+                int comparison = Long.compare(current, sequence);
+                if (comparison == 0) {
+                    break;
+                }
+                if (comparison < 0) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle - 1;
+                }
+            }
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == identifiable) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Finds all identifiables of a type by idShort. idShorts are compared case-insensitive.
+     *
+     * @param <T> the type of the identifiables
+     * @param type the type of the identifiables
+     * @param idShort the idShort
+     * @return all identifiables with matching idShort or null if the index is not active
+     * @throws IllegalArgumentException if type is not supported
+     */
+    public <T extends Identifiable> List<T> getByIdShort(Class<T> type, String idShort) {
+        if (!active) {
+            return null;
+        }
+        if (idShort == null) {
+            return List.of();
+        }
+        return (List<T>) idShortIndex.get(baseTypeOf(type)).get(normalize(idShort));
+    }
+
+
+    /**
+     * Finds all submodels by semanticId. The types of the keys are ignored.
+     *
+     * @param semanticId the semanticId
+     * @return all submodels with matching semanticId or null if the index is not active or the semanticId can not be
+     *         looked up
+     */
+    public List<Submodel> getSubmodelsBySemanticId(Reference semanticId) {
+        return lookup(semanticIdIndex, keyIgnoringKeyType(semanticId));
+    }
+
+
+    /**
+     * Finds all asset administration shells by globalAssetId.
+     *
+     * @param globalAssetId the globalAssetId
+     * @return all asset administration shells with matching globalAssetId or null if the index is not active or the
+     *         globalAssetId can not be looked up
+     */
+    public List<AssetAdministrationShell> getAssetAdministrationShellsByGlobalAssetId(Reference globalAssetId) {
+        return lookup(globalAssetIdIndex, key(globalAssetId));
+    }
+
+
+    /**
+     * Finds all asset administration shells by specificAssetId.
+     *
+     * @param key the key of the specificAssetId
+     * @param value the value of the specificAssetId
+     * @return all asset administration shells with matching specificAssetId or null if the index is not active
+     */
+    public List<AssetAdministrationShell> getAssetAdministrationShellsBySpecificAssetId(String key, String value) {
+        return lookup(specificAssetIdIndex, key(key, value));
+    }
+
+
+    /**
+     * Finds all concept descriptions by isCaseOf. The types of the keys are ignored.
+     *
+     * @param isCaseOf the isCaseOf reference
+     * @return all concept descriptions with matching isCaseOf or null if the index is not active or the reference can
+     *         not be looked up
+     */
+    public List<ConceptDescription> getConceptDescriptionsByIsCaseOf(Reference isCaseOf) {
+        return lookup(isCaseOfIndex, keyIgnoringKeyType(isCaseOf));
+    }
+
+
+    /**
+     * Finds all concept descriptions by dataSpecification. The types of the keys are ignored.
+     *
+     * @param dataSpecification the dataSpecification reference
+     * @return all concept descriptions with matching dataSpecification or null if the index is not active or the
+     *         reference can not be looked up
+     */
+    public List<ConceptDescription> getConceptDescriptionsByDataSpecification(Reference dataSpecification) {
+        return lookup(dataSpecificationIndex, keyIgnoringKeyType(dataSpecification));
+    }
+
+
+    private <T extends Identifiable> List<T> lookup(SecondaryIndex<Identifiable> secondaryIndex, Object key) {
+        if (!active || key == null) {
+            return null;
+        }
+        return (List<T>) secondaryIndex.get(key);
+    }
+
+
+    private static <T extends Identifiable> Function<Identifiable, Collection<?>> forType(Class<T> type, Function<T, Collection<?>> keyExtractor) {
+        return x -> type.isAssignableFrom(x.getClass()) ? keyExtractor.apply((T) x) : null;
+    }
+
+
+    /**
+     * Creates a key for a reference that is equal for two references if and only if
+     * {@link de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper#isEqualsIgnoringKeyType(Reference, Reference)}
+     * returns true for them.
+     *
+     * @param reference the reference
+     * @return the key or null if reference or its keys are null
+     */
+    private static Object keyIgnoringKeyType(Reference reference) {
+        if (reference == null || reference.getKeys() == null) {
+            return null;
+        }
+        return reference.getKeys().stream()
+                .map(x -> x != null ? key(x.getIdType(), x.getValue()) : null)
+                .collect(Collectors.toSet());
+    }
+
+
+    private static Object key(Reference reference) {
+        if (reference == null || reference.getKeys() == null) {
+            return null;
+        }
+        return reference.getKeys().stream()
+                .map(x -> x != null ? key(x.getType(), x.getIdType(), x.getValue()) : null)
+                .collect(Collectors.toList());
+    }
+
+
+    private static List<Object> key(Object... values) {
+        return Arrays.asList(values);
+    }
+
+
+    private void addAll(Collection<? extends Identifiable> identifiables) {
+        if (identifiables == null) {
+            return;
+        }
+        for (Identifiable identifiable: identifiables) {
+            if (identifiable.getIdentification() == null || identifiable.getIdentification().getIdentifier() == null) {
+                continue;
+            }
+            Class<? extends Identifiable> type = baseTypeOf(identifiable.getClass());
+            String key = normalize(identifiable.getIdentification().getIdentifier());
+            if (index.get(type).putIfAbsent(key, identifiable) == null) {
+                long sequence = nextSequence++;
+                sequences.get(type).put(key, sequence);
+                secondaryIndexesByType.get(type).forEach(x -> x.add(identifiable, sequence));
+            }
+        }
+    }
+
+
+    private <T extends Identifiable> T scan(Class<?> type, Identifier id) {
+        if (environment == null) {
+            return null;
+        }
+        Collection<? extends Identifiable> identifiables;
+        if (AssetAdministrationShell.class.isAssignableFrom(type)) {
+            identifiables = environment.getAssetAdministrationShells();
+        }
+        else if (Submodel.class.isAssignableFrom(type)) {
+            identifiables = environment.getSubmodels();
+        }
+        else if (ConceptDescription.class.isAssignableFrom(type)) {
+            identifiables = environment.getConceptDescriptions();
+        }
+        else if (Asset.class.isAssignableFrom(type)) {
+            identifiables = environment.getAssets();
+        }
+        else {
+            throw new IllegalArgumentException(String.format("unsupported identifiable type: %s", type));
+        }
+        return (T) identifiables.stream()
+                .filter(x -> x.getIdentification() != null && id.getIdentifier().equalsIgnoreCase(x.getIdentification().getIdentifier()))
+                .findFirst()
+                .orElse(null);
+    }
+
+
+    private static Long sequenceOf(Map<String, Long> sequencesOfType, Identifiable identifiable) {
+        if (identifiable == null
+                || identifiable.getIdentification() == null
+                || identifiable.getIdentification().getIdentifier() == null) {
+            return null;
+        }
+        return sequencesOfType.get(normalize(identifiable.getIdentification().getIdentifier()));
+    }
+
+
+    /**
+     * Resolves the supported type an implementation class belongs to. The result is cached per class.
+     *
+     * @param type the implementation class
+     * @return the supported type
+     * @throws IllegalArgumentException if type is not supported
+     */
+    private Class<? extends Identifiable> baseTypeOf(Class<?> type) {
+        Class<? extends Identifiable> result = baseTypes.get(type);
+        if (result == null) {
+            result = TYPES.stream()
+                    .filter(x -> x.isAssignableFrom(type))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(String.format("unsupported identifiable type: %s", type)));
+            baseTypes.put(type, result);
+        }
+        return result;
+    }
+
+
+    private static String normalize(String identifier) {
+        return identifier.toLowerCase(Locale.ROOT);
+    }
+}
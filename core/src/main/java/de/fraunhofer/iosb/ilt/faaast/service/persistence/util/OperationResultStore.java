@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.ExecutionState;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationHandle;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationResult;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+
+
+/**
+ * Bounded store for the results of asynchronously invoked operations.
+ *
+ * <p>Results of running operations are kept until the operation has finished. Results of finished operations are
+ * evicted once they have not been updated for a configurable time (TTL) or, if there are more finished results than
+ * a configurable maximum, in least recently used order. Evicted results are no longer available, i.e. requests for
+ * them behave as if the handle never existed.
+ */
+public class OperationResultStore {
+
+    private final Map<String, Entry> running;
+    private final Cache<String, Entry> finished;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ttl time in milliseconds results of finished operations are kept after their last update, values less than
+     *            or equal to 0 disable expiration
+     * @param maxEntries maximum number of results of finished operations to keep
+     * @throws IllegalArgumentException if maxEntries is negative
+     */
+    public OperationResultStore(long ttl, int maxEntries) {
+        Ensure.require(maxEntries >= 0, "maxEntries must be non-negative");
+        running = new ConcurrentHashMap<>();
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats();
+        if (ttl > 0) {
+            builder.expireAfterWrite(ttl, TimeUnit.MILLISECONDS);
+        }
+        finished = builder.build();
+    }
+
+
+    /**
+     * Gets the result of an operation.
+     *
+     * @param handleId the handle of the operation
+     * @return the result or null if there is no result for the handle or the result has already been evicted
+     */
+    public OperationResult getResult(String handleId) {
+        Entry entry = get(handleId);
+        return entry != null ? entry.result : null;
+    }
+
+
+    /**
+     * Gets the handle of an operation.
+     *
+     * @param handleId the handle id of the operation
+     * @return the handle or null if there is no handle with the given id or it has already been evicted
+     */
+    public OperationHandle getHandle(String handleId) {
+        Entry entry = get(handleId);
+        return entry != null ? entry.handle : null;
+    }
+
+
+    private Entry get(String handleId) {
+        if (StringUtils.isBlank(handleId)) {
+            return null;
+        }
+        Entry result = running.get(handleId);
+        return result != null
+                ? result
+                : finished.getIfPresent(handleId);
+    }
+
+
+    /**
+     * Stores the result of an operation. If handleId is blank, a new handle is created.
+     *
+     * @param handleId the handle of the operation, may be null
+     * @param requestId the id of the request that invoked the operation
+     * @param result the result, may be null to store a new result with state {@link ExecutionState#INITIATED}
+     * @return the handle of the operation
+     */
+    public OperationHandle put(String handleId, String requestId, OperationResult result) {
+        OperationResult actualResult = result != null
+                ? result
+                : new OperationResult.Builder()
+                        .executionState(ExecutionState.INITIATED)
+                        .requestId(requestId)
+                        .build();
+        Entry entry = get(handleId);
+        OperationHandle handle = entry != null
+                ? entry.handle
+                : new OperationHandle.Builder()
+                        .requestId(requestId)
+                        .handleId(StringUtils.isBlank(handleId) ? UUID.randomUUID().toString() : handleId)
+                        .build();
+        Entry newEntry = new Entry(handle, actualResult);
+        if (isFinished(actualResult)) {
+            finished.put(handle.getHandleId(), newEntry);
+            running.remove(handle.getHandleId());
+        }
+        else {
+            running.put(handle.getHandleId(), newEntry);
+            finished.invalidate(handle.getHandleId());
+        }
+        return handle;
+    }
+
+
+    /**
+     * Removes all results.
+     */
+    public void clear() {
+        running.clear();
+        finished.invalidateAll();
+    }
+
+
+    /**
+     * Gets metrics about the stored results.
+     *
+     * @return the metrics
+     */
+    public Metrics getMetrics() {
+        finished.cleanUp();
+        return new Metrics(running.size(), finished.size(), finished.stats());
+    }
+
+
+    private static boolean isFinished(OperationResult result) {
+        return result.getExecutionState() != null
+                && result.getExecutionState() != ExecutionState.INITIATED
+                && result.getExecutionState() != ExecutionState.RUNNING;
+    }
+
+    private static class Entry {
+
+        private final OperationHandle handle;
+        private final OperationResult result;
+
+        private Entry(OperationHandle handle, OperationResult result) {
+            this.handle = handle;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Snapshot of metrics of an {@link OperationResultStore}.
+     */
+    public static class Metrics {
+
+        private final long runningCount;
+        private final long finishedCount;
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        private Metrics(long runningCount, long finishedCount, CacheStats stats) {
+            this.runningCount = runningCount;
+            this.finishedCount = finishedCount;
+            this.hitCount = stats.hitCount();
+            this.missCount = stats.missCount();
+            this.evictionCount = stats.evictionCount();
+        }
+
+
+        /**
+         * Gets the number of results of running operations.
+         *
+         * @return the number of results of running operations
+         */
+        public long getRunningCount() {
+            return runningCount;
+        }
+
+
+        /**
+         * Gets the number of results of finished operations currently kept.
+         *
+         * @return the number of results of finished operations
+         */
+        public long getFinishedCount() {
+            return finishedCount;
+        }
+
+
+        /**
+         * Gets the number of lookups of finished results that found a result.
+         *
+         * @return the number of hits
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+
+        /**
+         * Gets the number of lookups of finished results that found no result, e.g. because it has been evicted.
+         *
+         * @return the number of misses
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+
+        /**
+         * Gets the number of results of finished operations evicted due to expiration or size.
+         *
+         * @return the number of evictions
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Metrics other = (Metrics) obj;
+            return runningCount == other.runningCount
+                    && finishedCount == other.finishedCount
+                    && hitCount == other.hitCount
+                    && missCount == other.missCount
+                    && evictionCount == other.evictionCount;
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(runningCount, finishedCount, hitCount, missCount, evictionCount);
+        }
+
+
+        @Override
+        public String toString() {
+            return String.format("running=%d, finished=%d, hits=%d, misses=%d, evictions=%d", runningCount, finishedCount, hitCount, missCount, evictionCount);
+        }
+    }
+}
@@ -21,14 +21,23 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.visitor.AssetAdministrationSh
 import de.fraunhofer.iosb.ilt.faaast.service.model.visitor.AssetAdministrationShellElementWalker;
 import de.fraunhofer.iosb.ilt.faaast.service.model.visitor.DefaultAssetAdministrationShellElementSubtypeResolvingVisitor;
 import de.fraunhofer.iosb.ilt.faaast.service.model.visitor.DefaultAssetAdministrationShellElementVisitor;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.blob.StoredBlob;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.AnnotatedRelationshipElement;
 import io.adminshell.aas.v3.model.Blob;
+import io.adminshell.aas.v3.model.Entity;
+import io.adminshell.aas.v3.model.Operation;
+import io.adminshell.aas.v3.model.OperationVariable;
 import io.adminshell.aas.v3.model.Referable;
 import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
 import io.adminshell.aas.v3.model.SubmodelElementCollection;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
@@ -78,6 +87,105 @@ public class QueryModifierHelper {
     }
 
 
+    /**
+     * Apply the {@link QueryModifier} to a list of referables without modifying them. Referables not affected by the
+     * modifier are returned as-is, all others are replaced by modified copies.
+     *
+     * @param list which should be projected by the query modifier
+     * @param modifier which should be applied
+     * @param <T> type of referable
+     * @return a new list containing the projected referables
+     */
+    public static <T extends Referable> List<T> projectQueryModifier(List<T> list, QueryModifier modifier) {
+        if (list == null) {
+            return null;
+        }
+        return list.stream()
+                .map(x -> projectQueryModifier(x, modifier))
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * Apply the {@link QueryModifier} to a referable without modifying it. If the referable is not affected by the
+     * modifier, e.g. because it does not contain any {@link Blob} with a value, it is returned as-is, otherwise a
+     * modified copy is returned. This allows applying query modifiers to shared, read-only instances.
+     *
+     * @param <T> type of the referable
+     * @param referable which should be projected by the query modifier
+     * @param modifier which should be applied
+     * @return the referable itself or a modified copy of it
+     */
+    public static <T extends Referable> T projectQueryModifier(T referable, QueryModifier modifier) {
+        Ensure.requireNonNull(referable, "referable must be non-null");
+        Ensure.requireNonNull(modifier, "modifier must be non-null");
+        boolean affected = (modifier.getExtent() == Extent.WITHOUT_BLOB_VALUE && containsBlobValue(referable))
+                || (modifier.getLevel() == Level.CORE && containsSubcollectionValues(referable));
+        if (!affected) {
+            return referable;
+        }
+        return applyQueryModifier((T) DeepCopyHelper.deepCopy(referable, referable.getClass()), modifier);
+    }
+
+
+    private static boolean containsBlobValue(Object element) {
+        if (element == null) {
+            return false;
+        }
+        if (Blob.class.isAssignableFrom(element.getClass())) {
+            return StoredBlob.class.isAssignableFrom(element.getClass())
+                    ? ((StoredBlob) element).hasValue()
+                    : ((Blob) element).getValue() != null;
+        }
+        return childrenOf(element).anyMatch(QueryModifierHelper::containsBlobValue);
+    }
+
+
+    private static boolean containsSubcollectionValues(Referable referable) {
+        Collection<SubmodelElement> children;
+        if (Submodel.class.isAssignableFrom(referable.getClass())) {
+            children = ((Submodel) referable).getSubmodelElements();
+        }
+        else if (SubmodelElementCollection.class.isAssignableFrom(referable.getClass())) {
+            children = ((SubmodelElementCollection) referable).getValues();
+        }
+        else {
+            return false;
+        }
+        return children != null && children.stream()
+                .anyMatch(x -> x != null
+                        && SubmodelElementCollection.class.isAssignableFrom(x.getClass())
+                        && ((SubmodelElementCollection) x).getValues() != null
+                        && !((SubmodelElementCollection) x).getValues().isEmpty());
+    }
+
+
+    private static Stream<?> childrenOf(Object element) {
+        Collection<?> result = null;
+        if (Submodel.class.isAssignableFrom(element.getClass())) {
+            result = ((Submodel) element).getSubmodelElements();
+        }
+        else if (SubmodelElementCollection.class.isAssignableFrom(element.getClass())) {
+            result = ((SubmodelElementCollection) element).getValues();
+        }
+        else if (Entity.class.isAssignableFrom(element.getClass())) {
+            result = ((Entity) element).getStatements();
+        }
+        else if (AnnotatedRelationshipElement.class.isAssignableFrom(element.getClass())) {
+            result = ((AnnotatedRelationshipElement) element).getAnnotations();
+        }
+        else if (Operation.class.isAssignableFrom(element.getClass())) {
+            Operation operation = (Operation) element;
+            return Stream.of(operation.getInputVariables(), operation.getOutputVariables(), operation.getInoutputVariables())
+                    .filter(Objects::nonNull)
+                    .flatMap(Collection::stream)
+                    .filter(Objects::nonNull)
+                    .map(OperationVariable::getValue);
+        }
+        return result == null ? Stream.empty() : result.stream();
+    }
+
+
     private static void applyQueryModifierExtend(Referable referable, QueryModifier modifier) {
         if (modifier.getExtent() == Extent.WITHOUT_BLOB_VALUE) {
             AssetAdministrationShellElementWalker.builder()
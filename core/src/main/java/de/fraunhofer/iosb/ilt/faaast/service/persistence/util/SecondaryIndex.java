@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * Index of elements by an arbitrary number of keys per element. Each element is indexed together with a sequence
+ * number provided by the caller and elements sharing the same key are kept sorted by that number. This way, the order
+ * within each key matches the order of the underlying list as long as the list is sorted by the same numbers, and
+ * adding, replacing or removing an element only takes logarithmic time per key.
+ *
+ * <p>Elements are compared by identity.
+ *
+ * @param <T> type of the elements
+ */
+class SecondaryIndex<T> {
+
+    private final Function<T, Collection<?>> keyExtractor;
+    private final Map<Object, NavigableMap<Long, T>> index;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param keyExtractor function returning all keys an element is indexed by, may return null or contain null
+     *            values which are ignored
+     */
+    SecondaryIndex(Function<T, Collection<?>> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+        this.index = new ConcurrentHashMap<>();
+    }
+
+
+    /**
+     * Gets all elements indexed by a key.
+     *
+     * @param key the key
+     * @return all elements indexed by the key sorted by their sequence number
+     */
+    List<T> get(Object key) {
+        if (key == null) {
+            return List.of();
+        }
+        NavigableMap<Long, T> result = index.get(key);
+        return result != null ? new ArrayList<>(result.values()) : List.of();
+    }
+
+
+    /**
+     * Adds an element.
+     *
+     * @param element the element
+     * @param sequence the sequence number of the element
+     */
+    void add(T element, long sequence) {
+        keysOf(element).forEach(x -> insert(x, element, sequence));
+    }
+
+
+    /**
+     * Removes an element.
+     *
+     * @param element the element
+     * @param sequence the sequence number the element has been added with
+     */
+    void remove(T element, long sequence) {
+        keysOf(element).forEach(x -> removeFromBucket(x, element, sequence));
+    }
+
+
+    /**
+     * Replaces an element. The new element takes the sequence number of the old one.
+     *
+     * @param oldElement the element to replace
+     * @param newElement the new element
+     * @param sequence the sequence number of both elements
+     */
+    void replace(T oldElement, T newElement, long sequence) {
+        Set<Object> newKeys = keysOf(newElement);
+        keysOf(oldElement).stream()
+                .filter(x -> !newKeys.contains(x))
+                .forEach(x -> removeFromBucket(x, oldElement, sequence));
+        newKeys.forEach(x -> insert(x, newElement, sequence));
+    }
+
+
+    void clear() {
+        index.clear();
+    }
+
+
+    private void insert(Object key, T element, long sequence) {
+        index.computeIfAbsent(key, k -> new TreeMap<>()).put(sequence, element);
+    }
+
+
+    private void removeFromBucket(Object key, T element, long sequence) {
+        index.computeIfPresent(key, (k, bucket) -> {
+            if (bucket.get(sequence) == element) {
+                bucket.remove(sequence);
+            }
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+
+    private Set<Object> keysOf(T element) {
+        Collection<?> keys = element != null ? keyExtractor.apply(element) : null;
+        if (keys == null) {
+            return Set.of();
+        }
+        return keys.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import io.adminshell.aas.v3.model.AnnotatedRelationshipElement;
+import io.adminshell.aas.v3.model.Entity;
+import io.adminshell.aas.v3.model.Referable;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * Index of submodel elements by submodel identifier and idShort path. Each entry holds the live submodel element as
+ * well as its direct parent, i.e. the {@link Submodel}, {@link SubmodelElementCollection}, {@link Entity} or
+ * {@link AnnotatedRelationshipElement} containing it.
+ *
+ * <p>The index of a submodel is created lazily on first access. Code modifying the submodel elements of an indexed
+ * submodel must update the index via {@link #put(Submodel, List, Referable, SubmodelElement)},
+ * {@link #remove(Submodel, List)} and {@link #replace(Submodel, Submodel, List)} or discard it via
+ * {@link #invalidate(Submodel)}.
+ *
+ * <p>idShorts are compared case-sensitive, identifiers of submodels case-insensitive.
+ */
+public class SubmodelElementIndex {
+
+    private static final char PATH_SEPARATOR = '.';
+    private final Map<String, SubmodelEntries> index;
+    private boolean active;
+
+    public SubmodelElementIndex() {
+        index = new ConcurrentHashMap<>();
+        active = true;
+    }
+
+
+    public boolean isActive() {
+        return active;
+    }
+
+
+    /**
+     * Activates or deactivates the index. A deactivated index is empty and does not answer any lookups.
+     *
+     * @param active true to activate the index, false to deactivate it
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+        if (!active) {
+            clear();
+        }
+    }
+
+
+    /**
+     * Removes all entries from the index.
+     */
+    public void clear() {
+        index.clear();
+    }
+
+
+    /**
+     * Finds a submodel element by its idShort path.
+     *
+     * @param submodel the submodel containing the element
+     * @param idShortPath the idShort path of the element relative to the submodel
+     * @return the entry containing the element and its parent or null if there is no such element or the index is not
+     *         active
+     */
+    public Entry get(Submodel submodel, List<String> idShortPath) {
+        if (!active || !hasIdentifier(submodel) || idShortPath == null || idShortPath.isEmpty()) {
+            return null;
+        }
+        SubmodelEntries entries = index.get(key(submodel));
+        // the index may still belong to a previous instance of a submodel with the same identifier
+        if (entries == null || entries.submodel != submodel) {
+            entries = new SubmodelEntries(submodel);
+            index.put(key(submodel), entries);
+        }
+        return entries.elements.get(asPath(idShortPath));
+    }
+
+
+    /**
+     * Adds or updates a submodel element. If an element with the same idShort path exists, it and all its children are
+     * replaced. Nothing happens if the submodel has not been indexed yet.
+     *
+     * @param submodel the submodel containing the element
+     * @param parentPath the idShort path of the parent, empty if the parent is the submodel itself
+     * @param parent the parent containing the element
+     * @param element the element
+     */
+    public void put(Submodel submodel, List<String> parentPath, Referable parent, SubmodelElement element) {
+        SubmodelEntries entries = entriesOf(submodel);
+        if (entries == null) {
+            return;
+        }
+        List<String> path = new ArrayList<>(parentPath);
+        path.add(element.getIdShort());
+        entries.removeSubtree(asPath(path));
+        entries.add(asPath(parentPath), parent, List.of(element));
+    }
+
+
+    /**
+     * Removes a submodel element including all its children. Nothing happens if the submodel has not been indexed yet.
+     *
+     * @param submodel the submodel containing the element
+     * @param idShortPath the idShort path of the element to remove
+     */
+    public void remove(Submodel submodel, List<String> idShortPath) {
+        SubmodelEntries entries = entriesOf(submodel);
+        if (entries == null) {
+            return;
+        }
+        entries.removeSubtree(asPath(idShortPath));
+    }
+
+
+    /**
+     * Moves the index of a submodel to a copy of it that shares all submodel elements with the previous instance except
+     * the copied containers along the given path, i.e. only the entries of the children of the copied containers are
+     * updated. Nothing happens if the previous instance has not been indexed yet.
+     *
+     * @param previous the previous instance of the submodel
+     * @param copy the copy replacing the previous instance
+     * @param idShortPath the idShort path of the last copied container, empty if only the submodel has been copied
+     */
+    public void replace(Submodel previous, Submodel copy, List<String> idShortPath) {
+        SubmodelEntries entries = entriesOf(previous);
+        if (entries == null || !hasIdentifier(copy) || !key(previous).equals(key(copy))) {
+            invalidate(previous);
+            return;
+        }
+        SubmodelEntries result = new SubmodelEntries(copy, entries.elements);
+        result.update("", copy, copy.getSubmodelElements());
+        List<String> path = new ArrayList<>();
+        for (String idShort: idShortPath) {
+            path.add(idShort);
+            Entry entry = result.elements.get(asPath(path));
+            if (entry == null) {
+                break;
+            }
+            result.update(asPath(path), entry.getElement(), childrenOf(entry.getElement()));
+        }
+        index.put(key(copy), result);
+    }
+
+
+    /**
+     * Discards the index of a submodel. It will be re-created on next access.
+     *
+     * @param submodel the submodel
+     */
+    public void invalidate(Submodel submodel) {
+        if (hasIdentifier(submodel)) {
+            index.remove(key(submodel));
+        }
+    }
+
+
+    private SubmodelEntries entriesOf(Submodel submodel) {
+        if (!active || !hasIdentifier(submodel)) {
+            return null;
+        }
+        SubmodelEntries result = index.get(key(submodel));
+        return result != null && result.submodel == submodel ? result : null;
+    }
+
+
+    private static boolean hasIdentifier(Submodel submodel) {
+        return submodel != null
+                && submodel.getIdentification() != null
+                && submodel.getIdentification().getIdentifier() != null;
+    }
+
+
+    private static Collection<? extends SubmodelElement> childrenOf(SubmodelElement element) {
+        if (SubmodelElementCollection.class.isAssignableFrom(element.getClass())) {
+            return ((SubmodelElementCollection) element).getValues();
+        }
+        if (Entity.class.isAssignableFrom(element.getClass())) {
+            return ((Entity) element).getStatements();
+        }
+        if (AnnotatedRelationshipElement.class.isAssignableFrom(element.getClass())) {
+            return ((AnnotatedRelationshipElement) element).getAnnotations();
+        }
+        return null;
+    }
+
+
+    private static String key(Submodel submodel) {
+        return submodel.getIdentification().getIdentifier().toLowerCase(Locale.ROOT);
+    }
+
+
+    private static String asPath(List<String> idShortPath) {
+        return String.join(String.valueOf(PATH_SEPARATOR), idShortPath);
+    }
+
+    private static class SubmodelEntries {
+
+        private final Submodel submodel;
+        private final NavigableMap<String, Entry> elements;
+
+        private SubmodelEntries(Submodel submodel) {
+            this.submodel = submodel;
+            this.elements = new ConcurrentSkipListMap<>();
+            add("", submodel, submodel.getSubmodelElements());
+        }
+
+
+        private SubmodelEntries(Submodel submodel, NavigableMap<String, Entry> elements) {
+            this.submodel = submodel;
+            this.elements = elements;
+        }
+
+
+        private void add(String parentPath, Referable parent, Collection<? extends SubmodelElement> children) {
+            if (children == null) {
+                return;
+            }
+            for (SubmodelElement child: children) {
+                if (child == null || child.getIdShort() == null) {
+                    continue;
+                }
+                String path = parentPath.isEmpty() ? child.getIdShort() : parentPath + PATH_SEPARATOR + child.getIdShort();
+                elements.putIfAbsent(path, new Entry(parent, child));
+                add(path, child, childrenOf(child));
+            }
+        }
+
+
+        private void update(String parentPath, Referable parent, Collection<? extends SubmodelElement> children) {
+            if (children == null) {
+                return;
+            }
+            for (SubmodelElement child: children) {
+                if (child == null || child.getIdShort() == null) {
+                    continue;
+                }
+                String path = parentPath.isEmpty() ? child.getIdShort() : parentPath + PATH_SEPARATOR + child.getIdShort();
+                Entry current = elements.get(path);
+                // keeps the first of multiple children with the same idShort like add
+                if (current == null || current.parent != parent) {
+                    elements.put(path, new Entry(parent, child));
+                }
+            }
+        }
+
+
+        private void removeSubtree(String path) {
+            elements.remove(path);
+            elements.subMap(path + PATH_SEPARATOR, path + (char) (PATH_SEPARATOR + 1)).clear();
+        }
+    }
+
+    /**
+     * Entry of the index.
+     */
+    public static class Entry {
+
+        private final Referable parent;
+        private final SubmodelElement element;
+
+        private Entry(Referable parent, SubmodelElement element) {
+            this.parent = parent;
+            this.element = element;
+        }
+
+
+        public Referable getParent() {
+            return parent;
+        }
+
+
+        public SubmodelElement getElement() {
+            return element;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import com.google.common.reflect.TypeToken;
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
 import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.TransactionConflictException;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Message;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.MessageType;
@@ -155,6 +156,9 @@ public class RequestHandlerManager {
         catch (ResourceNotFoundException e) {
             return createResponse(request, StatusCode.CLIENT_ERROR_RESOURCE_NOT_FOUND, MessageType.ERROR, e);
         }
+        catch (TransactionConflictException e) {
+            return createResponse(request, StatusCode.CLIENT_ERROR_RESOURCE_CONFLICT, MessageType.ERROR, e);
+        }
     }
 
 
@@ -28,12 +28,15 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.value.DataElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.mapper.ElementValueMapper;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
 import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
 import io.adminshell.aas.v3.model.SubmodelElementCollection;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.apache.commons.lang3.reflect.ConstructorUtils;
@@ -121,4 +124,73 @@ public abstract class AbstractRequestHandler<I extends Request<O>, O extends Res
             }
         }
     }
+
+
+    /**
+     * Synchronizes the submodel elements of a submodel with their asset connections, see
+     * {@link #syncWithAsset(Reference, Collection)}. As elements read from the persistence might be shared, the
+     * submodel is copied before if any of its elements is connected to the asset.
+     *
+     * @param submodel the submodel
+     * @return the submodel itself if nothing needed to be synchronized, otherwise a synchronized copy of it
+     * @throws ResourceNotFoundException if reference does not point to valid element
+     * @throws AssetConnectionException if reading value from asset connection fails
+     * @throws de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueMappingException if mapping value read from
+     *             asset connection fails
+     * @throws de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException if publishing fails
+     */
+    protected Submodel copyAndSyncWithAsset(Submodel submodel)
+            throws ResourceNotFoundException, AssetConnectionException, ValueMappingException, MessageBusException {
+        if (submodel == null) {
+            return null;
+        }
+        Reference reference = AasUtils.toReference(submodel);
+        if (!hasValueProvider(reference, submodel.getSubmodelElements())) {
+            return submodel;
+        }
+        Submodel result = DeepCopyHelper.deepCopy(submodel, Submodel.class);
+        syncWithAsset(reference, result.getSubmodelElements());
+        return result;
+    }
+
+
+    /**
+     * Synchronizes submodel elements with their asset connections, see {@link #syncWithAsset(Reference, Collection)}.
+     * As elements read from the persistence might be shared, the elements are copied before if any of them is connected
+     * to the asset.
+     *
+     * @param parent of the SubmodelElement List
+     * @param submodelElements List of SubmodelElements which should be synchronized
+     * @return the list itself if nothing needed to be synchronized, otherwise a synchronized copy of it
+     * @throws ResourceNotFoundException if reference does not point to valid element
+     * @throws AssetConnectionException if reading value from asset connection fails
+     * @throws de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueMappingException if mapping value read from
+     *             asset connection fails
+     * @throws de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException if publishing fails
+     */
+    protected List<SubmodelElement> copyAndSyncWithAsset(Reference parent, List<SubmodelElement> submodelElements)
+            throws ResourceNotFoundException, AssetConnectionException, ValueMappingException, MessageBusException {
+        if (parent == null || !hasValueProvider(parent, submodelElements)) {
+            return submodelElements;
+        }
+        List<SubmodelElement> result = DeepCopyHelper.deepCopy(submodelElements, SubmodelElement.class);
+        syncWithAsset(parent, result);
+        return result;
+    }
+
+
+    private boolean hasValueProvider(Reference parent, Collection<SubmodelElement> submodelElements) {
+        if (submodelElements == null) {
+            return false;
+        }
+        for (SubmodelElement submodelElement: submodelElements) {
+            Reference reference = AasUtils.toReference(parent, submodelElement);
+            if (assetConnectionManager.hasValueProvider(reference)
+                    || (SubmodelElementCollection.class.isAssignableFrom(submodelElement.getClass())
+                            && hasValueProvider(reference, ((SubmodelElementCollection) submodelElement).getValues()))) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
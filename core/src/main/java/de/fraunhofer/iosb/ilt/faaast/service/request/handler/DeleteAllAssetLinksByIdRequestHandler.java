@@ -22,6 +22,8 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteAllAssetLinksByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteAllAssetLinksByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 
 
@@ -41,10 +43,13 @@ public class DeleteAllAssetLinksByIdRequestHandler extends AbstractRequestHandle
     @Override
     public DeleteAllAssetLinksByIdResponse process(DeleteAllAssetLinksByIdRequest request) throws ResourceNotFoundException {
         DeleteAllAssetLinksByIdResponse response = new DeleteAllAssetLinksByIdResponse();
-        AssetAdministrationShell aas = (AssetAdministrationShell) persistence.get(request.getId(), QueryModifier.DEFAULT);
-        aas.getAssetInformation().setGlobalAssetId(null);
-        aas.getAssetInformation().getSpecificAssetIds().clear();
-        persistence.put(aas);
+        try (Transaction transaction = persistence.beginTransaction()) {
+            AssetAdministrationShell aas = DeepCopyHelper.deepCopy(persistence.get(request.getId(), QueryModifier.DEFAULT), AssetAdministrationShell.class);
+            aas.getAssetInformation().setGlobalAssetId(null);
+            aas.getAssetInformation().getSpecificAssetIds().clear();
+            persistence.put(aas);
+            transaction.commit();
+        }
         response.setStatusCode(StatusCode.SUCCESS_NO_CONTENT);
         return response;
     }
@@ -24,6 +24,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteAssetAdmin
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementDeleteEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteAssetAdministrationShellByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 
 
@@ -45,8 +46,12 @@ public class DeleteAssetAdministrationShellByIdRequestHandler
     @Override
     public DeleteAssetAdministrationShellByIdResponse process(DeleteAssetAdministrationShellByIdRequest request) throws ResourceNotFoundException, MessageBusException {
         DeleteAssetAdministrationShellByIdResponse response = new DeleteAssetAdministrationShellByIdResponse();
-        AssetAdministrationShell shell = (AssetAdministrationShell) persistence.get(request.getId(), new QueryModifier());
-        persistence.remove(request.getId());
+        AssetAdministrationShell shell;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            shell = (AssetAdministrationShell) persistence.get(request.getId(), new QueryModifier());
+            persistence.remove(request.getId());
+            transaction.commit();
+        }
         response.setStatusCode(StatusCode.SUCCESS_NO_CONTENT);
         messageBus.publish(ElementDeleteEventMessage.builder()
                 .element(shell)
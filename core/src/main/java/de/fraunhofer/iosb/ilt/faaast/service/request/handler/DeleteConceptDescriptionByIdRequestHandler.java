@@ -24,6 +24,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteConceptDes
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementDeleteEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteConceptDescriptionByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import io.adminshell.aas.v3.model.ConceptDescription;
 
 
@@ -43,8 +44,12 @@ public class DeleteConceptDescriptionByIdRequestHandler extends AbstractRequestH
     @Override
     public DeleteConceptDescriptionByIdResponse process(DeleteConceptDescriptionByIdRequest request) throws ResourceNotFoundException, MessageBusException {
         DeleteConceptDescriptionByIdResponse response = new DeleteConceptDescriptionByIdResponse();
-        ConceptDescription conceptDescription = (ConceptDescription) persistence.get(request.getId(), new QueryModifier());
-        persistence.remove(request.getId());
+        ConceptDescription conceptDescription;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            conceptDescription = (ConceptDescription) persistence.get(request.getId(), new QueryModifier());
+            persistence.remove(request.getId());
+            transaction.commit();
+        }
         response.setStatusCode(StatusCode.SUCCESS_NO_CONTENT);
         messageBus.publish(ElementDeleteEventMessage.builder()
                 .element(conceptDescription)
@@ -24,6 +24,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteSubmodelBy
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementDeleteEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteSubmodelByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import io.adminshell.aas.v3.model.Submodel;
 
 
@@ -43,8 +44,12 @@ public class DeleteSubmodelByIdRequestHandler extends AbstractRequestHandler<Del
     @Override
     public DeleteSubmodelByIdResponse process(DeleteSubmodelByIdRequest request) throws ResourceNotFoundException, MessageBusException {
         DeleteSubmodelByIdResponse response = new DeleteSubmodelByIdResponse();
-        Submodel submodel = (Submodel) persistence.get(request.getId(), new QueryModifier());
-        persistence.remove(request.getId());
+        Submodel submodel;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            submodel = (Submodel) persistence.get(request.getId(), new QueryModifier());
+            persistence.remove(request.getId());
+            transaction.commit();
+        }
         response.setStatusCode(StatusCode.SUCCESS_NO_CONTENT);
         //TODO: Delete AssetConnections of underlying submodel elements?
         messageBus.publish(ElementDeleteEventMessage.builder()
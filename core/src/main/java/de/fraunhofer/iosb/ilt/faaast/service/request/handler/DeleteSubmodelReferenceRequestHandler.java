@@ -24,6 +24,8 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteSubmodelRe
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementUpdateEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteSubmodelReferenceRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 
 
@@ -43,9 +45,13 @@ public class DeleteSubmodelReferenceRequestHandler extends AbstractRequestHandle
     @Override
     public DeleteSubmodelReferenceResponse process(DeleteSubmodelReferenceRequest request) throws ResourceNotFoundException, MessageBusException {
         DeleteSubmodelReferenceResponse response = new DeleteSubmodelReferenceResponse();
-        AssetAdministrationShell aas = (AssetAdministrationShell) persistence.get(request.getId(), new QueryModifier());
-        aas.getSubmodels().remove(request.getSubmodelRef());
-        persistence.put(aas);
+        AssetAdministrationShell aas;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            aas = DeepCopyHelper.deepCopy(persistence.get(request.getId(), new QueryModifier()), AssetAdministrationShell.class);
+            aas.getSubmodels().remove(request.getSubmodelRef());
+            persistence.put(aas);
+            transaction.commit();
+        }
         response.setStatusCode(StatusCode.SUCCESS_NO_CONTENT);
         messageBus.publish(ElementUpdateEventMessage.builder()
                 .element(aas)
@@ -64,7 +64,7 @@ public class GenerateSerializationByIdsRequestHandler extends AbstractRequestHan
                                 .map(LambdaExceptionHelper.rethrowFunction(x -> (Submodel) persistence.get(x, OUTPUT_MODIFIER)))
                                 .collect(Collectors.toList()))
                         .conceptDescriptions(request.getIncludeConceptDescriptions()
-                                ? persistence.getEnvironment().getConceptDescriptions()
+                                ? persistence.get(null, null, null, OUTPUT_MODIFIER)
                                 : List.of())
                         .build())
                 .success()
@@ -16,10 +16,13 @@ package de.fraunhofer.iosb.ilt.faaast.service.request.handler;
 
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellIdsByAssetLinkResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllAssetAdministrationShellIdsByAssetLinkRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
 import de.fraunhofer.iosb.ilt.faaast.service.util.FaaastConstants;
+import io.adminshell.aas.v3.model.AssetAdministrationShell;
 import io.adminshell.aas.v3.model.Identifiable;
 import io.adminshell.aas.v3.model.Identifier;
 import io.adminshell.aas.v3.model.IdentifierKeyValuePair;
@@ -53,7 +56,8 @@ public class GetAllAssetAdministrationShellIdsByAssetLinkRequestHandler
         List<IdentifierKeyValuePair> specificAssetIds = request.getAssetIdentifierPairs().stream()
                 .filter(x -> !Objects.equals(FaaastConstants.KEY_GLOBAL_ASSET_ID, x.getKey()))
                 .collect(Collectors.toList());
-        List<Identifier> result = persistence.getEnvironment().getAssetAdministrationShells().stream()
+        List<AssetAdministrationShell> shells = persistence.get(null, (List<AssetIdentification>) null, QueryModifier.DEFAULT);
+        List<Identifier> result = shells.stream()
                 .filter(aas -> {
                     boolean globalMatch = aas.getAssetInformation().getGlobalAssetId() != null
                             && aas.getAssetInformation().getGlobalAssetId().getKeys() != null
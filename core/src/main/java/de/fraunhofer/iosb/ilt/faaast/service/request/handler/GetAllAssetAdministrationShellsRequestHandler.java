@@ -17,6 +17,7 @@ package de.fraunhofer.iosb.ilt.faaast.service.request.handler;
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellsResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ElementReadEventMessage;
@@ -42,7 +43,8 @@ public class GetAllAssetAdministrationShellsRequestHandler extends AbstractReque
 
     @Override
     public GetAllAssetAdministrationShellsResponse process(GetAllAssetAdministrationShellsRequest request) throws MessageBusException {
-        List<AssetAdministrationShell> shells = persistence.get(null, (List<AssetIdentification>) null, request.getOutputModifier());
+        Page<AssetAdministrationShell> page = persistence.get(null, (List<AssetIdentification>) null, request.getOutputModifier(), request.getPagingInfo());
+        List<AssetAdministrationShell> shells = page.getContent();
         if (shells != null) {
             shells.forEach(LambdaExceptionHelper.rethrowConsumer(
                     x -> messageBus.publish(ElementReadEventMessage.builder()
@@ -52,6 +54,7 @@ public class GetAllAssetAdministrationShellsRequestHandler extends AbstractReque
         }
         return GetAllAssetAdministrationShellsResponse.builder()
                 .payload(shells)
+                .pagingMetadata(page.getMetadata())
                 .success()
                 .build();
     }
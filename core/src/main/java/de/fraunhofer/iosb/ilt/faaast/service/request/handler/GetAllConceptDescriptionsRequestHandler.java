@@ -17,6 +17,7 @@ package de.fraunhofer.iosb.ilt.faaast.service.request.handler;
 import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllConceptDescriptionsResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ElementReadEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllConceptDescriptionsRequest;
@@ -41,7 +42,8 @@ public class GetAllConceptDescriptionsRequestHandler extends AbstractRequestHand
 
     @Override
     public GetAllConceptDescriptionsResponse process(GetAllConceptDescriptionsRequest request) throws MessageBusException {
-        List<ConceptDescription> conceptDescriptions = persistence.get(null, null, null, request.getOutputModifier());
+        Page<ConceptDescription> page = persistence.get(null, null, null, request.getOutputModifier(), request.getPagingInfo());
+        List<ConceptDescription> conceptDescriptions = page.getContent();
         if (conceptDescriptions != null) {
             conceptDescriptions.forEach(LambdaExceptionHelper.rethrowConsumer(
                     x -> messageBus.publish(ElementReadEventMessage.builder()
@@ -51,6 +53,7 @@ public class GetAllConceptDescriptionsRequestHandler extends AbstractRequestHand
         }
         return GetAllConceptDescriptionsResponse.builder()
                 .payload(conceptDescriptions)
+                .pagingMetadata(page.getMetadata())
                 .success()
                 .build();
     }
@@ -19,6 +19,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionMana
 import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllSubmodelElementsResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueMappingException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ElementReadEventMessage;
@@ -50,8 +51,8 @@ public class GetAllSubmodelElementsRequestHandler extends AbstractSubmodelInterf
     public GetAllSubmodelElementsResponse doProcess(GetAllSubmodelElementsRequest request)
             throws AssetConnectionException, ValueMappingException, ResourceNotFoundException, MessageBusException {
         Reference reference = ReferenceHelper.toReference(request.getSubmodelId(), Submodel.class);
-        List<SubmodelElement> submodelElements = persistence.getSubmodelElements(reference, null, request.getOutputModifier());
-        syncWithAsset(reference, submodelElements);
+        Page<SubmodelElement> page = persistence.getSubmodelElements(reference, null, request.getOutputModifier(), request.getPagingInfo());
+        List<SubmodelElement> submodelElements = copyAndSyncWithAsset(reference, page.getContent());
         if (submodelElements != null) {
             submodelElements.forEach(LambdaExceptionHelper.rethrowConsumer(
                     x -> messageBus.publish(ElementReadEventMessage.builder()
@@ -61,6 +62,7 @@ public class GetAllSubmodelElementsRequestHandler extends AbstractSubmodelInterf
         }
         return GetAllSubmodelElementsResponse.builder()
                 .payload(submodelElements)
+                .pagingMetadata(page.getMetadata())
                 .success()
                 .build();
     }
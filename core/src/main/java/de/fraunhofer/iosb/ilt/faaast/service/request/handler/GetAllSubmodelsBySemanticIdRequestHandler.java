@@ -48,9 +48,12 @@ public class GetAllSubmodelsBySemanticIdRequestHandler extends AbstractRequestHa
             throws ResourceNotFoundException, AssetConnectionException, ValueMappingException, MessageBusException {
         List<Submodel> submodels = persistence.get(null, request.getSemanticId(), request.getOutputModifier());
         if (submodels != null) {
-            for (Submodel submodel: submodels) {
+            for (int i = 0; i < submodels.size(); i++) {
+                Submodel submodel = copyAndSyncWithAsset(submodels.get(i));
+                if (submodel != submodels.get(i)) {
+                    submodels.set(i, submodel);
+                }
                 Reference reference = AasUtils.toReference(submodel);
-                syncWithAsset(reference, submodel.getSubmodelElements());
                 messageBus.publish(ElementReadEventMessage.builder()
                         .element(reference)
                         .value(submodel)
@@ -19,6 +19,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionMana
 import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllSubmodelsResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueMappingException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.access.ElementReadEventMessage;
@@ -45,11 +46,15 @@ public class GetAllSubmodelsRequestHandler extends AbstractRequestHandler<GetAll
 
     @Override
     public GetAllSubmodelsResponse process(GetAllSubmodelsRequest request) throws ResourceNotFoundException, AssetConnectionException, ValueMappingException, MessageBusException {
-        List<Submodel> submodels = persistence.get(null, (Reference) null, request.getOutputModifier());
+        Page<Submodel> page = persistence.get(null, (Reference) null, request.getOutputModifier(), request.getPagingInfo());
+        List<Submodel> submodels = page.getContent();
         if (submodels != null) {
-            for (Submodel submodel: submodels) {
+            for (int i = 0; i < submodels.size(); i++) {
+                Submodel submodel = copyAndSyncWithAsset(submodels.get(i));
+                if (submodel != submodels.get(i)) {
+                    submodels.set(i, submodel);
+                }
                 Reference reference = AasUtils.toReference(submodel);
-                syncWithAsset(reference, submodel.getSubmodelElements());
                 messageBus.publish(ElementReadEventMessage.builder()
                         .element(reference)
                         .value(submodel)
@@ -58,6 +63,7 @@ public class GetAllSubmodelsRequestHandler extends AbstractRequestHandler<GetAll
         }
         return GetAllSubmodelsResponse.builder()
                 .payload(submodels)
+                .pagingMetadata(page.getMetadata())
                 .success()
                 .build();
     }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.request.handler;
+
+import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetChangesResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetChangesRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+
+
+/**
+ * Class to handle a {@link de.fraunhofer.iosb.ilt.faaast.service.model.request.GetChangesRequest} in the service and to
+ * send the corresponding response {@link de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetChangesResponse}.
+ * Is responsible for communication with the persistence.
+ */
+public class GetChangesRequestHandler extends AbstractRequestHandler<GetChangesRequest, GetChangesResponse> {
+
+    public GetChangesRequestHandler(Persistence persistence, MessageBus messageBus, AssetConnectionManager assetConnectionManager) {
+        super(persistence, messageBus, assetConnectionManager);
+    }
+
+
+    @Override
+    public GetChangesResponse process(GetChangesRequest request) {
+        return GetChangesResponse.builder()
+                .payload(persistence.getChanges(request.getJournalId(), request.getSince(), request.getLimit()))
+                .success()
+                .build();
+    }
+}
@@ -44,9 +44,8 @@ public class GetSubmodelByIdRequestHandler extends AbstractRequestHandler<GetSub
 
     @Override
     public GetSubmodelByIdResponse process(GetSubmodelByIdRequest request) throws ResourceNotFoundException, AssetConnectionException, ValueMappingException, MessageBusException {
-        Submodel submodel = (Submodel) persistence.get(request.getId(), request.getOutputModifier());
+        Submodel submodel = copyAndSyncWithAsset((Submodel) persistence.get(request.getId(), request.getOutputModifier()));
         Reference reference = AasUtils.toReference(submodel);
-        syncWithAsset(reference, submodel.getSubmodelElements());
         messageBus.publish(ElementReadEventMessage.builder()
                 .element(reference)
                 .value(submodel)
@@ -28,6 +28,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.value.DataElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.mapper.ElementValueMapper;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
@@ -58,7 +59,7 @@ public class GetSubmodelElementByPathRequestHandler extends AbstractSubmodelInte
         if (valueFromAssetConnection.isPresent()) {
             ElementValue oldValue = ElementValueMapper.toValue(submodelElement);
             if (!Objects.equals(valueFromAssetConnection, oldValue)) {
-                submodelElement = ElementValueMapper.setValue(submodelElement, valueFromAssetConnection.get());
+                submodelElement = ElementValueMapper.setValue(DeepCopyHelper.deepCopy(submodelElement, SubmodelElement.class), valueFromAssetConnection.get());
                 persistence.put(null, reference, submodelElement);
                 messageBus.publish(ValueChangeEventMessage.builder()
                         .element(reference)
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.request.handler;
+
+import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelElementHistoryByPathResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelElementHistoryByPathRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+
+
+/**
+ * Class to handle a
+ * {@link de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelElementHistoryByPathRequest} in the service
+ * and to send the corresponding response
+ * {@link de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelElementHistoryByPathResponse}. Is
+ * responsible for communication with the persistence.
+ */
+public class GetSubmodelElementHistoryByPathRequestHandler
+        extends AbstractSubmodelInterfaceRequestHandler<GetSubmodelElementHistoryByPathRequest, GetSubmodelElementHistoryByPathResponse> {
+
+    public GetSubmodelElementHistoryByPathRequestHandler(Persistence persistence, MessageBus messageBus, AssetConnectionManager assetConnectionManager) {
+        super(persistence, messageBus, assetConnectionManager);
+    }
+
+
+    @Override
+    public GetSubmodelElementHistoryByPathResponse doProcess(GetSubmodelElementHistoryByPathRequest request) throws ResourceNotFoundException {
+        Reference reference = ReferenceHelper.toReference(request.getPath(), request.getSubmodelId(), Submodel.class);
+        // ensure element exists
+        persistence.get(reference, QueryModifier.DEFAULT);
+        return GetSubmodelElementHistoryByPathResponse.builder()
+                .payload(persistence.getValueHistory(
+                        reference,
+                        request.getFrom() != null ? request.getFrom().getTime() : Long.MIN_VALUE,
+                        request.getTo() != null ? request.getTo().getTime() : Long.MAX_VALUE))
+                .success()
+                .build();
+    }
+}
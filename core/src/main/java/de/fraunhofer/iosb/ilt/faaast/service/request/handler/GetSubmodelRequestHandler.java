@@ -44,9 +44,8 @@ public class GetSubmodelRequestHandler extends AbstractSubmodelInterfaceRequestH
 
     @Override
     public GetSubmodelResponse doProcess(GetSubmodelRequest request) throws ResourceNotFoundException, AssetConnectionException, ValueMappingException, MessageBusException {
-        Submodel submodel = (Submodel) persistence.get(request.getSubmodelId(), request.getOutputModifier());
+        Submodel submodel = copyAndSyncWithAsset((Submodel) persistence.get(request.getSubmodelId(), request.getOutputModifier()));
         Reference reference = AasUtils.toReference(submodel);
-        syncWithAsset(reference, submodel.getSubmodelElements());
         messageBus.publish(ElementReadEventMessage.builder()
                 .element(reference)
                 .value(submodel)
@@ -22,6 +22,8 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PostAllAssetLinksByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PostAllAssetLinksByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.FaaastConstants;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
@@ -53,56 +55,60 @@ public class PostAllAssetLinksByIdRequestHandler extends AbstractRequestHandler<
 
     @Override
     public PostAllAssetLinksByIdResponse process(PostAllAssetLinksByIdRequest request) throws ResourceNotFoundException {
-        AssetAdministrationShell aas = (AssetAdministrationShell) persistence.get(request.getId(), QueryModifier.DEFAULT);
-        List<IdentifierKeyValuePair> globalKeys = request.getAssetLinks().stream()
-                .filter(x -> FaaastConstants.KEY_GLOBAL_ASSET_ID.equals(x.getKey()))
-                .collect(Collectors.toList());
-        if (!globalKeys.isEmpty()) {
-            if (globalKeys.size() == 1 && globalKeys.get(0) != null) {
-                Reference parsedReference = AasUtils.parseReference(globalKeys.get(0).getValue());
-                aas.getAssetInformation().setGlobalAssetId(parsedReference != null
-                        ? parsedReference
-                        : new DefaultReference.Builder()
-                                .key(new DefaultKey.Builder()
-                                        .idType(KeyType.IRI)
-                                        .type(KeyElements.ASSET)
-                                        .value(globalKeys.get(0).getValue())
-                                        .build())
-                                .build());
-            }
-            else {
-                return PostAllAssetLinksByIdResponse.builder()
-                        .error(StatusCode.CLIENT_ERROR_BAD_REQUEST,
-                                String.format("request can contain at most 1 element with key '%s', but %d found",
-                                        FaaastConstants.KEY_GLOBAL_ASSET_ID,
-                                        globalKeys.size()))
-                        .build();
-            }
-        }
-        List<IdentifierKeyValuePair> newSpecificAssetIds = request.getAssetLinks().stream()
-                .filter(x -> !Objects.equals(FaaastConstants.KEY_GLOBAL_ASSET_ID, x.getKey()))
-                .collect(Collectors.toList());
-        for (var newSpecificAssetId: newSpecificAssetIds) {
-            List<IdentifierKeyValuePair> existingLinks = aas.getAssetInformation().getSpecificAssetIds().stream()
-                    .filter(x -> Objects.equals(x.getKey(), newSpecificAssetId.getKey()))
+        AssetAdministrationShell aas;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            aas = DeepCopyHelper.deepCopy(persistence.get(request.getId(), QueryModifier.DEFAULT), AssetAdministrationShell.class);
+            List<IdentifierKeyValuePair> globalKeys = request.getAssetLinks().stream()
+                    .filter(x -> FaaastConstants.KEY_GLOBAL_ASSET_ID.equals(x.getKey()))
                     .collect(Collectors.toList());
-            if (existingLinks.isEmpty()) {
-                aas.getAssetInformation().getSpecificAssetIds().add(newSpecificAssetId);
+            if (!globalKeys.isEmpty()) {
+                if (globalKeys.size() == 1 && globalKeys.get(0) != null) {
+                    Reference parsedReference = AasUtils.parseReference(globalKeys.get(0).getValue());
+                    aas.getAssetInformation().setGlobalAssetId(parsedReference != null
+                            ? parsedReference
+                            : new DefaultReference.Builder()
+                                    .key(new DefaultKey.Builder()
+                                            .idType(KeyType.IRI)
+                                            .type(KeyElements.ASSET)
+                                            .value(globalKeys.get(0).getValue())
+                                            .build())
+                                    .build());
+                }
+                else {
+                    return PostAllAssetLinksByIdResponse.builder()
+                            .error(StatusCode.CLIENT_ERROR_BAD_REQUEST,
+                                    String.format("request can contain at most 1 element with key '%s', but %d found",
+                                            FaaastConstants.KEY_GLOBAL_ASSET_ID,
+                                            globalKeys.size()))
+                            .build();
+                }
             }
-            else if (existingLinks.size() == 1) {
-                aas.getAssetInformation().getSpecificAssetIds().remove(existingLinks.get(0));
-                aas.getAssetInformation().getSpecificAssetIds().add(newSpecificAssetId);
-            }
-            else {
-                return PostAllAssetLinksByIdResponse.builder()
-                        .error(StatusCode.CLIENT_ERROR_BAD_REQUEST,
-                                String.format("error updating specificAssetId - found %d entries for key '%s', but expected only one",
-                                        existingLinks.size(),
-                                        newSpecificAssetId.getKey()))
-                        .build();
+            List<IdentifierKeyValuePair> newSpecificAssetIds = request.getAssetLinks().stream()
+                    .filter(x -> !Objects.equals(FaaastConstants.KEY_GLOBAL_ASSET_ID, x.getKey()))
+                    .collect(Collectors.toList());
+            for (var newSpecificAssetId: newSpecificAssetIds) {
+                List<IdentifierKeyValuePair> existingLinks = aas.getAssetInformation().getSpecificAssetIds().stream()
+                        .filter(x -> Objects.equals(x.getKey(), newSpecificAssetId.getKey()))
+                        .collect(Collectors.toList());
+                if (existingLinks.isEmpty()) {
+                    aas.getAssetInformation().getSpecificAssetIds().add(newSpecificAssetId);
+                }
+                else if (existingLinks.size() == 1) {
+                    aas.getAssetInformation().getSpecificAssetIds().remove(existingLinks.get(0));
+                    aas.getAssetInformation().getSpecificAssetIds().add(newSpecificAssetId);
+                }
+                else {
+                    return PostAllAssetLinksByIdResponse.builder()
+                            .error(StatusCode.CLIENT_ERROR_BAD_REQUEST,
+                                    String.format("error updating specificAssetId - found %d entries for key '%s', but expected only one",
+                                            existingLinks.size(),
+                                            newSpecificAssetId.getKey()))
+                            .build();
+                }
             }
+            aas = (AssetAdministrationShell) persistence.put(aas);
+            transaction.commit();
         }
-        aas = (AssetAdministrationShell) persistence.put(aas);
         List<IdentifierKeyValuePair> result = new ArrayList<>(aas.getAssetInformation().getSpecificAssetIds());
         if (aas.getAssetInformation().getGlobalAssetId() != null
                 && aas.getAssetInformation().getGlobalAssetId().getKeys() != null
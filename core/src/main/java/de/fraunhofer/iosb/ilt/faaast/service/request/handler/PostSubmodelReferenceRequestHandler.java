@@ -23,6 +23,8 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PostSubmodelRefe
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementUpdateEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PostSubmodelReferenceRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 
 
@@ -41,11 +43,15 @@ public class PostSubmodelReferenceRequestHandler extends AbstractRequestHandler<
 
     @Override
     public PostSubmodelReferenceResponse process(PostSubmodelReferenceRequest request) throws ResourceNotFoundException, MessageBusException {
-        AssetAdministrationShell aas = (AssetAdministrationShell) persistence.get(request.getId(), new QueryModifier());
-        if (!aas.getSubmodels().contains(request.getSubmodelRef())) {
-            aas.getSubmodels().add(request.getSubmodelRef());
+        AssetAdministrationShell aas;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            aas = DeepCopyHelper.deepCopy(persistence.get(request.getId(), new QueryModifier()), AssetAdministrationShell.class);
+            if (!aas.getSubmodels().contains(request.getSubmodelRef())) {
+                aas.getSubmodels().add(request.getSubmodelRef());
+            }
+            persistence.put(aas);
+            transaction.commit();
         }
-        persistence.put(aas);
         messageBus.publish(ElementUpdateEventMessage.builder()
                 .element(aas)
                 .value(aas)
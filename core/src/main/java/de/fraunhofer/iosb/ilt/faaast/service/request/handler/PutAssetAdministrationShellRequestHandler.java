@@ -23,6 +23,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PutAssetAdminist
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementUpdateEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PutAssetAdministrationShellRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 
 
@@ -41,8 +42,13 @@ public class PutAssetAdministrationShellRequestHandler extends AbstractRequestHa
 
     @Override
     public PutAssetAdministrationShellResponse process(PutAssetAdministrationShellRequest request) throws ResourceNotFoundException, MessageBusException {
-        AssetAdministrationShell shell = (AssetAdministrationShell) persistence.get(request.getAas().getIdentification(), new OutputModifier());
-        shell = (AssetAdministrationShell) persistence.put(request.getAas());
+        AssetAdministrationShell shell;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            //check if resource does exist
+            persistence.get(request.getAas().getIdentification(), new OutputModifier());
+            shell = (AssetAdministrationShell) persistence.put(request.getAas());
+            transaction.commit();
+        }
         messageBus.publish(ElementUpdateEventMessage.builder()
                 .element(shell)
                 .value(shell)
@@ -24,6 +24,8 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PutAssetInformat
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementUpdateEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PutAssetInformationRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 
 
@@ -43,9 +45,13 @@ public class PutAssetInformationRequestHandler extends AbstractRequestHandler<Pu
     @Override
     public PutAssetInformationResponse process(PutAssetInformationRequest request) throws ResourceNotFoundException, MessageBusException {
         PutAssetInformationResponse response = new PutAssetInformationResponse();
-        AssetAdministrationShell shell = (AssetAdministrationShell) persistence.get(request.getId(), new QueryModifier());
-        shell.setAssetInformation(request.getAssetInformation());
-        persistence.put(shell);
+        AssetAdministrationShell shell;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            shell = DeepCopyHelper.deepCopy(persistence.get(request.getId(), new QueryModifier()), AssetAdministrationShell.class);
+            shell.setAssetInformation(request.getAssetInformation());
+            persistence.put(shell);
+            transaction.commit();
+        }
         response.setStatusCode(StatusCode.SUCCESS_NO_CONTENT);
         messageBus.publish(ElementUpdateEventMessage.builder()
                 .element(shell)
@@ -23,6 +23,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PutConceptDescri
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementUpdateEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PutConceptDescriptionByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import io.adminshell.aas.v3.model.ConceptDescription;
 
 
@@ -41,8 +42,13 @@ public class PutConceptDescriptionByIdRequestHandler extends AbstractRequestHand
 
     @Override
     public PutConceptDescriptionByIdResponse process(PutConceptDescriptionByIdRequest request) throws ResourceNotFoundException, MessageBusException {
-        ConceptDescription conceptDescription = (ConceptDescription) persistence.get(request.getConceptDescription().getIdentification(), new OutputModifier());
-        conceptDescription = (ConceptDescription) persistence.put(request.getConceptDescription());
+        ConceptDescription conceptDescription;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            //check if resource does exist
+            persistence.get(request.getConceptDescription().getIdentification(), new OutputModifier());
+            conceptDescription = (ConceptDescription) persistence.put(request.getConceptDescription());
+            transaction.commit();
+        }
         messageBus.publish(ElementUpdateEventMessage.builder()
                 .element(conceptDescription)
                 .value(conceptDescription)
@@ -25,6 +25,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueMappingExcepti
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementUpdateEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PutSubmodelByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
@@ -45,9 +46,13 @@ public class PutSubmodelByIdRequestHandler extends AbstractRequestHandler<PutSub
 
     @Override
     public PutSubmodelByIdResponse process(PutSubmodelByIdRequest request) throws ResourceNotFoundException, AssetConnectionException, ValueMappingException, MessageBusException {
-        //check if resource does exist
-        persistence.get(request.getSubmodel().getIdentification(), QueryModifier.DEFAULT);
-        Submodel submodel = (Submodel) persistence.put(request.getSubmodel());
+        Submodel submodel;
+        try (Transaction transaction = persistence.beginTransaction()) {
+            //check if resource does exist
+            persistence.get(request.getSubmodel().getIdentification(), QueryModifier.DEFAULT);
+            submodel = (Submodel) persistence.put(request.getSubmodel());
+            transaction.commit();
+        }
         Reference reference = AasUtils.toReference(submodel);
         syncWithAsset(reference, submodel.getSubmodelElements());
         messageBus.publish(ElementUpdateEventMessage.builder()
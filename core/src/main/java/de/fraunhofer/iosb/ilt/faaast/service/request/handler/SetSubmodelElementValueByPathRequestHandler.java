@@ -25,6 +25,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementVal
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.mapper.ElementValueMapper;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
@@ -52,9 +53,9 @@ public class SetSubmodelElementValueByPathRequestHandler
         }
         SetSubmodelElementValueByPathResponse response = new SetSubmodelElementValueByPathResponse();
         Reference reference = ReferenceHelper.toReference(request.getPath(), request.getSubmodelId(), Submodel.class);
-        SubmodelElement submodelElement = persistence.get(reference, new OutputModifier.Builder()
+        SubmodelElement submodelElement = DeepCopyHelper.deepCopy(persistence.get(reference, new OutputModifier.Builder()
                 .extend(Extent.WITH_BLOB_VALUE)
-                .build());
+                .build()), SubmodelElement.class);
         ElementValue oldValue = ElementValueMapper.toValue(submodelElement);
         ElementValue newValue = request.getValueParser().parse(request.getRawValue(), oldValue.getClass());
         ElementValueMapper.setValue(submodelElement, newValue);
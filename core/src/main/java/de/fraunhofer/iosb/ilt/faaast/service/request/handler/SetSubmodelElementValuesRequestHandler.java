@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.request.handler;
+
+import de.fraunhofer.iosb.ilt.faaast.service.assetconnection.AssetConnectionManager;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Extent;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.SetSubmodelElementValuesResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueMappingException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementValuesRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.mapper.ElementValueMapper;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.DataElement;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Class to handle a {@link de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementValuesRequest} in the
+ * service and to send the corresponding response
+ * {@link de.fraunhofer.iosb.ilt.faaast.service.model.api.response.SetSubmodelElementValuesResponse}. All values are
+ * applied at once using {@link Persistence#putAll(Map)}, i.e. either all or none of them. The new values are not
+ * written to asset
+ * connections as this request is intended for values that originate from the asset.
+ */
+public class SetSubmodelElementValuesRequestHandler extends AbstractRequestHandler<SetSubmodelElementValuesRequest, SetSubmodelElementValuesResponse> {
+
+    private static final OutputModifier WITH_BLOB_VALUE = new OutputModifier.Builder()
+            .extend(Extent.WITH_BLOB_VALUE)
+            .build();
+
+    public SetSubmodelElementValuesRequestHandler(Persistence persistence, MessageBus messageBus, AssetConnectionManager assetConnectionManager) {
+        super(persistence, messageBus, assetConnectionManager);
+    }
+
+
+    @Override
+    public SetSubmodelElementValuesResponse process(SetSubmodelElementValuesRequest request)
+            throws ResourceNotFoundException, ValueMappingException, MessageBusException {
+        Ensure.requireNonNull(request.getValues(), "values must be non-null");
+        Map<Reference, SubmodelElement> submodelElements = new LinkedHashMap<>();
+        List<ValueChangeEventMessage> events = new ArrayList<>();
+        for (Map.Entry<Reference, ElementValue> entry: request.getValues().entrySet()) {
+            SubmodelElement submodelElement = copyForUpdate(persistence.get(entry.getKey(), WITH_BLOB_VALUE));
+            ElementValue oldValue = ElementValueMapper.toValue(submodelElement);
+            ElementValueMapper.setValue(submodelElement, entry.getValue());
+            submodelElements.put(entry.getKey(), submodelElement);
+            events.add(ValueChangeEventMessage.builder()
+                    .element(entry.getKey())
+                    .oldValue(oldValue)
+                    .newValue(entry.getValue())
+                    .build());
+        }
+        persistence.putAll(submodelElements);
+        for (ValueChangeEventMessage event: events) {
+            messageBus.publish(event);
+        }
+        return SetSubmodelElementValuesResponse.builder()
+                .success()
+                .build();
+    }
+
+
+    /**
+     * Copies an element so that its value can be set without modifying the stored element. Setting the value of a
+     * data element only replaces its value properties, so a shallow copy is sufficient in that case.
+     *
+     * @param submodelElement the element
+     * @return the copy
+     */
+    private static SubmodelElement copyForUpdate(SubmodelElement submodelElement) {
+        return DataElement.class.isAssignableFrom(submodelElement.getClass())
+                ? DeepCopyHelper.shallowCopy(submodelElement, SubmodelElement.class)
+                : DeepCopyHelper.deepCopy(submodelElement, SubmodelElement.class);
+    }
+}
@@ -14,10 +14,6 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.util;
 
-import io.adminshell.aas.v3.dataformat.DeserializationException;
-import io.adminshell.aas.v3.dataformat.SerializationException;
-import io.adminshell.aas.v3.dataformat.json.JsonDeserializer;
-import io.adminshell.aas.v3.dataformat.json.JsonSerializer;
 import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
 import io.adminshell.aas.v3.model.Referable;
 import java.util.Collection;
@@ -26,7 +22,8 @@ import java.util.stream.Collectors;
 
 
 /**
- * Helper class with methods to create deep copies. Following types are supported:
+ * Helper class with methods to create deep and shallow copies. Copies are created structurally, i.e. by directly
+ * copying all properties without intermediate serialization. Following types are supported:
  * <ul>
  * <li>{@link io.adminshell.aas.v3.model.Identifiable}
  * <li>{@link io.adminshell.aas.v3.model.Referable}
@@ -46,12 +43,7 @@ public class DeepCopyHelper {
      * @throws RuntimeException when operation fails
      */
     public static AssetAdministrationShellEnvironment deepCopy(AssetAdministrationShellEnvironment env) {
-        try {
-            return new JsonDeserializer().read(new JsonSerializer().write(env));
-        }
-        catch (SerializationException | DeserializationException e) {
-            throw new IllegalArgumentException("deep copy of AAS environment failed", e);
-        }
+        return StructuralCopier.copy(env);
     }
 
 
@@ -74,12 +66,31 @@ public class DeepCopyHelper {
             throw new IllegalArgumentException(
                     String.format("type mismatch - can not create deep copy of instance of type %s with target type %s", referable.getClass(), outputClass));
         }
-        try {
-            return (T) new JsonDeserializer().readReferable(new JsonSerializer().write(referable), outputClass);
+        return (T) StructuralCopier.copy(referable);
+    }
+
+
+    /**
+     * Create a shallow copy of a {@link io.adminshell.aas.v3.model.Referable} object, i.e. a new instance sharing all
+     * property values including collections with the original.
+     *
+     * @param referable which should be copied
+     * @param outputClass of the referable
+     * @param <T> type of the referable
+     * @return the copied referable
+     * @throws IllegalArgumentException if outputClass is null
+     * @throws IllegalArgumentException if type of referable if not a subclass of outputClass
+     * @throws RuntimeException when operation fails
+     */
+    public static <T extends Referable> T shallowCopy(Referable referable, Class<T> outputClass) {
+        if (outputClass == null) {
+            throw new IllegalArgumentException("outputClass must be non-null");
         }
-        catch (SerializationException | DeserializationException e) {
-            throw new RuntimeException("deep copy of AAS environment failed", e);
+        if (referable != null && !outputClass.isAssignableFrom(referable.getClass())) {
+            throw new IllegalArgumentException(
+                    String.format("type mismatch - can not create shallow copy of instance of type %s with target type %s", referable.getClass(), outputClass));
         }
+        return (T) StructuralCopier.copyShallow(referable);
     }
 
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.Key;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+
+/**
+ * Caches the results of {@link ReferenceHelper#completeReferenceWithProperKeyElements(Reference,
+ * AssetAdministrationShellEnvironment)}, i.e. maps the values and types of the keys of a reference to the resolved
+ * key types, so that the environment does not need to be scanned again for references resolved before.
+ *
+ * <p>The cache must be invalidated whenever the structure of the environment changes, e.g. when elements are added or
+ * removed. Results computed concurrently to an invalidation are discarded.
+ */
+public class ReferenceResolutionCache {
+
+    private static final int DEFAULT_MAX_SIZE = 10000;
+    private final Cache<List<Object>, List<KeyElements>> cache;
+    private final AtomicLong generation;
+
+    public ReferenceResolutionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSize maximum number of cached references
+     * @throws IllegalArgumentException if maxSize is negative
+     */
+    public ReferenceResolutionCache(int maxSize) {
+        Ensure.require(maxSize >= 0, "maxSize must be non-negative");
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        generation = new AtomicLong();
+    }
+
+
+    /**
+     * Completes the key types of a reference like
+     * {@link ReferenceHelper#completeReferenceWithProperKeyElements(Reference, AssetAdministrationShellEnvironment)}
+     * using the cached result if present.
+     *
+     * @param reference with keys which should be completed
+     * @param env the asset administration shell environment which contains the referenced elements
+     * @throws ResourceNotFoundException if an element referenced by a key could not be found
+     */
+    public void completeReferenceWithProperKeyElements(Reference reference, AssetAdministrationShellEnvironment env) throws ResourceNotFoundException {
+        completeReferenceWithProperKeyElements(reference, () -> env);
+    }
+
+
+    /**
+     * Completes the key types of a reference like
+     * {@link ReferenceHelper#completeReferenceWithProperKeyElements(Reference, AssetAdministrationShellEnvironment)}
+     * using the cached result if present. The environment is only requested if the result is not cached.
+     *
+     * @param reference with keys which should be completed
+     * @param env supplier of the asset administration shell environment which contains the referenced elements
+     * @throws ResourceNotFoundException if an element referenced by a key could not be found
+     */
+    public void completeReferenceWithProperKeyElements(Reference reference, Supplier<AssetAdministrationShellEnvironment> env) throws ResourceNotFoundException {
+        if (reference == null || reference.getKeys() == null || reference.getKeys().isEmpty()) {
+            ReferenceHelper.completeReferenceWithProperKeyElements(reference, env.get());
+            return;
+        }
+        List<Key> keys = reference.getKeys();
+        if (keys.stream().allMatch(x -> x.getType() != null && x.getType() != KeyElements.SUBMODEL_ELEMENT)) {
+            // nothing to complete
+            return;
+        }
+        List<Object> cacheKey = cacheKeyOf(keys);
+        List<KeyElements> types = cache.getIfPresent(cacheKey);
+        if (types != null) {
+            for (int i = 0; i < keys.size(); i++) {
+                keys.get(i).setType(types.get(i));
+            }
+            return;
+        }
+        long currentGeneration = generation.get();
+        ReferenceHelper.completeReferenceWithProperKeyElements(reference, env.get());
+        List<KeyElements> result = keys.stream()
+                .map(Key::getType)
+                .collect(Collectors.toList());
+        if (!result.contains(null) && currentGeneration == generation.get()) {
+            cache.put(cacheKey, result);
+            if (currentGeneration != generation.get()) {
+                cache.invalidate(cacheKey);
+            }
+        }
+    }
+
+
+    /**
+     * Removes all cached results. Must be called whenever the structure of the environment changes.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+
+    private static List<Object> cacheKeyOf(List<Key> keys) {
+        List<Object> result = new ArrayList<>(keys.size() * 2);
+        for (Key key: keys) {
+            result.add(key.getValue() != null ? key.getValue().toLowerCase(Locale.ROOT) : null);
+            result.add(key.getType());
+        }
+        return result;
+    }
+}
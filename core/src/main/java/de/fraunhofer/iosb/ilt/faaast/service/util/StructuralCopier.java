@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Creates deep copies of AAS model objects by copying their bean properties directly, i.e. without any intermediate
+ * serialization. Reflection metadata is resolved once per class and cached.
+ *
+ * <p>Values are copied as follows:
+ * <ul>
+ * <li>null, primitives, boxed primitives, strings, enums, other immutable JDK types and types annotated with
+ * {@link Immutable} are shared
+ * <li>arrays, lists, sets and maps are copied element-wise
+ * <li>all other objects are instantiated using their no-argument constructor and copied property-wise, skipping
+ * properties whose getter is annotated with {@link Derived}
+ * </ul>
+ *
+ * <p>The object structure is expected to be a tree, i.e. objects referenced multiple times are copied multiple times.
+ */
+class StructuralCopier {
+
+    private static final Map<Class<?>, TypeInfo> TYPE_INFOS = new ConcurrentHashMap<>();
+
+    private StructuralCopier() {}
+
+
+    /**
+     * Creates a deep copy of an object.
+     *
+     * @param <T> type of the object
+     * @param obj the object to copy
+     * @return a deep copy of the object
+     * @throws IllegalArgumentException if copying fails
+     */
+    static <T> T copy(T obj) {
+        return (T) copyValue(obj);
+    }
+
+
+    /**
+     * Creates a shallow copy of a bean, i.e. a new instance sharing all property values with the original.
+     *
+     * @param <T> type of the bean
+     * @param bean the bean to copy
+     * @return a shallow copy of the bean
+     * @throws IllegalArgumentException if copying fails
+     */
+    static <T> T copyShallow(T bean) {
+        if (bean == null) {
+            return null;
+        }
+        TypeInfo typeInfo = TYPE_INFOS.computeIfAbsent(bean.getClass(), TypeInfo::new);
+        try {
+            Object result = typeInfo.constructor.newInstance();
+            for (Property property: typeInfo.properties) {
+                property.setter.invoke(result, property.getter.invoke(bean));
+            }
+            return (T) result;
+        }
+        catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException(String.format("shallow copy of object of type %s failed", bean.getClass()), e);
+        }
+    }
+
+
+    private static Object copyValue(Object value) {
+        if (value == null || isImmutable(value.getClass())) {
+            return value;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            return copyArray(value);
+        }
+        if (List.class.isAssignableFrom(type)) {
+            return ((List<?>) value).stream()
+                    .map(StructuralCopier::copyValue)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        if (Set.class.isAssignableFrom(type)) {
+            return ((Set<?>) value).stream()
+                    .map(StructuralCopier::copyValue)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return ((Collection<?>) value).stream()
+                    .map(StructuralCopier::copyValue)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            Map<Object, Object> result = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> result.put(copyValue(k), copyValue(v)));
+            return result;
+        }
+        return copyBean(value);
+    }
+
+
+    private static Object copyArray(Object array) {
+        if (array instanceof byte[]) {
+            return ((byte[]) array).clone();
+        }
+        if (array.getClass().getComponentType().isPrimitive()) {
+            int length = Array.getLength(array);
+            Object result = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, 0, result, 0, length);
+            return result;
+        }
+        Object[] source = (Object[]) array;
+        Object[] result = (Object[]) Array.newInstance(array.getClass().getComponentType(), source.length);
+        for (int i = 0; i < source.length; i++) {
+            result[i] = copyValue(source[i]);
+        }
+        return result;
+    }
+
+
+    private static Object copyBean(Object bean) {
+        TypeInfo typeInfo = TYPE_INFOS.computeIfAbsent(bean.getClass(), TypeInfo::new);
+        try {
+            Object result = typeInfo.constructor.newInstance();
+            for (Property property: typeInfo.properties) {
+                property.setter.invoke(result, copyValue(property.getter.invoke(bean)));
+            }
+            return result;
+        }
+        catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException(String.format("deep copy of object of type %s failed", bean.getClass()), e);
+        }
+    }
+
+
+    private static boolean isImmutable(Class<?> type) {
+        return type.isPrimitive()
+                || Enum.class.isAssignableFrom(type)
+                || String.class == type
+                || Number.class.isAssignableFrom(type)
+                || Boolean.class == type
+                || Character.class == type
+                || type.getName().startsWith("java.time.")
+                || type.isAnnotationPresent(Immutable.class);
+    }
+
+    private static class Property {
+
+        private final Method getter;
+        private final Method setter;
+
+        private Property(Method getter, Method setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    private static class TypeInfo {
+
+        private final Constructor<?> constructor;
+        private final List<Property> properties;
+
+        private TypeInfo(Class<?> type) {
+            try {
+                constructor = type.getConstructor();
+                properties = Stream.of(Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors())
+                        .filter(x -> x.getReadMethod() != null && x.getWriteMethod() != null)
+                        .filter(x -> !x.getReadMethod().isAnnotationPresent(Derived.class))
+                        .map(x -> new Property(x.getReadMethod(), x.getWriteMethod()))
+                        .collect(Collectors.toList());
+            }
+            catch (NoSuchMethodException | IntrospectionException e) {
+                throw new IllegalArgumentException(String.format("deep copy of object of type %s not supported", type), e);
+            }
+        }
+    }
+}
@@ -21,6 +21,9 @@ import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Message;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Result;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.Change;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeType;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Extent;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Level;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
@@ -54,7 +57,9 @@ import io.adminshell.aas.v3.model.impl.DefaultConceptDescription;
 import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
 import io.adminshell.aas.v3.model.impl.DefaultKey;
 import io.adminshell.aas.v3.model.impl.DefaultReference;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import org.junit.Assert;
@@ -523,6 +528,44 @@ public abstract class AbstractInMemoryPersistenceBaseTest {
     }
 
 
+    @Test
+    public void putAllTest() throws ResourceNotFoundException {
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        Submodel submodel = environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().getIdentifier().equalsIgnoreCase(submodelId)).findFirst().get();
+        Map<Reference, SubmodelElement> expected = new LinkedHashMap<>();
+        for (SubmodelElement submodelElement: submodel.getSubmodelElements().subList(0, 2)) {
+            SubmodelElement changed = DeepCopyHelper.deepCopy(submodelElement, submodelElement.getClass());
+            changed.setCategory("NewCategory");
+            expected.put(ReferenceHelper.build(aasId, submodelId, submodelElement.getIdShort()), changed);
+        }
+        persistence.putAll(expected);
+        for (Map.Entry<Reference, SubmodelElement> entry: expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), persistence.get(entry.getKey(), QueryModifier.DEFAULT));
+        }
+    }
+
+
+    @Test
+    public void putAllWithInvalidReferenceTest() throws ResourceNotFoundException {
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        Submodel submodel = environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().getIdentifier().equalsIgnoreCase(submodelId)).findFirst().get();
+        SubmodelElement submodelElement = submodel.getSubmodelElements().get(0);
+        Reference reference = ReferenceHelper.build(aasId, submodelId, submodelElement.getIdShort());
+        SubmodelElement expected = DeepCopyHelper.deepCopy(persistence.get(reference, QueryModifier.DEFAULT), SubmodelElement.class);
+        SubmodelElement changed = DeepCopyHelper.deepCopy(submodelElement, submodelElement.getClass());
+        changed.setCategory("NewCategory");
+        Map<Reference, SubmodelElement> submodelElements = new LinkedHashMap<>();
+        submodelElements.put(reference, changed);
+        submodelElements.put(ReferenceHelper.build(aasId, submodelId, "NonExistingCollection", "NewIdShort"), changed);
+        Assert.assertThrows(ResourceNotFoundException.class, () -> persistence.putAll(submodelElements));
+        Assert.assertEquals(expected, persistence.get(reference, QueryModifier.DEFAULT));
+    }
+
+
     @Test
     public void putSubmodelElementNewInSubmodelElementCollectionTest() throws ResourceNotFoundException {
         SubmodelElement expected = DeepCopyHelper.deepCopy(environment.getSubmodels().get(0).getSubmodelElements().get(0),
@@ -581,6 +624,176 @@ public abstract class AbstractInMemoryPersistenceBaseTest {
     }
 
 
+    @Test
+    public void transactionCommitTest() throws ResourceNotFoundException {
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        ConceptDescription conceptDescription = new DefaultConceptDescription.Builder()
+                .idShort("NewConceptDescription")
+                .identification(new DefaultIdentifier.Builder()
+                        .idType(IdentifierType.IRI)
+                        .identifier("https://acplt.org/NewConceptDescription")
+                        .build())
+                .build();
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.remove(submodelId);
+            persistence.put(conceptDescription);
+            transaction.commit();
+            Assert.assertFalse(transaction.isActive());
+        }
+        Assert.assertThrows(ResourceNotFoundException.class, () -> persistence.get(submodelId, QueryModifier.DEFAULT));
+        Assert.assertEquals(conceptDescription, persistence.get(conceptDescription.getIdentification(), QueryModifier.DEFAULT));
+    }
+
+
+    @Test
+    public void transactionRollbackTest() throws ResourceNotFoundException {
+        Identifier aasId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_AssetAdministrationShell_Mandatory")
+                .build();
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        AssetAdministrationShell expectedAas = DeepCopyHelper.deepCopy(persistence.get(aasId, QueryModifier.DEFAULT), AssetAdministrationShell.class);
+        Submodel expectedSubmodel = DeepCopyHelper.deepCopy(persistence.get(submodelId, QueryModifier.DEFAULT), Submodel.class);
+        Reference submodelElementRef = ReferenceHelper.build(aasId.getIdentifier(), submodelId.getIdentifier(),
+                expectedSubmodel.getSubmodelElements().get(0).getIdShort());
+        ConceptDescription conceptDescription = new DefaultConceptDescription.Builder()
+                .idShort("NewConceptDescription")
+                .identification(new DefaultIdentifier.Builder()
+                        .idType(IdentifierType.IRI)
+                        .identifier("https://acplt.org/NewConceptDescription")
+                        .build())
+                .build();
+        try (Transaction transaction = persistence.beginTransaction()) {
+            SubmodelElement submodelElement = DeepCopyHelper.deepCopy(persistence.get(submodelElementRef, QueryModifier.DEFAULT), SubmodelElement.class);
+            submodelElement.setCategory("NewCategory");
+            persistence.put(null, submodelElementRef, submodelElement);
+            persistence.remove(submodelId);
+            persistence.put(conceptDescription);
+            transaction.rollback();
+        }
+        Assert.assertEquals(expectedAas, persistence.get(aasId, QueryModifier.DEFAULT));
+        Assert.assertEquals(expectedSubmodel, persistence.get(submodelId, QueryModifier.DEFAULT));
+        Assert.assertThrows(ResourceNotFoundException.class, () -> persistence.get(conceptDescription.getIdentification(), QueryModifier.DEFAULT));
+    }
+
+
+    @Test
+    public void transactionRollbackSubmodelElementsTest() throws ResourceNotFoundException {
+        Identifier aasId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_AssetAdministrationShell_Mandatory")
+                .build();
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        Submodel expected = DeepCopyHelper.deepCopy(persistence.get(submodelId, QueryModifier.DEFAULT), Submodel.class);
+        Reference submodelRef = ReferenceHelper.build(aasId.getIdentifier(), submodelId.getIdentifier());
+        Reference removedRef = ReferenceHelper.build(aasId.getIdentifier(), submodelId.getIdentifier(),
+                expected.getSubmodelElements().get(0).getIdShort());
+        SubmodelElement newSubmodelElement = DeepCopyHelper.deepCopy(expected.getSubmodelElements().get(1), SubmodelElement.class);
+        newSubmodelElement.setIdShort("NewSubmodelElement");
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.remove(removedRef);
+            persistence.put(submodelRef, null, newSubmodelElement);
+            transaction.rollback();
+        }
+        Assert.assertEquals(expected, persistence.get(submodelId, QueryModifier.DEFAULT));
+    }
+
+
+    private void initWithChangeJournal() throws ConfigurationException {
+        persistence.stop();
+        PersistenceConfig config = getPersistenceConfig();
+        config.setChangeJournalMaxEntries(100);
+        persistence = getPersistenceImplementation();
+        persistence.init(CoreConfig.builder().build(), config, Mockito.mock(ServiceContext.class));
+    }
+
+
+    @Test
+    public void changeJournalTest() throws ResourceNotFoundException, ConfigurationException {
+        initWithChangeJournal();
+        Identifier aasId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_AssetAdministrationShell_Mandatory")
+                .build();
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        Submodel submodel = (Submodel) persistence.get(submodelId, QueryModifier.DEFAULT);
+        Reference submodelElementRef = ReferenceHelper.build(aasId.getIdentifier(), submodelId.getIdentifier(),
+                submodel.getSubmodelElements().get(0).getIdShort());
+        ChangeSet initial = persistence.getChanges(null, 0, Integer.MAX_VALUE);
+        SubmodelElement submodelElement = DeepCopyHelper.deepCopy(persistence.get(submodelElementRef, QueryModifier.DEFAULT), SubmodelElement.class);
+        submodelElement.setCategory("NewCategory");
+        persistence.put(null, submodelElementRef, submodelElement);
+        persistence.remove(submodelId);
+        ChangeSet actual = persistence.getChanges(initial.getJournalId(), initial.getVersion(), Integer.MAX_VALUE);
+        Assert.assertTrue(actual.isComplete());
+        Assert.assertEquals(initial.getVersion() + 3, actual.getVersion());
+        Assert.assertEquals(List.of(ChangeType.UPDATED, ChangeType.DELETED, ChangeType.UPDATED),
+                actual.getChanges().stream().map(Change::getType).collect(Collectors.toList()));
+        Assert.assertEquals(submodelElement, actual.getChanges().get(0).getValue());
+        Assert.assertEquals(AasUtils.toReference(submodel), actual.getChanges().get(1).getElement());
+        AssetAdministrationShell aas = (AssetAdministrationShell) persistence.get(aasId, QueryModifier.DEFAULT);
+        Assert.assertEquals(AasUtils.toReference(aas), actual.getChanges().get(2).getElement());
+        Assert.assertEquals(aas, actual.getChanges().get(2).getValue());
+        ChangeSet limited = persistence.getChanges(initial.getJournalId(), initial.getVersion(), 1);
+        Assert.assertEquals(initial.getVersion() + 1, limited.getVersion());
+        Assert.assertEquals(actual.getChanges().subList(0, 1), limited.getChanges());
+        Assert.assertFalse(persistence.getChanges("unknown", initial.getVersion(), Integer.MAX_VALUE).isComplete());
+    }
+
+
+    @Test
+    public void changeJournalRollbackTest() throws ResourceNotFoundException, ConfigurationException {
+        initWithChangeJournal();
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        ChangeSet initial = persistence.getChanges(null, 0, Integer.MAX_VALUE);
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.remove(submodelId);
+            transaction.rollback();
+        }
+        ChangeSet actual = persistence.getChanges(initial.getJournalId(), initial.getVersion(), Integer.MAX_VALUE);
+        Assert.assertTrue(actual.isComplete());
+        Assert.assertEquals(initial.getVersion(), actual.getVersion());
+        Assert.assertTrue(actual.getChanges().isEmpty());
+    }
+
+
+    @Test
+    public void transactionRollbackOnCloseTest() throws ResourceNotFoundException {
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.remove(submodelId);
+        }
+        Assert.assertNotNull(persistence.get(submodelId, QueryModifier.DEFAULT));
+    }
+
+
+    @Test
+    public void nestedTransactionTest() throws ResourceNotFoundException {
+        try (Transaction transaction = persistence.beginTransaction()) {
+            Assert.assertThrows(IllegalStateException.class, () -> persistence.beginTransaction());
+            transaction.commit();
+        }
+    }
+
+
     @Test
     public void removeAASTest() throws ResourceNotFoundException {
         Identifier aasId = new DefaultIdentifier.Builder()
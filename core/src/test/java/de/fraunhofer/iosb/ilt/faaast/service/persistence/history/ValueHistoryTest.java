@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.history;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.history.ValueSample;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementDeleteEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.BooleanValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.DoubleValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.IntValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.StringValue;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.model.AssetAdministrationShell;
+import io.adminshell.aas.v3.model.KeyType;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+
+public class ValueHistoryTest {
+
+    private static final Reference REFERENCE = ReferenceHelper.buildReferenceToSubmodelElement("submodel", "property");
+
+    private static List<Double> values(List<ValueSample> samples) {
+        return samples.stream()
+                .map(ValueSample::getValue)
+                .collect(Collectors.toList());
+    }
+
+
+    private static List<Long> timestamps(List<ValueSample> samples) {
+        return samples.stream()
+                .map(x -> x.getTimestamp().getTime())
+                .collect(Collectors.toList());
+    }
+
+
+    private static PropertyValue value(double value) {
+        return new PropertyValue(new DoubleValue(value));
+    }
+
+
+    @Test
+    public void testRecordAndGetRange() {
+        ValueHistory history = new ValueHistory(100, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            history.record(REFERENCE, value(i), i * 1000L);
+        }
+        List<ValueSample> actual = history.get(REFERENCE, 2000, 4000);
+        Assert.assertEquals(List.of(2.0, 3.0, 4.0), values(actual));
+        Assert.assertEquals(List.of(2000L, 3000L, 4000L), timestamps(actual));
+        Assert.assertEquals(10, history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        Assert.assertTrue(history.get(ReferenceHelper.buildReferenceToSubmodelElement("submodel", "other"), Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+
+    @Test
+    public void testRecordIgnoresAasInReference() {
+        ValueHistory history = new ValueHistory(100, 0, 0);
+        history.record(ReferenceHelper.build("aas", "submodel", "property"), value(1), 1000);
+        Assert.assertEquals(List.of(1.0), values(history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE)));
+    }
+
+
+    @Test
+    public void testRecordConvertsValues() {
+        ValueHistory history = new ValueHistory(100, 0, 0);
+        history.record(REFERENCE, new PropertyValue(new IntValue(42)), 1000);
+        history.record(REFERENCE, new PropertyValue(new BooleanValue(true)), 2000);
+        history.record(REFERENCE, new PropertyValue(new StringValue("foo")), 3000);
+        history.record(REFERENCE, null, 4000);
+        Assert.assertEquals(List.of(42.0, 1.0), values(history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE)));
+    }
+
+
+    @Test
+    public void testRecordEvictsOldestWhenFull() {
+        ValueHistory history = new ValueHistory(100, 0, 0);
+        for (int i = 0; i < 250; i++) {
+            history.record(REFERENCE, value(i), i);
+        }
+        List<ValueSample> actual = history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(100, actual.size());
+        Assert.assertEquals(150.0, actual.get(0).getValue(), 0);
+        Assert.assertEquals(249.0, actual.get(99).getValue(), 0);
+    }
+
+
+    @Test
+    public void testRecordWithResolution() {
+        ValueHistory history = new ValueHistory(100, 1000, 0);
+        history.record(REFERENCE, value(1), 100);
+        history.record(REFERENCE, value(2), 900);
+        history.record(REFERENCE, value(3), 1100);
+        List<ValueSample> actual = history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(List.of(2.0, 3.0), values(actual));
+        Assert.assertEquals(List.of(900L, 1100L), timestamps(actual));
+    }
+
+
+    @Test
+    public void testRecordWithRetention() {
+        ValueHistory history = new ValueHistory(100, 0, 1000);
+        long now = System.currentTimeMillis();
+        history.record(REFERENCE, value(1), now - 5000);
+        history.record(REFERENCE, value(2), now - 4500);
+        history.record(REFERENCE, value(3), now);
+        Assert.assertEquals(List.of(3.0), values(history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE)));
+    }
+
+
+    @Test
+    public void testRecordKeepsOrder() {
+        ValueHistory history = new ValueHistory(100, 0, 0);
+        history.record(REFERENCE, value(1), 2000);
+        history.record(REFERENCE, value(2), 1000);
+        Assert.assertEquals(List.of(2000L, 2000L), timestamps(history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE)));
+    }
+
+
+    @Test
+    public void testRemoveDiscardsChildren() {
+        ValueHistory history = new ValueHistory(100, 0, 0);
+        Reference child = ReferenceHelper.buildReferenceToSubmodelElement("submodel", "collection", "property");
+        Reference other = ReferenceHelper.buildReferenceToSubmodelElement("other", "property");
+        history.record(child, value(1), 1000);
+        history.record(other, value(2), 1000);
+        history.remove(ReferenceHelper.buildReferenceToSubmodelElement("submodel", "collection"));
+        history.remove(ReferenceHelper.toReference("aas", KeyType.IRI, AssetAdministrationShell.class));
+        Assert.assertTrue(history.get(child, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        Assert.assertEquals(1, history.get(other, Long.MIN_VALUE, Long.MAX_VALUE).size());
+    }
+
+
+    @Test
+    public void testStartSubscribesToMessageBus() throws MessageBusException {
+        ValueHistory history = new ValueHistory(100, 0, 0);
+        MessageBus messageBus = mock(MessageBus.class);
+        history.start(messageBus);
+        ArgumentCaptor<SubscriptionInfo> captor = ArgumentCaptor.forClass(SubscriptionInfo.class);
+        verify(messageBus, times(2)).subscribe(captor.capture());
+        captor.getAllValues().get(0).getHandler().accept(ValueChangeEventMessage.builder()
+                .element(REFERENCE)
+                .newValue(value(1))
+                .build());
+        Assert.assertEquals(List.of(1.0), values(history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE)));
+        captor.getAllValues().get(1).getHandler().accept(ElementDeleteEventMessage.builder()
+                .element(REFERENCE)
+                .build());
+        Assert.assertTrue(history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+        history.stop(messageBus);
+        verify(messageBus, times(2)).unsubscribe(any());
+    }
+
+
+    @Test
+    public void testDisabled() throws MessageBusException {
+        ValueHistory history = new ValueHistory(0, 0, 0);
+        MessageBus messageBus = mock(MessageBus.class);
+        history.start(messageBus);
+        verify(messageBus, times(0)).subscribe(any());
+        history.record(REFERENCE, value(1), 1000);
+        Assert.assertTrue(history.get(REFERENCE, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+}
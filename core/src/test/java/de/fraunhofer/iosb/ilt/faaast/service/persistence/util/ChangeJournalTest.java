@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.Change;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeType;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ChangeJournalTest {
+
+    private static final Reference REFERENCE = ReferenceHelper.buildReferenceToSubmodelElement("submodel", "property");
+
+    private static List<Long> versions(ChangeSet changeSet) {
+        return changeSet.getChanges().stream()
+                .map(Change::getVersion)
+                .collect(Collectors.toList());
+    }
+
+
+    @Test
+    public void testGetChangesSince() {
+        ChangeJournal journal = new ChangeJournal(10);
+        Assert.assertEquals(1, journal.append(ChangeType.CREATED, REFERENCE, null));
+        Assert.assertEquals(2, journal.append(ChangeType.UPDATED, REFERENCE, null));
+        Assert.assertEquals(3, journal.append(ChangeType.DELETED, REFERENCE, null));
+        ChangeSet actual = journal.getChanges(journal.getId(), 1, Integer.MAX_VALUE);
+        Assert.assertTrue(actual.isComplete());
+        Assert.assertEquals(3, actual.getVersion());
+        Assert.assertEquals(List.of(2L, 3L), versions(actual));
+        Assert.assertEquals(ChangeType.UPDATED, actual.getChanges().get(0).getType());
+        Assert.assertTrue(journal.getChanges(null, 3, Integer.MAX_VALUE).getChanges().isEmpty());
+    }
+
+
+    @Test
+    public void testGetChangesWithLimit() {
+        ChangeJournal journal = new ChangeJournal(10);
+        for (int i = 0; i < 5; i++) {
+            journal.append(ChangeType.UPDATED, REFERENCE, null);
+        }
+        ChangeSet actual = journal.getChanges(null, 1, 2);
+        Assert.assertTrue(actual.isComplete());
+        Assert.assertEquals(3, actual.getVersion());
+        Assert.assertEquals(List.of(2L, 3L), versions(actual));
+    }
+
+
+    @Test
+    public void testEvictedChangesAreIncomplete() {
+        ChangeJournal journal = new ChangeJournal(3);
+        for (int i = 0; i < 5; i++) {
+            journal.append(ChangeType.UPDATED, REFERENCE, null);
+        }
+        ChangeSet evicted = journal.getChanges(null, 1, Integer.MAX_VALUE);
+        Assert.assertFalse(evicted.isComplete());
+        Assert.assertEquals(5, evicted.getVersion());
+        Assert.assertTrue(evicted.getChanges().isEmpty());
+        Assert.assertEquals(List.of(3L, 4L, 5L), versions(journal.getChanges(null, 2, Integer.MAX_VALUE)));
+    }
+
+
+    @Test
+    public void testUnknownJournalOrVersionIsIncomplete() {
+        ChangeJournal journal = new ChangeJournal(10);
+        journal.append(ChangeType.UPDATED, REFERENCE, null);
+        Assert.assertFalse(journal.getChanges("unknown", 0, Integer.MAX_VALUE).isComplete());
+        Assert.assertFalse(journal.getChanges(journal.getId(), 2, Integer.MAX_VALUE).isComplete());
+        Assert.assertNotEquals(journal.getId(), new ChangeJournal(10).getId());
+    }
+
+
+    @Test
+    public void testTruncate() {
+        ChangeJournal journal = new ChangeJournal(3);
+        for (int i = 0; i < 5; i++) {
+            journal.append(ChangeType.UPDATED, REFERENCE, null);
+        }
+        journal.truncate(4);
+        Assert.assertEquals(4, journal.getVersion());
+        Assert.assertEquals(5, journal.append(ChangeType.DELETED, REFERENCE, null));
+        ChangeSet actual = journal.getChanges(null, 3, Integer.MAX_VALUE);
+        Assert.assertEquals(List.of(4L, 5L), versions(actual));
+        Assert.assertEquals(ChangeType.DELETED, actual.getChanges().get(1).getType());
+    }
+
+
+    @Test
+    public void testDisabled() {
+        ChangeJournal journal = new ChangeJournal(0);
+        Assert.assertFalse(journal.isEnabled());
+        journal.append(ChangeType.UPDATED, REFERENCE, null);
+        Assert.assertEquals(1, journal.getVersion());
+        Assert.assertTrue(journal.getChanges(null, 1, Integer.MAX_VALUE).isComplete());
+        Assert.assertFalse(journal.getChanges(null, 0, Integer.MAX_VALUE).isComplete());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class EnvironmentLocksTest {
+
+    private static final String SUBMODEL_1 = "http://example.org/submodel/1";
+    private static final String SUBMODEL_2 = "http://example.org/submodel/2";
+    private static final long TIMEOUT_MS = 200;
+    private EnvironmentLocks locks;
+    private ExecutorService executor;
+
+    @Before
+    public void init() {
+        locks = new EnvironmentLocks(1024);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    private boolean canAcquire(Supplier<EnvironmentLocks.Handle> acquire) throws Exception {
+        Future<?> future = executor.submit(() -> acquire.get().close());
+        try {
+            future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+
+    @Test
+    public void testReadersOfSameSubmodelDoNotBlock() throws Exception {
+        try (EnvironmentLocks.Handle lock = locks.readSubmodel(SUBMODEL_1)) {
+            Assert.assertTrue(canAcquire(() -> locks.readSubmodel(SUBMODEL_1)));
+            Assert.assertTrue(canAcquire(() -> locks.readAll()));
+        }
+    }
+
+
+    @Test
+    public void testWriterBlocksSameSubmodelOnly() throws Exception {
+        try (EnvironmentLocks.Handle lock = locks.writeSubmodel(SUBMODEL_1)) {
+            Assert.assertTrue(canAcquire(() -> locks.readSubmodel(SUBMODEL_2)));
+            Assert.assertTrue(canAcquire(() -> locks.writeSubmodel(SUBMODEL_2)));
+            Assert.assertTrue(canAcquire(() -> locks.readIdentifiables()));
+            Assert.assertFalse(canAcquire(() -> locks.readSubmodel(SUBMODEL_1.toUpperCase())));
+        }
+    }
+
+
+    @Test
+    public void testWriteAllIsExclusive() throws Exception {
+        try (EnvironmentLocks.Handle lock = locks.writeAll()) {
+            Assert.assertFalse(canAcquire(() -> locks.readIdentifiables()));
+        }
+    }
+
+
+    @Test
+    public void testReleaseOnClose() throws Exception {
+        locks.writeSubmodel(SUBMODEL_1).close();
+        locks.writeAll().close();
+        Assert.assertTrue(canAcquire(() -> locks.writeAll()));
+    }
+}
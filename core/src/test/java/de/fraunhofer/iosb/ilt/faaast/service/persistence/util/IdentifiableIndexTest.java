@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.AASFull;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.IdentifierType;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
+import io.adminshell.aas.v3.model.impl.DefaultKey;
+import io.adminshell.aas.v3.model.impl.DefaultReference;
+import io.adminshell.aas.v3.model.impl.DefaultSubmodel;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class IdentifiableIndexTest {
+
+    private AssetAdministrationShellEnvironment environment;
+    private IdentifiableIndex index;
+
+    @Before
+    public void init() {
+        environment = AASFull.createEnvironment();
+        index = new IdentifiableIndex();
+        index.rebuild(environment);
+    }
+
+
+    @Test
+    public void testGetIgnoresCase() {
+        Submodel expected = environment.getSubmodels().get(0);
+        Submodel actual = index.get(new DefaultIdentifier.Builder()
+                .identifier(expected.getIdentification().getIdentifier().toUpperCase())
+                .idType(IdentifierType.IRI)
+                .build());
+        Assert.assertSame(expected, actual);
+    }
+
+
+    @Test
+    public void testPutAndRemove() {
+        Submodel submodel = new DefaultSubmodel.Builder()
+                .idShort("new")
+                .identification(new DefaultIdentifier.Builder()
+                        .identifier("http://example.org/new")
+                        .idType(IdentifierType.IRI)
+                        .build())
+                .build();
+        Assert.assertNull(index.put(submodel));
+        Assert.assertSame(submodel, index.get(Submodel.class, submodel.getIdentification()));
+        index.remove(submodel);
+        Assert.assertNull(index.get(submodel.getIdentification()));
+    }
+
+
+    @Test
+    public void testInactiveScansEnvironment() {
+        index.setActive(false);
+        index.rebuild(environment);
+        Submodel submodel = environment.getSubmodels().get(0);
+        Assert.assertSame(submodel, index.get(submodel.getIdentification()));
+        environment.getSubmodels().remove(0);
+        Assert.assertNull(index.get(Submodel.class, submodel.getIdentification()));
+    }
+
+
+    @Test
+    public void testGetBySemanticIdIgnoresKeyType() {
+        Submodel expected = environment.getSubmodels().stream()
+                .filter(x -> x.getSemanticId() != null)
+                .findFirst().get();
+        Reference semanticId = new DefaultReference.Builder()
+                .keys(expected.getSemanticId().getKeys().stream()
+                        .map(x -> new DefaultKey.Builder()
+                                .type(KeyElements.GLOBAL_REFERENCE)
+                                .idType(x.getIdType())
+                                .value(x.getValue())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+        Assert.assertTrue(index.getSubmodelsBySemanticId(semanticId).contains(expected));
+    }
+
+
+    @Test
+    public void testReplaceKeepsOrder() {
+        Submodel first = environment.getSubmodels().get(0);
+        Submodel second = DeepCopyHelper.deepCopy(first, Submodel.class);
+        second.setIdentification(new DefaultIdentifier.Builder()
+                .identifier("http://example.org/second")
+                .idType(IdentifierType.IRI)
+                .build());
+        index.put(second);
+        Submodel replacement = DeepCopyHelper.deepCopy(first, Submodel.class);
+        index.put(replacement);
+        Assert.assertEquals(List.of(replacement, second), index.getByIdShort(Submodel.class, first.getIdShort().toUpperCase()));
+        Submodel renamed = DeepCopyHelper.deepCopy(first, Submodel.class);
+        renamed.setIdShort("renamed");
+        index.put(renamed);
+        Assert.assertEquals(List.of(second), index.getByIdShort(Submodel.class, first.getIdShort()));
+        Assert.assertEquals(List.of(renamed), index.getByIdShort(Submodel.class, "renamed"));
+        index.remove(renamed);
+        Assert.assertTrue(index.getByIdShort(Submodel.class, "renamed").isEmpty());
+    }
+
+
+    @Test
+    public void testIndexOfFollowsListModifications() {
+        List<Submodel> submodels = environment.getSubmodels();
+        for (int i = 0; i < submodels.size(); i++) {
+            Assert.assertEquals(i, index.indexOf(submodels, submodels.get(i)));
+        }
+        Submodel added = new DefaultSubmodel.Builder()
+                .identification(new DefaultIdentifier.Builder()
+                        .identifier("http://example.org/added")
+                        .idType(IdentifierType.IRI)
+                        .build())
+                .build();
+        index.put(added);
+        EnvironmentHelper.updateIdentifiableList(submodels, null, added, index);
+        Assert.assertEquals(submodels.size() - 1, index.indexOf(submodels, added));
+        Submodel first = submodels.get(0);
+        Submodel replacement = DeepCopyHelper.deepCopy(first, Submodel.class);
+        Submodel current = (Submodel) index.put(replacement);
+        EnvironmentHelper.updateIdentifiableList(submodels, current, replacement, index);
+        Assert.assertSame(replacement, submodels.get(0));
+        Assert.assertEquals(-1, index.indexOf(submodels, first));
+        Submodel removed = submodels.get(1);
+        Assert.assertTrue(EnvironmentHelper.removeFromList(submodels, removed, index));
+        index.remove(removed);
+        Assert.assertEquals(-1, index.indexOf(submodels, removed));
+        for (int i = 0; i < submodels.size(); i++) {
+            Assert.assertEquals(i, index.indexOf(submodels, submodels.get(i)));
+        }
+    }
+
+
+    @Test
+    public void testChangedKeyKeepsListOrder() {
+        Submodel first = environment.getSubmodels().get(0);
+        Submodel second = environment.getSubmodels().get(1);
+        Submodel renamed = DeepCopyHelper.deepCopy(first, Submodel.class);
+        renamed.setIdShort(second.getIdShort());
+        index.put(renamed);
+        Assert.assertEquals(List.of(renamed, second), index.getByIdShort(Submodel.class, second.getIdShort()));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.ExecutionState;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationHandle;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class OperationResultStoreTest {
+
+    private static final String REQUEST_ID = "request";
+
+    private static OperationResult result(ExecutionState state) {
+        return new OperationResult.Builder()
+                .requestId(REQUEST_ID)
+                .executionState(state)
+                .build();
+    }
+
+
+    @Test
+    public void testPutCreatesHandle() {
+        OperationResultStore store = new OperationResultStore(0, 10);
+        OperationHandle handle = store.put(null, REQUEST_ID, null);
+        Assert.assertNotNull(handle.getHandleId());
+        Assert.assertEquals(REQUEST_ID, handle.getRequestId());
+        Assert.assertEquals(ExecutionState.INITIATED, store.getResult(handle.getHandleId()).getExecutionState());
+        Assert.assertEquals(handle, store.put(handle.getHandleId(), REQUEST_ID, result(ExecutionState.COMPLETED)));
+        Assert.assertEquals(ExecutionState.COMPLETED, store.getResult(handle.getHandleId()).getExecutionState());
+    }
+
+
+    @Test
+    public void testMaxEntriesEvictsFinishedOnly() {
+        OperationResultStore store = new OperationResultStore(0, 1);
+        OperationHandle running = store.put(null, REQUEST_ID, result(ExecutionState.RUNNING));
+        OperationHandle finished1 = store.put(null, REQUEST_ID, result(ExecutionState.COMPLETED));
+        OperationHandle finished2 = store.put(null, REQUEST_ID, result(ExecutionState.FAILED));
+        Assert.assertNotNull(store.getResult(running.getHandleId()));
+        Assert.assertNull(store.getResult(finished1.getHandleId()));
+        Assert.assertNotNull(store.getResult(finished2.getHandleId()));
+        OperationResultStore.Metrics metrics = store.getMetrics();
+        Assert.assertEquals(1, metrics.getRunningCount());
+        Assert.assertEquals(1, metrics.getFinishedCount());
+        Assert.assertEquals(1, metrics.getEvictionCount());
+        Assert.assertEquals(1, metrics.getHitCount());
+        Assert.assertEquals(1, metrics.getMissCount());
+    }
+
+
+    @Test
+    public void testTtlEvictsFinished() throws InterruptedException {
+        OperationResultStore store = new OperationResultStore(50, 10);
+        OperationHandle running = store.put(null, REQUEST_ID, result(ExecutionState.RUNNING));
+        OperationHandle finished = store.put(null, REQUEST_ID, result(ExecutionState.COMPLETED));
+        Thread.sleep(100);
+        Assert.assertNotNull(store.getResult(running.getHandleId()));
+        Assert.assertNull(store.getResult(finished.getHandleId()));
+        Assert.assertEquals(0, store.getMetrics().getFinishedCount());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.util;
+
+import io.adminshell.aas.v3.model.IdentifierType;
+import io.adminshell.aas.v3.model.Property;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
+import io.adminshell.aas.v3.model.impl.DefaultProperty;
+import io.adminshell.aas.v3.model.impl.DefaultSubmodel;
+import io.adminshell.aas.v3.model.impl.DefaultSubmodelElementCollection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class SubmodelElementIndexTest {
+
+    private Submodel submodel;
+    private SubmodelElementCollection collection;
+    private Property property;
+    private SubmodelElementIndex index;
+
+    @Before
+    public void init() {
+        property = new DefaultProperty.Builder()
+                .idShort("property")
+                .value("1")
+                .build();
+        collection = new DefaultSubmodelElementCollection.Builder()
+                .idShort("collection")
+                .value(property)
+                .build();
+        submodel = new DefaultSubmodel.Builder()
+                .idShort("submodel")
+                .identification(new DefaultIdentifier.Builder()
+                        .identifier("http://example.org/submodel")
+                        .idType(IdentifierType.IRI)
+                        .build())
+                .submodelElement(collection)
+                .build();
+        index = new SubmodelElementIndex();
+    }
+
+
+    @Test
+    public void testGetNested() {
+        SubmodelElementIndex.Entry actual = index.get(submodel, List.of("collection", "property"));
+        Assert.assertSame(property, actual.getElement());
+        Assert.assertSame(collection, actual.getParent());
+        Assert.assertNull(index.get(submodel, List.of("collection", "Property")));
+    }
+
+
+    @Test
+    public void testPutReplacesSubtree() {
+        index.get(submodel, List.of("collection"));
+        SubmodelElementCollection newCollection = new DefaultSubmodelElementCollection.Builder()
+                .idShort("collection")
+                .build();
+        submodel.getSubmodelElements().clear();
+        submodel.getSubmodelElements().add(newCollection);
+        index.put(submodel, List.of(), submodel, newCollection);
+        Assert.assertSame(newCollection, index.get(submodel, List.of("collection")).getElement());
+        Assert.assertNull(index.get(submodel, List.of("collection", "property")));
+    }
+
+
+    @Test
+    public void testRemove() {
+        index.get(submodel, List.of("collection"));
+        collection.getValues().remove(property);
+        index.remove(submodel, List.of("collection", "property"));
+        Assert.assertNull(index.get(submodel, List.of("collection", "property")));
+        Assert.assertSame(collection, index.get(submodel, List.of("collection")).getElement());
+    }
+
+
+    @Test
+    public void testReplaceUpdatesCopiedPath() {
+        index.get(submodel, List.of("collection"));
+        SubmodelElementCollection collectionCopy = new DefaultSubmodelElementCollection.Builder()
+                .idShort("collection")
+                .value(property)
+                .build();
+        Submodel submodelCopy = new DefaultSubmodel.Builder()
+                .idShort("submodel")
+                .identification(submodel.getIdentification())
+                .submodelElement(collectionCopy)
+                .build();
+        index.replace(submodel, submodelCopy, List.of("collection"));
+        Assert.assertSame(collectionCopy, index.get(submodelCopy, List.of("collection")).getElement());
+        Assert.assertSame(submodelCopy, index.get(submodelCopy, List.of("collection")).getParent());
+        Assert.assertSame(property, index.get(submodelCopy, List.of("collection", "property")).getElement());
+        Assert.assertSame(collectionCopy, index.get(submodelCopy, List.of("collection", "property")).getParent());
+    }
+}
@@ -19,6 +19,7 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,21 +33,30 @@ import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.TransactionConflictException;
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
 import de.fraunhofer.iosb.ilt.faaast.service.model.AASFull;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Response;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Result;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.StatusCode;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.Change;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeType;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.history.ValueSample;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.ExecutionState;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationHandle;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationResult;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingMetadata;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteAssetAdministrationShellByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteConceptDescriptionByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteSubmodelByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteSubmodelElementByPathResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.DeleteSubmodelReferenceResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellIdsByAssetLinkResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellsByAssetIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellsByIdShortResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellsResponse;
@@ -62,9 +72,11 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllSubmodelsR
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAssetAdministrationShellByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAssetAdministrationShellResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAssetInformationResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetChangesResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetConceptDescriptionByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelByIdResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelElementByPathResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelElementHistoryByPathResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.InvokeOperationAsyncResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.InvokeOperationSyncResponse;
@@ -82,15 +94,18 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PutSubmodelByIdR
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PutSubmodelElementByPathResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.PutSubmodelResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.SetSubmodelElementValueByPathResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.SetSubmodelElementValuesResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.GlobalAssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.SpecificAssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.exception.ValueMappingException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteAssetAdministrationShellByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteConceptDescriptionByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteSubmodelByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteSubmodelElementByPathRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteSubmodelReferenceRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllAssetAdministrationShellIdsByAssetLinkRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllAssetAdministrationShellsByAssetIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllAssetAdministrationShellsByIdShortRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllAssetAdministrationShellsRequest;
@@ -106,9 +121,11 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllSubmodelsReques
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAssetAdministrationShellByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAssetAdministrationShellRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAssetInformationRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetChangesRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetConceptDescriptionByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelElementByPathRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelElementHistoryByPathRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.InvokeOperationAsyncRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.InvokeOperationSyncRequest;
@@ -126,13 +143,16 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.request.PutSubmodelByIdReques
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PutSubmodelElementByPathRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.PutSubmodelRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementValueByPathRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.SetSubmodelElementValuesRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValueParser;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.mapper.ElementValueMapper;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.StringValue;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import de.fraunhofer.iosb.ilt.faaast.service.request.RequestHandlerManager;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ResponseHelper;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
@@ -160,11 +180,14 @@ import io.adminshell.aas.v3.model.impl.DefaultProperty;
 import io.adminshell.aas.v3.model.impl.DefaultRange;
 import io.adminshell.aas.v3.model.impl.DefaultReference;
 import io.adminshell.aas.v3.model.impl.DefaultSubmodelElementCollection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -193,6 +216,7 @@ public class RequestHandlerManagerTest {
         coreConfig = CoreConfig.builder().build();
         messageBus = mock(MessageBus.class);
         persistence = mock(Persistence.class);
+        when(persistence.beginTransaction()).thenReturn(Transaction.none());
         serviceContext = mock(ServiceContext.class);
         assetConnectionManager = spy(new AssetConnectionManager(coreConfig, List.of(), serviceContext));
         manager = new RequestHandlerManager(coreConfig, persistence, messageBus, assetConnectionManager);
@@ -203,8 +227,8 @@ public class RequestHandlerManagerTest {
 
     @Test
     public void testGetAllAssetAdministrationShellRequest() throws Exception {
-        when(persistence.get(any(), argThat((List<AssetIdentification> t) -> true), any()))
-                .thenReturn(environment.getAssetAdministrationShells());
+        when(persistence.get(any(), argThat((List<AssetIdentification> t) -> true), any(), any()))
+                .thenReturn(Page.of(environment.getAssetAdministrationShells(), PagingInfo.DEFAULT));
         GetAllAssetAdministrationShellsRequest request = new GetAllAssetAdministrationShellsRequest();
         GetAllAssetAdministrationShellsResponse actual = manager.execute(request);
         GetAllAssetAdministrationShellsResponse expected = new GetAllAssetAdministrationShellsResponse.Builder()
@@ -215,6 +239,23 @@ public class RequestHandlerManagerTest {
     }
 
 
+    @Test
+    public void testGetAllAssetAdministrationShellIdsByAssetLinkRequest() throws Exception {
+        when(persistence.get(any(), argThat((List<AssetIdentification> t) -> true), any()))
+                .thenReturn(environment.getAssetAdministrationShells());
+        GetAllAssetAdministrationShellIdsByAssetLinkRequest request = GetAllAssetAdministrationShellIdsByAssetLinkRequest.builder().build();
+        GetAllAssetAdministrationShellIdsByAssetLinkResponse actual = manager.execute(request);
+        GetAllAssetAdministrationShellIdsByAssetLinkResponse expected = GetAllAssetAdministrationShellIdsByAssetLinkResponse.builder()
+                .payload(environment.getAssetAdministrationShells().stream()
+                        .map(AssetAdministrationShell::getIdentification)
+                        .collect(Collectors.toList()))
+                .statusCode(StatusCode.SUCCESS)
+                .build();
+        Assert.assertTrue(ResponseHelper.equalsIgnoringTime(expected, actual));
+        verify(persistence, never()).getEnvironment();
+    }
+
+
     @Test
     public void testGetAllAssetAdministrationShellsByAssetIdRequest() throws Exception {
         GlobalAssetIdentification globalAssetIdentification = new GlobalAssetIdentification.Builder()
@@ -457,8 +498,8 @@ public class RequestHandlerManagerTest {
 
     @Test
     public void testGetAllSubmodelsRequest() throws ResourceNotFoundException, Exception {
-        when(persistence.get(null, (Reference) null, new OutputModifier()))
-                .thenReturn(environment.getSubmodels());
+        when(persistence.get(null, (Reference) null, new OutputModifier(), PagingInfo.DEFAULT))
+                .thenReturn(Page.of(environment.getSubmodels(), PagingInfo.DEFAULT));
 
         GetAllSubmodelsRequest request = new GetAllSubmodelsRequest.Builder()
                 .outputModifier(new OutputModifier())
@@ -472,6 +513,29 @@ public class RequestHandlerManagerTest {
     }
 
 
+    @Test
+    public void testGetAllSubmodelsRequestWithPaging() throws ResourceNotFoundException, Exception {
+        PagingInfo pagingInfo = PagingInfo.builder()
+                .limit(1)
+                .build();
+        when(persistence.get(null, (Reference) null, new OutputModifier(), pagingInfo))
+                .thenReturn(Page.of(environment.getSubmodels(), pagingInfo));
+        GetAllSubmodelsRequest request = new GetAllSubmodelsRequest.Builder()
+                .outputModifier(new OutputModifier())
+                .pagingInfo(pagingInfo)
+                .build();
+        GetAllSubmodelsResponse actual = manager.execute(request);
+        GetAllSubmodelsResponse expected = new GetAllSubmodelsResponse.Builder()
+                .payload(List.of(environment.getSubmodels().get(0)))
+                .pagingMetadata(PagingMetadata.builder()
+                        .cursor(PagingInfo.encodeCursor(1))
+                        .build())
+                .statusCode(StatusCode.SUCCESS)
+                .build();
+        Assert.assertTrue(ResponseHelper.equalsIgnoringTime(expected, actual));
+    }
+
+
     @Test
     public void testGetAllSubmodelsBySemanticIdRequest() throws ResourceNotFoundException, Exception {
         when(persistence.get(null, SUBMODEL_ELEMENT_REF, new OutputModifier()))
@@ -611,8 +675,8 @@ public class RequestHandlerManagerTest {
     @Test
     public void testGetAllSubmodelElementsRequest() throws ResourceNotFoundException, Exception {
         Reference reference = ReferenceHelper.toReference(environment.getSubmodels().get(0).getIdentification(), Submodel.class);
-        when(persistence.getSubmodelElements(reference, (Reference) null, new OutputModifier()))
-                .thenReturn(environment.getSubmodels().get(0).getSubmodelElements());
+        when(persistence.getSubmodelElements(reference, (Reference) null, new OutputModifier(), PagingInfo.DEFAULT))
+                .thenReturn(Page.of(environment.getSubmodels().get(0).getSubmodelElements(), PagingInfo.DEFAULT));
         GetAllSubmodelElementsRequest request = new GetAllSubmodelElementsRequest.Builder()
                 .submodelId(environment.getSubmodels().get(0).getIdentification())
                 .outputModifier(new OutputModifier())
@@ -726,6 +790,82 @@ public class RequestHandlerManagerTest {
     }
 
 
+    @Test
+    public void testSetSubmodelElementValuesRequest() throws ResourceNotFoundException, AssetConnectionException, Exception {
+        SubmodelElement submodelElement = environment.getSubmodels().get(0).getSubmodelElements().get(0);
+        SubmodelElement original = DeepCopyHelper.deepCopy(submodelElement, SubmodelElement.class);
+        when(persistence.get((Reference) any(), any())).thenReturn(submodelElement);
+        when(assetConnectionManager.hasValueProvider(any())).thenReturn(true);
+        PropertyValue propertyValue = new PropertyValue.Builder()
+                .value(new StringValue("Test"))
+                .build();
+        SetSubmodelElementValuesRequest request = SetSubmodelElementValuesRequest.builder()
+                .value(SUBMODEL_ELEMENT_REF, propertyValue)
+                .build();
+        Response actual = manager.execute(request);
+        SetSubmodelElementValuesResponse expected = SetSubmodelElementValuesResponse.builder()
+                .statusCode(StatusCode.SUCCESS)
+                .build();
+        SubmodelElement expectedSubmodelElement = ElementValueMapper.setValue(
+                DeepCopyHelper.deepCopy(submodelElement, SubmodelElement.class),
+                propertyValue);
+        Assert.assertTrue(ResponseHelper.equalsIgnoringTime(expected, actual));
+        verify(persistence).putAll(Map.of(SUBMODEL_ELEMENT_REF, expectedSubmodelElement));
+        verify(messageBus).publish(any(ValueChangeEventMessage.class));
+        verify(assetValueProvider, never()).setValue(any());
+        Assert.assertEquals(original, submodelElement);
+    }
+
+
+    @Test
+    public void testGetChangesRequest() throws Exception {
+        ChangeSet changeSet = ChangeSet.builder()
+                .journalId("journal")
+                .version(2)
+                .complete(true)
+                .change(Change.builder()
+                        .version(2)
+                        .type(ChangeType.UPDATED)
+                        .element(SUBMODEL_ELEMENT_REF)
+                        .build())
+                .build();
+        when(persistence.getChanges("journal", 1, 10)).thenReturn(changeSet);
+        GetChangesRequest request = GetChangesRequest.builder()
+                .journalId("journal")
+                .since(1)
+                .limit(10)
+                .build();
+        Response actual = manager.execute(request);
+        GetChangesResponse expected = GetChangesResponse.builder()
+                .payload(changeSet)
+                .statusCode(StatusCode.SUCCESS)
+                .build();
+        Assert.assertTrue(ResponseHelper.equalsIgnoringTime(expected, actual));
+    }
+
+
+    @Test
+    public void testGetSubmodelElementHistoryByPathRequest() throws Exception {
+        List<ValueSample> samples = List.of(ValueSample.builder()
+                .timestamp(new Date(1500))
+                .value(42.0)
+                .build());
+        when(persistence.getValueHistory(any(), eq(1000L), eq(2000L))).thenReturn(samples);
+        GetSubmodelElementHistoryByPathRequest request = GetSubmodelElementHistoryByPathRequest.builder()
+                .submodelId(environment.getSubmodels().get(0).getIdentification())
+                .path(ReferenceHelper.toKeys(SUBMODEL_ELEMENT_REF))
+                .from(new Date(1000))
+                .to(new Date(2000))
+                .build();
+        Response actual = manager.execute(request);
+        GetSubmodelElementHistoryByPathResponse expected = GetSubmodelElementHistoryByPathResponse.builder()
+                .payload(samples)
+                .statusCode(StatusCode.SUCCESS)
+                .build();
+        Assert.assertTrue(ResponseHelper.equalsIgnoringTime(expected, actual));
+    }
+
+
     @Test
     public void testSetSubmodelElementValueByPathRequest() throws ResourceNotFoundException, AssetConnectionException, Exception {
         when(persistence.get((Reference) any(), any()))
@@ -894,8 +1034,8 @@ public class RequestHandlerManagerTest {
 
     @Test
     public void testGetAllConceptDescriptionsRequest() throws ResourceNotFoundException, Exception {
-        when(persistence.get(null, null, null, new OutputModifier()))
-                .thenReturn(environment.getConceptDescriptions());
+        when(persistence.get(null, null, null, new OutputModifier(), PagingInfo.DEFAULT))
+                .thenReturn(Page.of(environment.getConceptDescriptions(), PagingInfo.DEFAULT));
         GetAllConceptDescriptionsRequest request = new GetAllConceptDescriptionsRequest.Builder()
                 .outputModifier(new OutputModifier())
                 .build();
@@ -1054,6 +1194,20 @@ public class RequestHandlerManagerTest {
     }
 
 
+    @Test
+    public void testTransactionConflictRequest() throws ResourceNotFoundException, Exception {
+        when(persistence.get(argThat((Identifier t) -> true), any()))
+                .thenThrow(new TransactionConflictException("transaction conflicts with a concurrent modification"));
+        GetSubmodelByIdRequest request = new GetSubmodelByIdRequest.Builder().build();
+        GetSubmodelByIdResponse actual = manager.execute(request);
+        GetSubmodelByIdResponse expected = new GetSubmodelByIdResponse.Builder()
+                .result(Result.error("transaction conflicts with a concurrent modification"))
+                .statusCode(StatusCode.CLIENT_ERROR_RESOURCE_CONFLICT)
+                .build();
+        Assert.assertTrue(ResponseHelper.equalsIgnoringTime(expected, actual));
+    }
+
+
     @Test
     public void testGetReferableWithMessageBusExceptionRequest() throws ResourceNotFoundException, MessageBusException, Exception {
         when(persistence.get(argThat((Reference r) -> true), any()))
@@ -1093,8 +1247,8 @@ public class RequestHandlerManagerTest {
 
     @Test
     public void testGetAllAssetAdministrationShellRequestAsync() throws InterruptedException {
-        when(persistence.get(any(), argThat((List<AssetIdentification> t) -> true), any()))
-                .thenReturn(environment.getAssetAdministrationShells());
+        when(persistence.get(any(), argThat((List<AssetIdentification> t) -> true), any(), any()))
+                .thenReturn(Page.of(environment.getAssetAdministrationShells(), PagingInfo.DEFAULT));
         GetAllAssetAdministrationShellsRequest request = new GetAllAssetAdministrationShellsRequest();
         final AtomicReference<GetAllAssetAdministrationShellsResponse> response = new AtomicReference<>();
         CountDownLatch condition = new CountDownLatch(1);
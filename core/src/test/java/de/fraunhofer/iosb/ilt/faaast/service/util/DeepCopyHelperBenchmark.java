@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.util;
+
+import io.adminshell.aas.v3.dataformat.DeserializationException;
+import io.adminshell.aas.v3.dataformat.SerializationException;
+import io.adminshell.aas.v3.dataformat.json.JsonDeserializer;
+import io.adminshell.aas.v3.dataformat.json.JsonSerializer;
+import io.adminshell.aas.v3.model.IdentifierType;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.KeyType;
+import io.adminshell.aas.v3.model.LangString;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
+import io.adminshell.aas.v3.model.impl.DefaultKey;
+import io.adminshell.aas.v3.model.impl.DefaultProperty;
+import io.adminshell.aas.v3.model.impl.DefaultReference;
+import io.adminshell.aas.v3.model.impl.DefaultSubmodel;
+import io.adminshell.aas.v3.model.impl.DefaultSubmodelElementCollection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares creating deep copies of a large submodel via JSON round-trip (the former implementation of
+ * {@link DeepCopyHelper}) with the structural copy. Not executed as part of the unit tests, run via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeepCopyHelperBenchmark {
+
+    @Param({
+            "100",
+            "1000"
+    })
+    private int collections;
+
+    private static final int PROPERTIES_PER_COLLECTION = 10;
+    private Submodel submodel;
+
+    @Setup
+    public void setup() {
+        submodel = new DefaultSubmodel.Builder()
+                .idShort("benchmark")
+                .identification(new DefaultIdentifier.Builder()
+                        .idType(IdentifierType.IRI)
+                        .identifier("http://example.org/submodel/benchmark")
+                        .build())
+                .build();
+        for (int i = 0; i < collections; i++) {
+            SubmodelElementCollection collection = new DefaultSubmodelElementCollection.Builder()
+                    .idShort("collection" + i)
+                    .description(new LangString("collection " + i, "en"))
+                    .build();
+            for (int j = 0; j < PROPERTIES_PER_COLLECTION; j++) {
+                collection.getValues().add(new DefaultProperty.Builder()
+                        .idShort("property" + j)
+                        .valueType("string")
+                        .value("value " + i + "." + j)
+                        .semanticId(new DefaultReference.Builder()
+                                .key(new DefaultKey.Builder()
+                                        .type(KeyElements.CONCEPT_DESCRIPTION)
+                                        .idType(KeyType.IRI)
+                                        .value("http://example.org/concept/" + j)
+                                        .build())
+                                .build())
+                        .build());
+            }
+            submodel.getSubmodelElements().add(collection);
+        }
+    }
+
+
+    @Benchmark
+    public Submodel jsonRoundTrip() throws SerializationException, DeserializationException {
+        return new JsonDeserializer().readReferable(new JsonSerializer().write(submodel), Submodel.class);
+    }
+
+
+    @Benchmark
+    public Submodel structuralCopy() {
+        return DeepCopyHelper.deepCopy(submodel, Submodel.class);
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DeepCopyHelperBenchmark.class.getSimpleName())
+                .build())
+                        .run();
+    }
+}
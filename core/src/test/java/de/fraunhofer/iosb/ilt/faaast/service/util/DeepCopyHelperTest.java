@@ -124,4 +124,16 @@ public class DeepCopyHelperTest {
         Assert.assertEquals(expected, actual);
     }
 
+
+    @Test
+    public void testDeepEnvCopyIsIndependent() {
+        AssetAdministrationShellEnvironment expected = AASFull.createEnvironment();
+        AssetAdministrationShellEnvironment actual = DeepCopyHelper.deepCopy(expected);
+        Assert.assertNotSame(expected.getSubmodels().get(0), actual.getSubmodels().get(0));
+        Assert.assertNotSame(expected.getSubmodels().get(0).getSubmodelElements(), actual.getSubmodels().get(0).getSubmodelElements());
+        actual.getSubmodels().get(0).getSubmodelElements().clear();
+        actual.getSubmodels().get(0).setIdShort("changed");
+        Assert.assertEquals(AASFull.createEnvironment(), expected);
+    }
+
 }
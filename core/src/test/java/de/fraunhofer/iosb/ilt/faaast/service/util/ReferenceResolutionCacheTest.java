@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.util;
+
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.AASFull;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class ReferenceResolutionCacheTest {
+
+    private static final String AAS_ID = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+    private static final String SUBMODEL_ID = "https://acplt.org/Test_Submodel_Mandatory";
+    private AssetAdministrationShellEnvironment environment;
+    private String idShort;
+    private AtomicInteger calls;
+    private Supplier<AssetAdministrationShellEnvironment> supplier;
+
+    @Before
+    public void init() {
+        environment = AASFull.createEnvironment();
+        idShort = environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().getIdentifier().equals(SUBMODEL_ID))
+                .findFirst()
+                .get()
+                .getSubmodelElements()
+                .get(0)
+                .getIdShort();
+        calls = new AtomicInteger();
+        supplier = () -> {
+            calls.incrementAndGet();
+            return environment;
+        };
+    }
+
+
+    @Test
+    public void testCachedResultEqualsUncached() throws ResourceNotFoundException {
+        ReferenceResolutionCache cache = new ReferenceResolutionCache();
+        Reference expected = ReferenceHelper.build(AAS_ID, SUBMODEL_ID, idShort);
+        ReferenceHelper.completeReferenceWithProperKeyElements(expected, environment);
+        Reference actual = ReferenceHelper.build(AAS_ID, SUBMODEL_ID, idShort);
+        cache.completeReferenceWithProperKeyElements(actual, supplier);
+        Assert.assertEquals(expected, actual);
+        Reference cached = ReferenceHelper.build(AAS_ID, SUBMODEL_ID, idShort.toUpperCase());
+        cache.completeReferenceWithProperKeyElements(cached, supplier);
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(expected.getKeys().get(2).getType(), cached.getKeys().get(2).getType());
+    }
+
+
+    @Test
+    public void testInvalidate() throws ResourceNotFoundException {
+        ReferenceResolutionCache cache = new ReferenceResolutionCache();
+        cache.completeReferenceWithProperKeyElements(ReferenceHelper.build(AAS_ID, SUBMODEL_ID, idShort), supplier);
+        cache.invalidate();
+        cache.completeReferenceWithProperKeyElements(ReferenceHelper.build(AAS_ID, SUBMODEL_ID, idShort), supplier);
+        Assert.assertEquals(2, calls.get());
+    }
+
+
+    @Test
+    public void testNotFoundIsNotCached() {
+        ReferenceResolutionCache cache = new ReferenceResolutionCache();
+        for (int i = 0; i < 2; i++) {
+            Assert.assertThrows(ResourceNotFoundException.class,
+                    () -> cache.completeReferenceWithProperKeyElements(ReferenceHelper.build(AAS_ID, SUBMODEL_ID, "doesNotExist"), supplier));
+        }
+        Assert.assertEquals(2, calls.get());
+    }
+}
@@ -14,6 +14,8 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.dataformat.json;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.json.JsonMapper;
@@ -32,7 +34,11 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ReflectionHelper;
 import io.adminshell.aas.v3.dataformat.json.modeltype.ModelTypeProcessor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 /**
@@ -99,4 +105,50 @@ public class JsonApiSerializer implements ApiSerializer {
         }
     }
 
+
+    /**
+     * {@inheritDoc} Elements are serialized one by one while consuming the stream, except for content=path which
+     * requires all elements at once.
+     */
+    @Override
+    public void writeArray(OutputStream out, Stream<?> elements, OutputModifier modifier) throws IOException, SerializationException {
+        Ensure.requireNonNull(out, "out must be non-null");
+        Ensure.requireNonNull(elements, "elements must be non-null");
+        Ensure.requireNonNull(modifier, "modifier must be non-null");
+        if (modifier.getContent() == Content.PATH) {
+            ApiSerializer.super.writeArray(out, elements, modifier);
+            return;
+        }
+        try (JsonGenerator generator = wrapper.getMapper().getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Iterator<?> iterator = elements.iterator();
+            while (iterator.hasNext()) {
+                generator.writeRawValue(writeElement(iterator.next(), modifier));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+
+    private String writeElement(Object obj, OutputModifier modifier) throws SerializationException {
+        if (obj == null) {
+            return "null";
+        }
+        if (modifier.getContent() == Content.VALUE || ElementValue.class.isAssignableFrom(obj.getClass())) {
+            return valueOnlySerializer.write(obj, modifier.getLevel(), modifier.getExtent());
+        }
+        try {
+            // same as for lists in write(Object, OutputModifier) to produce identical output
+            JsonMapper mapper = wrapper.getMapper();
+            ObjectWriter objectWriter = mapper.writerFor(obj.getClass())
+                    .withAttribute(ModifierAwareSerializer.LEVEL, modifier);
+            return mapper.writeValueAsString(ModelTypeProcessor.postprocess(
+                    mapper.readTree(objectWriter.writeValueAsString(obj))));
+        }
+        catch (JsonProcessingException e) {
+            throw new SerializationException("serialization failed", e);
+        }
+    }
+
 }
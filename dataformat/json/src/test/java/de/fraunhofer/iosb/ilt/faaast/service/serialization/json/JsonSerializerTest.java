@@ -29,6 +29,7 @@ import io.adminshell.aas.v3.model.SubmodelElement;
 import io.adminshell.aas.v3.model.impl.DefaultAssetAdministrationShell;
 import io.adminshell.aas.v3.model.impl.DefaultAssetInformation;
 import io.adminshell.aas.v3.model.impl.DefaultProperty;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -119,6 +120,23 @@ public class JsonSerializerTest {
     }
 
 
+    @Test
+    public void testWriteArrayEqualsListSerialization() throws Exception {
+        List<SubmodelElement> submodelElements = AASFull.SUBMODEL_3.getSubmodelElements();
+        for (Content content: List.of(Content.NORMAL, Content.VALUE, Content.PATH)) {
+            OutputModifier modifier = new OutputModifier.Builder()
+                    .content(content)
+                    .build();
+            List<SubmodelElement> elements = content == Content.VALUE
+                    ? List.of(PropertyValues.PROPERTY_STRING, PropertyValues.RANGE_INT)
+                    : submodelElements;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            serializer.writeArray(out, elements.stream(), modifier);
+            JSONAssert.assertEquals(serializer.write(elements, modifier), out.toString(StandardCharsets.UTF_8), JSONCompareMode.STRICT);
+        }
+    }
+
+
     @Test
     public void testEnumsWithCustomNaming() throws SerializationException {
         Assert.assertEquals("\"SuccessCreated\"", serializer.write(StatusCode.SUCCESS_CREATED));
@@ -121,6 +121,7 @@ public class RequestHandler extends AbstractHandler {
         response.addHeader(CrossOriginFilter.ACCESS_CONTROL_ALLOW_ORIGIN_HEADER, "*");
         response.addHeader(CrossOriginFilter.ACCESS_CONTROL_ALLOW_CREDENTIALS_HEADER, "true");
         response.addHeader(CrossOriginFilter.ACCESS_CONTROL_ALLOW_HEADERS_HEADER, "Content-Type");
+        response.addHeader(CrossOriginFilter.ACCESS_CONTROL_EXPOSE_HEADERS_HEADER, HttpConstants.HEADER_CURSOR);
     }
 
 
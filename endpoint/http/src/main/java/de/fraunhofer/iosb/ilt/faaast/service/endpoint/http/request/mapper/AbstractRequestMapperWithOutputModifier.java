@@ -24,7 +24,9 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Content;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Extent;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Level;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.AbstractRequestWithModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.PagedRequest;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
 import org.apache.commons.lang3.reflect.ConstructorUtils;
@@ -81,6 +83,9 @@ public abstract class AbstractRequestMapperWithOutputModifier<T extends Abstract
             OutputModifier outputModifier = outputModifierBuilder.build();
             T result = doParse(httpRequest, urlParameters, outputModifier);
             result.setOutputModifier(outputModifier);
+            if (PagedRequest.class.isAssignableFrom(result.getClass())) {
+                ((PagedRequest) result).setPagingInfo(parsePagingInfo(httpRequest));
+            }
             return result;
         }
         catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
@@ -90,4 +95,32 @@ public abstract class AbstractRequestMapperWithOutputModifier<T extends Abstract
             throw new InvalidRequestException("invalid output modifier", e);
         }
     }
+
+
+    private static PagingInfo parsePagingInfo(HttpRequest httpRequest) throws InvalidRequestException {
+        PagingInfo.Builder builder = PagingInfo.builder();
+        if (httpRequest.hasQueryParameter(QueryParameters.LIMIT)) {
+            String limit = httpRequest.getQueryParameter(QueryParameters.LIMIT);
+            try {
+                builder.limit(Integer.parseInt(limit));
+            }
+            catch (NumberFormatException e) {
+                throw new InvalidRequestException(String.format("invalid limit '%s' (must be a positive integer)", limit), e);
+            }
+        }
+        if (httpRequest.hasQueryParameter(QueryParameters.CURSOR)) {
+            builder.cursor(httpRequest.getQueryParameter(QueryParameters.CURSOR));
+        }
+        PagingInfo result = builder.build();
+        if (httpRequest.hasQueryParameter(QueryParameters.LIMIT) && result.getLimit() <= 0) {
+            throw new InvalidRequestException(String.format("invalid limit '%d' (must be a positive integer)", result.getLimit()));
+        }
+        try {
+            result.getPosition();
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage(), e);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.request.mapper;
+
+import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
+import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.exception.InvalidRequestException;
+import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.model.HttpMethod;
+import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.model.HttpRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.Request;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetChangesRequest;
+import java.util.Map;
+
+
+/**
+ * class to map HTTP-GET-Request path: /changes.
+ */
+public class GetChangesRequestMapper extends AbstractRequestMapper {
+
+    private static final String PATTERN = "changes";
+
+    public GetChangesRequestMapper(ServiceContext serviceContext) {
+        super(serviceContext, HttpMethod.GET, PATTERN);
+    }
+
+
+    @Override
+    public Request doParse(HttpRequest httpRequest, Map<String, String> urlParameters) throws InvalidRequestException {
+        GetChangesRequest.Builder builder = GetChangesRequest.builder();
+        if (httpRequest.hasQueryParameter(QueryParameters.JOURNAL_ID)) {
+            builder.journalId(httpRequest.getQueryParameter(QueryParameters.JOURNAL_ID));
+        }
+        if (httpRequest.hasQueryParameter(QueryParameters.SINCE)) {
+            String since = httpRequest.getQueryParameter(QueryParameters.SINCE);
+            try {
+                builder.since(Long.parseLong(since));
+            }
+            catch (NumberFormatException e) {
+                throw new InvalidRequestException(String.format("invalid since '%s' (must be a non-negative integer)", since), e);
+            }
+        }
+        if (httpRequest.hasQueryParameter(QueryParameters.LIMIT)) {
+            String limit = httpRequest.getQueryParameter(QueryParameters.LIMIT);
+            try {
+                builder.limit(Integer.parseInt(limit));
+            }
+            catch (NumberFormatException e) {
+                throw new InvalidRequestException(String.format("invalid limit '%s' (must be a positive integer)", limit), e);
+            }
+        }
+        GetChangesRequest result = builder.build();
+        if (result.getSince() < 0) {
+            throw new InvalidRequestException(String.format("invalid since '%d' (must be a non-negative integer)", result.getSince()));
+        }
+        if (result.getLimit() <= 0) {
+            throw new InvalidRequestException(String.format("invalid limit '%d' (must be a positive integer)", result.getLimit()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.request.mapper;
+
+import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
+import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.exception.InvalidRequestException;
+import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.model.HttpMethod;
+import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.model.HttpRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelElementHistoryByPathResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelElementHistoryByPathRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ElementPathHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.EncodingHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.RegExHelper;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Map;
+
+
+/**
+ * class to map HTTP-GET-Request paths: submodels/{submodelIdentifier}/submodel/submodel-elements/{idShortPath}/history,
+ * shells/{aasIdentifier}/aas/submodels/{submodelIdentifier}/submodel/submodel-elements/{idShortPath}/history.
+ */
+public class GetSubmodelElementHistoryByPathRequestMapper
+        extends AbstractSubmodelInterfaceRequestMapper<GetSubmodelElementHistoryByPathRequest, GetSubmodelElementHistoryByPathResponse> {
+
+    private static final String SUBMODEL_ELEMENT_PATH = RegExHelper.uniqueGroupName();
+    private static final String PATTERN = String.format("submodel-elements/%s/history", pathElement(SUBMODEL_ELEMENT_PATH));
+
+    public GetSubmodelElementHistoryByPathRequestMapper(ServiceContext serviceContext) {
+        super(serviceContext, HttpMethod.GET, PATTERN);
+    }
+
+
+    @Override
+    public GetSubmodelElementHistoryByPathRequest doParse(HttpRequest httpRequest, Map<String, String> urlParameters, OutputModifier outputModifier)
+            throws InvalidRequestException {
+        GetSubmodelElementHistoryByPathRequest result = GetSubmodelElementHistoryByPathRequest.builder()
+                .path(ElementPathHelper.toKeys(EncodingHelper.urlDecode(urlParameters.get(SUBMODEL_ELEMENT_PATH))))
+                .from(parseTimestamp(httpRequest, QueryParameters.FROM))
+                .to(parseTimestamp(httpRequest, QueryParameters.TO))
+                .build();
+        if (result.getFrom() != null && result.getTo() != null && result.getFrom().after(result.getTo())) {
+            throw new InvalidRequestException(String.format("invalid time range (%s must not be after %s)", QueryParameters.FROM, QueryParameters.TO));
+        }
+        return result;
+    }
+
+
+    private static Date parseTimestamp(HttpRequest httpRequest, String parameter) throws InvalidRequestException {
+        if (!httpRequest.hasQueryParameter(parameter)) {
+            return null;
+        }
+        String value = httpRequest.getQueryParameter(parameter);
+        try {
+            return Date.from(OffsetDateTime.parse(value).toInstant());
+        }
+        catch (DateTimeParseException e) {
+            throw new InvalidRequestException(String.format("invalid %s '%s' (must be an ISO 8601 date-time with offset, e.g. 2022-01-01T00:00:00Z)", parameter, value), e);
+        }
+    }
+}
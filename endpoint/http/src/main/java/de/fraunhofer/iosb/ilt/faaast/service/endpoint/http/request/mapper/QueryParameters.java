@@ -24,15 +24,21 @@ public class QueryParameters {
     public static final String ASSET_IDS = "assetIds";
     public static final String ASYNC = "async";
     public static final String CONTENT = "content";
+    public static final String CURSOR = "cursor";
     public static final String DATA_SPECIFICATION_REF = "dataSpecificationRef";
     public static final String EXTENT = "extend";
+    public static final String FROM = "from";
     public static final String ID_SHORT = "idShort";
     public static final String INCLUDE_CONCEPT_DESCRIPTIONS = "includeConceptDescriptions";
     public static final String IS_CASE_OF = "isCaseOf";
+    public static final String JOURNAL_ID = "journalId";
     public static final String LEVEL = "level";
+    public static final String LIMIT = "limit";
     public static final String PARENT_PATH = "parentPath";
     public static final String SEMANTIC_ID = "semanticId";
+    public static final String SINCE = "since";
     public static final String SUBMODEL_IDS = "submodelIds";
+    public static final String TO = "to";
 
     private QueryParameters() {}
 }
@@ -23,6 +23,7 @@ public class HttpConstants {
     public static final String PATH_SEPERATOR = "/";
     public static final String HEADER_ACCEPT = "Accept";
     public static final String HEADER_CONTENT_TYPE = "content-type";
+    public static final String HEADER_CURSOR = "Cursor";
 
     private HttpConstants() {}
 }
@@ -24,6 +24,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.endpoint.http.serialization.HttpJso
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.MessageType;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Result;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.StatusCode;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -73,6 +74,8 @@ public class HttpHelper {
                 return HttpStatus.METHOD_NOT_ALLOWED_405;
             case CLIENT_ERROR_RESOURCE_NOT_FOUND:
                 return HttpStatus.NOT_FOUND_404;
+            case CLIENT_ERROR_RESOURCE_CONFLICT:
+                return HttpStatus.CONFLICT_409;
             case SERVER_INTERNAL_ERROR:
                 return HttpStatus.INTERNAL_SERVER_ERROR_500;
             case SERVER_ERROR_BAD_GATEWAY:
@@ -186,6 +189,35 @@ public class HttpHelper {
     }
 
 
+    /**
+     * Sends a HTTP response with given statusCode and the elements serialized as JSON array. The elements are written
+     * to the response one by one while consuming the stream. If serialization fails before any data has been sent to
+     * the client, an error response is sent instead.
+     *
+     * @param response HTTP response object
+     * @param statusCode statusCode to send
+     * @param elements the elements to send
+     * @param modifier output modifier to use for serialization
+     * @throws IllegalArgumentException if response is null
+     * @throws IllegalArgumentException if statusCode is null
+     */
+    public static void sendJsonArray(HttpServletResponse response, StatusCode statusCode, Stream<?> elements, OutputModifier modifier) {
+        sendContent(response, statusCode, null, MediaType.JSON_UTF_8);
+        try {
+            new HttpJsonApiSerializer().writeArray(response.getOutputStream(), elements, modifier);
+            response.getOutputStream().flush();
+        }
+        catch (IOException | SerializationException e) {
+            if (response.isCommitted()) {
+                LOGGER.warn("serializing response failed after response has been partially sent", e);
+                return;
+            }
+            response.resetBuffer();
+            send(response, StatusCode.SERVER_INTERNAL_ERROR, Result.exception(e.getMessage()));
+        }
+    }
+
+
     /**
      * Sends a HTTP response with given statusCode, payload and contentType.
      *
@@ -34,6 +34,8 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.StatusCode;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Content;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Level;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingMetadata;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GenerateSerializationByIdsResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellsResponse;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllSubmodelElementsResponse;
@@ -46,6 +48,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.serialization.DataFormat;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.mapper.ElementValueMapper;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
 import de.fraunhofer.iosb.ilt.faaast.service.typing.TypeExtractor;
 import de.fraunhofer.iosb.ilt.faaast.service.util.EncodingHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.LambdaExceptionHelper;
@@ -130,6 +133,7 @@ public class HttpEndpointTest {
     public void setUp() {
         Mockito.reset(persistence);
         Mockito.reset(service);
+        when(persistence.beginTransaction()).thenReturn(Transaction.none());
     }
 
 
@@ -414,6 +418,24 @@ public class HttpEndpointTest {
     }
 
 
+    @Test
+    public void testGetAllAssetAdministrationShellsWithPaging() throws Exception {
+        String cursor = PagingInfo.encodeCursor(1);
+        when(service.execute(any())).thenReturn(GetAllAssetAdministrationShellsResponse.builder()
+                .statusCode(StatusCode.SUCCESS)
+                .payload(List.of(AASFull.AAS_1))
+                .pagingMetadata(PagingMetadata.builder()
+                        .cursor(cursor)
+                        .build())
+                .build());
+        ContentResponse response = execute(HttpMethod.GET, "/shells", Map.of("limit", "1"));
+        Assert.assertEquals(HttpStatus.OK_200, response.getStatus());
+        Assert.assertEquals(cursor, response.getHeaders().get(HttpConstants.HEADER_CURSOR));
+        List<AssetAdministrationShell> actualPayload = deserializer.readList(new String(response.getContent(), "UTF-8"), AssetAdministrationShell.class);
+        Assert.assertEquals(List.of(AASFull.AAS_1), actualPayload);
+    }
+
+
     @Test
     public void testSerializationJson() throws Exception {
         AssetAdministrationShellEnvironment expected = new DefaultAssetAdministrationShellEnvironment.Builder()
@@ -29,6 +29,7 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.Request;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Content;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Level;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteAASXPackageByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteAllAssetLinksByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.DeleteAssetAdministrationShellByIdRequest;
@@ -55,10 +56,12 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAllSubmodelsReques
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAssetAdministrationShellByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAssetAdministrationShellRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetAssetInformationRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetChangesRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetConceptDescriptionByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetOperationAsyncResultRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelByIdRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelElementByPathRequest;
+import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelElementHistoryByPathRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.GetSubmodelRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.InvokeOperationAsyncRequest;
 import de.fraunhofer.iosb.ilt.faaast.service.model.request.InvokeOperationSyncRequest;
@@ -94,7 +97,9 @@ import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
 import io.adminshell.aas.v3.model.impl.DefaultIdentifierKeyValuePair;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import org.junit.Assert;
@@ -417,6 +422,44 @@ public class RequestMappingManagerTest {
     }
 
 
+    @Test
+    public void testGetAllSubmodelsWithPaging() throws InvalidRequestException {
+        String cursor = PagingInfo.encodeCursor(2);
+        Request expected = GetAllSubmodelsRequest.builder()
+                .pagingInfo(PagingInfo.builder()
+                        .limit(2)
+                        .cursor(cursor)
+                        .build())
+                .build();
+        Request actual = mappingManager.map(HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .path("submodels")
+                .query("limit=2&cursor=" + cursor)
+                .build());
+        Assert.assertEquals(expected, actual);
+    }
+
+
+    @Test(expected = InvalidRequestException.class)
+    public void testGetAllSubmodelsWithInvalidLimit() throws InvalidRequestException {
+        mappingManager.map(HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .path("submodels")
+                .query("limit=0")
+                .build());
+    }
+
+
+    @Test(expected = InvalidRequestException.class)
+    public void testGetAllSubmodelsWithInvalidCursor() throws InvalidRequestException {
+        mappingManager.map(HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .path("submodels")
+                .query("cursor=bogus")
+                .build());
+    }
+
+
     @Test
     public void testGetAllSubmodelsByIdShort() throws InvalidRequestException {
         Request expected = GetAllSubmodelsByIdShortRequest.builder()
@@ -970,6 +1013,61 @@ public class RequestMappingManagerTest {
     }
 
 
+    @Test
+    public void testGetChangesRequest() throws InvalidRequestException {
+        Request expected = GetChangesRequest.builder()
+                .journalId("journal")
+                .since(42)
+                .limit(10)
+                .build();
+        Request actual = mappingManager.map(HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .path("changes")
+                .query("journalId=journal&since=42&limit=10")
+                .build());
+        Assert.assertEquals(expected, actual);
+    }
+
+
+    @Test(expected = InvalidRequestException.class)
+    public void testGetChangesRequestWithInvalidSince() throws InvalidRequestException {
+        mappingManager.map(HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .path("changes")
+                .query("since=-1")
+                .build());
+    }
+
+
+    @Test
+    public void testGetSubmodelElementHistoryByPath() throws InvalidRequestException {
+        Request expected = GetSubmodelElementHistoryByPathRequest.builder()
+                .submodelId(SUBMODEL.getIdentification())
+                .path(ReferenceHelper.toKeys(SUBMODEL_ELEMENT_REF))
+                .from(Date.from(Instant.parse("2022-01-01T00:00:00Z")))
+                .to(Date.from(Instant.parse("2022-01-01T01:00:00Z")))
+                .build();
+        Request actual = mappingManager.map(HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .path("submodels/" + EncodingHelper.base64UrlEncode(SUBMODEL.getIdentification().getIdentifier()) + "/submodel/submodel-elements/"
+                        + ElementPathHelper.toElementPath(SUBMODEL_ELEMENT_REF) + "/history")
+                .query("from=2022-01-01T00:00:00Z&to=2022-01-01T01:00:00Z")
+                .build());
+        Assert.assertEquals(expected, actual);
+    }
+
+
+    @Test(expected = InvalidRequestException.class)
+    public void testGetSubmodelElementHistoryByPathWithInvalidFrom() throws InvalidRequestException {
+        mappingManager.map(HttpRequest.builder()
+                .method(HttpMethod.GET)
+                .path("submodels/" + EncodingHelper.base64UrlEncode(SUBMODEL.getIdentification().getIdentifier()) + "/submodel/submodel-elements/"
+                        + ElementPathHelper.toElementPath(SUBMODEL_ELEMENT_REF) + "/history")
+                .query("from=yesterday")
+                .build());
+    }
+
+
     @Test(expected = InvalidRequestException.class)
     public void testUnknownPath() throws InvalidRequestException {
         mappingManager.map(HttpRequest.builder()
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+
+/**
+ * Merges events of the same type concerning the same element before passing them to a handler, see
+ * {@link SubscriptionInfo#setCoalescingWindow(long)} and {@link SubscriptionInfo#setMaxDeliveryRate(double)}.
+ *
+ * <p>For each element, a window is opened by the first event. With a coalescing window, events within the window are
+ * merged and delivered at its end. With a maximum rate, the first event is delivered immediately and later events
+ * within the window are merged and delivered at its end, which opens the next window. All events are passed to the
+ * handler by a single daemon thread so that the order per element is retained and the handler is never called
+ * concurrently. The thread is created on the first event and named after the subscription.
+ */
+class Coalescer {
+
+    private final long intervalNanos;
+    private final boolean leading;
+    private final Consumer<EventMessage> handler;
+    private final Map<List<Object>, Window> windows;
+    private final String threadName;
+    private ScheduledExecutorService scheduler;
+    private boolean closed;
+
+    private static class Window {
+
+        private EventMessage pending;
+    }
+
+    private Coalescer(long intervalNanos, boolean leading, Consumer<EventMessage> handler, String threadName) {
+        this.intervalNanos = intervalNanos;
+        this.leading = leading;
+        this.handler = handler;
+        this.threadName = threadName;
+        this.windows = new HashMap<>();
+    }
+
+
+    /**
+     * Creates a coalescer for a subscription.
+     *
+     * @param info the subscription
+     * @param handler the handler to pass merged events to
+     * @param threadName the name of the delivery thread
+     * @return the coalescer or null if the subscription does not request coalescing
+     */
+    static Coalescer create(SubscriptionInfo info, Consumer<EventMessage> handler, String threadName) {
+        if (info.getMaxDeliveryRate() > 0) {
+            return new Coalescer(Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / info.getMaxDeliveryRate())), true, handler, threadName);
+        }
+        if (info.getCoalescingWindow() > 0) {
+            return new Coalescer(TimeUnit.MILLISECONDS.toNanos(info.getCoalescingWindow()), false, handler, threadName);
+        }
+        return null;
+    }
+
+
+    /**
+     * Accepts an event for delivery. Does nothing after {@link #close()}.
+     *
+     * @param message the event
+     */
+    synchronized void accept(EventMessage message) {
+        if (closed) {
+            return;
+        }
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern(threadName)
+                    .daemon(true)
+                    .build());
+        }
+        List<Object> key = EventCoalescing.keyOf(message);
+        Window window = windows.get(key);
+        if (window != null) {
+            window.pending = window.pending == null ? message : EventCoalescing.merge(window.pending, message);
+            return;
+        }
+        window = new Window();
+        windows.put(key, window);
+        if (leading) {
+            scheduler.execute(() -> handler.accept(message));
+        }
+        else {
+            window.pending = message;
+        }
+        scheduler.schedule(() -> closeWindow(key), intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    private void closeWindow(List<Object> key) {
+        EventMessage message;
+        synchronized (this) {
+            Window window = windows.get(key);
+            if (window == null || scheduler == null) {
+                return;
+            }
+            message = window.pending;
+            window.pending = null;
+            if (leading && message != null) {
+                // delivering opens the next window
+                scheduler.schedule(() -> closeWindow(key), intervalNanos, TimeUnit.NANOSECONDS);
+            }
+            else {
+                windows.remove(key);
+            }
+        }
+        if (message != null) {
+            handler.accept(message);
+        }
+    }
+
+
+    /**
+     * Stops the delivery thread. Pending events are discarded. The thread is created again by the next event.
+     */
+    synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        windows.clear();
+    }
+
+
+    /**
+     * Stops the delivery thread and ignores all further events, e.g. after the subscription has been removed.
+     */
+    synchronized void close() {
+        closed = true;
+        stop();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Helper methods for merging events concerning the same element.
+ */
+class EventCoalescing {
+
+    private EventCoalescing() {}
+
+
+    /**
+     * Creates the key identifying events that can be merged, i.e. events of the same type concerning the same element.
+     *
+     * @param message the event
+     * @return the key
+     */
+    static List<Object> keyOf(EventMessage message) {
+        return Arrays.asList(message.getClass(), message.getElement());
+    }
+
+
+    /**
+     * Merges two events with the same key. The newer event wins, except for the old value of value change events
+     * which is taken from the older event so that the merged event describes the whole change. In that case, a new
+     * event is built from the newer one. Subclasses of {@link ValueChangeEventMessage} might carry additional properties
+     * that cannot be copied, so the newer event is returned as is for them. The events passed in are never modified as
+     * they might be delivered to other subscribers as well.
+     *
+     * @param older the older event
+     * @param newer the newer event
+     * @return the merged event
+     */
+    static EventMessage merge(EventMessage older, EventMessage newer) {
+        if (!(older instanceof ValueChangeEventMessage) || newer.getClass() != ValueChangeEventMessage.class) {
+            return newer;
+        }
+        return ValueChangeEventMessage.builder()
+                .element(newer.getElement())
+                .oldValue(((ValueChangeEventMessage) older).getOldValue())
+                .newValue(((ValueChangeEventMessage) newer).getNewValue())
+                .build();
+    }
+}
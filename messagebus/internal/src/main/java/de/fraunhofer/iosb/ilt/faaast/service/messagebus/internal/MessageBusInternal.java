@@ -22,14 +22,18 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
-import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
+import io.adminshell.aas.v3.model.Key;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,22 +41,71 @@ import org.slf4j.LoggerFactory;
 /**
  * MessageBusInternal: Implements the internal MessageBus interface subscribe/unsubscribe and publishes/dispatches
  * EventMessages to subscribers.
+ *
+ * <p>Events are dispatched by a configurable number of threads, each with its own queue. Events are assigned to queues
+ * by the identifiable they refer to so that events concerning the same identifiable or any of its elements are
+ * delivered in order. Subscribers that take too long to handle an event are moved to a separate thread, see
+ * {@link MessageBusInternalConfig#setSlowSubscriberThreshold(long)}. Subscribers matching an event are looked up via a
+ * {@link SubscriptionIndex}, i.e. subscriptions must not be modified after subscribing. Queues can be bounded with a
+ * configurable {@link OverflowPolicy}, see {@link MessageBusInternalConfig#setQueueSize(int)}.
  */
 public class MessageBusInternal implements MessageBus<MessageBusInternalConfig> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageBusInternal.class);
-    private final BlockingQueue<EventMessage> messageQueue;
-
+    private static final long POLL_TIMEOUT = 100;
     private final AtomicBoolean running;
-    private final Map<SubscriptionId, SubscriptionInfo> subscriptions;
-    private final ExecutorService executor;
+    private final SubscriptionRegistry subscriptions;
+    private List<Partition> partitions;
+    private ExecutorService executor;
     private MessageBusInternalConfig config;
 
     public MessageBusInternal() {
         running = new AtomicBoolean(false);
-        subscriptions = new ConcurrentHashMap<>();
-        messageQueue = new LinkedBlockingDeque<>();
-        executor = Executors.newSingleThreadExecutor();
+        subscriptions = new SubscriptionRegistry();
+        config = new MessageBusInternalConfig();
+        partitions = createPartitions(config);
+    }
+
+
+    private static List<Partition> createPartitions(MessageBusInternalConfig config) {
+        Ensure.require(config.getDispatcherThreads() > 0, "dispatcherThreads must be positive");
+        List<Partition> result = new ArrayList<>(config.getDispatcherThreads());
+        for (int i = 0; i < config.getDispatcherThreads(); i++) {
+            result.add(new Partition(config.getQueueSize(), config.getOverflowPolicy()));
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets the number of events published but not yet dispatched.
+     *
+     * @return the number of pending events
+     */
+    public int getQueueDepth() {
+        return partitions.stream().mapToInt(Partition::size).sum();
+    }
+
+
+    /**
+     * Gets the number of events dropped because the queue was full, see {@link OverflowPolicy#DROP_NEWEST} and
+     * {@link OverflowPolicy#DROP_OLDEST}.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEvents() {
+        return partitions.stream().mapToLong(Partition::getDropped).sum();
+    }
+
+
+    /**
+     * Gets the number of events merged into pending events because the queue was full, see
+     * {@link OverflowPolicy#COALESCE}.
+     *
+     * @return the number of merged events
+     */
+    public long getCoalescedEvents() {
+        return partitions.stream().mapToLong(Partition::getCoalesced).sum();
     }
 
 
@@ -64,7 +117,9 @@ public class MessageBusInternal implements MessageBus<MessageBusInternalConfig>
 
     @Override
     public void init(CoreConfig coreConfig, MessageBusInternalConfig config, ServiceContext serviceContext) {
+        Ensure.requireNonNull(config, "config must be non-null");
         this.config = config;
+        partitions = createPartitions(config);
         running.set(false);
     }
 
@@ -73,7 +128,7 @@ public class MessageBusInternal implements MessageBus<MessageBusInternalConfig>
     public void publish(EventMessage message) throws MessageBusException {
         if (message != null) {
             try {
-                messageQueue.put(message);
+                partitions.get(partitionOf(message.getElement())).put(message);
             }
             catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -83,17 +138,33 @@ public class MessageBusInternal implements MessageBus<MessageBusInternalConfig>
     }
 
 
-    private void run() {
-        running.set(true);
+    /**
+     * Determines the partition for events concerning an element. Elements are assigned by the first key that does not
+     * refer to an AAS, i.e. all elements of a submodel are assigned to the same partition regardless whether the
+     * reference contains the AAS or not. Therefore, ordering is guaranteed per submodel (or other identifiable) and not
+     * only per element. Identifiers are compared case-insensitively, so the key is hashed in lower case.
+     *
+     * @param reference the reference to the element
+     * @return the index of the partition
+     */
+    private int partitionOf(Reference reference) {
+        if (partitions.size() == 1 || reference == null || reference.getKeys() == null || reference.getKeys().isEmpty()) {
+            return 0;
+        }
+        Key key = reference.getKeys().stream()
+                .filter(x -> x.getType() != KeyElements.ASSET_ADMINISTRATION_SHELL)
+                .findFirst()
+                .orElse(reference.getKeys().get(0));
+        return Math.floorMod(Objects.hashCode(key.getValue() != null ? key.getValue().toLowerCase(Locale.ROOT) : null), partitions.size());
+    }
+
+
+    private void run(Partition queue) {
         try {
             while (running.get()) {
-                EventMessage message = messageQueue.take();
-                Class<? extends EventMessage> messageType = message.getClass();
-                for (SubscriptionInfo subscription: subscriptions.values()) {
-                    if (subscription.getSubscribedEvents().stream().anyMatch(x -> x.isAssignableFrom(messageType))
-                            && subscription.getFilter().test(message.getElement())) {
-                        subscription.getHandler().accept(message);
-                    }
+                EventMessage message = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (message != null) {
+                    subscriptions.dispatch(message);
                 }
             }
         }
@@ -105,36 +176,42 @@ public class MessageBusInternal implements MessageBus<MessageBusInternalConfig>
 
     @Override
     public void start() {
-        executor.submit(() -> run());
+        running.set(true);
+        executor = Executors.newFixedThreadPool(partitions.size(), new BasicThreadFactory.Builder()
+                .namingPattern("MessageBusInternal-%d")
+                .build());
+        for (Partition queue: partitions) {
+            executor.submit(() -> run(queue));
+        }
     }
 
 
     @Override
     public void stop() {
         running.set(false);
-        executor.shutdown();
-        try {
-            executor.awaitTermination(2, TimeUnit.SECONDS);
-        }
-        catch (InterruptedException e) {
-            LOGGER.error("interrupted while waiting for shutdown.", e);
-            Thread.currentThread().interrupt();
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(2, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                LOGGER.error("interrupted while waiting for shutdown.", e);
+                Thread.currentThread().interrupt();
+            }
         }
+        subscriptions.close();
     }
 
 
     @Override
     public SubscriptionId subscribe(SubscriptionInfo subscriptionInfo) {
-        Ensure.requireNonNull(subscriptionInfo, "subscriptionInfo must be non-null");
-        SubscriptionId subscriptionId = new SubscriptionId();
-        subscriptions.put(subscriptionId, subscriptionInfo);
-        return subscriptionId;
+        return subscriptions.subscribe(subscriptionInfo, config.getSlowSubscriberThreshold(), config.getSlowSubscriberQueueSize());
     }
 
 
     @Override
     public void unsubscribe(SubscriptionId id) {
-        subscriptions.remove(id);
+        subscriptions.unsubscribe(id);
     }
 
 }
@@ -15,6 +15,7 @@
 package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
 
 import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBusConfig;
+import java.util.Objects;
 
 
 /**
@@ -22,6 +23,133 @@ import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBusConfig;
  */
 public class MessageBusInternalConfig extends MessageBusConfig<MessageBusInternal> {
 
+    private static final int DEFAULT_DISPATCHER_THREADS = 1;
+    private static final long DEFAULT_SLOW_SUBSCRIBER_THRESHOLD = 0;
+    private static final int DEFAULT_SLOW_SUBSCRIBER_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_QUEUE_SIZE = 0;
+    private static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+    private int dispatcherThreads;
+    private long slowSubscriberThreshold;
+    private int slowSubscriberQueueSize;
+    private int queueSize;
+    private OverflowPolicy overflowPolicy;
+
+    public MessageBusInternalConfig() {
+        dispatcherThreads = DEFAULT_DISPATCHER_THREADS;
+        slowSubscriberThreshold = DEFAULT_SLOW_SUBSCRIBER_THRESHOLD;
+        slowSubscriberQueueSize = DEFAULT_SLOW_SUBSCRIBER_QUEUE_SIZE;
+        queueSize = DEFAULT_QUEUE_SIZE;
+        overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+    }
+
+
+    public int getDispatcherThreads() {
+        return dispatcherThreads;
+    }
+
+
+    /**
+     * Sets the number of threads dispatching events to subscribers. Each thread has its own queue. Events are assigned
+     * to queues by the identifiable they refer to, i.e. events concerning the same identifiable or any of its elements
+     * are always delivered in the order they have been published. If greater than 1, handlers of subscribers might be
+     * called concurrently and therefore must be thread-safe.
+     *
+     * @param dispatcherThreads the number of threads
+     */
+    public void setDispatcherThreads(int dispatcherThreads) {
+        this.dispatcherThreads = dispatcherThreads;
+    }
+
+
+    public long getSlowSubscriberThreshold() {
+        return slowSubscriberThreshold;
+    }
+
+
+    /**
+     * Sets the time in milliseconds after which a subscriber handling a single event is considered slow. Slow
+     * subscribers are moved to a separate thread with a bounded queue so that they do not delay the delivery to other
+     * subscribers. If that queue is full, further events for the slow subscriber are dropped. Values less than or equal
+     * to 0 disable the detection of slow subscribers.
+     *
+     * @param slowSubscriberThreshold the threshold in milliseconds
+     */
+    public void setSlowSubscriberThreshold(long slowSubscriberThreshold) {
+        this.slowSubscriberThreshold = slowSubscriberThreshold;
+    }
+
+
+    public int getSlowSubscriberQueueSize() {
+        return slowSubscriberQueueSize;
+    }
+
+
+    /**
+     * Sets the maximum number of pending events per slow subscriber, see {@link #setSlowSubscriberThreshold(long)}.
+     *
+     * @param slowSubscriberQueueSize the maximum number of pending events
+     */
+    public void setSlowSubscriberQueueSize(int slowSubscriberQueueSize) {
+        this.slowSubscriberQueueSize = slowSubscriberQueueSize;
+    }
+
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+
+    /**
+     * Sets the maximum number of pending events per dispatcher thread, see {@link #setDispatcherThreads(int)}. Events
+     * published while the queue is full are handled according to {@link #setOverflowPolicy(OverflowPolicy)}. Values
+     * less than or equal to 0 mean unbounded.
+     *
+     * @param queueSize the maximum number of pending events
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+
+    /**
+     * Sets how events published while the queue is full are handled, see {@link OverflowPolicy}. Only relevant if
+     * {@link #setQueueSize(int)} is set.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MessageBusInternalConfig that = (MessageBusInternalConfig) o;
+        return Objects.equals(dispatcherThreads, that.dispatcherThreads)
+                && Objects.equals(slowSubscriberThreshold, that.slowSubscriberThreshold)
+                && Objects.equals(slowSubscriberQueueSize, that.slowSubscriberQueueSize)
+                && Objects.equals(queueSize, that.queueSize)
+                && Objects.equals(overflowPolicy, that.overflowPolicy);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dispatcherThreads, slowSubscriberThreshold, slowSubscriberQueueSize, queueSize, overflowPolicy);
+    }
+
+
     public static Builder builder() {
         return new Builder();
     }
@@ -29,6 +157,34 @@ public class MessageBusInternalConfig extends MessageBusConfig<MessageBusInterna
     private abstract static class AbstractBuilder<T extends MessageBusInternalConfig, B extends AbstractBuilder<T, B>>
             extends MessageBusConfig.AbstractBuilder<MessageBusInternal, T, B> {
 
+        public B dispatcherThreads(int value) {
+            getBuildingInstance().setDispatcherThreads(value);
+            return getSelf();
+        }
+
+
+        public B slowSubscriberThreshold(long value) {
+            getBuildingInstance().setSlowSubscriberThreshold(value);
+            return getSelf();
+        }
+
+
+        public B slowSubscriberQueueSize(int value) {
+            getBuildingInstance().setSlowSubscriberQueueSize(value);
+            return getSelf();
+        }
+
+
+        public B queueSize(int value) {
+            getBuildingInstance().setQueueSize(value);
+            return getSelf();
+        }
+
+
+        public B overflowPolicy(OverflowPolicy value) {
+            getBuildingInstance().setOverflowPolicy(value);
+            return getSelf();
+        }
     }
 
     public static class Builder extends AbstractBuilder<MessageBusInternalConfig, Builder> {
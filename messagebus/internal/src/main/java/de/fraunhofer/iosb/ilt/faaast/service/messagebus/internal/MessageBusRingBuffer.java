@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Alternative to {@link MessageBusInternal} based on a pre-allocated ring buffer with multiple publishers and a single
+ * dispatcher thread, see {@link RingBuffer}.
+ *
+ * <p>Publishing does not allocate and does not take locks, making this implementation suitable for high event rates.
+ * The buffer is bounded, i.e. publishers wait while the buffer is full, but not longer than
+ * {@link MessageBusRingBufferConfig#setPublishTimeout(long)}, or drop the event, see
+ * {@link MessageBusRingBufferConfig#setOverflowPolicy(OverflowPolicy)}. Subscribers called by the dispatcher thread
+ * never wait when publishing, as only the dispatcher thread frees slots. How the dispatcher thread waits for new events
+ * can be configured via {@link MessageBusRingBufferConfig#setWaitStrategy(WaitStrategy)}. Events are delivered in
+ * the order they have been published.
+ */
+public class MessageBusRingBuffer implements MessageBus<MessageBusRingBufferConfig> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageBusRingBuffer.class);
+    private static final long POLL_TIMEOUT = 100;
+    private final AtomicBoolean running;
+    private final AtomicLong dropped;
+    private final SubscriptionRegistry subscriptions;
+    private RingBuffer ringBuffer;
+    private ExecutorService executor;
+    private MessageBusRingBufferConfig config;
+    private volatile Thread dispatcher;
+
+    public MessageBusRingBuffer() {
+        running = new AtomicBoolean(false);
+        dropped = new AtomicLong();
+        subscriptions = new SubscriptionRegistry();
+        config = new MessageBusRingBufferConfig();
+        ringBuffer = new RingBuffer(config.getBufferSize(), config.getWaitStrategy());
+    }
+
+
+    /**
+     * Gets the number of events dropped because the buffer was full, see {@link OverflowPolicy#DROP_NEWEST}.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+
+    @Override
+    public MessageBusRingBufferConfig asConfig() {
+        return config;
+    }
+
+
+    @Override
+    public void init(CoreConfig coreConfig, MessageBusRingBufferConfig config, ServiceContext serviceContext) {
+        Ensure.requireNonNull(config, "config must be non-null");
+        Ensure.require(config.getOverflowPolicy() == OverflowPolicy.BLOCK || config.getOverflowPolicy() == OverflowPolicy.DROP_NEWEST,
+                "overflowPolicy must be BLOCK or DROP_NEWEST");
+        Ensure.require(config.getPublishTimeout() >= 0, "publishTimeout must be non-negative");
+        this.config = config;
+        ringBuffer = new RingBuffer(config.getBufferSize(), config.getWaitStrategy());
+        running.set(false);
+    }
+
+
+    @Override
+    public void publish(EventMessage message) throws MessageBusException {
+        if (message == null) {
+            return;
+        }
+        if (!running.get()) {
+            throw new MessageBusException("adding message to ring buffer failed - message bus is not running");
+        }
+        boolean fromDispatcher = Thread.currentThread() == dispatcher;
+        long timeout = config.getOverflowPolicy() == OverflowPolicy.BLOCK && !fromDispatcher
+                ? config.getPublishTimeout()
+                : 0;
+        try {
+            if (ringBuffer.offer(message, timeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessageBusException("adding message to ring buffer failed", e);
+        }
+        if (config.getOverflowPolicy() == OverflowPolicy.DROP_NEWEST) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (fromDispatcher) {
+            throw new MessageBusException("adding message to ring buffer failed - buffer is full and waiting for a free slot on the dispatcher thread would block forever");
+        }
+        throw new MessageBusException(String.format("adding message to ring buffer failed - buffer still full after %d ms", timeout));
+    }
+
+
+    private void run() {
+        dispatcher = Thread.currentThread();
+        try {
+            while (running.get()) {
+                EventMessage message = ringBuffer.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (message != null) {
+                    subscriptions.dispatch(message);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            dispatcher = null;
+        }
+    }
+
+
+    @Override
+    public void start() {
+        running.set(true);
+        executor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("MessageBusInternal-%d")
+                .build());
+        executor.submit(this::run);
+    }
+
+
+    @Override
+    public void stop() {
+        running.set(false);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(2, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                LOGGER.error("interrupted while waiting for shutdown.", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+        subscriptions.close();
+    }
+
+
+    @Override
+    public SubscriptionId subscribe(SubscriptionInfo subscriptionInfo) {
+        return subscriptions.subscribe(subscriptionInfo, config.getSlowSubscriberThreshold(), config.getSlowSubscriberQueueSize());
+    }
+
+
+    @Override
+    public void unsubscribe(SubscriptionId id) {
+        subscriptions.unsubscribe(id);
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBusConfig;
+import java.util.Objects;
+
+
+/**
+ * Configuration class for {@link MessageBusRingBuffer}.
+ */
+public class MessageBusRingBufferConfig extends MessageBusConfig<MessageBusRingBuffer> {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final WaitStrategy DEFAULT_WAIT_STRATEGY = WaitStrategy.BLOCKING;
+    private static final long DEFAULT_SLOW_SUBSCRIBER_THRESHOLD = 0;
+    private static final int DEFAULT_SLOW_SUBSCRIBER_QUEUE_SIZE = 10000;
+    private static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+    private static final long DEFAULT_PUBLISH_TIMEOUT = 5000;
+    private int bufferSize;
+    private WaitStrategy waitStrategy;
+    private long slowSubscriberThreshold;
+    private int slowSubscriberQueueSize;
+    private OverflowPolicy overflowPolicy;
+    private long publishTimeout;
+
+    public MessageBusRingBufferConfig() {
+        bufferSize = DEFAULT_BUFFER_SIZE;
+        waitStrategy = DEFAULT_WAIT_STRATEGY;
+        slowSubscriberThreshold = DEFAULT_SLOW_SUBSCRIBER_THRESHOLD;
+        slowSubscriberQueueSize = DEFAULT_SLOW_SUBSCRIBER_QUEUE_SIZE;
+        overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+        publishTimeout = DEFAULT_PUBLISH_TIMEOUT;
+    }
+
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+
+    /**
+     * Sets the number of pre-allocated slots of the ring buffer. Must be a power of 2. How events published while all
+     * slots are occupied are handled is defined by {@link #setOverflowPolicy(OverflowPolicy)}.
+     *
+     * @param bufferSize the number of slots
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+
+    /**
+     * Sets how the dispatcher thread waits for new events, see {@link WaitStrategy}.
+     *
+     * @param waitStrategy the wait strategy
+     */
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+
+    public long getSlowSubscriberThreshold() {
+        return slowSubscriberThreshold;
+    }
+
+
+    /**
+     * Sets the time in milliseconds after which a subscriber handling a single event is considered slow, see
+     * {@link MessageBusInternalConfig#setSlowSubscriberThreshold(long)}.
+     *
+     * @param slowSubscriberThreshold the threshold in milliseconds
+     */
+    public void setSlowSubscriberThreshold(long slowSubscriberThreshold) {
+        this.slowSubscriberThreshold = slowSubscriberThreshold;
+    }
+
+
+    public int getSlowSubscriberQueueSize() {
+        return slowSubscriberQueueSize;
+    }
+
+
+    /**
+     * Sets the maximum number of pending events per slow subscriber, see {@link #setSlowSubscriberThreshold(long)}.
+     *
+     * @param slowSubscriberQueueSize the maximum number of pending events
+     */
+    public void setSlowSubscriberQueueSize(int slowSubscriberQueueSize) {
+        this.slowSubscriberQueueSize = slowSubscriberQueueSize;
+    }
+
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+
+    /**
+     * Sets how events published while the buffer is full are handled. Only {@link OverflowPolicy#BLOCK} and
+     * {@link OverflowPolicy#DROP_NEWEST} are supported. With {@link OverflowPolicy#BLOCK}, publishers wait for a free
+     * slot at most {@link #setPublishTimeout(long)}.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+
+    public long getPublishTimeout() {
+        return publishTimeout;
+    }
+
+
+    /**
+     * Sets the maximum time in milliseconds a publisher waits for a free slot, see
+     * {@link #setOverflowPolicy(OverflowPolicy)}. If the buffer is still full afterwards, publishing fails.
+     *
+     * @param publishTimeout the timeout in milliseconds
+     */
+    public void setPublishTimeout(long publishTimeout) {
+        this.publishTimeout = publishTimeout;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MessageBusRingBufferConfig that = (MessageBusRingBufferConfig) o;
+        return Objects.equals(bufferSize, that.bufferSize)
+                && Objects.equals(waitStrategy, that.waitStrategy)
+                && Objects.equals(slowSubscriberThreshold, that.slowSubscriberThreshold)
+                && Objects.equals(slowSubscriberQueueSize, that.slowSubscriberQueueSize)
+                && Objects.equals(overflowPolicy, that.overflowPolicy)
+                && Objects.equals(publishTimeout, that.publishTimeout);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bufferSize, waitStrategy, slowSubscriberThreshold, slowSubscriberQueueSize, overflowPolicy, publishTimeout);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private abstract static class AbstractBuilder<T extends MessageBusRingBufferConfig, B extends AbstractBuilder<T, B>>
+            extends MessageBusConfig.AbstractBuilder<MessageBusRingBuffer, T, B> {
+
+        public B bufferSize(int value) {
+            getBuildingInstance().setBufferSize(value);
+            return getSelf();
+        }
+
+
+        public B waitStrategy(WaitStrategy value) {
+            getBuildingInstance().setWaitStrategy(value);
+            return getSelf();
+        }
+
+
+        public B slowSubscriberThreshold(long value) {
+            getBuildingInstance().setSlowSubscriberThreshold(value);
+            return getSelf();
+        }
+
+
+        public B slowSubscriberQueueSize(int value) {
+            getBuildingInstance().setSlowSubscriberQueueSize(value);
+            return getSelf();
+        }
+
+
+        public B overflowPolicy(OverflowPolicy value) {
+            getBuildingInstance().setOverflowPolicy(value);
+            return getSelf();
+        }
+
+
+        public B publishTimeout(long value) {
+            getBuildingInstance().setPublishTimeout(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<MessageBusRingBufferConfig, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected MessageBusRingBufferConfig newBuildingInstance() {
+            return new MessageBusRingBufferConfig();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+/**
+ * Defines how {@link MessageBusInternal} handles events published while the queue is full, see
+ * {@link MessageBusInternalConfig#setQueueSize(int)}.
+ */
+public enum OverflowPolicy {
+    /**
+     * The publisher waits until there is space in the queue.
+     */
+    BLOCK,
+    /**
+     * The oldest pending event is dropped in favor of the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * The new event is dropped.
+     */
+    DROP_NEWEST,
+    /**
+     * The new event is merged into a pending event of the same type concerning the same element, i.e. the latest value
+     * wins. If there is no such pending event, the publisher waits until there is space in the queue.
+     */
+    COALESCE
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Queue of a single dispatcher thread of {@link MessageBusInternal}. Optionally bounded, in which case events published
+ * while the queue is full are handled according to an {@link OverflowPolicy}.
+ *
+ * <p>Events are wrapped in slots. With {@link OverflowPolicy#COALESCE}, the latest pending slot per event type and
+ * element is tracked so that a new event can be merged into it as long as it has not been taken by the dispatcher.
+ */
+class Partition {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Partition.class);
+    private final BlockingDeque<AtomicReference<EventMessage>> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final Map<List<Object>, AtomicReference<EventMessage>> pending;
+    private final AtomicLong dropped;
+    private final AtomicLong coalesced;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param capacity the maximum number of pending events, values less than or equal to 0 mean unbounded
+     * @param overflowPolicy how to handle events published while the queue is full
+     * @throws IllegalArgumentException if overflowPolicy is null
+     */
+    Partition(int capacity, OverflowPolicy overflowPolicy) {
+        Ensure.requireNonNull(overflowPolicy, "overflowPolicy must be non-null");
+        this.queue = capacity > 0 ? new LinkedBlockingDeque<>(capacity) : new LinkedBlockingDeque<>();
+        this.overflowPolicy = overflowPolicy;
+        this.pending = overflowPolicy == OverflowPolicy.COALESCE ? new ConcurrentHashMap<>() : null;
+        this.dropped = new AtomicLong();
+        this.coalesced = new AtomicLong();
+    }
+
+
+    /**
+     * Adds an event.
+     *
+     * @param message the event
+     * @throws InterruptedException if interrupted while waiting for space in the queue
+     */
+    void put(EventMessage message) throws InterruptedException {
+        AtomicReference<EventMessage> slot = new AtomicReference<>(message);
+        switch (overflowPolicy) {
+            case DROP_NEWEST: {
+                if (!queue.offerLast(slot)) {
+                    countDropped();
+                }
+                break;
+            }
+            case DROP_OLDEST: {
+                while (!queue.offerLast(slot)) {
+                    if (queue.pollFirst() != null) {
+                        countDropped();
+                    }
+                }
+                break;
+            }
+            case COALESCE: {
+                List<Object> key = EventCoalescing.keyOf(message);
+                if (queue.remainingCapacity() == 0 && mergeIntoPending(key, message)) {
+                    coalesced.incrementAndGet();
+                    return;
+                }
+                // register before adding to the queue so that the dispatcher always removes the registration after
+                // taking the slot
+                pending.put(key, slot);
+                try {
+                    queue.putLast(slot);
+                }
+                catch (InterruptedException e) {
+                    pending.remove(key, slot);
+                    throw e;
+                }
+                break;
+            }
+            default:
+                queue.putLast(slot);
+        }
+    }
+
+
+    private boolean mergeIntoPending(List<Object> key, EventMessage message) {
+        AtomicReference<EventMessage> slot = pending.get(key);
+        if (slot == null) {
+            return false;
+        }
+        while (true) {
+            EventMessage current = slot.get();
+            if (current == null) {
+                // already taken by the dispatcher
+                return false;
+            }
+            if (slot.compareAndSet(current, EventCoalescing.merge(current, message))) {
+                return true;
+            }
+        }
+    }
+
+
+    private void countDropped() {
+        long count = dropped.incrementAndGet();
+        if (Long.bitCount(count) == 1) {
+            LOGGER.warn("dropped event(s) as message bus queue is full (overflow policy: {}, total dropped: {})", overflowPolicy, count);
+        }
+    }
+
+
+    /**
+     * Takes the next event, waiting up to the given timeout.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return the next event or null if there was none within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    EventMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        AtomicReference<EventMessage> slot = queue.pollFirst(timeout, unit);
+        if (slot == null) {
+            return null;
+        }
+        EventMessage result = slot.getAndSet(null);
+        if (pending != null) {
+            pending.remove(EventCoalescing.keyOf(result), slot);
+        }
+        return result;
+    }
+
+
+    int size() {
+        return queue.size();
+    }
+
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+
+    long getCoalesced() {
+        return coalesced.get();
+    }
+}
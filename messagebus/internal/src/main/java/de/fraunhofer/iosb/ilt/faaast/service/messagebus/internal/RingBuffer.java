@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Pre-allocated bounded ring buffer with multiple producers and a single consumer.
+ *
+ * <p>Producers claim a sequence number via CAS on a shared cursor, write the event to the slot of that sequence and
+ * mark the slot as available by storing the round of the sequence, i.e. how often the buffer has wrapped. The consumer
+ * reads the slots in sequence order and releases them by advancing its own sequence. Producers wait while the buffer
+ * is full, but not longer than a given timeout. Apart from the lock used by {@link WaitStrategy#BLOCKING} while the
+ * consumer is idle, no locks and no
+ * allocations are involved.
+ */
+class RingBuffer {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long SLEEP_NANOS = 100_000;
+    private static final long PRODUCER_PARK_NANOS = 1_000;
+    private final EventMessage[] entries;
+    private final AtomicIntegerArray availableRounds;
+    private final int mask;
+    private final int shift;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong claimed;
+    private final AtomicLong consumed;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private volatile boolean consumerWaiting;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param size the number of slots, must be a power of 2
+     * @param waitStrategy how the consumer waits for new events
+     * @throws IllegalArgumentException if size is not a positive power of 2
+     * @throws IllegalArgumentException if waitStrategy is null
+     */
+    RingBuffer(int size, WaitStrategy waitStrategy) {
+        Ensure.require(size > 0 && Integer.bitCount(size) == 1, "bufferSize must be a positive power of 2");
+        Ensure.requireNonNull(waitStrategy, "waitStrategy must be non-null");
+        this.entries = new EventMessage[size];
+        this.availableRounds = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            availableRounds.set(i, -1);
+        }
+        this.mask = size - 1;
+        this.shift = Integer.numberOfTrailingZeros(size);
+        this.waitStrategy = waitStrategy;
+        this.claimed = new AtomicLong(-1);
+        this.consumed = new AtomicLong(-1);
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+    }
+
+
+    /**
+     * Adds an event, waiting while the buffer is full.
+     *
+     * @param message the event
+     * @param timeout the maximum time to wait for a free slot, 0 to not wait at all
+     * @param unit the unit of the timeout
+     * @return true if the event has been added, false if the buffer was still full after the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean offer(EventMessage message, long timeout, TimeUnit unit) throws InterruptedException {
+        long sequence = claim(unit.toNanos(timeout));
+        if (sequence < 0) {
+            return false;
+        }
+        int index = (int) sequence & mask;
+        entries[index] = message;
+        availableRounds.set(index, roundOf(sequence));
+        if (consumerWaiting) {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+
+    private long claim(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - consumed.get() > entries.length) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return -1;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+            }
+            else if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+
+    /**
+     * Takes the next event, waiting according to the wait strategy. Must only be called by a single thread.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return the next event or null if there was none within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    EventMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long next = consumed.get() + 1;
+        int index = (int) next & mask;
+        int round = roundOf(next);
+        if (availableRounds.get(index) != round && !await(index, round, unit.toNanos(timeout))) {
+            return null;
+        }
+        EventMessage result = entries[index];
+        entries[index] = null;
+        consumed.lazySet(next);
+        return result;
+    }
+
+
+    /**
+     * Number of events published but not yet taken by the consumer. Might include events that are still being written
+     * by their publishers.
+     *
+     * @return the number of pending events
+     */
+    int size() {
+        return (int) (claimed.get() - consumed.get());
+    }
+
+
+    /**
+     * Number of slots.
+     *
+     * @return the number of slots
+     */
+    int capacity() {
+        return entries.length;
+    }
+
+
+    private int roundOf(long sequence) {
+        return (int) (sequence >>> shift);
+    }
+
+
+    private boolean isAvailable(int index, int round) {
+        return availableRounds.get(index) == round;
+    }
+
+
+    private boolean await(int index, int round, long timeoutNanos) throws InterruptedException {
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+            return awaitBlocking(index, round, timeoutNanos);
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
+        int tries = 0;
+        while (!isAvailable(index, round)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (waitStrategy == WaitStrategy.BUSY_SPIN || tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            }
+            else if (waitStrategy == WaitStrategy.YIELDING || tries < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            }
+            else {
+                LockSupport.parkNanos(SLEEP_NANOS);
+            }
+            tries++;
+        }
+        return true;
+    }
+
+
+    private boolean awaitBlocking(int index, int round, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            // publishers check consumerWaiting after marking their slot available, therefore either they signal or
+            // the slot is seen as available here
+            consumerWaiting = true;
+            long remaining = timeoutNanos;
+            while (!isAvailable(index, round)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            return true;
+        }
+        finally {
+            consumerWaiting = false;
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Delivers events to a single subscription. Events are passed to the handler directly in the dispatching thread until
+ * handling a single event takes longer than the configured threshold. Afterwards, the subscriber is considered slow
+ * and events are passed to the handler by a separate thread via a bounded queue. Events that do not fit into this queue
+ * are dropped.
+ *
+ * <p>If the subscription requests coalescing, events are passed to a {@link Coalescer} instead which calls the handler
+ * in its own thread, therefore such subscribers are never considered slow.
+ */
+class Subscriber {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Subscriber.class);
+    private final SubscriptionInfo info;
+    private final long slowThreshold;
+    private final int queueSize;
+    private final AtomicLong dropped;
+    private final Coalescer coalescer;
+    private final String threadName;
+    private volatile BlockingQueue<EventMessage> queue;
+    private ExecutorService worker;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param id the id of the subscription
+     * @param info the subscription
+     * @param slowThreshold time in milliseconds after which handling a single event is considered slow, values less
+     *            than or equal to 0 disable the detection of slow subscribers
+     * @param queueSize the maximum number of pending events once the subscriber is considered slow
+     */
+    Subscriber(SubscriptionId id, SubscriptionInfo info, long slowThreshold, int queueSize) {
+        this.info = info;
+        this.slowThreshold = TimeUnit.MILLISECONDS.toNanos(slowThreshold);
+        this.queueSize = queueSize;
+        this.dropped = new AtomicLong();
+        this.threadName = "MessageBusSlowSubscriber-" + id.getValue();
+        this.coalescer = Coalescer.create(info, this::handle, "MessageBusCoalescer-" + id.getValue());
+    }
+
+
+    SubscriptionInfo getInfo() {
+        return info;
+    }
+
+
+    /**
+     * Checks whether the subscription includes events of a given type.
+     *
+     * @param eventType the type of the events
+     * @return true if the subscription includes events of the given type, otherwise false
+     */
+    boolean isSubscribedTo(Class<?> eventType) {
+        return info.getSubscribedEvents() != null
+                && info.getSubscribedEvents().stream().anyMatch(x -> x.isAssignableFrom(eventType));
+    }
+
+
+    /**
+     * Delivers an event to the subscription.
+     *
+     * @param message the event
+     */
+    void deliver(EventMessage message) {
+        if (coalescer != null) {
+            coalescer.accept(message);
+            return;
+        }
+        BlockingQueue<EventMessage> pending = queue;
+        if (pending != null) {
+            if (!pending.offer(message)) {
+                long count = dropped.incrementAndGet();
+                if (Long.bitCount(count) == 1) {
+                    LOGGER.warn("dropped event(s) for slow subscriber as its queue is full (total dropped: {})", count);
+                }
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        handle(message);
+        if (slowThreshold > 0 && System.nanoTime() - start > slowThreshold) {
+            isolate();
+        }
+    }
+
+
+    private void handle(EventMessage message) {
+        try {
+            info.getHandler().accept(message);
+        }
+        catch (RuntimeException e) {
+            LOGGER.warn("subscriber failed to handle event (event type: {})", message.getClass().getSimpleName(), e);
+        }
+    }
+
+
+    private synchronized void isolate() {
+        if (queue != null) {
+            return;
+        }
+        LOGGER.info("subscriber exceeded time limit of {} ms to handle an event and will be handled in a separate thread",
+                TimeUnit.NANOSECONDS.toMillis(slowThreshold));
+        BlockingQueue<EventMessage> pending = new ArrayBlockingQueue<>(queueSize);
+        worker = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                .namingPattern(threadName)
+                .daemon(true)
+                .build());
+        worker.submit(() -> process(pending));
+        queue = pending;
+    }
+
+
+    private void process(BlockingQueue<EventMessage> pending) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                handle(pending.take());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Gets the number of events dropped because the subscriber was too slow.
+     *
+     * @return the number of dropped events
+     */
+    long getDropped() {
+        return dropped.get();
+    }
+
+
+    /**
+     * Checks whether the subscriber is considered slow, i.e. events are handled in a separate thread.
+     *
+     * @return true if the subscriber is considered slow, otherwise false
+     */
+    boolean isSlow() {
+        return queue != null;
+    }
+
+
+    /**
+     * Stops the separate thread, if any. Pending events are discarded and further events are delivered directly
+     * again, respectively coalesced in a new thread.
+     */
+    synchronized void close() {
+        if (coalescer != null) {
+            coalescer.stop();
+        }
+        if (worker != null) {
+            worker.shutdownNow();
+            worker = null;
+        }
+        queue = null;
+    }
+
+
+    /**
+     * Like {@link #close()} but for subscriptions that have been removed, i.e. events still in flight are ignored
+     * instead of starting a new thread.
+     */
+    synchronized void dispose() {
+        close();
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.Reference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * Index of subscribers used to find the subscribers matching an event without evaluating every subscription.
+ * Subscriptions restricted to a single reference or a type of elements via
+ * {@link SubscriptionInfo#create(Class, java.util.function.Consumer, Reference)} or
+ * {@link SubscriptionInfo#create(Class, java.util.function.Consumer, KeyElements)} are looked up by the element of the
+ * event. Only the filters of all other subscriptions are evaluated for each event. Within each group, the subscribers
+ * matching an event type are computed once per event type.
+ *
+ * <p>Subscriptions are indexed when added, i.e. changing a subscription afterwards has no effect. Reads are lock-free,
+ * modifications replace the affected group.
+ */
+class SubscriptionIndex {
+
+    private final Map<Reference, Group> byReference;
+    private final Map<KeyElements, Group> byKeyElements;
+    private volatile Group others;
+
+    SubscriptionIndex() {
+        byReference = new ConcurrentHashMap<>();
+        byKeyElements = new ConcurrentHashMap<>();
+        others = Group.EMPTY;
+    }
+
+
+    /**
+     * Adds a subscriber.
+     *
+     * @param subscriber the subscriber to add
+     */
+    synchronized void add(Subscriber subscriber) {
+        SubscriptionInfo info = subscriber.getInfo();
+        if (info.getReference() != null) {
+            byReference.compute(info.getReference(), (key, group) -> Group.with(group, subscriber));
+        }
+        else if (info.getKeyElements() != null) {
+            byKeyElements.compute(info.getKeyElements(), (key, group) -> Group.with(group, subscriber));
+        }
+        else {
+            others = Group.with(others, subscriber);
+        }
+    }
+
+
+    /**
+     * Removes a subscriber.
+     *
+     * @param subscriber the subscriber to remove
+     */
+    synchronized void remove(Subscriber subscriber) {
+        SubscriptionInfo info = subscriber.getInfo();
+        if (info.getReference() != null) {
+            byReference.computeIfPresent(info.getReference(), (key, group) -> Group.without(group, subscriber));
+        }
+        else if (info.getKeyElements() != null) {
+            byKeyElements.computeIfPresent(info.getKeyElements(), (key, group) -> Group.without(group, subscriber));
+        }
+        else {
+            Group result = Group.without(others, subscriber);
+            others = result != null ? result : Group.EMPTY;
+        }
+    }
+
+
+    /**
+     * Calls the consumer for every subscriber matching the event.
+     *
+     * @param message the event
+     * @param consumer the consumer to call
+     */
+    void forEachMatching(EventMessage message, Consumer<Subscriber> consumer) {
+        Class<? extends EventMessage> messageType = message.getClass();
+        Reference element = message.getElement();
+        for (Subscriber subscriber: others.get(messageType)) {
+            if (subscriber.getInfo().getFilter().test(element)) {
+                consumer.accept(subscriber);
+            }
+        }
+        if (element == null || element.getKeys() == null || element.getKeys().isEmpty()) {
+            return;
+        }
+        Group group = byReference.get(element);
+        if (group != null) {
+            group.get(messageType).forEach(consumer);
+        }
+        KeyElements type = element.getKeys().get(element.getKeys().size() - 1).getType();
+        group = type != null ? byKeyElements.get(type) : null;
+        if (group != null) {
+            group.get(messageType).forEach(consumer);
+        }
+    }
+
+    /**
+     * Immutable group of subscribers with a lazily computed cache of the subscribers per event type.
+     */
+    private static class Group {
+
+        private static final Group EMPTY = new Group(List.of());
+        private final List<Subscriber> subscribers;
+        private final Map<Class<?>, List<Subscriber>> byEventType;
+        private final Function<Class<?>, List<Subscriber>> matching;
+
+        private Group(List<Subscriber> subscribers) {
+            this.subscribers = subscribers;
+            this.byEventType = new ConcurrentHashMap<>();
+            this.matching = type -> this.subscribers.stream()
+                    .filter(x -> x.isSubscribedTo(type))
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+
+        private static Group with(Group group, Subscriber subscriber) {
+            List<Subscriber> result = new ArrayList<>(group != null ? group.subscribers : Collections.emptyList());
+            result.add(subscriber);
+            return new Group(Collections.unmodifiableList(result));
+        }
+
+
+        private static Group without(Group group, Subscriber subscriber) {
+            List<Subscriber> result = new ArrayList<>(group.subscribers);
+            result.remove(subscriber);
+            return result.isEmpty() ? null : new Group(Collections.unmodifiableList(result));
+        }
+
+
+        private List<Subscriber> get(Class<?> eventType) {
+            return byEventType.computeIfAbsent(eventType, matching);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Keeps track of the subscriptions of a message bus and delivers events to the matching subscribers.
+ */
+class SubscriptionRegistry {
+
+    private final Map<SubscriptionId, Subscriber> subscriptions;
+    private final SubscriptionIndex subscriptionIndex;
+
+    SubscriptionRegistry() {
+        subscriptions = new ConcurrentHashMap<>();
+        subscriptionIndex = new SubscriptionIndex();
+    }
+
+
+    /**
+     * Adds a subscription.
+     *
+     * @param subscriptionInfo the subscription
+     * @param slowThreshold time in milliseconds after which handling a single event is considered slow, see
+     *            {@link Subscriber}
+     * @param queueSize the maximum number of pending events for slow subscribers
+     * @return the id of the subscription
+     * @throws IllegalArgumentException if subscriptionInfo is null
+     */
+    SubscriptionId subscribe(SubscriptionInfo subscriptionInfo, long slowThreshold, int queueSize) {
+        Ensure.requireNonNull(subscriptionInfo, "subscriptionInfo must be non-null");
+        SubscriptionId subscriptionId = new SubscriptionId();
+        Subscriber subscriber = new Subscriber(subscriptionId, subscriptionInfo, slowThreshold, queueSize);
+        subscriptions.put(subscriptionId, subscriber);
+        subscriptionIndex.add(subscriber);
+        return subscriptionId;
+    }
+
+
+    /**
+     * Removes a subscription. Does nothing if there is no subscription with the given id.
+     *
+     * @param id the id of the subscription
+     */
+    void unsubscribe(SubscriptionId id) {
+        Subscriber subscriber = subscriptions.remove(id);
+        if (subscriber != null) {
+            subscriptionIndex.remove(subscriber);
+            subscriber.dispose();
+        }
+    }
+
+
+    /**
+     * Delivers an event to all matching subscribers.
+     *
+     * @param message the event
+     */
+    void dispatch(EventMessage message) {
+        subscriptionIndex.forEachMatching(message, x -> x.deliver(message));
+    }
+
+
+    /**
+     * Stops the separate threads of slow subscribers, see {@link Subscriber#close()}.
+     */
+    void close() {
+        subscriptions.values().forEach(Subscriber::close);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+/**
+ * Strategies how the dispatcher thread of {@link MessageBusRingBuffer} waits for new events. Strategies further down
+ * the list offer lower latency at the cost of higher CPU usage while idle.
+ */
+public enum WaitStrategy {
+    /**
+     * Waits on a lock until a publisher signals a new event. Lowest CPU usage, highest latency.
+     */
+    BLOCKING,
+    /**
+     * Spins, then yields and finally sleeps for short periods of time. No locking involved on the publisher side.
+     */
+    SLEEPING,
+    /**
+     * Spins, then yields the thread. Occupies a CPU core while idle but gives way to other threads.
+     */
+    YIELDING,
+    /**
+     * Spins permanently. Lowest latency, occupies a CPU core while idle. Should only be used if there are more CPU
+     * cores than busy threads.
+     */
+    BUSY_SPIN
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.IntValue;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.model.Reference;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class EventCoalescingTest {
+
+    private static final Reference ELEMENT = ReferenceHelper.buildReferenceToSubmodelElement("submodel", "property");
+
+    public static class CustomValueChangeEventMessage extends ValueChangeEventMessage {
+
+        private String source;
+
+        public String getSource() {
+            return source;
+        }
+
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+    }
+
+    private static ValueChangeEventMessage valueChange(int oldValue, int newValue) {
+        return ValueChangeEventMessage.builder()
+                .element(ELEMENT)
+                .oldValue(new PropertyValue(new IntValue(oldValue)))
+                .newValue(new PropertyValue(new IntValue(newValue)))
+                .build();
+    }
+
+
+    private static CustomValueChangeEventMessage valueChange(int oldValue, int newValue, String source) {
+        CustomValueChangeEventMessage result = new CustomValueChangeEventMessage();
+        result.setElement(ELEMENT);
+        result.setOldValue(new PropertyValue(new IntValue(oldValue)));
+        result.setNewValue(new PropertyValue(new IntValue(newValue)));
+        result.setSource(source);
+        return result;
+    }
+
+
+    @Test
+    public void testMergeKeepsOldValueOfOlderEvent() {
+        ValueChangeEventMessage older = valueChange(1, 2);
+        ValueChangeEventMessage newer = valueChange(2, 3);
+        EventMessage actual = EventCoalescing.merge(older, newer);
+        Assert.assertEquals(valueChange(1, 3), actual);
+        // events passed in must not be modified
+        Assert.assertEquals(valueChange(2, 3), newer);
+        Assert.assertEquals(valueChange(1, 2), older);
+    }
+
+
+    @Test
+    public void testMergeOfSubclassReturnsNewerEvent() {
+        CustomValueChangeEventMessage older = valueChange(1, 2, "older");
+        CustomValueChangeEventMessage newer = valueChange(2, 3, "newer");
+        Assert.assertSame(newer, EventCoalescing.merge(older, newer));
+        Assert.assertEquals(new PropertyValue(new IntValue(2)), newer.getOldValue());
+    }
+
+
+    @Test
+    public void testMergeKeyContainsType() {
+        Assert.assertNotEquals(
+                EventCoalescing.keyOf(valueChange(1, 2, "custom")),
+                EventCoalescing.keyOf(ValueChangeEventMessage.builder().element(ELEMENT).build()));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.messagebus.MessageBus;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.IntValue;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares {@link MessageBusInternal} with {@link MessageBusRingBuffer}. {@link #throughput()} measures events per
+ * second delivered to a subscriber with multiple concurrent publishers, {@link #latency()} measures the time from
+ * publishing an event until it has been delivered including percentiles. Not executed as part of the unit tests, run
+ * via {@link #main}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageBusBenchmark {
+
+    @Param({
+            "internal",
+            "ringbuffer-blocking",
+            "ringbuffer-yielding"
+    })
+    private String messageBusType;
+
+    // limits the number of events not yet delivered so that publishers cannot outrun the unbounded queue of MessageBusInternal
+    private static final long MAX_PENDING = 8192;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private MessageBus<?> messageBus;
+    private ValueChangeEventMessage message;
+
+    @Setup
+    public void setup() throws MessageBusException {
+        switch (messageBusType) {
+            case "internal": {
+                MessageBusInternal internal = new MessageBusInternal();
+                internal.init(CoreConfig.builder().build(), MessageBusInternalConfig.builder().build(), null);
+                messageBus = internal;
+                break;
+            }
+            case "ringbuffer-blocking":
+            case "ringbuffer-yielding": {
+                MessageBusRingBuffer ringBuffer = new MessageBusRingBuffer();
+                ringBuffer.init(CoreConfig.builder().build(), MessageBusRingBufferConfig.builder()
+                        .waitStrategy(messageBusType.endsWith("yielding") ? WaitStrategy.YIELDING : WaitStrategy.BLOCKING)
+                        .build(), null);
+                messageBus = ringBuffer;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException(String.format("unsupported message bus type: %s", messageBusType));
+        }
+        message = ValueChangeEventMessage.builder()
+                .element(ReferenceHelper.buildReferenceToSubmodelElement("submodel", "property"))
+                .newValue(new PropertyValue(new IntValue(1)))
+                .build();
+        messageBus.subscribe(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> delivered.incrementAndGet()));
+        messageBus.start();
+    }
+
+
+    @TearDown
+    public void tearDown() {
+        messageBus.stop();
+    }
+
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(4)
+    public void throughput() throws MessageBusException {
+        long sequence = published.incrementAndGet();
+        messageBus.publish(message);
+        while (sequence - delivered.get() > MAX_PENDING) {
+            Thread.onSpinWait();
+        }
+    }
+
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(1)
+    public void latency() throws MessageBusException {
+        long sequence = published.incrementAndGet();
+        messageBus.publish(message);
+        while (delivered.get() < sequence) {
+            Thread.onSpinWait();
+        }
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MessageBusBenchmark.class.getSimpleName())
+                .build())
+                        .run();
+    }
+}
@@ -14,8 +14,10 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
 
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ChangeEventMessage;
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
@@ -23,18 +25,24 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.error.ErrorE
 import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.error.ErrorLevel;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
 import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.IntValue;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import io.adminshell.aas.v3.model.KeyElements;
 import io.adminshell.aas.v3.model.KeyType;
 import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.impl.DefaultKey;
 import io.adminshell.aas.v3.model.impl.DefaultReference;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -192,4 +200,294 @@ public class MessageBusInternalTest {
         Assert.assertFalse(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
         messageBus.stop();
     }
+
+
+    private static MessageBusInternal createMessageBus(MessageBusInternalConfig config) {
+        MessageBusInternal result = new MessageBusInternal();
+        result.init(CoreConfig.builder().build(), config, null);
+        result.start();
+        return result;
+    }
+
+
+    private static ValueChangeEventMessage valueChange(String submodelId, int value) {
+        return ValueChangeEventMessage.builder()
+                .element(ReferenceHelper.buildReferenceToSubmodelElement(submodelId, "property"))
+                .newValue(new PropertyValue(new IntValue(value)))
+                .build();
+    }
+
+
+    @Test
+    public void testPartitionedDispatchKeepsOrderPerIdentifiable() throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = createMessageBus(MessageBusInternalConfig.builder()
+                .dispatcherThreads(4)
+                .build());
+        int submodels = 8;
+        int messagesPerSubmodel = 100;
+        Map<String, List<Integer>> responses = new ConcurrentHashMap<>();
+        CountDownLatch condition = new CountDownLatch(submodels * messagesPerSubmodel);
+        messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> {
+                    responses.computeIfAbsent(x.getElement().getKeys().get(0).getValue(), key -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(((IntValue) ((PropertyValue) x.getNewValue()).getValue()).getValue());
+                    condition.countDown();
+                }));
+        for (int i = 0; i < messagesPerSubmodel; i++) {
+            for (int j = 0; j < submodels; j++) {
+                messageBus.publish(valueChange("submodel" + j, i));
+            }
+        }
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        List<Integer> expected = IntStream.range(0, messagesPerSubmodel).boxed().collect(Collectors.toList());
+        Assert.assertEquals(submodels, responses.size());
+        responses.values().forEach(x -> Assert.assertEquals(expected, x));
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testPartitionedDispatchIgnoresCaseOfIdentifiers() throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = createMessageBus(MessageBusInternalConfig.builder()
+                .dispatcherThreads(3)
+                .build());
+        int messages = 200;
+        List<Integer> responses = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch condition = new CountDownLatch(messages);
+        messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> {
+                    responses.add(((IntValue) ((PropertyValue) x.getNewValue()).getValue()).getValue());
+                    condition.countDown();
+                }));
+        for (int i = 0; i < messages; i++) {
+            messageBus.publish(valueChange(i % 2 == 0 ? "http://example.org/Submodel" : "HTTP://EXAMPLE.ORG/submodel", i));
+        }
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(IntStream.range(0, messages).boxed().collect(Collectors.toList()), responses);
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testSlowSubscriberDoesNotBlockOthers() throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = createMessageBus(MessageBusInternalConfig.builder()
+                .slowSubscriberThreshold(10)
+                .build());
+        int messages = 20;
+        CountDownLatch slowCondition = new CountDownLatch(messages);
+        CountDownLatch fastCondition = new CountDownLatch(messages);
+        messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> {
+                    try {
+                        Thread.sleep(200);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    slowCondition.countDown();
+                }));
+        messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> fastCondition.countDown()));
+        for (int i = 0; i < messages; i++) {
+            messageBus.publish(valueChange("submodel", i));
+        }
+        Assert.assertTrue(fastCondition.await(2000, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(slowCondition.getCount() > 0);
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testFailingSubscriberDoesNotStopDispatch() throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = createMessageBus(MessageBusInternalConfig.builder().build());
+        CountDownLatch condition = new CountDownLatch(2);
+        messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> {
+                    condition.countDown();
+                    throw new IllegalStateException("expected by test");
+                }));
+        messageBus.publish(valueChange("submodel", 1));
+        messageBus.publish(valueChange("submodel", 2));
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        messageBus.stop();
+    }
+
+
+    private static List<Integer> publishWithFullQueue(OverflowPolicy overflowPolicy, MessageBusInternalConfig config)
+            throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = new MessageBusInternal();
+        messageBus.init(CoreConfig.builder().build(), config, null);
+        // publish before starting so that events are not dispatched
+        for (int i = 0; i < 5; i++) {
+            messageBus.publish(valueChange("submodel", i));
+        }
+        Assert.assertEquals(2, messageBus.getQueueDepth());
+        List<Integer> responses = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch condition = new CountDownLatch(2);
+        messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> {
+                    responses.add(((IntValue) ((PropertyValue) ((ValueChangeEventMessage) x).getNewValue()).getValue()).getValue());
+                    condition.countDown();
+                }));
+        messageBus.start();
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, messageBus.getQueueDepth());
+        if (overflowPolicy == OverflowPolicy.COALESCE) {
+            Assert.assertEquals(0, messageBus.getDroppedEvents());
+            Assert.assertEquals(3, messageBus.getCoalescedEvents());
+        }
+        else {
+            Assert.assertEquals(3, messageBus.getDroppedEvents());
+            Assert.assertEquals(0, messageBus.getCoalescedEvents());
+        }
+        messageBus.stop();
+        return responses;
+    }
+
+
+    private static MessageBusInternalConfig boundedConfig(OverflowPolicy overflowPolicy, int queueSize) {
+        return MessageBusInternalConfig.builder()
+                .queueSize(queueSize)
+                .overflowPolicy(overflowPolicy)
+                .build();
+    }
+
+
+    @Test
+    public void testOverflowDropNewest() throws InterruptedException, MessageBusException {
+        Assert.assertEquals(List.of(0, 1), publishWithFullQueue(OverflowPolicy.DROP_NEWEST, boundedConfig(OverflowPolicy.DROP_NEWEST, 2)));
+    }
+
+
+    @Test
+    public void testOverflowDropOldest() throws InterruptedException, MessageBusException {
+        Assert.assertEquals(List.of(3, 4), publishWithFullQueue(OverflowPolicy.DROP_OLDEST, boundedConfig(OverflowPolicy.DROP_OLDEST, 2)));
+    }
+
+
+    @Test
+    public void testOverflowCoalesce() throws InterruptedException, MessageBusException {
+        Assert.assertEquals(List.of(0, 4), publishWithFullQueue(OverflowPolicy.COALESCE, boundedConfig(OverflowPolicy.COALESCE, 2)));
+    }
+
+
+    @Test
+    public void testOverflowBlock() throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = new MessageBusInternal();
+        messageBus.init(CoreConfig.builder().build(), boundedConfig(OverflowPolicy.BLOCK, 1), null);
+        int messages = 3;
+        CountDownLatch condition = new CountDownLatch(messages);
+        messageBus.subscribe(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> condition.countDown()));
+        Thread publisher = new Thread(() -> {
+            try {
+                for (int i = 0; i < messages; i++) {
+                    messageBus.publish(valueChange("submodel", i));
+                }
+            }
+            catch (MessageBusException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        publisher.start();
+        publisher.join(200);
+        Assert.assertTrue(publisher.isAlive());
+        Assert.assertEquals(1, messageBus.getQueueDepth());
+        messageBus.start();
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        publisher.join(DEFAULT_TIMEOUT);
+        Assert.assertFalse(publisher.isAlive());
+        Assert.assertEquals(0, messageBus.getDroppedEvents());
+        messageBus.stop();
+    }
+
+
+    private static List<Integer> publishCoalesced(SubscriptionInfo subscriptionInfo, List<Integer> responses, int expectedResponses)
+            throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = createMessageBus(MessageBusInternalConfig.builder().build());
+        messageBus.subscribe(subscriptionInfo);
+        for (int i = 0; i < 10; i++) {
+            messageBus.publish(valueChange("submodel", i));
+        }
+        long deadline = System.currentTimeMillis() + DEFAULT_TIMEOUT;
+        while (responses.size() < expectedResponses && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // give additional (unexpected) deliveries a chance to show up
+        Thread.sleep(400);
+        messageBus.stop();
+        return responses;
+    }
+
+
+    @Test
+    public void testCoalescingWindow() throws InterruptedException, MessageBusException {
+        List<Integer> responses = Collections.synchronizedList(new ArrayList<>());
+        SubscriptionInfo subscriptionInfo = SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> responses.add(((IntValue) ((PropertyValue) x.getNewValue()).getValue()).getValue()));
+        subscriptionInfo.setCoalescingWindow(200);
+        Assert.assertEquals(List.of(9), publishCoalesced(subscriptionInfo, responses, 1));
+    }
+
+
+    @Test
+    public void testMaxDeliveryRate() throws InterruptedException, MessageBusException {
+        List<Integer> responses = Collections.synchronizedList(new ArrayList<>());
+        SubscriptionInfo subscriptionInfo = SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> responses.add(((IntValue) ((PropertyValue) x.getNewValue()).getValue()).getValue()));
+        subscriptionInfo.setMaxDeliveryRate(5);
+        Assert.assertEquals(List.of(0, 9), publishCoalesced(subscriptionInfo, responses, 2));
+    }
+
+
+    private static boolean isCoalescerThreadAlive() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(x -> x.isAlive() && x.getName().startsWith("MessageBusCoalescer-"));
+    }
+
+
+    @Test
+    public void testCoalescingUsesDaemonThread() throws InterruptedException, MessageBusException {
+        MessageBusInternal messageBus = createMessageBus(MessageBusInternalConfig.builder().build());
+        AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+        CountDownLatch condition = new CountDownLatch(1);
+        SubscriptionInfo subscriptionInfo = SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> {
+                    deliveryThread.set(Thread.currentThread());
+                    condition.countDown();
+                });
+        subscriptionInfo.setCoalescingWindow(50);
+        messageBus.unsubscribe(messageBus.subscribe(subscriptionInfo));
+        SubscriptionId subscriptionId = messageBus.subscribe(subscriptionInfo);
+        messageBus.publish(valueChange("submodel", 1));
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(deliveryThread.get().isDaemon());
+        Assert.assertEquals("MessageBusCoalescer-" + subscriptionId.getValue(), deliveryThread.get().getName());
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testCoalescingIgnoresEventsAfterUnsubscribe() throws InterruptedException {
+        List<EventMessage> responses = Collections.synchronizedList(new ArrayList<>());
+        SubscriptionInfo subscriptionInfo = SubscriptionInfo.create(ValueChangeEventMessage.class, responses::add);
+        subscriptionInfo.setCoalescingWindow(10);
+        SubscriptionId subscriptionId = new SubscriptionId();
+        Subscriber subscriber = new Subscriber(subscriptionId, subscriptionInfo, 0, 1);
+        subscriber.dispose();
+        // event still in flight while the subscription is removed
+        subscriber.deliver(valueChange("submodel", 1));
+        Thread.sleep(100);
+        Assert.assertTrue(responses.isEmpty());
+        Assert.assertFalse(Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(x -> x.getName().equals("MessageBusCoalescer-" + subscriptionId.getValue())));
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.error.ErrorEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.PropertyValue;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.primitive.IntValue;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class MessageBusRingBufferTest {
+
+    private static final long DEFAULT_TIMEOUT = 5000;
+
+    private static MessageBusRingBuffer createMessageBus(MessageBusRingBufferConfig config) {
+        MessageBusRingBuffer result = new MessageBusRingBuffer();
+        result.init(CoreConfig.builder().build(), config, null);
+        result.start();
+        return result;
+    }
+
+
+    private static ValueChangeEventMessage valueChange(String submodelId, int value) {
+        return ValueChangeEventMessage.builder()
+                .element(ReferenceHelper.buildReferenceToSubmodelElement(submodelId, "property"))
+                .newValue(new PropertyValue(new IntValue(value)))
+                .build();
+    }
+
+
+    private static void assertOrderPerPublisher(WaitStrategy waitStrategy) throws InterruptedException {
+        // buffer much smaller than number of events to force publishers to wait and the buffer to wrap
+        MessageBusRingBuffer messageBus = createMessageBus(MessageBusRingBufferConfig.builder()
+                .bufferSize(16)
+                .waitStrategy(waitStrategy)
+                .build());
+        int publishers = 4;
+        int messagesPerPublisher = 1000;
+        Map<String, List<Integer>> responses = new ConcurrentHashMap<>();
+        CountDownLatch condition = new CountDownLatch(publishers * messagesPerPublisher);
+        messageBus.subscribe(SubscriptionInfo.create(
+                ValueChangeEventMessage.class,
+                x -> {
+                    responses.computeIfAbsent(x.getElement().getKeys().get(0).getValue(), key -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(((IntValue) ((PropertyValue) x.getNewValue()).getValue()).getValue());
+                    condition.countDown();
+                }));
+        List<Thread> threads = IntStream.range(0, publishers)
+                .mapToObj(i -> new Thread(() -> {
+                    try {
+                        for (int j = 0; j < messagesPerPublisher; j++) {
+                            messageBus.publish(valueChange("submodel" + i, j));
+                        }
+                    }
+                    catch (MessageBusException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }))
+                .collect(Collectors.toList());
+        threads.forEach(Thread::start);
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        List<Integer> expected = IntStream.range(0, messagesPerPublisher).boxed().collect(Collectors.toList());
+        Assert.assertEquals(publishers, responses.size());
+        responses.values().forEach(x -> Assert.assertEquals(expected, x));
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testBlockingWaitStrategy() throws InterruptedException {
+        assertOrderPerPublisher(WaitStrategy.BLOCKING);
+    }
+
+
+    @Test
+    public void testSleepingWaitStrategy() throws InterruptedException {
+        assertOrderPerPublisher(WaitStrategy.SLEEPING);
+    }
+
+
+    @Test
+    public void testYieldingWaitStrategy() throws InterruptedException {
+        assertOrderPerPublisher(WaitStrategy.YIELDING);
+    }
+
+
+    @Test
+    public void testBusySpinWaitStrategy() throws InterruptedException {
+        assertOrderPerPublisher(WaitStrategy.BUSY_SPIN);
+    }
+
+
+    @Test
+    public void testNotMatchingSubscription() throws InterruptedException, MessageBusException {
+        MessageBusRingBuffer messageBus = createMessageBus(MessageBusRingBufferConfig.builder().build());
+        CountDownLatch unexpected = new CountDownLatch(1);
+        CountDownLatch expected = new CountDownLatch(1);
+        messageBus.subscribe(SubscriptionInfo.create(ErrorEventMessage.class, x -> unexpected.countDown()));
+        messageBus.subscribe(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> expected.countDown()));
+        messageBus.publish(valueChange("submodel", 1));
+        Assert.assertTrue(expected.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, unexpected.getCount());
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testSubscribeUnsubscribe() throws InterruptedException, MessageBusException {
+        MessageBusRingBuffer messageBus = createMessageBus(MessageBusRingBufferConfig.builder().build());
+        final AtomicReference<EventMessage> response = new AtomicReference<>();
+        CountDownLatch condition = new CountDownLatch(1);
+        messageBus.unsubscribe(messageBus.subscribe(SubscriptionInfo.create(ValueChangeEventMessage.class, response::set)));
+        messageBus.subscribe(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> condition.countDown()));
+        messageBus.publish(valueChange("submodel", 1));
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertNull(response.get());
+        messageBus.stop();
+    }
+
+
+    @Test(expected = MessageBusException.class)
+    public void testPublishWhenNotRunning() throws MessageBusException {
+        MessageBusRingBuffer messageBus = new MessageBusRingBuffer();
+        messageBus.init(CoreConfig.builder().build(), MessageBusRingBufferConfig.builder().build(), null);
+        messageBus.publish(valueChange("submodel", 1));
+    }
+
+
+    @Test
+    public void testPublishTimeout() throws InterruptedException, MessageBusException {
+        MessageBusRingBuffer messageBus = createMessageBus(MessageBusRingBufferConfig.builder()
+                .bufferSize(2)
+                .publishTimeout(100)
+                .build());
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        messageBus.subscribe(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> {
+            handling.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        messageBus.publish(valueChange("submodel", 0));
+        Assert.assertTrue(handling.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        messageBus.publish(valueChange("submodel", 1));
+        messageBus.publish(valueChange("submodel", 2));
+        Assert.assertThrows(MessageBusException.class, () -> messageBus.publish(valueChange("submodel", 3)));
+        release.countDown();
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testDropNewest() throws InterruptedException, MessageBusException {
+        MessageBusRingBuffer messageBus = createMessageBus(MessageBusRingBufferConfig.builder()
+                .bufferSize(2)
+                .overflowPolicy(OverflowPolicy.DROP_NEWEST)
+                .build());
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        messageBus.subscribe(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> {
+            handling.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        messageBus.publish(valueChange("submodel", 0));
+        Assert.assertTrue(handling.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        for (int i = 1; i <= 4; i++) {
+            messageBus.publish(valueChange("submodel", i));
+        }
+        Assert.assertEquals(2, messageBus.getDroppedEvents());
+        release.countDown();
+        messageBus.stop();
+    }
+
+
+    @Test
+    public void testPublishFromDispatcherThreadDoesNotBlock() throws InterruptedException, MessageBusException {
+        MessageBusRingBuffer messageBus = createMessageBus(MessageBusRingBufferConfig.builder()
+                .bufferSize(1)
+                .publishTimeout(DEFAULT_TIMEOUT * 10)
+                .build());
+        AtomicReference<Exception> error = new AtomicReference<>();
+        CountDownLatch condition = new CountDownLatch(1);
+        messageBus.subscribe(SubscriptionInfo.create(ErrorEventMessage.class, x -> {
+            try {
+                messageBus.publish(valueChange("submodel", 1));
+                messageBus.publish(valueChange("submodel", 2));
+            }
+            catch (MessageBusException e) {
+                error.set(e);
+            }
+            condition.countDown();
+        }));
+        messageBus.publish(ErrorEventMessage.builder().build());
+        Assert.assertTrue(condition.await(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertNotNull(error.get());
+        messageBus.stop();
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferSizeMustBePowerOfTwo() {
+        new MessageBusRingBuffer().init(CoreConfig.builder().build(), MessageBusRingBufferConfig.builder()
+                .bufferSize(1000)
+                .build(), null);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.messagebus.internal;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.EventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionId;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.SubscriptionInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ElementCreateEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.change.ValueChangeEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.messagebus.event.error.ErrorEventMessage;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.KeyType;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SubscriptionIndexTest {
+
+    private static final Reference PROPERTY = ReferenceHelper.buildReferenceToSubmodelElement("submodel", "property");
+    private static final Reference OTHER_PROPERTY = ReferenceHelper.buildReferenceToSubmodelElement("submodel", "other");
+    private static final Reference SUBMODEL = ReferenceHelper.toReference("submodel", KeyType.IRI, Submodel.class);
+
+    private static Subscriber subscriber(SubscriptionInfo info) {
+        return new Subscriber(new SubscriptionId(), info, 0, 1);
+    }
+
+
+    private static Set<Subscriber> matching(SubscriptionIndex index, EventMessage message) {
+        Set<Subscriber> result = new HashSet<>();
+        index.forEachMatching(message, result::add);
+        return result;
+    }
+
+
+    private static EventMessage valueChange(Reference reference) {
+        return ValueChangeEventMessage.builder()
+                .element(reference)
+                .build();
+    }
+
+
+    @Test
+    public void testReferenceSubscription() {
+        SubscriptionIndex index = new SubscriptionIndex();
+        Subscriber subscriber = subscriber(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> {}, PROPERTY));
+        index.add(subscriber);
+        Assert.assertEquals(Set.of(subscriber), matching(index, valueChange(ReferenceHelper.buildReferenceToSubmodelElement("submodel", "property"))));
+        Assert.assertTrue(matching(index, valueChange(OTHER_PROPERTY)).isEmpty());
+        Assert.assertTrue(matching(index, valueChange(null)).isEmpty());
+        Assert.assertTrue(matching(index, ElementCreateEventMessage.builder().element(PROPERTY).build()).isEmpty());
+        index.remove(subscriber);
+        Assert.assertTrue(matching(index, valueChange(PROPERTY)).isEmpty());
+    }
+
+
+    @Test
+    public void testKeyElementsSubscription() {
+        SubscriptionIndex index = new SubscriptionIndex();
+        Subscriber subscriber = subscriber(SubscriptionInfo.create(ChangeEventMessage.class, x -> {}, KeyElements.SUBMODEL));
+        index.add(subscriber);
+        Assert.assertEquals(Set.of(subscriber), matching(index, valueChange(SUBMODEL)));
+        Assert.assertEquals(Set.of(subscriber), matching(index, ElementCreateEventMessage.builder().element(SUBMODEL).build()));
+        Assert.assertTrue(matching(index, valueChange(PROPERTY)).isEmpty());
+        index.remove(subscriber);
+        Assert.assertTrue(matching(index, valueChange(SUBMODEL)).isEmpty());
+    }
+
+
+    @Test
+    public void testCustomFilterSubscription() {
+        SubscriptionIndex index = new SubscriptionIndex();
+        Subscriber all = subscriber(SubscriptionInfo.create(EventMessage.class, x -> {}));
+        Subscriber filtered = subscriber(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> {}, x -> OTHER_PROPERTY.equals(x)));
+        Subscriber byReference = subscriber(SubscriptionInfo.create(ValueChangeEventMessage.class, x -> {}, PROPERTY));
+        index.add(all);
+        index.add(filtered);
+        index.add(byReference);
+        Assert.assertEquals(Set.of(all, byReference), matching(index, valueChange(PROPERTY)));
+        Assert.assertEquals(Set.of(all, filtered), matching(index, valueChange(OTHER_PROPERTY)));
+        Assert.assertEquals(Set.of(all), matching(index, new ErrorEventMessage()));
+        index.remove(all);
+        Assert.assertEquals(Set.of(byReference), matching(index, valueChange(PROPERTY)));
+    }
+
+
+    @Test
+    public void testSetFilterResetsRouting() {
+        SubscriptionInfo info = SubscriptionInfo.create(ValueChangeEventMessage.class, x -> {}, PROPERTY);
+        info.setFilter(x -> OTHER_PROPERTY.equals(x));
+        Assert.assertNull(info.getReference());
+        SubscriptionIndex index = new SubscriptionIndex();
+        Subscriber subscriber = subscriber(info);
+        index.add(subscriber);
+        Assert.assertTrue(matching(index, valueChange(PROPERTY)).isEmpty());
+        Assert.assertEquals(Set.of(subscriber), matching(index, valueChange(OTHER_PROPERTY)));
+    }
+}
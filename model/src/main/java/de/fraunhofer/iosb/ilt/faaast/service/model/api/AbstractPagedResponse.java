@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.api;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingMetadata;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Abstract base class for protocol-agnostic responses containing a page of a result list.
+ *
+ * @param <T> type of the elements of the result list
+ */
+public abstract class AbstractPagedResponse<T> extends AbstractResponseWithPayload<List<T>> {
+
+    protected PagingMetadata pagingMetadata;
+
+    protected AbstractPagedResponse() {
+        this.pagingMetadata = PagingMetadata.NONE;
+    }
+
+
+    public PagingMetadata getPagingMetadata() {
+        return pagingMetadata;
+    }
+
+
+    public void setPagingMetadata(PagingMetadata pagingMetadata) {
+        this.pagingMetadata = pagingMetadata;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        AbstractPagedResponse<T> that = (AbstractPagedResponse<T>) o;
+        return super.equals(o)
+                && Objects.equals(pagingMetadata, that.pagingMetadata);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), pagingMetadata);
+    }
+
+    public abstract static class AbstractBuilder<V, T extends AbstractPagedResponse<V>, B extends AbstractBuilder<V, T, B>>
+            extends AbstractResponseWithPayload.AbstractBuilder<List<V>, T, B> {
+
+        public B pagingMetadata(PagingMetadata value) {
+            getBuildingInstance().setPagingMetadata(value);
+            return getSelf();
+        }
+
+
+        /**
+         * Sets payload and paging metadata from a page.
+         *
+         * @param value the page
+         * @return the builder
+         */
+        public B page(Page<V> value) {
+            getBuildingInstance().setPayload(value.getContent());
+            getBuildingInstance().setPagingMetadata(value.getMetadata());
+            return getSelf();
+        }
+    }
+}
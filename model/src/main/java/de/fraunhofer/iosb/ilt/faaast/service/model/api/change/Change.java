@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.api.change;
+
+import io.adminshell.aas.v3.model.Referable;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.builder.ExtendableBuilder;
+import java.util.Objects;
+
+
+/**
+ * A single change recorded in the change journal of a persistence. Changes are numbered consecutively, i.e. the
+ * version of a change is the version of the journal after the change has been recorded.
+ */
+public class Change {
+
+    private long version;
+    private ChangeType type;
+    private Reference element;
+    private Referable value;
+
+    public long getVersion() {
+        return version;
+    }
+
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+
+    public ChangeType getType() {
+        return type;
+    }
+
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+
+    public Reference getElement() {
+        return element;
+    }
+
+
+    public void setElement(Reference element) {
+        this.element = element;
+    }
+
+
+    /**
+     * Gets the new value of the element. For deleted elements this is null.
+     *
+     * @return the new value
+     */
+    public Referable getValue() {
+        return value;
+    }
+
+
+    public void setValue(Referable value) {
+        this.value = value;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Change that = (Change) o;
+        return version == that.version
+                && type == that.type
+                && Objects.equals(element, that.element)
+                && Objects.equals(value, that.value);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, type, element, value);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private abstract static class AbstractBuilder<T extends Change, B extends AbstractBuilder<T, B>> extends ExtendableBuilder<T, B> {
+
+        public B version(long value) {
+            getBuildingInstance().setVersion(value);
+            return getSelf();
+        }
+
+
+        public B type(ChangeType value) {
+            getBuildingInstance().setType(value);
+            return getSelf();
+        }
+
+
+        public B element(Reference value) {
+            getBuildingInstance().setElement(value);
+            return getSelf();
+        }
+
+
+        public B value(Referable value) {
+            getBuildingInstance().setValue(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<Change, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected Change newBuildingInstance() {
+            return new Change();
+        }
+    }
+}
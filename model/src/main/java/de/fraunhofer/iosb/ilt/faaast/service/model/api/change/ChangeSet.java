@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.api.change;
+
+import io.adminshell.aas.v3.model.builder.ExtendableBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Changes recorded in the change journal of a persistence since a given version.
+ *
+ * <p>If the set is not complete, the requested changes are no longer available, e.g. because they have been evicted
+ * from
+ * the journal or the journal has been reset on restart. Clients then have to re-read the whole model and continue with
+ * the version of this set.
+ */
+public class ChangeSet {
+
+    private String journalId;
+    private long version;
+    private boolean complete;
+    private List<Change> changes;
+
+    public ChangeSet() {
+        this.changes = new ArrayList<>();
+    }
+
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+
+    public void setJournalId(String journalId) {
+        this.journalId = journalId;
+    }
+
+
+    /**
+     * Gets the version a client is in sync with after applying the changes of this set, i.e. the version to request
+     * further changes for.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+
+    public void setChanges(List<Change> changes) {
+        this.changes = changes;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ChangeSet that = (ChangeSet) o;
+        return version == that.version
+                && complete == that.complete
+                && Objects.equals(journalId, that.journalId)
+                && Objects.equals(changes, that.changes);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(journalId, version, complete, changes);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private abstract static class AbstractBuilder<T extends ChangeSet, B extends AbstractBuilder<T, B>> extends ExtendableBuilder<T, B> {
+
+        public B journalId(String value) {
+            getBuildingInstance().setJournalId(value);
+            return getSelf();
+        }
+
+
+        public B version(long value) {
+            getBuildingInstance().setVersion(value);
+            return getSelf();
+        }
+
+
+        public B complete(boolean value) {
+            getBuildingInstance().setComplete(value);
+            return getSelf();
+        }
+
+
+        public B changes(List<Change> value) {
+            getBuildingInstance().setChanges(value);
+            return getSelf();
+        }
+
+
+        public B change(Change value) {
+            getBuildingInstance().getChanges().add(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<ChangeSet, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected ChangeSet newBuildingInstance() {
+            return new ChangeSet();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.api.history;
+
+import io.adminshell.aas.v3.model.builder.ExtendableBuilder;
+import java.util.Date;
+import java.util.Objects;
+
+
+/**
+ * A single recorded value of a property. Numeric values are represented as double, boolean values as 1 (true) and 0
+ * (false).
+ */
+public class ValueSample {
+
+    private Date timestamp;
+    private double value;
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+    }
+
+
+    public double getValue() {
+        return value;
+    }
+
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ValueSample that = (ValueSample) o;
+        return Double.compare(value, that.value) == 0
+                && Objects.equals(timestamp, that.timestamp);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, value);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private abstract static class AbstractBuilder<T extends ValueSample, B extends AbstractBuilder<T, B>> extends ExtendableBuilder<T, B> {
+
+        public B timestamp(Date value) {
+            getBuildingInstance().setTimestamp(value);
+            return getSelf();
+        }
+
+
+        public B value(double value) {
+            getBuildingInstance().setValue(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<ValueSample, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected ValueSample newBuildingInstance() {
+            return new ValueSample();
+        }
+    }
+}
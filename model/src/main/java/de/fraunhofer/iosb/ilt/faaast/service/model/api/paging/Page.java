@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.api.paging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * A page of a result list together with the information needed to request the next page.
+ *
+ * <p>Pages can be created in three ways which differ in how the cursor to the next page is defined:
+ * <ul>
+ * <li>{@link #of(List, PagingInfo)} uses the offset within the result list. Elements inserted or removed before the
+ * offset between two requests cause elements to be skipped or returned twice.
+ * <li>{@link #ofSorted(List, Predicate, PagingInfo, ToLongFunction)} uses the sequence number of the last returned
+ * element of a list sorted by sequence number. The next page continues with the first element with a greater sequence
+ * number, so no element is skipped or repeated regardless of inserts and deletes as long as new elements get greater
+ * sequence numbers.
+ * <li>{@link #ofKeyed(List, Predicate, PagingInfo, Function)} uses the unique key of the last returned element
+ * together with its position as a hint. The next page continues after the element with that key even if elements
+ * have been inserted or removed before it. Only if the element itself has been removed, the next page continues at
+ * its former position which may skip or repeat elements in case of additional modifications.
+ * </ul>
+ *
+ * <p>The latter two only evaluate the filter for the elements of the requested page and one additional match to
+ * determine whether there are more elements instead of building the complete result list.
+ *
+ * @param <T> type of the elements
+ */
+public class Page<T> {
+
+    private List<T> content;
+    private PagingMetadata metadata;
+
+    public Page() {
+        this.content = new ArrayList<>();
+        this.metadata = PagingMetadata.NONE;
+    }
+
+
+    public Page(List<T> content, PagingMetadata metadata) {
+        this.content = content;
+        this.metadata = metadata;
+    }
+
+
+    /**
+     * Creates a page from a complete result list using the offset within the list as cursor. See class description
+     * for the consistency limits of offset cursors.
+     *
+     * @param <T> type of the elements
+     * @param elements the complete result list
+     * @param pagingInfo the paging information
+     * @return the page containing the elements selected by pagingInfo
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    public static <T> Page<T> of(List<T> elements, PagingInfo pagingInfo) {
+        if (elements == null) {
+            return new Page<>();
+        }
+        PagingInfo paging = pagingInfo != null ? pagingInfo : PagingInfo.DEFAULT;
+        int from = (int) Math.min(paging.getPosition(), elements.size());
+        int to = paging.hasLimit()
+                ? (int) Math.min((long) from + paging.getLimit(), elements.size())
+                : elements.size();
+        return new Page<>(
+                from == 0 && to == elements.size() ? elements : new ArrayList<>(elements.subList(from, to)),
+                to < elements.size()
+                        ? PagingMetadata.builder()
+                                .cursor(PagingInfo.encodeCursor(to))
+                                .build()
+                        : PagingMetadata.NONE);
+    }
+
+
+    /**
+     * Creates a page from a list of candidates sorted by ascending sequence number. The cursor holds the sequence number
+     * of the last returned element, so the next page starts with the first candidate with a greater sequence number
+     * which is located by binary search.
+     *
+     * @param <T> type of the elements
+     * @param candidates the candidates sorted by ascending sequence number
+     * @param filter the filter the elements must match
+     * @param pagingInfo the paging information
+     * @param sequence function returning the sequence number of a candidate
+     * @return the page containing the elements selected by pagingInfo
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    public static <T> Page<T> ofSorted(List<T> candidates, Predicate<? super T> filter, PagingInfo pagingInfo, ToLongFunction<? super T> sequence) {
+        if (candidates == null) {
+            return new Page<>();
+        }
+        PagingInfo paging = pagingInfo != null ? pagingInfo : PagingInfo.DEFAULT;
+        int from = 0;
+        if (paging.getCursor() != null) {
+            long after = paging.getPosition();
+            int high = candidates.size();
+            while (from < high) {
+                int middle = (from + high) >>> 1;
+                if (sequence.applyAsLong(candidates.get(middle)) <= after) {
+                    from = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+        }
+        return collect(candidates, from, filter, paging, (x, i) -> PagingInfo.encodeCursor(sequence.applyAsLong(x)));
+    }
+
+
+    /**
+     * Creates a page from a list of candidates identified by a unique key. The cursor holds the key of the last
+     * returned element and its position in the list. The next page starts after the element with that key which is
+     * expected at the stored position and only searched for if the list has been modified before it.
+     *
+     * @param <T> type of the elements
+     * @param candidates the candidates
+     * @param filter the filter the elements must match
+     * @param pagingInfo the paging information
+     * @param key function returning the unique key of a candidate
+     * @return the page containing the elements selected by pagingInfo
+     * @throws IllegalArgumentException if the cursor of pagingInfo is invalid
+     */
+    public static <T> Page<T> ofKeyed(List<T> candidates, Predicate<? super T> filter, PagingInfo pagingInfo, Function<? super T, String> key) {
+        if (candidates == null) {
+            return new Page<>();
+        }
+        PagingInfo paging = pagingInfo != null ? pagingInfo : PagingInfo.DEFAULT;
+        int from = 0;
+        if (paging.getCursor() != null) {
+            int last = (int) Math.min(paging.getPosition(), candidates.size());
+            String lastKey = paging.getKey();
+            if (lastKey == null || (last < candidates.size() && Objects.equals(lastKey, key.apply(candidates.get(last))))) {
+                from = last + (lastKey != null ? 1 : 0);
+            }
+            else {
+                from = last;
+                for (int i = 0; i < candidates.size(); i++) {
+                    if (Objects.equals(lastKey, key.apply(candidates.get(i)))) {
+                        from = i + 1;
+                        break;
+                    }
+                }
+            }
+        }
+        return collect(candidates, from, filter, paging, (x, i) -> PagingInfo.encodeCursor(i, key.apply(x)));
+    }
+
+
+    private static <T> Page<T> collect(List<T> candidates, int from, Predicate<? super T> filter, PagingInfo paging,
+                                       BiFunction<T, Integer, String> cursor) {
+        List<T> content = new ArrayList<>();
+        int last = -1;
+        for (int i = from; i < candidates.size(); i++) {
+            T candidate = candidates.get(i);
+            if (!filter.test(candidate)) {
+                continue;
+            }
+            if (paging.hasLimit() && content.size() == paging.getLimit()) {
+                return new Page<>(content, PagingMetadata.builder()
+                        .cursor(cursor.apply(candidates.get(last), last))
+                        .build());
+            }
+            content.add(candidate);
+            last = i;
+        }
+        return new Page<>(content, PagingMetadata.NONE);
+    }
+
+
+    /**
+     * Creates a new page with the same metadata but modified content.
+     *
+     * @param mapper function to modify the content
+     * @return the new page
+     */
+    public Page<T> withContent(UnaryOperator<List<T>> mapper) {
+        return new Page<>(mapper.apply(content), metadata);
+    }
+
+
+    public List<T> getContent() {
+        return content;
+    }
+
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+
+    public PagingMetadata getMetadata() {
+        return metadata;
+    }
+
+
+    public void setMetadata(PagingMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Page<T> that = (Page<T>) o;
+        return Objects.equals(content, that.content)
+                && Objects.equals(metadata, that.metadata);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(content, metadata);
+    }
+}
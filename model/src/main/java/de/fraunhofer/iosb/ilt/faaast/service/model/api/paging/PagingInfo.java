@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.api.paging;
+
+import io.adminshell.aas.v3.model.builder.ExtendableBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+
+/**
+ * Model class for paging information of a request, i.e. the maximum number of elements to return and the cursor
+ * pointing to the first element to return. Cursors are opaque tokens created by the service and returned as part of
+ * {@link PagingMetadata}.
+ *
+ * <p>A cursor consists of a position and an optional key. How they are interpreted depends on how the page has been
+ * created, see {@link Page}.
+ */
+public class PagingInfo {
+
+    public static final PagingInfo DEFAULT = new PagingInfo();
+    private static final String CURSOR_SEPARATOR = ":";
+    private int limit;
+    private String cursor;
+
+    public PagingInfo() {
+        this.limit = 0;
+        this.cursor = null;
+    }
+
+
+    /**
+     * Gets the maximum number of elements to return.
+     *
+     * @return the maximum number of elements to return, 0 if there is no limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+
+    /**
+     * Checks if the number of elements to return is limited.
+     *
+     * @return true if a limit is set, false otherwise
+     */
+    public boolean hasLimit() {
+        return limit > 0;
+    }
+
+
+    public String getCursor() {
+        return cursor;
+    }
+
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+
+    /**
+     * Gets the position encoded in the cursor.
+     *
+     * @return the position encoded in the cursor, 0 if there is no cursor
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public long getPosition() {
+        return cursor == null ? 0 : Long.parseLong(decodeCursor(cursor)[0]);
+    }
+
+
+    /**
+     * Gets the key encoded in the cursor.
+     *
+     * @return the key encoded in the cursor, null if there is no cursor or the cursor does not contain a key
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public String getKey() {
+        return cursor == null ? null : decodeCursor(cursor)[1];
+    }
+
+
+    /**
+     * Creates a cursor containing only a position.
+     *
+     * @param position the position
+     * @return the cursor
+     */
+    public static String encodeCursor(long position) {
+        return encodeCursor(position, null);
+    }
+
+
+    /**
+     * Creates a cursor containing a position and a key.
+     *
+     * @param position the position
+     * @param key the key, may be null
+     * @return the cursor
+     */
+    public static String encodeCursor(long position, String key) {
+        String value = key != null
+                ? position + CURSOR_SEPARATOR + key
+                : Long.toString(position);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(CURSOR_SEPARATOR);
+            long position = Long.parseLong(separator >= 0 ? value.substring(0, separator) : value);
+            if (position < 0) {
+                throw new IllegalArgumentException(String.format("invalid cursor '%s'", cursor));
+            }
+            return new String[] {
+                    Long.toString(position),
+                    separator >= 0 ? value.substring(separator + 1) : null
+            };
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("invalid cursor '%s'", cursor), e);
+        }
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PagingInfo that = (PagingInfo) o;
+        return limit == that.limit
+                && Objects.equals(cursor, that.cursor);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(limit, cursor);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public abstract static class AbstractBuilder<T extends PagingInfo, B extends AbstractBuilder<T, B>> extends ExtendableBuilder<T, B> {
+
+        public B limit(int value) {
+            getBuildingInstance().setLimit(value);
+            return getSelf();
+        }
+
+
+        public B cursor(String value) {
+            getBuildingInstance().setCursor(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<PagingInfo, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected PagingInfo newBuildingInstance() {
+            return new PagingInfo();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.api.paging;
+
+import io.adminshell.aas.v3.model.builder.ExtendableBuilder;
+import java.util.Objects;
+
+
+/**
+ * Model class for paging information of a response.
+ */
+public class PagingMetadata {
+
+    public static final PagingMetadata NONE = new PagingMetadata();
+    private String cursor;
+
+    /**
+     * Gets the cursor pointing to the next page.
+     *
+     * @return the cursor pointing to the next page, null if there are no more elements
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+
+    /**
+     * Checks if there are more elements available, i.e. if there is a cursor pointing to the next page.
+     *
+     * @return true if more elements are available, false otherwise
+     */
+    public boolean hasMore() {
+        return cursor != null;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PagingMetadata that = (PagingMetadata) o;
+        return Objects.equals(cursor, that.cursor);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cursor);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public abstract static class AbstractBuilder<T extends PagingMetadata, B extends AbstractBuilder<T, B>> extends ExtendableBuilder<T, B> {
+
+        public B cursor(String value) {
+            getBuildingInstance().setCursor(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<PagingMetadata, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected PagingMetadata newBuildingInstance() {
+            return new PagingMetadata();
+        }
+    }
+}
@@ -14,21 +14,20 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.model.api.response;
 
-import de.fraunhofer.iosb.ilt.faaast.service.model.api.AbstractResponseWithPayload;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.AbstractPagedResponse;
 import io.adminshell.aas.v3.model.ConceptDescription;
-import java.util.List;
 
 
 /**
  * Response class for GetAllConceptDescriptions requests.
  */
-public class GetAllConceptDescriptionsResponse extends AbstractResponseWithPayload<List<ConceptDescription>> {
+public class GetAllConceptDescriptionsResponse extends AbstractPagedResponse<ConceptDescription> {
 
     public static Builder builder() {
         return new Builder();
     }
 
-    public static class Builder extends AbstractBuilder<List<ConceptDescription>, GetAllConceptDescriptionsResponse, Builder> {
+    public static class Builder extends AbstractBuilder<ConceptDescription, GetAllConceptDescriptionsResponse, Builder> {
 
         @Override
         protected Builder getSelf() {
@@ -14,21 +14,20 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.model.api.response;
 
-import de.fraunhofer.iosb.ilt.faaast.service.model.api.AbstractResponseWithPayload;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.AbstractPagedResponse;
 import io.adminshell.aas.v3.model.SubmodelElement;
-import java.util.List;
 
 
 /**
  * Response class for GetAllSubmodelElements requests.
  */
-public class GetAllSubmodelElementsResponse extends AbstractResponseWithPayload<List<SubmodelElement>> {
+public class GetAllSubmodelElementsResponse extends AbstractPagedResponse<SubmodelElement> {
 
     public static Builder builder() {
         return new Builder();
     }
 
-    public static class Builder extends AbstractBuilder<List<SubmodelElement>, GetAllSubmodelElementsResponse, Builder> {
+    public static class Builder extends AbstractBuilder<SubmodelElement, GetAllSubmodelElementsResponse, Builder> {
 
         @Override
         protected Builder getSelf() {
@@ -14,21 +14,20 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.model.api.response;
 
-import de.fraunhofer.iosb.ilt.faaast.service.model.api.AbstractResponseWithPayload;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.AbstractPagedResponse;
 import io.adminshell.aas.v3.model.Submodel;
-import java.util.List;
 
 
 /**
  * Response class for GetAllSubmodels requests.
  */
-public class GetAllSubmodelsResponse extends AbstractResponseWithPayload<List<Submodel>> {
+public class GetAllSubmodelsResponse extends AbstractPagedResponse<Submodel> {
 
     public static Builder builder() {
         return new Builder();
     }
 
-    public static class Builder extends AbstractBuilder<List<Submodel>, GetAllSubmodelsResponse, Builder> {
+    public static class Builder extends AbstractBuilder<Submodel, GetAllSubmodelsResponse, Builder> {
 
         @Override
         protected Builder getSelf() {
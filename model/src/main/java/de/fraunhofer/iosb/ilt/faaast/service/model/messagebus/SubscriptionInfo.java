@@ -36,6 +36,10 @@ public class SubscriptionInfo {
     private Set<Class<?>> subscribedEvents;
     private Consumer<EventMessage> handler;
     private Predicate<Reference> filter;
+    private Reference reference;
+    private KeyElements keyElements;
+    private long coalescingWindow;
+    private double maxDeliveryRate;
 
     /**
      * Static method to create a Subscription Info.
@@ -68,6 +72,7 @@ public class SubscriptionInfo {
                 && x.getKeys() != null
                 && !x.getKeys().isEmpty()
                 && x.getKeys().get(x.getKeys().size() - 1).getType().equals(keyElements));
+        subscriptionInfo.keyElements = keyElements;
         return subscriptionInfo;
     }
 
@@ -83,7 +88,8 @@ public class SubscriptionInfo {
      */
     public static <T extends EventMessage> SubscriptionInfo create(Class<T> eventMessageClass, Consumer<T> handler, Reference reference) {
         SubscriptionInfo subscriptionInfo = create(eventMessageClass, handler);
-        subscriptionInfo.setFilter(x -> x.equals(reference));
+        subscriptionInfo.setFilter(x -> Objects.equals(x, reference));
+        subscriptionInfo.reference = reference;
         return subscriptionInfo;
     }
 
@@ -155,7 +161,8 @@ public class SubscriptionInfo {
 
 
     /**
-     * Sets the filter.
+     * Sets the filter. As the filter is arbitrary, this also resets the reference and the key elements the subscription
+     * is restricted to.
      *
      * @param filter the filter to set
      */
@@ -166,6 +173,68 @@ public class SubscriptionInfo {
         else {
             this.filter = DEFAULT_FILTER;
         }
+        this.reference = null;
+        this.keyElements = null;
+    }
+
+
+    /**
+     * Gets the reference the subscription is restricted to if created via
+     * {@link #create(Class, Consumer, Reference)}. Message bus implementations can use this to route events without
+     * evaluating the filter.
+     *
+     * @return the reference or null if the subscription is not restricted to a single reference
+     */
+    public Reference getReference() {
+        return reference;
+    }
+
+
+    /**
+     * Gets the type of elements the subscription is restricted to if created via
+     * {@link #create(Class, Consumer, KeyElements)}. Message bus implementations can use this to route events without
+     * evaluating the filter.
+     *
+     * @return the key elements or null if the subscription is not restricted to a type of elements
+     */
+    public KeyElements getKeyElements() {
+        return keyElements;
+    }
+
+
+    public long getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+
+    /**
+     * Sets the time window in milliseconds in which events of the same type concerning the same element are merged
+     * before delivery, i.e. only the latest value within the window is delivered at the end of the window. Values less
+     * than or equal to 0 disable coalescing. Ignored if {@link #setMaxDeliveryRate(double)} is set. Whether coalescing
+     * is supported depends on the message bus implementation.
+     *
+     * @param coalescingWindow the time window in milliseconds
+     */
+    public void setCoalescingWindow(long coalescingWindow) {
+        this.coalescingWindow = coalescingWindow;
+    }
+
+
+    public double getMaxDeliveryRate() {
+        return maxDeliveryRate;
+    }
+
+
+    /**
+     * Sets the maximum number of events per second delivered for the same element and event type. The first event is
+     * delivered immediately, events arriving faster than the rate are merged so that only the latest value is delivered
+     * once the rate allows. Values less than or equal to 0 disable rate limiting. Whether rate limiting is supported
+     * depends on the message bus implementation.
+     *
+     * @param maxDeliveryRate the maximum number of events per second
+     */
+    public void setMaxDeliveryRate(double maxDeliveryRate) {
+        this.maxDeliveryRate = maxDeliveryRate;
     }
 
 
@@ -178,12 +247,18 @@ public class SubscriptionInfo {
             return false;
         }
         SubscriptionInfo that = (SubscriptionInfo) o;
-        return Objects.equals(subscribedEvents, that.subscribedEvents) && Objects.equals(handler, that.handler) && Objects.equals(filter, that.filter);
+        return Objects.equals(subscribedEvents, that.subscribedEvents)
+                && Objects.equals(handler, that.handler)
+                && Objects.equals(filter, that.filter)
+                && Objects.equals(reference, that.reference)
+                && Objects.equals(keyElements, that.keyElements)
+                && Objects.equals(coalescingWindow, that.coalescingWindow)
+                && Objects.equals(maxDeliveryRate, that.maxDeliveryRate);
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(subscribedEvents, handler, filter);
+        return Objects.hash(subscribedEvents, handler, filter, reference, keyElements, coalescingWindow, maxDeliveryRate);
     }
 }
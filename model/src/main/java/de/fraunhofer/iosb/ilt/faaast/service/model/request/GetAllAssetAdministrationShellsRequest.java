@@ -14,6 +14,7 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.model.request;
 
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllAssetAdministrationShellsResponse;
 import java.util.Objects;
 
@@ -21,10 +22,25 @@ import java.util.Objects;
 /**
  * Request class for GetAllAssetAdministrationShells requests.
  */
-public class GetAllAssetAdministrationShellsRequest extends AbstractRequestWithModifier<GetAllAssetAdministrationShellsResponse> {
+public class GetAllAssetAdministrationShellsRequest extends AbstractRequestWithModifier<GetAllAssetAdministrationShellsResponse> implements PagedRequest {
+
+    private PagingInfo pagingInfo;
 
     public GetAllAssetAdministrationShellsRequest() {
         super(OutputModifierConstraints.ASSET_ADMINISTRATION_SHELL);
+        this.pagingInfo = PagingInfo.DEFAULT;
+    }
+
+
+    @Override
+    public PagingInfo getPagingInfo() {
+        return pagingInfo;
+    }
+
+
+    @Override
+    public void setPagingInfo(PagingInfo pagingInfo) {
+        this.pagingInfo = pagingInfo;
     }
 
 
@@ -37,13 +53,14 @@ public class GetAllAssetAdministrationShellsRequest extends AbstractRequestWithM
             return false;
         }
         GetAllAssetAdministrationShellsRequest that = (GetAllAssetAdministrationShellsRequest) o;
-        return super.equals(that);
+        return super.equals(that)
+                && Objects.equals(pagingInfo, that.pagingInfo);
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode());
+        return Objects.hash(super.hashCode(), pagingInfo);
     }
 
 
@@ -54,6 +71,10 @@ public class GetAllAssetAdministrationShellsRequest extends AbstractRequestWithM
     public abstract static class AbstractBuilder<T extends GetAllAssetAdministrationShellsRequest, B extends AbstractBuilder<T, B>>
             extends AbstractRequestWithModifier.AbstractBuilder<T, B> {
 
+        public B pagingInfo(PagingInfo value) {
+            getBuildingInstance().setPagingInfo(value);
+            return getSelf();
+        }
     }
 
     public static class Builder extends AbstractBuilder<GetAllAssetAdministrationShellsRequest, Builder> {
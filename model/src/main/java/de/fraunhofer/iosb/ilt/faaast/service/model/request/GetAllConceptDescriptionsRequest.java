@@ -14,6 +14,7 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.model.request;
 
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllConceptDescriptionsResponse;
 import java.util.Objects;
 
@@ -21,7 +22,26 @@ import java.util.Objects;
 /**
  * Request class for GetAllConceptDescriptions requests.
  */
-public class GetAllConceptDescriptionsRequest extends AbstractRequestWithModifier<GetAllConceptDescriptionsResponse> {
+public class GetAllConceptDescriptionsRequest extends AbstractRequestWithModifier<GetAllConceptDescriptionsResponse> implements PagedRequest {
+
+    private PagingInfo pagingInfo;
+
+    public GetAllConceptDescriptionsRequest() {
+        this.pagingInfo = PagingInfo.DEFAULT;
+    }
+
+
+    @Override
+    public PagingInfo getPagingInfo() {
+        return pagingInfo;
+    }
+
+
+    @Override
+    public void setPagingInfo(PagingInfo pagingInfo) {
+        this.pagingInfo = pagingInfo;
+    }
+
 
     @Override
     public boolean equals(Object o) {
@@ -32,13 +52,14 @@ public class GetAllConceptDescriptionsRequest extends AbstractRequestWithModifie
             return false;
         }
         GetAllConceptDescriptionsRequest that = (GetAllConceptDescriptionsRequest) o;
-        return super.equals(that);
+        return super.equals(that)
+                && Objects.equals(pagingInfo, that.pagingInfo);
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode());
+        return Objects.hash(super.hashCode(), pagingInfo);
     }
 
 
@@ -47,7 +68,13 @@ public class GetAllConceptDescriptionsRequest extends AbstractRequestWithModifie
     }
 
     public abstract static class AbstractBuilder<T extends GetAllConceptDescriptionsRequest, B extends AbstractBuilder<T, B>>
-            extends AbstractRequestWithModifier.AbstractBuilder<T, B> {}
+            extends AbstractRequestWithModifier.AbstractBuilder<T, B> {
+
+        public B pagingInfo(PagingInfo value) {
+            getBuildingInstance().setPagingInfo(value);
+            return getSelf();
+        }
+    }
 
     public static class Builder extends AbstractBuilder<GetAllConceptDescriptionsRequest, Builder> {
 
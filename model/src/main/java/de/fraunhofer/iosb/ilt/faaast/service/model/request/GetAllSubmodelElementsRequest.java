@@ -14,6 +14,7 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.model.request;
 
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllSubmodelElementsResponse;
 import java.util.Objects;
 
@@ -21,10 +22,25 @@ import java.util.Objects;
 /**
  * Request class for GetAllSubmodelElements requests.
  */
-public class GetAllSubmodelElementsRequest extends AbstractSubmodelInterfaceRequest<GetAllSubmodelElementsResponse> {
+public class GetAllSubmodelElementsRequest extends AbstractSubmodelInterfaceRequest<GetAllSubmodelElementsResponse> implements PagedRequest {
+
+    private PagingInfo pagingInfo;
 
     public GetAllSubmodelElementsRequest() {
         super(OutputModifierConstraints.SUBMODEL_ELEMENT);
+        this.pagingInfo = PagingInfo.DEFAULT;
+    }
+
+
+    @Override
+    public PagingInfo getPagingInfo() {
+        return pagingInfo;
+    }
+
+
+    @Override
+    public void setPagingInfo(PagingInfo pagingInfo) {
+        this.pagingInfo = pagingInfo;
     }
 
 
@@ -37,13 +53,14 @@ public class GetAllSubmodelElementsRequest extends AbstractSubmodelInterfaceRequ
             return false;
         }
         GetAllSubmodelElementsRequest that = (GetAllSubmodelElementsRequest) o;
-        return super.equals(that);
+        return super.equals(that)
+                && Objects.equals(pagingInfo, that.pagingInfo);
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode());
+        return Objects.hash(super.hashCode(), pagingInfo);
     }
 
 
@@ -54,6 +71,10 @@ public class GetAllSubmodelElementsRequest extends AbstractSubmodelInterfaceRequ
     public abstract static class AbstractBuilder<T extends GetAllSubmodelElementsRequest, B extends AbstractBuilder<T, B>>
             extends AbstractSubmodelInterfaceRequest.AbstractBuilder<T, B> {
 
+        public B pagingInfo(PagingInfo value) {
+            getBuildingInstance().setPagingInfo(value);
+            return getSelf();
+        }
     }
 
     public static class Builder extends AbstractBuilder<GetAllSubmodelElementsRequest, Builder> {
@@ -14,6 +14,7 @@
  */
 package de.fraunhofer.iosb.ilt.faaast.service.model.request;
 
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetAllSubmodelsResponse;
 import java.util.Objects;
 
@@ -21,10 +22,25 @@ import java.util.Objects;
 /**
  * Request class for GetAllSubmodels requests.
  */
-public class GetAllSubmodelsRequest extends AbstractRequestWithModifier<GetAllSubmodelsResponse> {
+public class GetAllSubmodelsRequest extends AbstractRequestWithModifier<GetAllSubmodelsResponse> implements PagedRequest {
+
+    private PagingInfo pagingInfo;
 
     public GetAllSubmodelsRequest() {
         super(OutputModifierConstraints.SUBMODEL);
+        this.pagingInfo = PagingInfo.DEFAULT;
+    }
+
+
+    @Override
+    public PagingInfo getPagingInfo() {
+        return pagingInfo;
+    }
+
+
+    @Override
+    public void setPagingInfo(PagingInfo pagingInfo) {
+        this.pagingInfo = pagingInfo;
     }
 
 
@@ -37,13 +53,14 @@ public class GetAllSubmodelsRequest extends AbstractRequestWithModifier<GetAllSu
             return false;
         }
         GetAllSubmodelsRequest that = (GetAllSubmodelsRequest) o;
-        return super.equals(that);
+        return super.equals(that)
+                && Objects.equals(pagingInfo, that.pagingInfo);
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode());
+        return Objects.hash(super.hashCode(), pagingInfo);
     }
 
 
@@ -51,7 +68,13 @@ public class GetAllSubmodelsRequest extends AbstractRequestWithModifier<GetAllSu
         return new Builder();
     }
 
-    public abstract static class AbstractBuilder<T extends GetAllSubmodelsRequest, B extends AbstractBuilder<T, B>> extends AbstractRequestWithModifier.AbstractBuilder<T, B> {}
+    public abstract static class AbstractBuilder<T extends GetAllSubmodelsRequest, B extends AbstractBuilder<T, B>> extends AbstractRequestWithModifier.AbstractBuilder<T, B> {
+
+        public B pagingInfo(PagingInfo value) {
+            getBuildingInstance().setPagingInfo(value);
+            return getSelf();
+        }
+    }
 
     public static class Builder extends AbstractBuilder<GetAllSubmodelsRequest, Builder> {
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.request;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.Request;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetChangesResponse;
+import io.adminshell.aas.v3.model.builder.ExtendableBuilder;
+import java.util.Objects;
+
+
+/**
+ * Request class for fetching all changes recorded in the change journal of the persistence since a given version. This
+ * request is not part of the AAS API and allows clients to keep a copy of the model in sync without re-reading it.
+ */
+public class GetChangesRequest implements Request<GetChangesResponse> {
+
+    private String journalId;
+    private long since;
+    private int limit;
+
+    public GetChangesRequest() {
+        this.limit = Integer.MAX_VALUE;
+    }
+
+
+    /**
+     * Gets the id of the journal the version to start from belongs to. If present and not matching the id of the current
+     * journal, the resulting change set is incomplete.
+     *
+     * @return the journal id, may be null
+     */
+    public String getJournalId() {
+        return journalId;
+    }
+
+
+    public void setJournalId(String journalId) {
+        this.journalId = journalId;
+    }
+
+
+    public long getSince() {
+        return since;
+    }
+
+
+    public void setSince(long since) {
+        this.since = since;
+    }
+
+
+    public int getLimit() {
+        return limit;
+    }
+
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GetChangesRequest that = (GetChangesRequest) o;
+        return since == that.since
+                && limit == that.limit
+                && Objects.equals(journalId, that.journalId);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(journalId, since, limit);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public abstract static class AbstractBuilder<T extends GetChangesRequest, B extends AbstractBuilder<T, B>> extends ExtendableBuilder<T, B> {
+
+        public B journalId(String value) {
+            getBuildingInstance().setJournalId(value);
+            return getSelf();
+        }
+
+
+        public B since(long value) {
+            getBuildingInstance().setSince(value);
+            return getSelf();
+        }
+
+
+        public B limit(int value) {
+            getBuildingInstance().setLimit(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<GetChangesRequest, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected GetChangesRequest newBuildingInstance() {
+            return new GetChangesRequest();
+        }
+    }
+}
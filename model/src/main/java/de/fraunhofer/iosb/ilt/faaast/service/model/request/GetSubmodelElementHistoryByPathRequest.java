@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.request;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.GetSubmodelElementHistoryByPathResponse;
+import io.adminshell.aas.v3.model.Key;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Request class for fetching the recorded values of a property within a time range. This request is not part of the
+ * AAS API and requires the persistence to keep a value history.
+ */
+public class GetSubmodelElementHistoryByPathRequest extends AbstractSubmodelInterfaceRequest<GetSubmodelElementHistoryByPathResponse> {
+
+    private List<Key> path;
+    private Date from;
+    private Date to;
+
+    public GetSubmodelElementHistoryByPathRequest() {
+        super(OutputModifierConstraints.NONE);
+        this.path = new ArrayList<>();
+    }
+
+
+    public List<Key> getPath() {
+        return path;
+    }
+
+
+    public void setPath(List<Key> path) {
+        this.path = path;
+    }
+
+
+    /**
+     * Gets the start of the time range (inclusive).
+     *
+     * @return the start of the time range, null if unbounded
+     */
+    public Date getFrom() {
+        return from;
+    }
+
+
+    public void setFrom(Date from) {
+        this.from = from;
+    }
+
+
+    /**
+     * Gets the end of the time range (inclusive).
+     *
+     * @return the end of the time range, null if unbounded
+     */
+    public Date getTo() {
+        return to;
+    }
+
+
+    public void setTo(Date to) {
+        this.to = to;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GetSubmodelElementHistoryByPathRequest that = (GetSubmodelElementHistoryByPathRequest) o;
+        return super.equals(that)
+                && Objects.equals(path, that.path)
+                && Objects.equals(from, that.from)
+                && Objects.equals(to, that.to);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), path, from, to);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public abstract static class AbstractBuilder<T extends GetSubmodelElementHistoryByPathRequest, B extends AbstractBuilder<T, B>>
+            extends AbstractSubmodelInterfaceRequest.AbstractBuilder<T, B> {
+
+        public B path(List<Key> value) {
+            getBuildingInstance().setPath(value);
+            return getSelf();
+        }
+
+
+        public B from(Date value) {
+            getBuildingInstance().setFrom(value);
+            return getSelf();
+        }
+
+
+        public B to(Date value) {
+            getBuildingInstance().setTo(value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<GetSubmodelElementHistoryByPathRequest, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected GetSubmodelElementHistoryByPathRequest newBuildingInstance() {
+            return new GetSubmodelElementHistoryByPathRequest();
+        }
+    }
+}
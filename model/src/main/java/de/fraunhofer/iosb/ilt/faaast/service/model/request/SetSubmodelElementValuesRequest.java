@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.model.request;
+
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.Request;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.response.SetSubmodelElementValuesResponse;
+import de.fraunhofer.iosb.ilt.faaast.service.model.value.ElementValue;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.builder.ExtendableBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Request class for setting the values of multiple submodel elements at once. This is an internal request that is not
+ * part of the AAS API and is used to apply batches of value changes, e.g. received from asset connections. Values are
+ * applied in iteration order and either all or none of them are applied.
+ */
+public class SetSubmodelElementValuesRequest implements Request<SetSubmodelElementValuesResponse> {
+
+    private Map<Reference, ElementValue> values;
+
+    public SetSubmodelElementValuesRequest() {
+        this.values = new LinkedHashMap<>();
+    }
+
+
+    public Map<Reference, ElementValue> getValues() {
+        return values;
+    }
+
+
+    public void setValues(Map<Reference, ElementValue> values) {
+        this.values = values;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SetSubmodelElementValuesRequest that = (SetSubmodelElementValuesRequest) o;
+        return Objects.equals(values, that.values);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(values);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public abstract static class AbstractBuilder<T extends SetSubmodelElementValuesRequest, B extends AbstractBuilder<T, B>> extends ExtendableBuilder<T, B> {
+
+        public B values(Map<Reference, ElementValue> value) {
+            getBuildingInstance().setValues(value);
+            return getSelf();
+        }
+
+
+        public B value(Reference reference, ElementValue value) {
+            getBuildingInstance().getValues().put(reference, value);
+            return getSelf();
+        }
+    }
+
+    public static class Builder extends AbstractBuilder<SetSubmodelElementValuesRequest, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected SetSubmodelElementValuesRequest newBuildingInstance() {
+            return new SetSubmodelElementValuesRequest();
+        }
+    }
+}
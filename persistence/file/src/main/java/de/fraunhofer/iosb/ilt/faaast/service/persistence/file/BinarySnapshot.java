@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.file;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleAbstractTypeResolver;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.dataformat.core.ReflectionHelper;
+import io.adminshell.aas.v3.dataformat.core.deserialization.EmbeddedDataSpecificationDeserializer;
+import io.adminshell.aas.v3.dataformat.core.deserialization.EnumDeserializer;
+import io.adminshell.aas.v3.dataformat.core.serialization.EmbeddedDataSpecificationSerializer;
+import io.adminshell.aas.v3.dataformat.core.serialization.EnumSerializer;
+import io.adminshell.aas.v3.dataformat.json.ReflectionAnnotationIntrospector;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.EmbeddedDataSpecification;
+import io.adminshell.aas.v3.model.Submodel;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Reads and writes an {@link AssetAdministrationShellEnvironment} in the binary Smile format, i.e. the binary
+ * equivalent of the JSON serialization of an environment. Compared to the textual formats, the snapshot is smaller and
+ * considerably faster to parse. Snapshots are read via memory-mapping. Besides whole environments, single submodels can
+ * be written and read as well.
+ *
+ * <p>The mapper is configured like the mappers of the JSON serializer and deserializer of the AAS model, i.e. with the
+ * same mixins, type mappings and custom (de-)serializers, but bound to a {@link SmileFactory}.
+ */
+public class BinarySnapshot {
+
+    private static final String PROPERTY_SUBMODELS = "submodels";
+    private static final String PROPERTY_SUBMODEL_ELEMENTS = "submodelElements";
+    private final ObjectMapper mapper;
+
+    public BinarySnapshot() {
+        mapper = createMapper();
+    }
+
+
+    private static ObjectMapper createMapper() {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Enum.class, new EnumSerializer());
+        ReflectionHelper.ENUMS.forEach(x -> module.addDeserializer(x, new EnumDeserializer<>(x)));
+        module.addSerializer(EmbeddedDataSpecification.class, new EmbeddedDataSpecificationSerializer());
+        module.addDeserializer(EmbeddedDataSpecification.class, new EmbeddedDataSpecificationDeserializer());
+        SimpleAbstractTypeResolver typeResolver = new SimpleAbstractTypeResolver();
+        ReflectionHelper.DEFAULT_IMPLEMENTATIONS.stream()
+                .filter(x -> !EmbeddedDataSpecification.class.equals(x.getInterfaceType()))
+                .forEach(x -> typeResolver.addMapping(x.getInterfaceType(), x.getImplementationType()));
+        module.setAbstractTypes(typeResolver);
+        ObjectMapper result = SmileMapper.builder()
+                .enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .annotationIntrospector(new ReflectionAnnotationIntrospector())
+                .addModule(module)
+                .build();
+        ReflectionHelper.JSON_MIXINS.forEach(result::addMixIn);
+        return result;
+    }
+
+
+    /**
+     * Writes an environment to a file.
+     *
+     * @param file the file to write to
+     * @param environment the environment to write
+     * @throws IOException if writing to the file fails
+     * @throws SerializationException if serialization fails
+     */
+    public void write(Path file, AssetAdministrationShellEnvironment environment) throws IOException, SerializationException {
+        Ensure.requireNonNull(environment, "environment must be non-null");
+        write(file, (Object) environment);
+    }
+
+
+    /**
+     * Writes an environment to a file omitting the elements of all submodels.
+     *
+     * @param file the file to write to
+     * @param environment the environment to write
+     * @throws IOException if writing to the file fails
+     * @throws SerializationException if serialization fails
+     */
+    public void writeWithoutSubmodelElements(Path file, AssetAdministrationShellEnvironment environment) throws IOException, SerializationException {
+        Ensure.requireNonNull(environment, "environment must be non-null");
+        JsonNode node = mapper.valueToTree(environment);
+        node.path(PROPERTY_SUBMODELS).forEach(x -> ((ObjectNode) x).remove(PROPERTY_SUBMODEL_ELEMENTS));
+        write(file, node);
+    }
+
+
+    /**
+     * Writes a submodel to a file.
+     *
+     * @param file the file to write to
+     * @param submodel the submodel to write
+     * @throws IOException if writing to the file fails
+     * @throws SerializationException if serialization fails
+     */
+    public void write(Path file, Submodel submodel) throws IOException, SerializationException {
+        Ensure.requireNonNull(submodel, "submodel must be non-null");
+        write(file, (Object) submodel);
+    }
+
+
+    private void write(Path file, Object value) throws IOException, SerializationException {
+        Ensure.requireNonNull(file, "file must be non-null");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            mapper.writeValue(out, value);
+        }
+        catch (JsonProcessingException e) {
+            throw new SerializationException("serializing binary snapshot failed", e);
+        }
+    }
+
+
+    /**
+     * Reads an environment from a file.
+     *
+     * @param file the file to read from
+     * @return the environment
+     * @throws IOException if reading the file fails
+     * @throws DeserializationException if deserialization fails
+     */
+    public AssetAdministrationShellEnvironment read(Path file) throws IOException, DeserializationException {
+        return read(file, AssetAdministrationShellEnvironment.class);
+    }
+
+
+    /**
+     * Reads a submodel from a file.
+     *
+     * @param file the file to read from
+     * @return the submodel
+     * @throws IOException if reading the file fails
+     * @throws DeserializationException if deserialization fails
+     */
+    public Submodel readSubmodel(Path file) throws IOException, DeserializationException {
+        return read(file, Submodel.class);
+    }
+
+
+    private <T> T read(Path file, Class<T> type) throws IOException, DeserializationException {
+        Ensure.requireNonNull(file, "file must be non-null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try (InputStream in = new ByteBufferBackedInputStream(buffer)) {
+                return mapper.readValue(in, type);
+            }
+        }
+        catch (JsonProcessingException e) {
+            throw new DeserializationException("deserializing binary snapshot failed", e);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.file;
+
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Stores an environment split into multiple {@link BinarySnapshot} files so that the elements of a submodel can be
+ * loaded on first access instead of on startup. The environment itself is stored without any submodel elements in a
+ * header file while the elements of each submodel are stored in a separate file.
+ *
+ * <p>Keeps track of the submodels whose elements are currently loaded, in least recently used order, and of the
+ * submodels modified since they have been written. Unloading a submodel writes it first if it has been modified.
+ */
+public class LazySubmodelStore {
+
+    private static final String HEADER_FILENAME = "environment.smile";
+    private static final String FILE_EXTENSION = ".smile";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private final Path dir;
+    private final int cacheSize;
+    private final BinarySnapshot binarySnapshot;
+    private final Map<String, String> loaded;
+    private final Set<String> dirty;
+    private boolean headerDirty;
+
+    public LazySubmodelStore(Path dir, int cacheSize) {
+        Ensure.requireNonNull(dir, "dir must be non-null");
+        Ensure.require(cacheSize > 0, "cacheSize must be greater than 0");
+        this.dir = dir;
+        this.cacheSize = cacheSize;
+        this.binarySnapshot = new BinarySnapshot();
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+        this.dirty = new HashSet<>();
+    }
+
+
+    public Path getHeaderPath() {
+        return dir.resolve(HEADER_FILENAME);
+    }
+
+
+    /**
+     * Checks whether the stored environment exists and is not older than a given model file.
+     *
+     * @param modelFile the model file
+     * @return true if the stored environment exists and is up-to-date, otherwise false
+     */
+    public boolean isUpToDate(File modelFile) {
+        File header = getHeaderPath().toFile();
+        return header.isFile() && (!modelFile.exists() || header.lastModified() >= modelFile.lastModified());
+    }
+
+
+    /**
+     * Reads the stored environment without any submodel elements. All submodels are considered unloaded afterwards.
+     *
+     * @return the environment
+     * @throws IOException if reading fails
+     * @throws DeserializationException if deserialization fails
+     */
+    public synchronized AssetAdministrationShellEnvironment readHeader() throws IOException, DeserializationException {
+        AssetAdministrationShellEnvironment result = binarySnapshot.read(getHeaderPath());
+        reset();
+        return result;
+    }
+
+
+    /**
+     * Replaces the stored environment with a given environment and unloads all of its submodels afterwards.
+     *
+     * @param environment the environment
+     * @throws IOException if writing fails
+     * @throws SerializationException if serialization fails
+     */
+    public synchronized void rebuild(AssetAdministrationShellEnvironment environment) throws IOException, SerializationException {
+        Ensure.requireNonNull(environment, "environment must be non-null");
+        Files.createDirectories(dir);
+        for (Submodel submodel: environment.getSubmodels()) {
+            write(submodel);
+        }
+        writeHeader(environment);
+        deleteObsoleteFiles(environment);
+        environment.getSubmodels().forEach(x -> x.setSubmodelElements(new ArrayList<>()));
+        reset();
+    }
+
+
+    /**
+     * Writes all modified submodels and, if modified, the header. Files of submodels that no longer exist are deleted
+     * afterwards.
+     *
+     * @param environment the environment
+     * @throws IOException if writing fails
+     * @throws SerializationException if serialization fails
+     */
+    public synchronized void save(AssetAdministrationShellEnvironment environment) throws IOException, SerializationException {
+        Ensure.requireNonNull(environment, "environment must be non-null");
+        Files.createDirectories(dir);
+        for (Submodel submodel: environment.getSubmodels()) {
+            String key = keyOf(submodel.getIdentification().getIdentifier());
+            if (dirty.contains(key) && loaded.containsKey(key)) {
+                write(submodel);
+                dirty.remove(key);
+            }
+        }
+        if (headerDirty) {
+            writeHeader(environment);
+            deleteObsoleteFiles(environment);
+            headerDirty = false;
+        }
+    }
+
+
+    /**
+     * Loads the elements of a submodel unless they are already loaded.
+     *
+     * @param submodel the submodel
+     * @param mapper applied to each loaded element
+     * @return true if the elements have been loaded, false if they already have been loaded before
+     * @throws IOException if reading fails
+     * @throws DeserializationException if deserialization fails
+     */
+    public synchronized boolean load(Submodel submodel, UnaryOperator<SubmodelElement> mapper) throws IOException, DeserializationException {
+        String id = submodel.getIdentification().getIdentifier();
+        if (loaded.get(keyOf(id)) != null) {
+            return false;
+        }
+        List<SubmodelElement> elements = binarySnapshot.readSubmodel(pathOf(id)).getSubmodelElements();
+        submodel.setSubmodelElements(elements.stream()
+                .map(mapper)
+                .collect(Collectors.toList()));
+        loaded.put(keyOf(id), id);
+        return true;
+    }
+
+
+    /**
+     * Reads the stored elements of a submodel that is not loaded without loading it, i.e. the submodel is neither
+     * modified nor counted as loaded.
+     *
+     * @param id the identifier of the submodel
+     * @param mapper applied to each read element
+     * @return the elements or null if the submodel is loaded as the stored elements might be outdated
+     * @throws IOException if reading fails
+     * @throws DeserializationException if deserialization fails
+     */
+    public synchronized List<SubmodelElement> read(String id, UnaryOperator<SubmodelElement> mapper) throws IOException, DeserializationException {
+        if (loaded.get(keyOf(id)) != null) {
+            return null;
+        }
+        return binarySnapshot.readSubmodel(pathOf(id)).getSubmodelElements().stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * Unloads the elements of a submodel if the number of loaded submodels exceeds the cache size. The elements are
+     * replaced by an empty list so that callers still holding the old list are not affected.
+     *
+     * @param submodel the submodel
+     * @return true if the elements have been unloaded, otherwise false
+     * @throws IOException if writing the modified submodel fails
+     * @throws SerializationException if serializing the modified submodel fails
+     */
+    public synchronized boolean unload(Submodel submodel) throws IOException, SerializationException {
+        String key = keyOf(submodel.getIdentification().getIdentifier());
+        if (loaded.size() <= cacheSize || !loaded.containsKey(key)) {
+            return false;
+        }
+        if (dirty.contains(key)) {
+            Files.createDirectories(dir);
+            write(submodel);
+            dirty.remove(key);
+        }
+        submodel.setSubmodelElements(new ArrayList<>());
+        loaded.remove(key);
+        return true;
+    }
+
+
+    /**
+     * Gets the identifiers of the least recently used submodels that exceed the cache size.
+     *
+     * @return identifiers of the submodels to unload
+     */
+    public synchronized List<String> getEvictionCandidates() {
+        List<String> result = new ArrayList<>();
+        Iterator<String> iterator = loaded.values().iterator();
+        for (int i = loaded.size(); i > cacheSize && iterator.hasNext(); i--) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+
+    /**
+     * Checks whether the number of loaded submodels exceeds the cache size.
+     *
+     * @return true if submodels should be unloaded, otherwise false
+     */
+    public synchronized boolean isFull() {
+        return loaded.size() > cacheSize;
+    }
+
+
+    /**
+     * Marks a submodel as loaded and modified, e.g. because it has been replaced by a new instance.
+     *
+     * @param id the identifier of the submodel
+     */
+    public synchronized void markLoaded(String id) {
+        loaded.put(keyOf(id), id);
+        dirty.add(keyOf(id));
+        headerDirty = true;
+    }
+
+
+    /**
+     * Marks the elements of a submodel as modified.
+     *
+     * @param id the identifier of the submodel
+     */
+    public synchronized void markDirty(String id) {
+        dirty.add(keyOf(id));
+    }
+
+
+    /**
+     * Marks the header, i.e. anything but submodel elements, as modified.
+     */
+    public synchronized void markHeaderDirty() {
+        headerDirty = true;
+    }
+
+
+    /**
+     * Forgets about a submodel, e.g. because it has been removed.
+     *
+     * @param id the identifier of the submodel
+     */
+    public synchronized void forget(String id) {
+        loaded.remove(keyOf(id));
+        dirty.remove(keyOf(id));
+    }
+
+
+    private void reset() {
+        loaded.clear();
+        dirty.clear();
+        headerDirty = false;
+    }
+
+
+    private void write(Submodel submodel) throws IOException, SerializationException {
+        Path file = pathOf(submodel.getIdentification().getIdentifier());
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_FILE_EXTENSION);
+        binarySnapshot.write(tempFile, submodel);
+        PersistenceFile.move(tempFile, file);
+    }
+
+
+    private void writeHeader(AssetAdministrationShellEnvironment environment) throws IOException, SerializationException {
+        Path file = getHeaderPath();
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_FILE_EXTENSION);
+        binarySnapshot.writeWithoutSubmodelElements(tempFile, environment);
+        PersistenceFile.move(tempFile, file);
+    }
+
+
+    private void deleteObsoleteFiles(AssetAdministrationShellEnvironment environment) throws IOException {
+        Set<Path> files = environment.getSubmodels().stream()
+                .map(x -> pathOf(x.getIdentification().getIdentifier()))
+                .collect(Collectors.toSet());
+        files.add(getHeaderPath());
+        try (Stream<Path> stream = Files.list(dir)) {
+            for (Path file: stream.filter(x -> !files.contains(x)).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+
+    private Path pathOf(String id) {
+        return dir.resolve(UUID.nameUUIDFromBytes(keyOf(id).getBytes(StandardCharsets.UTF_8)) + FILE_EXTENSION);
+    }
+
+
+    private static String keyOf(String id) {
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
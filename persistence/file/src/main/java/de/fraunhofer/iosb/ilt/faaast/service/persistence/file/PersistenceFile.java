@@ -19,15 +19,38 @@ import de.fraunhofer.iosb.ilt.faaast.service.dataformat.EnvironmentSerialization
 import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.AbstractInMemoryPersistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.EnvironmentLocks;
 import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
 import io.adminshell.aas.v3.model.Identifiable;
 import io.adminshell.aas.v3.model.Identifier;
+import io.adminshell.aas.v3.model.Key;
+import io.adminshell.aas.v3.model.KeyElements;
 import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +58,27 @@ import org.slf4j.LoggerFactory;
 /**
  * Implementation of {@link de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence} for a file storage.
  *
+ * <p>If the write-ahead log is enabled, changes are appended to a log file instead of re-writing the whole model file
+ * after each change. The log is compacted into the model file once it reaches a configurable number of entries and is
+ * replayed on top of the model file on startup, e.g. after a crash. All changes of a transaction are appended as a
+ * single record when the transaction is committed, so that they are replayed either completely or not at all.
+ *
+ * <p>Otherwise, the model file is written after each change or, if a flush interval is configured, by a background
+ * thread once the interval has elapsed or the number of pending changes reaches a threshold. Pending changes are
+ * written when the persistence is stopped. In any case, the model file is replaced atomically.
+ *
+ * <p>If binary snapshots are enabled, changes are written to a {@link BinarySnapshot} next to the model file instead of
+ * the model file itself. On startup, the snapshot is loaded instead of the model file unless the model file is newer.
+ * The model file is only written on creation and when the persistence is stopped, if the snapshot contains changes not
+ * included in the model file.
+ *
+ * <p>If lazy loading is enabled, the environment is split into a {@link LazySubmodelStore} next to the model file on
+ * first startup, i.e. into a header file without any submodel elements and one file per submodel. On startup, only the
+ * header is loaded and the elements of a submodel are loaded on first access. If more submodels than configured are
+ * loaded, the least recently used ones are unloaded in the background. Changes are written to the split files only, the
+ * model file is only written on creation. Lazy loading supersedes binary snapshots and cannot be combined with
+ * copy-on-write.
+ *
  * <p>Following types are not supported in the current version:
  * <ul>
  * <li>AASX packages
@@ -45,13 +89,31 @@ import org.slf4j.LoggerFactory;
 public class PersistenceFile extends AbstractInMemoryPersistence<PersistenceFileConfig> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceFile.class);
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private WriteAheadLog writeAheadLog;
+    private ScheduledExecutorService flushExecutor;
+    private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+    private BinarySnapshot binarySnapshot;
+    private final AtomicBoolean modelFileOutdated = new AtomicBoolean();
+    private LazySubmodelStore lazySubmodels;
+    private ExecutorService evictionExecutor;
+    private final ThreadLocal<List<WriteAheadLogEntry>> transactionLog = ThreadLocal.withInitial(ArrayList::new);
 
     @Override
     public void initAASEnvironment(PersistenceFileConfig config) {
+        Ensure.require(!config.isLazyLoading() || !config.isCopyOnWrite(), "lazy loading cannot be combined with copy-on-write");
         this.config = config;
-        try {
+        try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
             config.init();
-            aasEnvironment = loadAASEnvironment();
+            binarySnapshot = config.isBinarySnapshot() && !config.isLazyLoading() ? new BinarySnapshot() : null;
+            lazySubmodels = config.isLazyLoading() ? new LazySubmodelStore(config.getSplitPath(), config.getLazyLoadingCacheSize()) : null;
+            aasEnvironment = loadSplitEnvironment();
+            boolean split = aasEnvironment != null;
+            if (!split) {
+                aasEnvironment = loadAASEnvironment();
+            }
+            boolean snapshotExists = aasEnvironment != null;
             Path filePath = config.getFilePath().toAbsolutePath();
             if (aasEnvironment != null) {
                 LOGGER.info("File Persistence uses existing model file {}", filePath);
@@ -62,75 +124,733 @@ public class PersistenceFile extends AbstractInMemoryPersistence<PersistenceFile
 
             if (aasEnvironment == null) {
                 if (config.getEnvironment() != null) {
-                    aasEnvironment = config.isDecoupleEnvironment() ? DeepCopyHelper.deepCopy(config.getEnvironment()) : config.getEnvironment();
+                    // unloading submodels modifies the environment which therefore must not be shared
+                    aasEnvironment = config.isDecoupleEnvironment() || lazySubmodels != null
+                            ? DeepCopyHelper.deepCopy(config.getEnvironment())
+                            : config.getEnvironment();
                 }
                 else {
                     aasEnvironment = EnvironmentSerializationManager
                             .deserialize(config.getInitialModel())
                             .getEnvironment();
                 }
-                save();
+                export();
+            }
+            if (lazySubmodels != null && !split) {
+                splitEnvironment();
             }
+            initPersistenceManagers();
+            writeAheadLog = config.isWriteAheadLog() ? new WriteAheadLog(config.getWriteAheadLogPath()) : null;
+            modelFileOutdated.set(isModelFileOutdated());
+            recover(snapshotExists);
+            initFlushExecutor();
+            initEvictionExecutor();
         }
         catch (DeserializationException e) {
             throw new IllegalArgumentException("Error deserializing AAS Environment", e);
         }
-        identifiablePersistenceManager.setAasEnvironment(aasEnvironment);
-        referablePersistenceManager.setAasEnvironment(aasEnvironment);
-        packagePersistenceManager.setAasEnvironment(aasEnvironment);
+        catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Error reading write-ahead log %s", config.getWriteAheadLogPath()), e);
+        }
+    }
+
+
+    private void initFlushExecutor() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushExecutor = null;
+        }
+        if (writeAheadLog != null || config.getFlushInterval() <= 0) {
+            return;
+        }
+        flushExecutor = new ScheduledThreadPoolExecutor(1, new BasicThreadFactory.Builder()
+                .namingPattern("PersistenceFileFlush-%d")
+                .daemon(true)
+                .build());
+        flushExecutor.scheduleWithFixedDelay(this::flush, config.getFlushInterval(), config.getFlushInterval(), TimeUnit.MILLISECONDS);
+    }
+
+
+    private void initEvictionExecutor() {
+        if (evictionExecutor != null) {
+            evictionExecutor.shutdownNow();
+            evictionExecutor = null;
+        }
+        if (lazySubmodels == null) {
+            return;
+        }
+        evictionExecutor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("PersistenceFileEviction-%d")
+                .daemon(true)
+                .build());
+        scheduleEviction();
+    }
+
+
+    /**
+     * Replays the write-ahead log on top of the model file and compacts it afterwards. A log without model file cannot
+     * be replayed and is discarded.
+     *
+     * @param snapshotExists true if the environment has been loaded from an existing model file
+     * @throws IOException if reading the log fails
+     * @throws DeserializationException if the log is corrupt
+     */
+    private void recover(boolean snapshotExists) throws IOException, DeserializationException {
+        if (writeAheadLog == null) {
+            return;
+        }
+        List<WriteAheadLogEntry> entries = writeAheadLog.read();
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (!snapshotExists) {
+            LOGGER.warn("Discarding write-ahead log {} as model file {} does not exist", writeAheadLog.getPath(), config.getFilePath());
+            writeAheadLog.clear();
+            return;
+        }
+        LOGGER.info("File Persistence replays {} change(s) from write-ahead log {}", entries.size(), writeAheadLog.getPath());
+        for (WriteAheadLogEntry entry: entries) {
+            try {
+                apply(entry);
+            }
+            catch (ResourceNotFoundException e) {
+                // entry has already been included in the model file by an interrupted compaction
+                LOGGER.debug("Skipping write-ahead log entry that cannot be applied", e);
+            }
+        }
+        compact();
+    }
+
+
+    private void apply(WriteAheadLogEntry entry) throws ResourceNotFoundException {
+        if (entry.getParent() != null || entry.getReference() != null) {
+            loadSubmodel(entry.getParent() != null ? entry.getParent() : entry.getReference());
+        }
+        switch (entry.getType()) {
+            case PUT_IDENTIFIABLE:
+                identifiablePersistenceManager.put((Identifiable) entry.getElement());
+                break;
+            case REMOVE_IDENTIFIABLE:
+                identifiablePersistenceManager.remove(entry.getIdentifier());
+                break;
+            case PUT_SUBMODEL_ELEMENT:
+                referablePersistenceManager.putSubmodelElement(entry.getParent(), entry.getReference(), (SubmodelElement) entry.getElement());
+                break;
+            case REMOVE_REFERABLE:
+                referablePersistenceManager.remove(entry.getReference());
+                break;
+            default:
+                throw new IllegalStateException(String.format("unsupported write-ahead log entry type: %s", entry.getType()));
+        }
+        track(entry);
+    }
+
+
+    /**
+     * Records which parts of the split environment have been modified by a change if lazy loading is enabled. Must be
+     * called while holding the lock used to apply the change.
+     *
+     * @param entry the change
+     */
+    private void track(WriteAheadLogEntry entry) {
+        if (lazySubmodels == null) {
+            return;
+        }
+        switch (entry.getType()) {
+            case PUT_IDENTIFIABLE:
+                if (Submodel.class.isAssignableFrom(entry.getElement().getClass())) {
+                    lazySubmodels.markLoaded(((Submodel) entry.getElement()).getIdentification().getIdentifier());
+                    scheduleEviction();
+                }
+                else {
+                    lazySubmodels.markHeaderDirty();
+                }
+                break;
+            case REMOVE_IDENTIFIABLE:
+                lazySubmodels.forget(entry.getIdentifier().getIdentifier());
+                lazySubmodels.markHeaderDirty();
+                break;
+            case PUT_SUBMODEL_ELEMENT:
+                markDirty(entry.getParent() != null ? entry.getParent() : entry.getReference());
+                break;
+            case REMOVE_REFERABLE:
+                if (ReferenceHelper.isNullOrEmpty(ReferenceHelper.getParent(entry.getReference()))) {
+                    lazySubmodels.markHeaderDirty();
+                }
+                else {
+                    markDirty(entry.getReference());
+                }
+                break;
+            default:
+                throw new IllegalStateException(String.format("unsupported write-ahead log entry type: %s", entry.getType()));
+        }
+    }
+
+
+    private void markDirty(Reference reference) {
+        Submodel submodel = findSubmodel(reference);
+        if (submodel != null) {
+            lazySubmodels.markDirty(submodel.getIdentification().getIdentifier());
+        }
+    }
+
+
+    /**
+     * Records a change of the current transaction. Every write is applied within a transaction, i.e. either the
+     * transaction started by the caller or a transaction for the single write, so that changes can be reverted if
+     * appending them to the write-ahead log fails on commit.
+     *
+     * @param entry the change
+     */
+    private void log(WriteAheadLogEntry entry) {
+        track(entry);
+        transactionLog.get().add(entry);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Appends all changes of the transaction to the write-ahead log as a single record. If appending fails, the
+     * changes are rolled back.
+     */
+    @Override
+    protected void prepareCommit() {
+        log(transactionLog.get());
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Persists the changes of a committed transaction, changes of a rolled back transaction are discarded.
+     */
+    @Override
+    protected void afterTransaction(boolean committed) {
+        int changes = transactionLog.get().size();
+        transactionLog.remove();
+        if (committed && changes > 0) {
+            persist(changes);
+        }
+    }
+
+
+    /**
+     * Appends changes to the write-ahead log as a single record. Must be called while holding the lock used to apply the
+     * changes.
+     *
+     * @param entries the changes
+     * @throws IllegalStateException if appending to the write-ahead log fails
+     */
+    private void log(List<WriteAheadLogEntry> entries) {
+        if (writeAheadLog == null || entries.isEmpty()) {
+            return;
+        }
+        try {
+            writeAheadLog.appendAll(entries);
+        }
+        catch (IOException | SerializationException e) {
+            throw new IllegalStateException(String.format("Could not append changes to write-ahead log %s", writeAheadLog.getPath()), e);
+        }
+    }
+
+
+    /**
+     * Persists the changes recorded since the last call, i.e. writes the model file or schedules writing it if the
+     * write-ahead log is disabled or compacts the log if it has reached the configured threshold. Must be called
+     * without holding any lock.
+     *
+     * @param changes the number of changes recorded
+     */
+    private void persist(int changes) {
+        if (writeAheadLog == null) {
+            ScheduledExecutorService executor = flushExecutor;
+            if (executor == null) {
+                save();
+            }
+            else if (crossesFlushThreshold(pendingChanges.getAndAdd(changes), changes)) {
+                try {
+                    executor.execute(this::flush);
+                }
+                catch (RejectedExecutionException e) {
+                    // persistence is being stopped which flushes all pending changes anyway
+                }
+            }
+        }
+        else if (writeAheadLog.size() >= config.getCompactionThreshold()) {
+            try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+                if (writeAheadLog.size() >= config.getCompactionThreshold()) {
+                    compact();
+                }
+            }
+        }
+    }
+
+
+    private boolean crossesFlushThreshold(int before, int changes) {
+        return before < config.getFlushThreshold() && before + changes >= config.getFlushThreshold();
+    }
+
+
+    /**
+     * Writes the model file and clears the write-ahead log. Requires exclusive access to the environment.
+     */
+    private void compact() {
+        if (save()) {
+            try {
+                writeAheadLog.clear();
+            }
+            catch (IOException e) {
+                LOGGER.error(String.format("Could not clear write-ahead log %s", writeAheadLog.getPath()), e);
+            }
+        }
+    }
+
+
+    /**
+     * Writes the model file if there are pending changes. Changes are kept pending if writing fails.
+     */
+    private void flush() {
+        int changes = pendingChanges.getAndSet(0);
+        if (changes > 0 && !save()) {
+            pendingChanges.addAndGet(changes);
+        }
+    }
+
+
+    /**
+     * Writes the changes, i.e. the split environment if lazy loading is enabled, the binary snapshot if enabled,
+     * otherwise the model file.
+     *
+     * @return true if writing succeeded, otherwise false
+     */
+    private boolean save() {
+        if (lazySubmodels != null) {
+            return writeSplitEnvironment();
+        }
+        if (binarySnapshot == null) {
+            return writeModelFile();
+        }
+        modelFileOutdated.set(true);
+        return writeSnapshot();
+    }
+
+
+    /**
+     * Writes the model file and, if enabled, the binary snapshot afterwards so that the snapshot is not considered
+     * outdated on next startup. Both files get the same modification time so that the model file is not considered
+     * outdated either.
+     *
+     * @return true if writing succeeded, otherwise false
+     */
+    private boolean export() {
+        if (!writeModelFile()) {
+            return false;
+        }
+        if (binarySnapshot == null) {
+            return true;
+        }
+        if (!writeSnapshot()) {
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(config.getFilePath(), Files.getLastModifiedTime(config.getSnapshotPath()));
+        }
+        catch (IOException e) {
+            LOGGER.debug("Could not align modification time of model file {} with binary snapshot", config.getFilePath(), e);
+        }
+        modelFileOutdated.set(false);
+        return true;
+    }
+
+
+    /**
+     * Checks whether the binary snapshot has been written after the model file, i.e. whether it may contain changes not
+     * included in the model file.
+     *
+     * @return true if the model file is outdated, otherwise false
+     */
+    private boolean isModelFileOutdated() {
+        if (binarySnapshot == null || !Files.isRegularFile(config.getSnapshotPath())) {
+            return false;
+        }
+        try {
+            return !Files.isRegularFile(config.getFilePath())
+                    || Files.getLastModifiedTime(config.getSnapshotPath()).compareTo(Files.getLastModifiedTime(config.getFilePath())) > 0;
+        }
+        catch (IOException e) {
+            return true;
+        }
+    }
+
+
+    private boolean writeModelFile() {
+        return writeAtomically(config.getFilePath(), x -> EnvironmentSerializationManager
+                .serializerFor(config.getDataformat())
+                .write(x.toFile(), aasEnvironment));
+    }
+
+
+    private boolean writeSnapshot() {
+        return writeAtomically(config.getSnapshotPath(), x -> binarySnapshot.write(x, aasEnvironment));
+    }
+
+
+    private boolean writeSplitEnvironment() {
+        // lock must be acquired before synchronizing to keep the lock order consistent with compaction
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            synchronized (this) {
+                lazySubmodels.save(aasEnvironment);
+            }
+            return true;
+        }
+        catch (IOException | SerializationException e) {
+            LOGGER.error(String.format("Could not save environment to directory %s", config.getSplitPath()), e);
+            return false;
+        }
     }
 
 
-    private void save() {
+    private void splitEnvironment() {
+        LOGGER.info("File Persistence splits environment into directory {}", config.getSplitPath().toAbsolutePath());
         try {
-            EnvironmentSerializationManager
-                    .serializerFor(config.getDataformat())
-                    .write(new File(String.valueOf(config.getFilePath())), aasEnvironment);
+            lazySubmodels.rebuild(aasEnvironment);
+        }
+        catch (IOException | SerializationException e) {
+            throw new IllegalArgumentException(String.format("Error writing split environment %s", config.getSplitPath()), e);
+        }
+    }
+
+
+    /**
+     * Writes the environment to a file. The environment is written to a temporary file first which then replaces the
+     * target file so that the target file is never left incomplete.
+     *
+     * @param file the file to write
+     * @param writer writes the environment to a given file
+     * @return true if writing succeeded, otherwise false
+     */
+    private boolean writeAtomically(Path file, EnvironmentWriter writer) {
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_FILE_EXTENSION);
+        // lock must be acquired before synchronizing to keep the lock order consistent with compaction
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            synchronized (this) {
+                writer.write(tempFile);
+                move(tempFile, file);
+            }
+            return true;
         }
         catch (IOException | SerializationException e) {
-            LOGGER.error(String.format("Could not save environment to file %s", config.getFilePath()), e);
+            LOGGER.error(String.format("Could not save environment to file %s", file), e);
+            return false;
+        }
+    }
+
+
+    static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Stops the background flush, if any, and writes all pending changes before deleting the values held in the blob
+     * store. If binary snapshots are enabled, the model file is written as well unless it already contains all changes.
+     */
+    @Override
+    public void stop() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            try {
+                flushExecutor.awaitTermination(config.getFlushInterval(), TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                LOGGER.warn("Interrupted while waiting for background flush to finish", e);
+                Thread.currentThread().interrupt();
+            }
+            flushExecutor = null;
+        }
+        if (evictionExecutor != null) {
+            evictionExecutor.shutdownNow();
+            evictionExecutor = null;
+        }
+        flush();
+        if (binarySnapshot != null && modelFileOutdated.get()) {
+            export();
+        }
+        super.stop();
+    }
+
+
+    private AssetAdministrationShellEnvironment loadSplitEnvironment() {
+        if (lazySubmodels == null || !lazySubmodels.isUpToDate(config.getFilePath().toFile())) {
+            return null;
+        }
+        try {
+            LOGGER.info("File Persistence loads split environment {}", config.getSplitPath().toAbsolutePath());
+            return lazySubmodels.readHeader();
+        }
+        catch (IOException | DeserializationException e) {
+            LOGGER.warn("Could not read split environment {}, using model file instead", config.getSplitPath(), e);
+            return null;
         }
     }
 
 
     private AssetAdministrationShellEnvironment loadAASEnvironment() throws DeserializationException {
         File f = new File(config.getFilePath().toString());
+        if (isSnapshotUpToDate(f)) {
+            try {
+                LOGGER.info("File Persistence loads binary snapshot {}", config.getSnapshotPath().toAbsolutePath());
+                return binarySnapshot.read(config.getSnapshotPath());
+            }
+            catch (IOException | DeserializationException e) {
+                LOGGER.warn("Could not read binary snapshot {}, using model file instead", config.getSnapshotPath(), e);
+            }
+        }
         if (f.exists() && !f.isDirectory()) {
             return EnvironmentSerializationManager
-                    .deserialize(f)
+                    .deserializerFor(config.getDataformat())
+                    .read(f)
                     .getEnvironment();
         }
         return null;
     }
 
 
+    private boolean isSnapshotUpToDate(File modelFile) {
+        if (binarySnapshot == null) {
+            return false;
+        }
+        File snapshot = config.getSnapshotPath().toFile();
+        return snapshot.isFile() && (!modelFile.exists() || snapshot.lastModified() >= modelFile.lastModified());
+    }
+
+
+    @Override
+    protected void loadSubmodel(Reference reference) {
+        if (lazySubmodels != null) {
+            load(findSubmodel(reference));
+        }
+    }
+
+
+    @Override
+    protected void loadSubmodel(Identifier id) {
+        if (lazySubmodels != null && id != null) {
+            load(identifiableIndex.get(Submodel.class, id));
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If lazy loading is enabled, the elements of submodels that are not loaded are read into the given copies only
+     * so that queries do not evict the submodels currently in use.
+     */
+    @Override
+    protected List<Submodel> completeSubmodels(List<Submodel> submodels) {
+        if (lazySubmodels != null) {
+            submodels.forEach(this::addElements);
+        }
+        return submodels;
+    }
+
+
+    /**
+     * Adds the elements to a copy of a submodel made while holding read access to all submodels. If the copy does not
+     * contain any elements, the submodel either has not been loaded when it was copied or does not contain any elements.
+     * In the first case, the elements are read from disk as long as the submodel is still not loaded, otherwise they are
+     * copied from the loaded submodel.
+     *
+     * @param copy the copy of the submodel
+     */
+    private void addElements(Submodel copy) {
+        if (copy.getSubmodelElements() != null && !copy.getSubmodelElements().isEmpty()) {
+            return;
+        }
+        try {
+            List<SubmodelElement> elements = lazySubmodels.read(copy.getIdentification().getIdentifier(), this::externalize);
+            if (elements == null) {
+                Submodel submodel = identifiableIndex.get(Submodel.class, copy.getIdentification());
+                elements = submodel != null && submodel.getSubmodelElements() != null
+                        ? DeepCopyHelper.deepCopy(submodel.getSubmodelElements(), SubmodelElement.class)
+                        : new ArrayList<>();
+            }
+            copy.setSubmodelElements(elements);
+        }
+        catch (IOException | DeserializationException e) {
+            throw new IllegalStateException(String.format("Error reading submodel %s", copy.getIdentification().getIdentifier()), e);
+        }
+    }
+
+
+    private void load(Submodel submodel) {
+        if (submodel == null) {
+            return;
+        }
+        try {
+            if (lazySubmodels.load(submodel, this::externalize)) {
+                submodelElementIndex.invalidate(submodel);
+                scheduleEviction();
+            }
+        }
+        catch (IOException | DeserializationException e) {
+            throw new IllegalStateException(String.format("Error loading submodel %s", submodel.getIdentification().getIdentifier()), e);
+        }
+    }
+
+
+    /**
+     * Finds the submodel a reference points into. Keys may not be completed yet, i.e. have no type.
+     *
+     * @param reference the reference
+     * @return the submodel or null if the reference does not point into a known submodel
+     */
+    private Submodel findSubmodel(Reference reference) {
+        if (reference == null || reference.getKeys() == null) {
+            return null;
+        }
+        return reference.getKeys().stream()
+                .filter(x -> x.getType() == null || x.getType() == KeyElements.SUBMODEL)
+                .map(Key::getValue)
+                .filter(Objects::nonNull)
+                .map(x -> identifiableIndex.get(Submodel.class, new DefaultIdentifier.Builder()
+                        .identifier(x)
+                        .build()))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+
+    private void scheduleEviction() {
+        ExecutorService executor = evictionExecutor;
+        if (executor == null || !lazySubmodels.isFull() || !evictionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::evict);
+        }
+        catch (RejectedExecutionException e) {
+            // persistence is being stopped
+            evictionScheduled.set(false);
+        }
+    }
+
+
+    /**
+     * Unloads the least recently used submodels exceeding the cache size. Each submodel is unloaded while exclusively
+     * holding the lock of this submodel only.
+     */
+    private void evict() {
+        evictionScheduled.set(false);
+        for (String id: lazySubmodels.getEvictionCandidates()) {
+            try (EnvironmentLocks.Handle lock = environmentLocks.writeSubmodel(id)) {
+                Submodel submodel = identifiableIndex.get(Submodel.class, new DefaultIdentifier.Builder()
+                        .identifier(id)
+                        .build());
+                if (submodel == null) {
+                    lazySubmodels.forget(id);
+                }
+                else if (lazySubmodels.unload(submodel)) {
+                    submodelElementIndex.invalidate(submodel);
+                }
+            }
+            catch (IOException | SerializationException e) {
+                LOGGER.warn("Could not unload submodel {}", id, e);
+            }
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If lazy loading is enabled, a copy of the environment is returned as the submodels might be unloaded at any
+     * time. The elements of submodels that are not loaded are read into the copy only.
+     */
+    @Override
+    public AssetAdministrationShellEnvironment getEnvironment() {
+        if (lazySubmodels == null) {
+            return super.getEnvironment();
+        }
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            AssetAdministrationShellEnvironment result = DeepCopyHelper.deepCopy(aasEnvironment);
+            completeSubmodels(result.getSubmodels());
+            return result;
+        }
+    }
+
+
     @Override
     public Identifiable put(Identifiable identifiable) {
-        Identifiable element = super.put(identifiable);
-        save();
-        return element;
+        if (isDeferring()) {
+            return super.put(identifiable);
+        }
+        try (Transaction write = beginWrite(environmentLocks.writeAll())) {
+            Identifiable result = super.put(identifiable);
+            log(WriteAheadLogEntry.putIdentifiable(identifiable));
+            write.commit();
+            return result;
+        }
+        catch (ResourceNotFoundException e) {
+            // only thrown by deferred writes
+            throw new IllegalStateException(e);
+        }
     }
 
 
     @Override
     public SubmodelElement put(Reference parent, Reference referenceToSubmodelElement, SubmodelElement submodelElement) throws ResourceNotFoundException {
-        SubmodelElement element = super.put(parent, referenceToSubmodelElement, submodelElement);
-        save();
-        return element;
+        if (isDeferring()) {
+            return super.put(parent, referenceToSubmodelElement, submodelElement);
+        }
+        try (Transaction write = beginWrite(lockForPut(parent, referenceToSubmodelElement))) {
+            SubmodelElement result = super.put(parent, referenceToSubmodelElement, submodelElement);
+            log(WriteAheadLogEntry.putSubmodelElement(parent, referenceToSubmodelElement, submodelElement));
+            write.commit();
+            return result;
+        }
     }
 
 
     @Override
     public void remove(Identifier id) throws ResourceNotFoundException {
-        super.remove(id);
-        save();
+        if (isDeferring()) {
+            super.remove(id);
+            return;
+        }
+        if (id == null) {
+            super.remove(id);
+            return;
+        }
+        try (Transaction write = beginWrite(environmentLocks.writeAll())) {
+            super.remove(id);
+            log(WriteAheadLogEntry.removeIdentifiable(id));
+            write.commit();
+        }
     }
 
 
     @Override
     public void remove(Reference reference) throws ResourceNotFoundException {
-        super.remove(reference);
-        save();
+        if (reference == null || isDeferring()) {
+            super.remove(reference);
+            return;
+        }
+        try (Transaction write = beginWrite(lockForRemove(reference))) {
+            super.remove(reference);
+            log(WriteAheadLogEntry.removeReferable(reference));
+            write.commit();
+        }
     }
 
 
@@ -139,4 +859,10 @@ public class PersistenceFile extends AbstractInMemoryPersistence<PersistenceFile
         super.remove(packageId);
         save();
     }
+
+    @FunctionalInterface
+    private interface EnvironmentWriter {
+
+        public void write(Path file) throws IOException, SerializationException;
+    }
 }
@@ -33,6 +33,16 @@ public class PersistenceFileConfig extends PersistenceConfig<PersistenceFile> {
     private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceFileConfig.class);
     private static final String DEFAULT_BASE_PATH = Path.of("").toAbsolutePath().toString();
     private static final boolean DEFAULT_KEEP_INITIAL = true;
+    private static final boolean DEFAULT_WRITE_AHEAD_LOG = false;
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    private static final long DEFAULT_FLUSH_INTERVAL = 0;
+    private static final int DEFAULT_FLUSH_THRESHOLD = 100;
+    private static final String WRITE_AHEAD_LOG_FILE_EXTENSION = ".wal";
+    private static final String SNAPSHOT_FILE_EXTENSION = ".smile";
+    private static final boolean DEFAULT_BINARY_SNAPSHOT = false;
+    private static final String SPLIT_DIRECTORY_EXTENSION = ".split";
+    private static final boolean DEFAULT_LAZY_LOADING = false;
+    private static final int DEFAULT_LAZY_LOADING_CACHE_SIZE = 100;
     public static final DataFormat DEFAULT_DATAFORMAT = DataFormat.JSON;
     public static final String DEFAULT_FILENAME_PREFIX = "environment_createdByFAAAST";
     public static final String DEFAULT_FILENAME = DEFAULT_FILENAME_PREFIX + "." + DEFAULT_DATAFORMAT.toString().toLowerCase();
@@ -45,9 +55,30 @@ public class PersistenceFileConfig extends PersistenceConfig<PersistenceFile> {
 
     private DataFormat dataformat;
 
+    private boolean writeAheadLog;
+
+    private int compactionThreshold;
+
+    private long flushInterval;
+
+    private int flushThreshold;
+
+    private boolean binarySnapshot;
+
+    private boolean lazyLoading;
+
+    private int lazyLoadingCacheSize;
+
     public PersistenceFileConfig() {
         dataDir = DEFAULT_BASE_PATH;
         keepInitial = DEFAULT_KEEP_INITIAL;
+        writeAheadLog = DEFAULT_WRITE_AHEAD_LOG;
+        compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        flushInterval = DEFAULT_FLUSH_INTERVAL;
+        flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+        binarySnapshot = DEFAULT_BINARY_SNAPSHOT;
+        lazyLoading = DEFAULT_LAZY_LOADING;
+        lazyLoadingCacheSize = DEFAULT_LAZY_LOADING_CACHE_SIZE;
     }
 
 
@@ -88,6 +119,37 @@ public class PersistenceFileConfig extends PersistenceConfig<PersistenceFile> {
     }
 
 
+    /**
+     * Get the path of the write-ahead log file, i.e. the path of the model file with an additional extension.
+     *
+     * @return file path of the write-ahead log
+     */
+    public Path getWriteAheadLogPath() {
+        return Path.of(dataDir, filename + WRITE_AHEAD_LOG_FILE_EXTENSION);
+    }
+
+
+    /**
+     * Get the path of the binary snapshot file, i.e. the path of the model file with an additional extension.
+     *
+     * @return file path of the binary snapshot
+     */
+    public Path getSnapshotPath() {
+        return Path.of(dataDir, filename + SNAPSHOT_FILE_EXTENSION);
+    }
+
+
+    /**
+     * Get the path of the directory holding the environment split into one file per submodel when lazy loading is
+     * enabled, i.e. the path of the model file with an additional extension.
+     *
+     * @return path of the split directory
+     */
+    public Path getSplitPath() {
+        return Path.of(dataDir, filename + SPLIT_DIRECTORY_EXTENSION);
+    }
+
+
     public String getDataDir() {
         return dataDir;
     }
@@ -118,6 +180,100 @@ public class PersistenceFileConfig extends PersistenceConfig<PersistenceFile> {
     }
 
 
+    public boolean isWriteAheadLog() {
+        return writeAheadLog;
+    }
+
+
+    public void setWriteAheadLog(boolean writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+
+    public void setCompactionThreshold(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+
+    /**
+     * Sets the maximum time in milliseconds changes are kept in memory before the model file is written in the
+     * background. Values less than or equal to 0 disable the background flush, i.e. the model file is written
+     * synchronously after every change.
+     *
+     * @param flushInterval the flush interval in milliseconds
+     */
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+
+    public int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+
+    /**
+     * Sets the number of pending changes that triggers writing the model file in the background before the flush
+     * interval has elapsed. Only used if the background flush is enabled.
+     *
+     * @param flushThreshold the number of pending changes
+     */
+    public void setFlushThreshold(int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+    }
+
+
+    public boolean isBinarySnapshot() {
+        return binarySnapshot;
+    }
+
+
+    public void setBinarySnapshot(boolean binarySnapshot) {
+        this.binarySnapshot = binarySnapshot;
+    }
+
+
+    public boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+
+    /**
+     * Enables loading the elements of a submodel on first access instead of on startup. Supersedes binary snapshots.
+     *
+     * @param lazyLoading true to enable lazy loading, otherwise false
+     */
+    public void setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+
+
+    public int getLazyLoadingCacheSize() {
+        return lazyLoadingCacheSize;
+    }
+
+
+    /**
+     * Sets the maximum number of submodels whose elements are kept in memory when lazy loading is enabled. If exceeded,
+     * the elements of the least recently used submodels are unloaded in the background.
+     *
+     * @param lazyLoadingCacheSize the maximum number of loaded submodels
+     */
+    public void setLazyLoadingCacheSize(int lazyLoadingCacheSize) {
+        this.lazyLoadingCacheSize = lazyLoadingCacheSize;
+    }
+
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -133,13 +289,21 @@ public class PersistenceFileConfig extends PersistenceConfig<PersistenceFile> {
 
         return Objects.equals(this.dataDir, other.dataDir)
                 && Objects.equals(this.keepInitial, other.keepInitial)
-                && Objects.equals(this.dataformat, other.dataformat);
+                && Objects.equals(this.dataformat, other.dataformat)
+                && Objects.equals(this.writeAheadLog, other.writeAheadLog)
+                && Objects.equals(this.compactionThreshold, other.compactionThreshold)
+                && Objects.equals(this.flushInterval, other.flushInterval)
+                && Objects.equals(this.flushThreshold, other.flushThreshold)
+                && Objects.equals(this.binarySnapshot, other.binarySnapshot)
+                && Objects.equals(this.lazyLoading, other.lazyLoading)
+                && Objects.equals(this.lazyLoadingCacheSize, other.lazyLoadingCacheSize);
     }
 
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), this.dataDir, this.keepInitial, this.dataformat);
+        return Objects.hash(super.hashCode(), this.dataDir, this.keepInitial, this.dataformat, this.writeAheadLog, this.compactionThreshold, this.flushInterval,
+                this.flushThreshold, this.binarySnapshot, this.lazyLoading, this.lazyLoadingCacheSize);
     }
 
 
@@ -167,6 +331,48 @@ public class PersistenceFileConfig extends PersistenceConfig<PersistenceFile> {
             return getSelf();
         }
 
+
+        public B writeAheadLog(boolean value) {
+            getBuildingInstance().setWriteAheadLog(value);
+            return getSelf();
+        }
+
+
+        public B compactionThreshold(int value) {
+            getBuildingInstance().setCompactionThreshold(value);
+            return getSelf();
+        }
+
+
+        public B flushInterval(long value) {
+            getBuildingInstance().setFlushInterval(value);
+            return getSelf();
+        }
+
+
+        public B flushThreshold(int value) {
+            getBuildingInstance().setFlushThreshold(value);
+            return getSelf();
+        }
+
+
+        public B binarySnapshot(boolean value) {
+            getBuildingInstance().setBinarySnapshot(value);
+            return getSelf();
+        }
+
+
+        public B lazyLoading(boolean value) {
+            getBuildingInstance().setLazyLoading(value);
+            return getSelf();
+        }
+
+
+        public B lazyLoadingCacheSize(int value) {
+            getBuildingInstance().setLazyLoadingCacheSize(value);
+            return getSelf();
+        }
+
     }
 
     public static class Builder extends AbstractBuilder<PersistenceFileConfig, Builder> {
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.file;
+
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Append-only log of changes to the environment, stored as one record per line. A record contains all
+ * {@link WriteAheadLogEntry entries} appended at once, e.g. all changes of a transaction, and is replayed either
+ * completely or not at all. Each append is forced to disk before returning so that the changes survive a crash. The log
+ * is replayed on top of the last snapshot on startup and cleared once a new snapshot has been written.
+ */
+public class WriteAheadLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final String LINE_SEPARATOR = "\n";
+    private final Path path;
+    private int size;
+
+    public WriteAheadLog(Path path) {
+        Ensure.requireNonNull(path, "path must be non-null");
+        this.path = path;
+    }
+
+
+    public Path getPath() {
+        return path;
+    }
+
+
+    /**
+     * Gets the number of entries appended since the log has been read or cleared the last time.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+
+    /**
+     * Appends an entry to the log.
+     *
+     * @param entry the entry
+     * @throws IOException if writing to the log fails
+     * @throws SerializationException if serializing the entry fails
+     */
+    public synchronized void append(WriteAheadLogEntry entry) throws IOException, SerializationException {
+        Ensure.requireNonNull(entry, "entry must be non-null");
+        appendAll(List.of(entry));
+    }
+
+
+    /**
+     * Appends multiple entries to the log as a single record. The record is forced to disk once after it has been
+     * written completely.
+     *
+     * @param entries the entries
+     * @throws IOException if writing to the log fails
+     * @throws SerializationException if serializing any of the entries fails
+     */
+    public synchronized void appendAll(List<WriteAheadLogEntry> entries) throws IOException, SerializationException {
+        Ensure.requireNonNull(entries, "entries must be non-null");
+        if (entries.isEmpty()) {
+            return;
+        }
+        String content = WriteAheadLogEntry.serializeAll(entries) + LINE_SEPARATOR;
+        ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        size += entries.size();
+    }
+
+
+    /**
+     * Reads all entries of the log. An incomplete or corrupt last record, e.g. caused by a crash while appending, is
+     * skipped with all its entries.
+     *
+     * @return the entries in the order they have been appended
+     * @throws IOException if reading the log fails
+     * @throws DeserializationException if a record other than the last one is corrupt
+     */
+    public synchronized List<WriteAheadLogEntry> read() throws IOException, DeserializationException {
+        List<WriteAheadLogEntry> result = new ArrayList<>();
+        if (!Files.exists(path)) {
+            size = 0;
+            return result;
+        }
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            try {
+                result.addAll(WriteAheadLogEntry.deserializeAll(lines.get(i)));
+            }
+            catch (DeserializationException e) {
+                if (i < lines.size() - 1) {
+                    throw e;
+                }
+                LOGGER.warn("skipping incomplete last record of write-ahead log {}", path, e);
+            }
+        }
+        size = result.size();
+        return result;
+    }
+
+
+    /**
+     * Removes all entries from the log.
+     *
+     * @throws IOException if deleting the log fails
+     */
+    public synchronized void clear() throws IOException {
+        Files.deleteIfExists(path);
+        size = 0;
+    }
+}
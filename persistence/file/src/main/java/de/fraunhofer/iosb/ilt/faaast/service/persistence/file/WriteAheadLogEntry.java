@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.file;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.SerializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import io.adminshell.aas.v3.dataformat.core.ReflectionHelper;
+import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
+import io.adminshell.aas.v3.dataformat.json.JsonDeserializer;
+import io.adminshell.aas.v3.dataformat.json.JsonSerializer;
+import io.adminshell.aas.v3.model.Identifiable;
+import io.adminshell.aas.v3.model.Identifier;
+import io.adminshell.aas.v3.model.IdentifierType;
+import io.adminshell.aas.v3.model.Referable;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Single change to the environment recorded in the {@link WriteAheadLog}. Each entry is serialized as a JSON object,
+ * entries appended at once are serialized as a JSON array.
+ */
+public class WriteAheadLogEntry {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_ID_TYPE = "idType";
+    private static final String FIELD_IDENTIFIER = "identifier";
+    private static final String FIELD_PARENT = "parent";
+    private static final String FIELD_REFERENCE = "reference";
+    private static final String FIELD_ELEMENT_TYPE = "elementType";
+    private static final String FIELD_ELEMENT = "element";
+
+    private final Type type;
+    private final Identifier identifier;
+    private final Reference parent;
+    private final Reference reference;
+    private final Referable element;
+
+    private WriteAheadLogEntry(Type type, Identifier identifier, Reference parent, Reference reference, Referable element) {
+        this.type = type;
+        this.identifier = identifier;
+        this.parent = parent;
+        this.reference = reference;
+        this.element = element;
+    }
+
+
+    /**
+     * Creates an entry for adding or replacing an identifiable.
+     *
+     * @param identifiable the identifiable
+     * @return the entry
+     */
+    public static WriteAheadLogEntry putIdentifiable(Identifiable identifiable) {
+        Ensure.requireNonNull(identifiable, "identifiable must be non-null");
+        return new WriteAheadLogEntry(Type.PUT_IDENTIFIABLE, null, null, null, identifiable);
+    }
+
+
+    /**
+     * Creates an entry for removing an identifiable.
+     *
+     * @param identifier the identifier of the identifiable
+     * @return the entry
+     */
+    public static WriteAheadLogEntry removeIdentifiable(Identifier identifier) {
+        Ensure.requireNonNull(identifier, "identifier must be non-null");
+        return new WriteAheadLogEntry(Type.REMOVE_IDENTIFIABLE, identifier, null, null, null);
+    }
+
+
+    /**
+     * Creates an entry for adding or replacing a submodel element.
+     *
+     * @param parent reference to the parent, may be null
+     * @param reference reference to the submodel element, may be null
+     * @param submodelElement the submodel element
+     * @return the entry
+     */
+    public static WriteAheadLogEntry putSubmodelElement(Reference parent, Reference reference, SubmodelElement submodelElement) {
+        Ensure.requireNonNull(submodelElement, "submodelElement must be non-null");
+        Ensure.require(parent != null || reference != null, "either parent or reference must be non-null");
+        return new WriteAheadLogEntry(Type.PUT_SUBMODEL_ELEMENT, null, parent, reference, submodelElement);
+    }
+
+
+    /**
+     * Creates an entry for removing a referable.
+     *
+     * @param reference reference to the referable
+     * @return the entry
+     */
+    public static WriteAheadLogEntry removeReferable(Reference reference) {
+        Ensure.requireNonNull(reference, "reference must be non-null");
+        return new WriteAheadLogEntry(Type.REMOVE_REFERABLE, null, null, reference, null);
+    }
+
+
+    public Type getType() {
+        return type;
+    }
+
+
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+
+    public Reference getParent() {
+        return parent;
+    }
+
+
+    public Reference getReference() {
+        return reference;
+    }
+
+
+    public Referable getElement() {
+        return element;
+    }
+
+
+    /**
+     * Serializes the entry to a single line of JSON.
+     *
+     * @return the serialized entry
+     * @throws SerializationException if serialization fails
+     */
+    public String serialize() throws SerializationException {
+        try {
+            return MAPPER.writeValueAsString(toJson());
+        }
+        catch (JsonProcessingException e) {
+            throw new SerializationException("serializing write-ahead log entry failed", e);
+        }
+    }
+
+
+    /**
+     * Serializes multiple entries to a single line of JSON. A single entry is serialized as by {@link #serialize()},
+     * multiple entries as a JSON array.
+     *
+     * @param entries the entries
+     * @return the serialized entries
+     * @throws SerializationException if serialization fails
+     */
+    public static String serializeAll(List<WriteAheadLogEntry> entries) throws SerializationException {
+        Ensure.requireNonNull(entries, "entries must be non-null");
+        if (entries.size() == 1) {
+            return entries.get(0).serialize();
+        }
+        ArrayNode result = MAPPER.createArrayNode();
+        for (WriteAheadLogEntry entry: entries) {
+            result.add(entry.toJson());
+        }
+        try {
+            return MAPPER.writeValueAsString(result);
+        }
+        catch (JsonProcessingException e) {
+            throw new SerializationException("serializing write-ahead log entries failed", e);
+        }
+    }
+
+
+    private ObjectNode toJson() throws SerializationException {
+        ObjectNode result = MAPPER.createObjectNode();
+        result.put(FIELD_TYPE, type.name());
+        if (identifier != null) {
+            result.put(FIELD_ID_TYPE, identifier.getIdType().name());
+            result.put(FIELD_IDENTIFIER, identifier.getIdentifier());
+        }
+        if (parent != null) {
+            result.put(FIELD_PARENT, AasUtils.asString(parent));
+        }
+        if (reference != null) {
+            result.put(FIELD_REFERENCE, AasUtils.asString(reference));
+        }
+        try {
+            if (element != null) {
+                result.put(FIELD_ELEMENT_TYPE, ReflectionHelper.getAasInterface(element.getClass()).getName());
+                result.set(FIELD_ELEMENT, MAPPER.readTree(new JsonSerializer().write(element)));
+            }
+            return result;
+        }
+        catch (JsonProcessingException | io.adminshell.aas.v3.dataformat.SerializationException e) {
+            throw new SerializationException("serializing write-ahead log entry failed", e);
+        }
+    }
+
+
+    /**
+     * Deserializes an entry from a single line of JSON.
+     *
+     * @param value the serialized entry
+     * @return the entry
+     * @throws DeserializationException if deserialization fails
+     */
+    public static WriteAheadLogEntry deserialize(String value) throws DeserializationException {
+        try {
+            return fromJson(MAPPER.readTree(value));
+        }
+        catch (JsonProcessingException e) {
+            throw new DeserializationException("deserializing write-ahead log entry failed", e);
+        }
+    }
+
+
+    /**
+     * Deserializes all entries from a single line of JSON as written by {@link #serializeAll(List)}.
+     *
+     * @param value the serialized entries
+     * @return the entries
+     * @throws DeserializationException if deserialization fails
+     */
+    public static List<WriteAheadLogEntry> deserializeAll(String value) throws DeserializationException {
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(value);
+        }
+        catch (JsonProcessingException e) {
+            throw new DeserializationException("deserializing write-ahead log entries failed", e);
+        }
+        if (node == null || !node.isArray()) {
+            return List.of(fromJson(node));
+        }
+        List<WriteAheadLogEntry> result = new ArrayList<>(node.size());
+        for (JsonNode element: node) {
+            result.add(fromJson(element));
+        }
+        return result;
+    }
+
+
+    private static WriteAheadLogEntry fromJson(JsonNode node) throws DeserializationException {
+        try {
+            Type type = Type.valueOf(node.get(FIELD_TYPE).asText());
+            Identifier identifier = null;
+            if (node.hasNonNull(FIELD_IDENTIFIER)) {
+                identifier = new DefaultIdentifier.Builder()
+                        .idType(IdentifierType.valueOf(node.get(FIELD_ID_TYPE).asText()))
+                        .identifier(node.get(FIELD_IDENTIFIER).asText())
+                        .build();
+            }
+            Reference parent = node.hasNonNull(FIELD_PARENT) ? AasUtils.parseReference(node.get(FIELD_PARENT).asText()) : null;
+            Reference reference = node.hasNonNull(FIELD_REFERENCE) ? AasUtils.parseReference(node.get(FIELD_REFERENCE).asText()) : null;
+            Referable element = null;
+            if (node.hasNonNull(FIELD_ELEMENT)) {
+                Class<? extends Referable> elementType = Class.forName(node.get(FIELD_ELEMENT_TYPE).asText()).asSubclass(Referable.class);
+                element = new JsonDeserializer().readReferable(node.get(FIELD_ELEMENT).toString(), elementType);
+            }
+            return new WriteAheadLogEntry(type, identifier, parent, reference, element);
+        }
+        catch (io.adminshell.aas.v3.dataformat.DeserializationException | ClassNotFoundException | ClassCastException | IllegalArgumentException
+                | NullPointerException e) {
+            throw new DeserializationException("deserializing write-ahead log entry failed", e);
+        }
+    }
+
+    /**
+     * Type of change.
+     */
+    public enum Type {
+        PUT_IDENTIFIABLE,
+        REMOVE_IDENTIFIABLE,
+        PUT_SUBMODEL_ELEMENT,
+        REMOVE_REFERABLE
+    }
+}
@@ -21,16 +21,32 @@ import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.AASFull;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.serialization.DataFormat;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.AbstractInMemoryPersistenceBaseTest;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.PersistenceConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ExtendHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
 import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.Identifiable;
 import io.adminshell.aas.v3.model.Identifier;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.Assert;
@@ -150,12 +166,350 @@ public class PersistenceFileTest extends AbstractInMemoryPersistenceBaseTest {
     }
 
 
+    private PersistenceFileConfig createWriteAheadLogConfig(int compactionThreshold) {
+        return PersistenceFileConfig.builder()
+                .initialModel(ENV_FILE_JSON)
+                .dataDir(SRC_TEST_RESOURCES)
+                .keepInitial(true)
+                .writeAheadLog(true)
+                .compactionThreshold(compactionThreshold)
+                .build();
+    }
+
+
+    private SubmodelElement putChangedSubmodelElement() throws ResourceNotFoundException {
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        SubmodelElement submodelElement = environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().getIdentifier().equalsIgnoreCase(submodelId))
+                .findFirst()
+                .get()
+                .getSubmodelElements()
+                .get(0);
+        SubmodelElement result = DeepCopyHelper.deepCopy(submodelElement, submodelElement.getClass());
+        result.setCategory("NewCategory");
+        persistence.put(null, ReferenceHelper.build(aasId, submodelId, submodelElement.getIdShort()), result);
+        return result;
+    }
+
+
+    @Test
+    public void writeAheadLogRecoveryTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = createWriteAheadLogConfig(100);
+        init(config);
+        Path walPath = config.getWriteAheadLogPath();
+        String snapshot = Files.readString(config.getFilePath());
+        Identifier identifier = environment.getAssetAdministrationShells().get(0).getIdentification();
+        persistence.remove(identifier);
+        SubmodelElement expected = putChangedSubmodelElement();
+        Assert.assertEquals(snapshot, Files.readString(config.getFilePath()));
+        Assert.assertEquals(2, Files.readAllLines(walPath).size());
+        // simulate crash while appending
+        Files.writeString(walPath, "{\"type\":\"REMOVE_", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        init(config);
+        Reference reference = ReferenceHelper.build(
+                "https://acplt.org/Test_AssetAdministrationShell_Mandatory",
+                "https://acplt.org/Test_Submodel_Mandatory",
+                expected.getIdShort());
+        Assert.assertThrows(ResourceNotFoundException.class, () -> persistence.get(identifier, QueryModifier.DEFAULT));
+        Assert.assertEquals(expected, persistence.get(reference, QueryModifier.DEFAULT));
+        Assert.assertFalse(Files.exists(walPath));
+        Assert.assertNotEquals(snapshot, Files.readString(config.getFilePath()));
+    }
+
+
+    private Map<Reference, SubmodelElement> createChangedSubmodelElements() {
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        Submodel submodel = environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().getIdentifier().equalsIgnoreCase(submodelId))
+                .findFirst()
+                .get();
+        Map<Reference, SubmodelElement> result = new LinkedHashMap<>();
+        for (SubmodelElement submodelElement: submodel.getSubmodelElements().subList(0, 2)) {
+            SubmodelElement changed = DeepCopyHelper.deepCopy(submodelElement, submodelElement.getClass());
+            changed.setCategory("NewCategory");
+            result.put(ReferenceHelper.build(aasId, submodelId, submodelElement.getIdShort()), changed);
+        }
+        return result;
+    }
+
+
+    @Test
+    public void writeAheadLogPutAllTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = createWriteAheadLogConfig(100);
+        init(config);
+        Map<Reference, SubmodelElement> expected = createChangedSubmodelElements();
+        persistence.putAll(expected);
+        Assert.assertEquals(1, Files.readAllLines(config.getWriteAheadLogPath()).size());
+
+        init(config);
+        for (Map.Entry<Reference, SubmodelElement> entry: expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), persistence.get(entry.getKey(), QueryModifier.DEFAULT));
+        }
+    }
+
+
+    @Test
+    public void writeAheadLogIncompleteTransactionTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = createWriteAheadLogConfig(100);
+        init(config);
+        Path walPath = config.getWriteAheadLogPath();
+        Map<Reference, SubmodelElement> changes = createChangedSubmodelElements();
+        persistence.putAll(changes);
+        String content = Files.readString(walPath);
+        // simulate crash while appending the changes of the transaction
+        Files.writeString(walPath, content.substring(0, content.length() / 2), StandardCharsets.UTF_8);
+
+        init(config);
+        for (Map.Entry<Reference, SubmodelElement> entry: changes.entrySet()) {
+            Assert.assertNotEquals(entry.getValue(), persistence.get(entry.getKey(), QueryModifier.DEFAULT));
+        }
+    }
+
+
+    @Test
+    public void writeAheadLogCompactionTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = createWriteAheadLogConfig(2);
+        init(config);
+        Path walPath = config.getWriteAheadLogPath();
+        putChangedSubmodelElement();
+        Assert.assertTrue(Files.exists(walPath));
+        persistence.remove(environment.getAssetAdministrationShells().get(0).getIdentification());
+        Assert.assertFalse(Files.exists(walPath));
+    }
+
+
+    @Test
+    public void writeAheadLogFailureTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = createWriteAheadLogConfig(100);
+        init(config);
+        Path walPath = config.getWriteAheadLogPath();
+        // appending to a directory fails
+        Files.createDirectories(walPath);
+        try {
+            String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+            Reference reference = ReferenceHelper.build(
+                    "https://acplt.org/Test_AssetAdministrationShell_Mandatory",
+                    submodelId,
+                    environment.getSubmodels().stream()
+                            .filter(x -> x.getIdentification().getIdentifier().equalsIgnoreCase(submodelId))
+                            .findFirst()
+                            .get()
+                            .getSubmodelElements()
+                            .get(0)
+                            .getIdShort());
+            Identifier identifier = environment.getAssetAdministrationShells().get(0).getIdentification();
+            SubmodelElement expectedElement = persistence.get(reference, QueryModifier.DEFAULT);
+            Identifiable expectedShell = persistence.get(identifier, QueryModifier.DEFAULT);
+            Assert.assertThrows(IllegalStateException.class, () -> putChangedSubmodelElement());
+            Assert.assertThrows(IllegalStateException.class, () -> persistence.remove(identifier));
+            Assert.assertEquals(expectedElement, persistence.get(reference, QueryModifier.DEFAULT));
+            Assert.assertEquals(expectedShell, persistence.get(identifier, QueryModifier.DEFAULT));
+        }
+        finally {
+            Files.delete(walPath);
+        }
+    }
+
+
+    private PersistenceFileConfig createFlushConfig(int flushThreshold) {
+        return PersistenceFileConfig.builder()
+                .initialModel(ENV_FILE_JSON)
+                .dataDir(SRC_TEST_RESOURCES)
+                .keepInitial(true)
+                .flushInterval(60000)
+                .flushThreshold(flushThreshold)
+                .build();
+    }
+
+
+    @Test
+    public void flushOnStopTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = createFlushConfig(100);
+        init(config);
+        String snapshot = Files.readString(config.getFilePath());
+        SubmodelElement expected = putChangedSubmodelElement();
+        Assert.assertEquals(snapshot, Files.readString(config.getFilePath()));
+        persistence.stop();
+        Assert.assertNotEquals(snapshot, Files.readString(config.getFilePath()));
+        Assert.assertFalse(Files.exists(Path.of(config.getFilePath() + ".tmp")));
+        init(config);
+        Reference reference = ReferenceHelper.build(
+                "https://acplt.org/Test_AssetAdministrationShell_Mandatory",
+                "https://acplt.org/Test_Submodel_Mandatory",
+                expected.getIdShort());
+        Assert.assertEquals(expected, persistence.get(reference, QueryModifier.DEFAULT));
+        persistence.stop();
+    }
+
+
+    @Test
+    public void flushOnThresholdTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException, InterruptedException {
+        PersistenceFileConfig config = createFlushConfig(2);
+        init(config);
+        String snapshot = Files.readString(config.getFilePath());
+        putChangedSubmodelElement();
+        Assert.assertEquals(snapshot, Files.readString(config.getFilePath()));
+        persistence.remove(environment.getAssetAdministrationShells().get(0).getIdentification());
+        long timeout = System.currentTimeMillis() + 5000;
+        while (snapshot.equals(Files.readString(config.getFilePath())) && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+        }
+        Assert.assertNotEquals(snapshot, Files.readString(config.getFilePath()));
+        persistence.stop();
+    }
+
+
+    @Test
+    public void binarySnapshotRoundTripTest() throws Exception {
+        Path file = Files.createTempFile("environment", ".smile");
+        try {
+            BinarySnapshot snapshot = new BinarySnapshot();
+            snapshot.write(file, AASFull.createEnvironment());
+            Assert.assertEquals(AASFull.createEnvironment(), snapshot.read(file));
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+
+    @Test
+    public void binarySnapshotTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = PersistenceFileConfig.builder()
+                .initialModel(ENV_FILE_JSON)
+                .dataDir(SRC_TEST_RESOURCES)
+                .keepInitial(true)
+                .binarySnapshot(true)
+                .build();
+        init(config);
+        Assert.assertTrue(Files.exists(config.getSnapshotPath()));
+        String modelFile = Files.readString(config.getFilePath());
+        SubmodelElement expected = putChangedSubmodelElement();
+        Assert.assertEquals(modelFile, Files.readString(config.getFilePath()));
+
+        init(config);
+        Reference reference = ReferenceHelper.build(
+                "https://acplt.org/Test_AssetAdministrationShell_Mandatory",
+                "https://acplt.org/Test_Submodel_Mandatory",
+                expected.getIdShort());
+        Assert.assertEquals(expected, persistence.get(reference, QueryModifier.DEFAULT));
+        persistence.stop();
+        Assert.assertNotEquals(modelFile, Files.readString(config.getFilePath()));
+        Assert.assertTrue(config.getSnapshotPath().toFile().lastModified() >= config.getFilePath().toFile().lastModified());
+
+        FileTime exported = Files.getLastModifiedTime(config.getFilePath());
+        init(config);
+        persistence.stop();
+        Assert.assertEquals(exported, Files.getLastModifiedTime(config.getFilePath()));
+    }
+
+
+    private PersistenceFileConfig createLazyLoadingConfig(int cacheSize) {
+        return PersistenceFileConfig.builder()
+                .initialModel(ENV_FILE_JSON)
+                .dataDir(SRC_TEST_RESOURCES)
+                .keepInitial(true)
+                .lazyLoading(true)
+                .lazyLoadingCacheSize(cacheSize)
+                .build();
+    }
+
+
+    @Test
+    public void lazyLoadingTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, IOException {
+        PersistenceFileConfig config = createLazyLoadingConfig(100);
+        init(config);
+        Assert.assertTrue(Files.isDirectory(config.getSplitPath()));
+        String modelFile = Files.readString(config.getFilePath());
+        SubmodelElement expected = putChangedSubmodelElement();
+        persistence.remove(environment.getAssetAdministrationShells().get(0).getIdentification());
+        Assert.assertEquals(modelFile, Files.readString(config.getFilePath()));
+
+        init(config);
+        Reference reference = ReferenceHelper.build(
+                "https://acplt.org/Test_AssetAdministrationShell_Mandatory",
+                "https://acplt.org/Test_Submodel_Mandatory",
+                expected.getIdShort());
+        Assert.assertEquals(expected, persistence.get(reference, QueryModifier.DEFAULT));
+        Assert.assertThrows(ResourceNotFoundException.class,
+                () -> persistence.get(environment.getAssetAdministrationShells().get(0).getIdentification(), QueryModifier.DEFAULT));
+        Assert.assertEquals(environment.getSubmodels().size(), persistence.getEnvironment().getSubmodels().size());
+        persistence.stop();
+    }
+
+
+    @Test
+    public void lazyLoadingEvictionTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException, InterruptedException {
+        PersistenceFileConfig config = createLazyLoadingConfig(1);
+        init(config);
+        SubmodelElement expected = putChangedSubmodelElement();
+        Reference reference = ReferenceHelper.build(
+                "https://acplt.org/Test_AssetAdministrationShell_Mandatory",
+                "https://acplt.org/Test_Submodel_Mandatory",
+                expected.getIdShort());
+        List<Submodel> submodels = persistence.get(null, (Reference) null, QueryModifier.DEFAULT);
+        Assert.assertTrue(submodels.size() > 1);
+        for (int i = 0; i < 3; i++) {
+            for (Submodel submodel: submodels) {
+                Assert.assertEquals(submodel, persistence.get(submodel.getIdentification(), QueryModifier.DEFAULT));
+            }
+            Thread.sleep(50);
+            Assert.assertEquals(expected, persistence.get(reference, QueryModifier.DEFAULT));
+        }
+        persistence.stop();
+    }
+
+
+    @Test
+    public void lazyLoadingQueryTest() throws ResourceNotFoundException, ConfigurationException, AssetConnectionException {
+        PersistenceFileConfig config = createLazyLoadingConfig(1);
+        init(config);
+        List<Submodel> actual = new ArrayList<>();
+        PagingInfo pagingInfo = PagingInfo.builder()
+                .limit(1)
+                .build();
+        Page<Submodel> page;
+        do {
+            page = persistence.get(null, (Reference) null, QueryModifier.DEFAULT, pagingInfo);
+            actual.addAll(page.getContent());
+            pagingInfo = PagingInfo.builder()
+                    .limit(1)
+                    .cursor(page.getMetadata().getCursor())
+                    .build();
+        } while (page.getMetadata().hasMore());
+        List<Submodel> fromEnvironment = persistence.getEnvironment().getSubmodels();
+        ExtendHelper.withoutBlobValue(fromEnvironment);
+        Assert.assertEquals(environment.getSubmodels().size(), actual.size());
+        Assert.assertTrue(actual.stream().anyMatch(x -> !x.getSubmodelElements().isEmpty()));
+        for (int i = 0; i < actual.size(); i++) {
+            Submodel expected = (Submodel) persistence.get(actual.get(i).getIdentification(), QueryModifier.DEFAULT);
+            Assert.assertEquals(expected, actual.get(i));
+            Assert.assertEquals(expected.getSubmodelElements(), fromEnvironment.get(i).getSubmodelElements());
+        }
+        persistence.stop();
+    }
+
+
+    @Test
+    public void lazyLoadingWithCopyOnWriteTest() {
+        PersistenceFileConfig config = createLazyLoadingConfig(100);
+        config.setCopyOnWrite(true);
+        Assert.assertThrows(IllegalArgumentException.class, () -> init(config));
+    }
+
+
     @After
     public void cleanUp() throws IOException {
         Files.deleteIfExists(Path.of(PersistenceFileConfig.builder()
                 .build().getDataDir(), PersistenceFileConfig.DEFAULT_FILENAME));
         if (persistence != null) {
             Files.deleteIfExists(((PersistenceFile) persistence).getConfig().getFilePath());
+            Files.deleteIfExists(((PersistenceFile) persistence).getConfig().getWriteAheadLogPath());
+            Files.deleteIfExists(((PersistenceFile) persistence).getConfig().getSnapshotPath());
+            FileUtils.deleteDirectory(((PersistenceFile) persistence).getConfig().getSplitPath().toFile());
         }
     }
 
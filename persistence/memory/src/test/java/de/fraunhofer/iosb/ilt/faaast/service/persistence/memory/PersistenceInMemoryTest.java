@@ -20,9 +20,11 @@ import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationInitializationException;
 import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.TransactionConflictException;
 import de.fraunhofer.iosb.ilt.faaast.service.model.AASFull;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Message;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.Result;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Extent;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Level;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.OutputModifier;
@@ -30,12 +32,17 @@ import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.ExecutionState;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationHandle;
 import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationResult;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.Page;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.paging.PagingInfo;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.model.asset.GlobalAssetIdentification;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.blob.StoredBlob;
 import de.fraunhofer.iosb.ilt.faaast.service.persistence.memory.util.ReferenceBuilderHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
 import de.fraunhofer.iosb.ilt.faaast.service.util.ExtendHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.IdentifierHelper;
 import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
 import io.adminshell.aas.v3.model.AssetAdministrationShell;
 import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
@@ -50,11 +57,18 @@ import io.adminshell.aas.v3.model.Reference;
 import io.adminshell.aas.v3.model.Submodel;
 import io.adminshell.aas.v3.model.SubmodelElement;
 import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultBlob;
 import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
 import io.adminshell.aas.v3.model.impl.DefaultKey;
+import io.adminshell.aas.v3.model.impl.DefaultProperty;
 import io.adminshell.aas.v3.model.impl.DefaultReference;
+import io.adminshell.aas.v3.model.impl.DefaultSubmodelElementCollection;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Before;
@@ -343,6 +357,72 @@ public class PersistenceInMemoryTest {
     }
 
 
+    @Test
+    public void getSubmodelsPagedTest() {
+        List<Submodel> expected = environment.getSubmodels();
+        ExtendHelper.withoutBlobValue(expected);
+        List<Submodel> actual = new ArrayList<>();
+        PagingInfo pagingInfo = PagingInfo.builder()
+                .limit(2)
+                .build();
+        Page<Submodel> page;
+        do {
+            page = persistence.get(null, (Reference) null, QueryModifier.DEFAULT, pagingInfo);
+            Assert.assertTrue(page.getContent().size() <= 2);
+            actual.addAll(page.getContent());
+            pagingInfo = PagingInfo.builder()
+                    .limit(2)
+                    .cursor(page.getMetadata().getCursor())
+                    .build();
+        } while (page.getMetadata().hasMore());
+        Assert.assertEquals(expected, actual);
+    }
+
+
+    @Test
+    public void getSubmodelsPagedWithModificationsBetweenPagesTest() throws ResourceNotFoundException {
+        List<Submodel> all = persistence.get(null, (Reference) null, QueryModifier.DEFAULT);
+        Page<Submodel> page = persistence.get(null, (Reference) null, QueryModifier.DEFAULT, PagingInfo.builder()
+                .limit(2)
+                .build());
+        List<Submodel> actual = new ArrayList<>(page.getContent());
+        persistence.remove(all.get(0).getIdentification());
+        Submodel added = DeepCopyHelper.deepCopy(all.get(0), Submodel.class);
+        added.setIdentification(new DefaultIdentifier.Builder()
+                .identifier("http://example.org/added")
+                .idType(IdentifierType.IRI)
+                .build());
+        persistence.put(added);
+        while (page.getMetadata().hasMore()) {
+            page = persistence.get(null, (Reference) null, QueryModifier.DEFAULT, PagingInfo.builder()
+                    .limit(2)
+                    .cursor(page.getMetadata().getCursor())
+                    .build());
+            actual.addAll(page.getContent());
+        }
+        List<Submodel> expected = new ArrayList<>(all);
+        expected.add(added);
+        Assert.assertEquals(expected, actual);
+    }
+
+
+    @Test
+    public void getSubmodelElementsPagedWithModificationsBetweenPagesTest() throws ResourceNotFoundException {
+        Reference submodelReference = ReferenceBuilderHelper.build("TestAssetAdministrationShell", "http://acplt.org/Submodels/Assets/TestAsset/Identification");
+        List<SubmodelElement> all = persistence.getSubmodelElements(submodelReference, null, QueryModifier.DEFAULT);
+        Page<SubmodelElement> page = persistence.getSubmodelElements(submodelReference, null, QueryModifier.DEFAULT, PagingInfo.builder()
+                .limit(1)
+                .build());
+        Assert.assertEquals(List.of(all.get(0)), page.getContent());
+        persistence.remove(ReferenceBuilderHelper.build("TestAssetAdministrationShell", "http://acplt.org/Submodels/Assets/TestAsset/Identification", all.get(0).getIdShort()));
+        page = persistence.getSubmodelElements(submodelReference, null, QueryModifier.DEFAULT, PagingInfo.builder()
+                .limit(1)
+                .cursor(page.getMetadata().getCursor())
+                .build());
+        Assert.assertEquals(List.of(all.get(1)), page.getContent());
+    }
+
+
     @Test
     public void getSubmodelsWithIdShortTest() {
         String submodelIdShort = "TestSubmodel";
@@ -756,4 +836,298 @@ public class PersistenceInMemoryTest {
 
     }
 
+
+    @Test
+    public void copyOnWriteReadReturnsSharedInstanceTest() throws ConfigurationInitializationException, ResourceNotFoundException {
+        initCopyOnWrite();
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        Submodel first = (Submodel) persistence.get(submodelId, queryModifier);
+        Submodel second = (Submodel) persistence.get(submodelId, queryModifier);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().equals(submodelId))
+                .findFirst().get(),
+                first);
+    }
+
+
+    @Test
+    public void copyOnWriteWriteDoesNotModifyPreviousReadTest() throws ConfigurationInitializationException, ResourceNotFoundException {
+        initCopyOnWrite();
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        Identifier submodelIdentifier = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier(submodelId)
+                .build();
+        Submodel before = (Submodel) persistence.get(submodelIdentifier, queryModifier);
+        Submodel expectedBefore = DeepCopyHelper.deepCopy(before, Submodel.class);
+        AssetAdministrationShellEnvironment environmentBefore = persistence.getEnvironment();
+        int submodelCountBefore = environmentBefore.getSubmodels().size();
+        SubmodelElement newElement = DeepCopyHelper.deepCopy(before.getSubmodelElements().get(0), SubmodelElement.class);
+        newElement.setIdShort("NewIdShort");
+        persistence.put(ReferenceBuilderHelper.build(aasId, submodelId), null, newElement);
+        persistence.remove(submodelIdentifier);
+        Assert.assertEquals(expectedBefore, before);
+        Assert.assertEquals(submodelCountBefore, environmentBefore.getSubmodels().size());
+        Assert.assertThrows(ResourceNotFoundException.class, () -> persistence.get(submodelIdentifier, queryModifier));
+    }
+
+
+    @Test
+    public void copyOnWriteWriteCopiesOnlyPathToChangedElementTest() throws ConfigurationInitializationException, ResourceNotFoundException {
+        initCopyOnWrite();
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        String collectionIdShort = "ExampleSubmodelCollectionUnordered";
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        Identifier submodelIdentifier = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier(submodelId)
+                .build();
+        Submodel before = (Submodel) persistence.get(submodelIdentifier, queryModifier);
+        SubmodelElementCollection collectionBefore = (SubmodelElementCollection) persistence.get(
+                ReferenceBuilderHelper.build(aasId, submodelId, collectionIdShort), queryModifier);
+        SubmodelElement newElement = new DefaultProperty.Builder()
+                .idShort("NewIdShort")
+                .valueType("string")
+                .value("foo")
+                .build();
+        persistence.put(ReferenceBuilderHelper.build(aasId, submodelId, collectionIdShort), null, newElement);
+        Submodel after = (Submodel) persistence.get(submodelIdentifier, queryModifier);
+        SubmodelElementCollection collectionAfter = (SubmodelElementCollection) persistence.get(
+                ReferenceBuilderHelper.build(aasId, submodelId, collectionIdShort), queryModifier);
+        Assert.assertNotSame(before, after);
+        Assert.assertNotSame(collectionBefore, collectionAfter);
+        Assert.assertFalse(collectionBefore.getValues().contains(newElement));
+        Assert.assertTrue(collectionAfter.getValues().contains(newElement));
+        Assert.assertEquals(before.getSubmodelElements().size(), after.getSubmodelElements().size());
+        for (int i = 0; i < before.getSubmodelElements().size(); i++) {
+            if (before.getSubmodelElements().get(i) != collectionBefore) {
+                Assert.assertSame(before.getSubmodelElements().get(i), after.getSubmodelElements().get(i));
+            }
+        }
+        for (SubmodelElement element: collectionBefore.getValues()) {
+            Assert.assertTrue(collectionAfter.getValues().stream().anyMatch(x -> x == element));
+        }
+        Assert.assertEquals(newElement, persistence.get(ReferenceBuilderHelper.build(aasId, submodelId, collectionIdShort, newElement.getIdShort()), queryModifier));
+    }
+
+
+    @Test
+    public void copyOnWriteQueryModifierIsAppliedAsProjectionTest() throws ConfigurationInitializationException, ResourceNotFoundException {
+        initCopyOnWrite();
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        Submodel expected = environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().equals(submodelId))
+                .findFirst().get();
+        Submodel actual = (Submodel) persistence.get(submodelId, new QueryModifier.Builder()
+                .level(Level.CORE)
+                .extend(Extent.WITHOUT_BLOB_VALUE)
+                .build());
+        Assert.assertTrue(actual.getSubmodelElements().stream()
+                .filter(x -> SubmodelElementCollection.class.isAssignableFrom(x.getClass()))
+                .allMatch(x -> ((SubmodelElementCollection) x).getValues().isEmpty()));
+        Assert.assertEquals(expected, persistence.get(submodelId, new QueryModifier.Builder()
+                .extend(Extent.WITH_BLOB_VALUE)
+                .build()));
+    }
+
+
+    @Test
+    public void copyOnWriteTransactionDoesNotBlockReadersTest() throws Exception {
+        initCopyOnWrite();
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .idType(IdentifierType.IRI)
+                .identifier("https://acplt.org/Test_Submodel_Mandatory")
+                .build();
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        Submodel before = (Submodel) persistence.get(submodelId, queryModifier);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.remove(submodelId);
+            Identifiable concurrent = executor.submit(() -> persistence.get(submodelId, queryModifier)).get(5, TimeUnit.SECONDS);
+            Assert.assertSame(before, concurrent);
+            transaction.commit();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        Assert.assertThrows(ResourceNotFoundException.class, () -> persistence.get(submodelId, queryModifier));
+    }
+
+
+    @Test
+    public void copyOnWriteTransactionConflictTest() throws Exception {
+        initCopyOnWrite();
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        Reference submodelRef = ReferenceBuilderHelper.build(aasId, submodelId);
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        SubmodelElement element = ((Submodel) persistence.get(IdentifierHelper.parseIdentifier(submodelId), queryModifier)).getSubmodelElements().get(0);
+        SubmodelElement transactionElement = DeepCopyHelper.deepCopy(element, SubmodelElement.class);
+        transactionElement.setIdShort("TransactionElement");
+        SubmodelElement concurrentElement = DeepCopyHelper.deepCopy(element, SubmodelElement.class);
+        concurrentElement.setIdShort("ConcurrentElement");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.put(submodelRef, null, transactionElement);
+            executor.submit(() -> persistence.put(submodelRef, null, concurrentElement)).get(5, TimeUnit.SECONDS);
+            Assert.assertThrows(TransactionConflictException.class, transaction::commit);
+            Assert.assertFalse(transaction.isActive());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(concurrentElement, persistence.get(ReferenceBuilderHelper.build(aasId, submodelId, "ConcurrentElement"), queryModifier));
+        Assert.assertThrows(ResourceNotFoundException.class,
+                () -> persistence.get(ReferenceBuilderHelper.build(aasId, submodelId, "TransactionElement"), queryModifier));
+    }
+
+
+    @Test
+    public void copyOnWriteTransactionReadAfterWriteTest() throws Exception {
+        initCopyOnWrite();
+        Identifier submodelId = IdentifierHelper.parseIdentifier("https://acplt.org/Test_Submodel_Mandatory");
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.get(submodelId, QueryModifier.DEFAULT);
+            persistence.remove(submodelId);
+            Assert.assertThrows(IllegalStateException.class, () -> persistence.get(submodelId, QueryModifier.DEFAULT));
+        }
+        Assert.assertNotNull(persistence.get(submodelId, QueryModifier.DEFAULT));
+    }
+
+
+    @Test
+    public void copyOnWriteTransactionWriteToNewSubmodelTest() throws Exception {
+        initCopyOnWrite();
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        Submodel submodel = DeepCopyHelper.deepCopy(persistence.get(IdentifierHelper.parseIdentifier(submodelId), queryModifier), Submodel.class);
+        submodel.setIdentification(IdentifierHelper.parseIdentifier("https://acplt.org/NewSubmodel"));
+        SubmodelElement element = DeepCopyHelper.deepCopy(submodel.getSubmodelElements().get(0), SubmodelElement.class);
+        element.setIdShort("NewElement");
+        Reference newSubmodelRef = AasUtils.toReference(submodel);
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.put(submodel);
+            persistence.put(newSubmodelRef, null, element);
+            transaction.commit();
+        }
+        Assert.assertEquals(element, persistence.get(AasUtils.toReference(newSubmodelRef, element), queryModifier));
+    }
+
+
+    @Test
+    public void copyOnWriteTransactionResourceNotFoundOnCommitTest() throws Exception {
+        initCopyOnWrite();
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        Submodel before = (Submodel) persistence.get(IdentifierHelper.parseIdentifier(submodelId), queryModifier);
+        SubmodelElement element = DeepCopyHelper.deepCopy(before.getSubmodelElements().get(0), SubmodelElement.class);
+        element.setIdShort("NewElement");
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.remove(IdentifierHelper.parseIdentifier(submodelId));
+            persistence.put(AasUtils.toReference(before), null, element);
+            Assert.assertThrows(ResourceNotFoundException.class, transaction::commit);
+            Assert.assertFalse(transaction.isActive());
+        }
+        Assert.assertEquals(before, persistence.get(IdentifierHelper.parseIdentifier(submodelId), queryModifier));
+    }
+
+
+    @Test
+    public void copyOnWriteTransactionRollbackTest() throws Exception {
+        initCopyOnWrite();
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+        String submodelId = "https://acplt.org/Test_Submodel_Mandatory";
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        SubmodelElement element = DeepCopyHelper.deepCopy(
+                ((Submodel) persistence.get(IdentifierHelper.parseIdentifier(submodelId), queryModifier)).getSubmodelElements().get(0),
+                SubmodelElement.class);
+        element.setIdShort("TransactionElement");
+        ChangeSet initial = persistence.getChanges(null, 0, Integer.MAX_VALUE);
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.put(ReferenceBuilderHelper.build(aasId, submodelId), null, element);
+            transaction.rollback();
+        }
+        Assert.assertEquals(initial.getVersion(), persistence.getChanges(initial.getJournalId(), initial.getVersion(), Integer.MAX_VALUE).getVersion());
+        Assert.assertThrows(ResourceNotFoundException.class,
+                () -> persistence.get(ReferenceBuilderHelper.build(aasId, submodelId, "TransactionElement"), queryModifier));
+    }
+
+
+    @Test
+    public void blobStoreTest() throws ConfigurationInitializationException, ResourceNotFoundException {
+        persistence.init(CoreConfig.builder().build(),
+                PersistenceInMemoryConfig.builder()
+                        .environment(environment)
+                        .blobStore(true)
+                        .blobStoreMinSize(1)
+                        .build(),
+                serviceContext);
+        String aasId = "https://acplt.org/Test_AssetAdministrationShell";
+        String submodelId = "https://acplt.org/Test_Submodel3";
+        Reference reference = ReferenceBuilderHelper.build(aasId, submodelId, "ExampleSubmodelCollectionUnordered", "ExampleBlob");
+        Blob expected = (Blob) ((SubmodelElementCollection) environment.getSubmodels().stream()
+                .filter(x -> x.getIdentification().getIdentifier().equalsIgnoreCase(submodelId))
+                .findFirst().get()
+                .getSubmodelElements().stream()
+                .filter(x -> x.getIdShort().equalsIgnoreCase("ExampleSubmodelCollectionUnordered"))
+                .findFirst().get())
+                        .getValues().stream()
+                        .filter(x -> x.getIdShort().equalsIgnoreCase("ExampleBlob"))
+                        .findFirst().get();
+        QueryModifier queryModifier = new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build();
+        SubmodelElement actual = persistence.get(reference, queryModifier);
+        Assert.assertTrue(StoredBlob.class.isAssignableFrom(actual.getClass()));
+        Assert.assertNotNull(((StoredBlob) actual).getHandle());
+        Assert.assertNull(((StoredBlob) actual).getInlineValue());
+        Assert.assertArrayEquals(expected.getValue(), ((Blob) actual).getValue());
+        Assert.assertSame(((StoredBlob) actual).getHandle(), ((StoredBlob) DeepCopyHelper.deepCopy(actual, SubmodelElement.class)).getHandle());
+        Assert.assertNull(((Blob) persistence.get(reference, QueryModifier.DEFAULT)).getValue());
+
+        byte[] value = new byte[] {
+                1,
+                2,
+                3
+        };
+        Blob newBlob = new DefaultBlob.Builder()
+                .idShort("NewBlob")
+                .mimeType("application/octet-stream")
+                .value(value)
+                .build();
+        persistence.put(ReferenceBuilderHelper.build(aasId, submodelId), null, newBlob);
+        SubmodelElement actualNewBlob = persistence.get(ReferenceBuilderHelper.build(aasId, submodelId, "NewBlob"), queryModifier);
+        Assert.assertTrue(StoredBlob.class.isAssignableFrom(actualNewBlob.getClass()));
+        Assert.assertArrayEquals(value, ((Blob) actualNewBlob).getValue());
+        Assert.assertEquals(actualNewBlob, newBlob);
+
+        SubmodelElementCollection newCollection = new DefaultSubmodelElementCollection.Builder()
+                .idShort("NewCollection")
+                .value(newBlob)
+                .build();
+        persistence.put(ReferenceBuilderHelper.build(aasId, submodelId), null, newCollection);
+        Assert.assertSame(newBlob, newCollection.getValues().iterator().next());
+        Assert.assertTrue(
+                StoredBlob.class.isAssignableFrom(persistence.get(ReferenceBuilderHelper.build(aasId, submodelId, "NewCollection", "NewBlob"), queryModifier).getClass()));
+        persistence.stop();
+    }
+
+
+    private void initCopyOnWrite() throws ConfigurationInitializationException {
+        persistence.init(CoreConfig.builder().build(),
+                PersistenceInMemoryConfig.builder()
+                        .environment(environment)
+                        .copyOnWrite(true)
+                        .build(),
+                serviceContext);
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.mvstore;
+
+import io.adminshell.aas.v3.model.Identifiable;
+import java.util.Locale;
+import java.util.stream.Stream;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+
+/**
+ * Stores identifiables of a single type in an {@link MVStore}. Identifiables are kept in insertion order, i.e. they
+ * are stored under an increasing sequence number and a second map translates identifiers to sequence numbers.
+ * Identifiers are case-insensitive. Replacing an identifiable keeps its position.
+ *
+ * @param <T> type of the identifiables
+ */
+class IdentifiableMap<T extends Identifiable> {
+
+    private static final String INDEX_SUFFIX = ".index";
+    private final Class<T> type;
+    private final SmileCodec codec;
+    private final MVMap<Long, byte[]> values;
+    private final MVMap<String, Long> index;
+
+    IdentifiableMap(MVStore store, String name, Class<T> type, SmileCodec codec) {
+        this(type, codec, store.openMap(name), store.openMap(name + INDEX_SUFFIX));
+    }
+
+
+    private IdentifiableMap(Class<T> type, SmileCodec codec, MVMap<Long, byte[]> values, MVMap<String, Long> index) {
+        this.type = type;
+        this.codec = codec;
+        this.values = values;
+        this.index = index;
+    }
+
+
+    /**
+     * Creates a read-only view of the identifiables at the given version of the store. Must be called before the
+     * current version is modified.
+     *
+     * @param version the current version of the store
+     * @return the read-only view
+     */
+    IdentifiableMap<T> snapshot(long version) {
+        return new IdentifiableMap<>(type, codec, values.openVersion(version), index.openVersion(version));
+    }
+
+
+    /**
+     * Checks whether an identifiable with the given identifier exists.
+     *
+     * @param id the identifier
+     * @return true if it exists, otherwise false
+     */
+    boolean contains(String id) {
+        return id != null && index.containsKey(normalize(id));
+    }
+
+
+    /**
+     * Gets an identifiable by its identifier.
+     *
+     * @param id the identifier
+     * @return the identifiable or null if there is none
+     */
+    T get(String id) {
+        if (id == null) {
+            return null;
+        }
+        Long position = index.get(normalize(id));
+        if (position == null) {
+            return null;
+        }
+        byte[] value = values.get(position);
+        return value != null ? codec.decode(value, type) : null;
+    }
+
+
+    /**
+     * Streams all identifiables in insertion order. The stream reflects the state at the time this method is called
+     * and is not affected by later modifications.
+     *
+     * @return the identifiables
+     */
+    Stream<T> stream() {
+        return values.values().stream().map(x -> codec.decode(x, type));
+    }
+
+
+    /**
+     * Adds or replaces an identifiable.
+     *
+     * @param identifiable the identifiable
+     */
+    void put(T identifiable) {
+        put(identifiable, codec.encode(identifiable));
+    }
+
+
+    /**
+     * Adds or replaces an identifiable using an already encoded representation.
+     *
+     * @param identifiable the identifiable
+     * @param encoded the encoded representation of the identifiable
+     */
+    void put(T identifiable, byte[] encoded) {
+        String key = normalize(identifiable.getIdentification().getIdentifier());
+        Long position = index.get(key);
+        if (position == null) {
+            Long last = values.lastKey();
+            position = last != null ? last + 1 : 0L;
+            index.put(key, position);
+        }
+        values.put(position, encoded);
+    }
+
+
+    /**
+     * Removes an identifiable.
+     *
+     * @param id the identifier of the identifiable
+     * @return true if the identifiable existed, otherwise false
+     */
+    boolean remove(String id) {
+        if (id == null) {
+            return false;
+        }
+        Long position = index.remove(normalize(id));
+        if (position == null) {
+            return false;
+        }
+        values.remove(position);
+        return true;
+    }
+
+
+    /**
+     * Removes all identifiables.
+     */
+    void clear() {
+        values.clear();
+        index.clear();
+    }
+
+
+    private static String normalize(String id) {
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,937 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.mvstore;
+
+import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.DeserializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.dataformat.EnvironmentSerializationManager;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationInitializationException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.MessageBusException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.aasx.AASXPackage;
+import de.fraunhofer.iosb.ilt.faaast.service.model.aasx.PackageDescription;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeSet;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.change.ChangeType;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.history.ValueSample;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationHandle;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.operation.OperationResult;
+import de.fraunhofer.iosb.ilt.faaast.service.model.asset.AssetIdentification;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.history.ValueHistory;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.ChangeJournal;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.EnvironmentLocks;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.FilterHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.OperationResultStore;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.util.QueryModifierHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.typing.TypeExtractor;
+import de.fraunhofer.iosb.ilt.faaast.service.typing.TypeInfo;
+import de.fraunhofer.iosb.ilt.faaast.service.util.CollectionHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.Ensure;
+import de.fraunhofer.iosb.ilt.faaast.service.util.IdentifierHelper;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.dataformat.core.util.AasUtils;
+import io.adminshell.aas.v3.model.AnnotatedRelationshipElement;
+import io.adminshell.aas.v3.model.Asset;
+import io.adminshell.aas.v3.model.AssetAdministrationShell;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.ConceptDescription;
+import io.adminshell.aas.v3.model.Entity;
+import io.adminshell.aas.v3.model.Identifiable;
+import io.adminshell.aas.v3.model.Identifier;
+import io.adminshell.aas.v3.model.Key;
+import io.adminshell.aas.v3.model.KeyElements;
+import io.adminshell.aas.v3.model.Operation;
+import io.adminshell.aas.v3.model.OperationVariable;
+import io.adminshell.aas.v3.model.Referable;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultAssetAdministrationShellEnvironment;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Implementation of {@link Persistence} that keeps the AAS environment on disk in an embedded
+ * <a href="https://www.h2database.com/html/mvstore.html">MVStore</a> instead of in memory. This allows serving models
+ * that are larger than the available heap.
+ *
+ * <p>Submodels are stored element-wise (see {@link SubmodelStore}) so that reading or updating a single submodel
+ * element only requires to read or write the top-level element containing it. The most recently used submodels are
+ * cached in memory, the size of the cache can be configured via {@link PersistenceMVStoreConfig#getCacheSize()}.
+ * Changes are written to disk in the background and when the persistence is stopped.
+ *
+ * <p>Transactions make use of the multi-version concurrency control of MVStore, i.e. rolling back a transaction reverts
+ * the store to the version at the time the transaction has been started. While a transaction is active, writes of
+ * other threads are blocked but reads of other threads are served from a read-only snapshot of that version, i.e.
+ * they neither observe the changes of the transaction nor are blocked by it.
+ *
+ * <p>All changes are recorded in a {@link ChangeJournal} which is kept in memory, i.e. it starts empty after a restart.
+ *
+ * <p>Following types are not supported in the current version:
+ * <ul>
+ * <li>AASX packages
+ * <li>Package descriptors
+ * </ul>
+ */
+public class PersistenceMVStore implements Persistence<PersistenceMVStoreConfig> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceMVStore.class);
+    private static final String MSG_MODIFIER_NOT_NULL = "modifier must be non-null";
+    private static final String ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID = "Resource not found by id %s";
+    private static final String ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF = "Resource not found by reference %s";
+    private static final String SHELLS = "shells";
+    private static final String CONCEPT_DESCRIPTIONS = "conceptDescriptions";
+    private static final String ASSETS = "assets";
+    private final EnvironmentLocks environmentLocks;
+    // held exclusively by an active transaction and shared by all other writes
+    private final ReadWriteLock transactionLock;
+    private OperationResultStore operationResultStore;
+    private PersistenceMVStoreConfig config;
+    private ServiceContext context;
+    private MVStore store;
+    private IdentifiableMap<AssetAdministrationShell> shells;
+    private IdentifiableMap<ConceptDescription> conceptDescriptions;
+    private IdentifiableMap<Asset> assets;
+    private SubmodelStore submodels;
+    private StoreView live;
+    private ChangeJournal changeJournal;
+    private ValueHistory valueHistory;
+    private volatile MVStoreTransaction transaction;
+
+    public PersistenceMVStore() {
+        environmentLocks = new EnvironmentLocks();
+        transactionLock = new ReentrantReadWriteLock();
+        operationResultStore = new OperationResultStore(0, Integer.MAX_VALUE);
+        changeJournal = new ChangeJournal(0);
+        valueHistory = new ValueHistory(0, 0, 0);
+    }
+
+
+    @Override
+    public void init(CoreConfig coreConfig, PersistenceMVStoreConfig config, ServiceContext context) throws ConfigurationInitializationException {
+        Ensure.requireNonNull(coreConfig, "coreConfig must be non-null");
+        Ensure.requireNonNull(config, "config must be non-null");
+        Ensure.requireNonNull(context, "context must be non-null");
+        this.config = config;
+        this.context = context;
+        operationResultStore = new OperationResultStore(config.getOperationResultTtl(), config.getOperationResultMaxEntries());
+        changeJournal = new ChangeJournal(config.getChangeJournalMaxEntries());
+        valueHistory = new ValueHistory(config.getValueHistoryMaxSamples(), config.getValueHistoryResolution(), config.getValueHistoryRetention());
+        Path path = config.getStorePath().toAbsolutePath();
+        boolean exists = Files.exists(path);
+        Ensure.require(exists || config.getEnvironment() != null || config.getInitialModel() != null,
+                "Either AAS Environment, initial model or an existing store must be provided");
+        try {
+            Files.createDirectories(path.getParent());
+        }
+        catch (IOException e) {
+            throw new ConfigurationInitializationException(String.format("Error creating directory for store (path: %s)", path), e);
+        }
+        stop();
+        store = new MVStore.Builder()
+                .fileName(path.toString())
+                .open();
+        SmileCodec codec = new SmileCodec();
+        shells = new IdentifiableMap<>(store, SHELLS, AssetAdministrationShell.class, codec);
+        conceptDescriptions = new IdentifiableMap<>(store, CONCEPT_DESCRIPTIONS, ConceptDescription.class, codec);
+        assets = new IdentifiableMap<>(store, ASSETS, Asset.class, codec);
+        submodels = new SubmodelStore(store, codec, config.getCacheSize());
+        live = new StoreView(shells, conceptDescriptions, assets, submodels);
+        if (exists && !config.isOverrideExisting()) {
+            LOGGER.info("MVStore Persistence uses existing store {}", path);
+            return;
+        }
+        if (config.getEnvironment() != null || config.getInitialModel() != null) {
+            load(config);
+        }
+    }
+
+
+    private void load(PersistenceMVStoreConfig config) throws ConfigurationInitializationException {
+        AssetAdministrationShellEnvironment environment = config.getEnvironment();
+        if (environment == null) {
+            try {
+                environment = EnvironmentSerializationManager
+                        .deserialize(config.getInitialModel())
+                        .getEnvironment();
+            }
+            catch (DeserializationException e) {
+                throw new ConfigurationInitializationException("Error deserializing AAS Environment", e);
+            }
+        }
+        try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+            shells.clear();
+            conceptDescriptions.clear();
+            assets.clear();
+            submodels.clear();
+            environment.getAssetAdministrationShells().forEach(shells::put);
+            environment.getConceptDescriptions().forEach(conceptDescriptions::put);
+            environment.getAssets().forEach(assets::put);
+            environment.getSubmodels().forEach(submodels::put);
+            store.commit();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Subscribes the value history to value changes, if enabled.
+     */
+    @Override
+    public void start() throws MessageBusException {
+        if (valueHistory.isEnabled()) {
+            valueHistory.start(context.getMessageBus());
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Closes the store, i.e. writes all pending changes to disk, and discards the value history.
+     */
+    @Override
+    public void stop() {
+        if (store != null && !store.isClosed()) {
+            store.close();
+        }
+        if (context != null) {
+            valueHistory.stop(context.getMessageBus());
+        }
+    }
+
+
+    @Override
+    public PersistenceMVStoreConfig asConfig() {
+        return config;
+    }
+
+
+    private void ensureInitialized() {
+        Ensure.requireNonNull(store, "store not properly initialized (must be non-null)");
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The environment is assembled from the store and therefore not affected by later modifications. Use with care
+     * as the whole environment is loaded into memory.
+     */
+    @Override
+    public AssetAdministrationShellEnvironment getEnvironment() {
+        ensureInitialized();
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            StoreView view = view();
+            AssetAdministrationShellEnvironment result = new DefaultAssetAdministrationShellEnvironment();
+            result.setAssetAdministrationShells(view.shells.stream().collect(Collectors.toList()));
+            result.setSubmodels(view.submodels.stream(x -> true).collect(Collectors.toList()));
+            result.setConceptDescriptions(view.conceptDescriptions.stream().collect(Collectors.toList()));
+            result.setAssets(view.assets.stream().collect(Collectors.toList()));
+            return result;
+        }
+    }
+
+
+    @Override
+    public <T extends Identifiable> T get(Identifier id, QueryModifier modifier) throws ResourceNotFoundException {
+        ensureInitialized();
+        if (id == null) {
+            return null;
+        }
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(id.getIdentifier())) {
+            Identifiable result = findIdentifiable(view(), id.getIdentifier());
+            if (result == null) {
+                throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID, IdentifierHelper.asString(id)));
+            }
+            return (T) QueryModifierHelper.applyQueryModifier(result, modifier);
+        }
+    }
+
+
+    private static Identifiable findIdentifiable(StoreView view, String id) {
+        Identifiable result = view.shells.get(id);
+        if (result == null) {
+            result = view.submodels.get(id);
+        }
+        if (result == null) {
+            result = view.conceptDescriptions.get(id);
+        }
+        if (result == null) {
+            result = view.assets.get(id);
+        }
+        return result;
+    }
+
+
+    @Override
+    public SubmodelElement get(Reference reference, QueryModifier modifier) throws ResourceNotFoundException {
+        ensureInitialized();
+        if (ReferenceHelper.isNullOrEmpty(reference)) {
+            return null;
+        }
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        ElementLocation location = locate(view(), reference);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(location.submodelId)) {
+            Referable result = resolve(view(), location);
+            if (result == null || !SubmodelElement.class.isAssignableFrom(result.getClass())) {
+                throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, asString(reference)));
+            }
+            return QueryModifierHelper.applyQueryModifier((SubmodelElement) result, modifier);
+        }
+    }
+
+
+    @Override
+    public List<AssetAdministrationShell> get(String idShort, List<AssetIdentification> assetIds, QueryModifier modifier) {
+        ensureInitialized();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+            return view().shells.stream()
+                    .filter(x -> FilterHelper.matches(x, idShort, assetIds))
+                    .map(x -> QueryModifierHelper.applyQueryModifier(x, modifier))
+                    .collect(Collectors.toList());
+        }
+    }
+
+
+    @Override
+    public List<Submodel> get(String idShort, Reference semanticId, QueryModifier modifier) {
+        ensureInitialized();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            return view().submodels.stream(x -> FilterHelper.matches(x, idShort, semanticId))
+                    .map(x -> QueryModifierHelper.applyQueryModifier(x, modifier))
+                    .collect(Collectors.toList());
+        }
+    }
+
+
+    @Override
+    public List<SubmodelElement> getSubmodelElements(Reference reference, Reference semanticId, QueryModifier modifier) throws ResourceNotFoundException {
+        ensureInitialized();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        if (ReferenceHelper.isNullOrEmpty(reference)) {
+            return List.of();
+        }
+        ElementLocation location = locate(view(), reference);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(location.submodelId)) {
+            Referable parent = resolve(view(), location);
+            if (parent == null) {
+                throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, asString(reference)));
+            }
+            Collection<SubmodelElement> result = List.of();
+            if (Submodel.class.isAssignableFrom(parent.getClass())) {
+                result = ((Submodel) parent).getSubmodelElements();
+            }
+            else if (SubmodelElementCollection.class.isAssignableFrom(parent.getClass())) {
+                result = ((SubmodelElementCollection) parent).getValues();
+            }
+            return QueryModifierHelper.applyQueryModifier(
+                    result.stream()
+                            .filter(x -> FilterHelper.matches(x, semanticId))
+                            .collect(Collectors.toList()),
+                    modifier);
+        }
+    }
+
+
+    @Override
+    public List<ConceptDescription> get(String idShort, Reference isCaseOf, Reference dataSpecification, QueryModifier modifier) {
+        ensureInitialized();
+        Ensure.requireNonNull(modifier, MSG_MODIFIER_NOT_NULL);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readIdentifiables()) {
+            return view().conceptDescriptions.stream()
+                    .filter(x -> FilterHelper.matches(x, idShort, isCaseOf, dataSpecification))
+                    .map(x -> QueryModifierHelper.applyQueryModifier(x, modifier))
+                    .collect(Collectors.toList());
+        }
+    }
+
+
+    @Override
+    public AASXPackage get(String packageId) {
+        throw new UnsupportedOperationException("not yet implemented");
+    }
+
+
+    @Override
+    public List<PackageDescription> get(Identifier aasId) {
+        throw new UnsupportedOperationException("not yet implemented");
+    }
+
+
+    @Override
+    public <T extends Identifiable> T put(T identifiable) {
+        ensureInitialized();
+        Ensure.requireNonNull(identifiable, "identifiable must be non-null");
+        try (EnvironmentLocks.Handle write = excludeTransactions();
+                EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+            String id = identifiable.getIdentification().getIdentifier();
+            boolean exists;
+            if (AssetAdministrationShell.class.isAssignableFrom(identifiable.getClass())) {
+                exists = shells.contains(id);
+                shells.put((AssetAdministrationShell) identifiable);
+            }
+            else if (Submodel.class.isAssignableFrom(identifiable.getClass())) {
+                exists = submodels.contains(id);
+                submodels.put((Submodel) identifiable);
+            }
+            else if (ConceptDescription.class.isAssignableFrom(identifiable.getClass())) {
+                exists = conceptDescriptions.contains(id);
+                conceptDescriptions.put((ConceptDescription) identifiable);
+            }
+            else if (Asset.class.isAssignableFrom(identifiable.getClass())) {
+                exists = assets.contains(id);
+                assets.put((Asset) identifiable);
+            }
+            else {
+                throw new IllegalArgumentException(String.format("illegal type for identifiable: %s", identifiable.getClass()));
+            }
+            changeJournal.append(exists ? ChangeType.UPDATED : ChangeType.CREATED, AasUtils.toReference(identifiable), identifiable);
+            return identifiable;
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The submodel element may be referenced by the cache afterwards, i.e. it must not be modified by the caller.
+     */
+    @Override
+    public SubmodelElement put(Reference parent, Reference referenceToSubmodelElement, SubmodelElement submodelElement) throws ResourceNotFoundException {
+        ensureInitialized();
+        Ensure.requireNonNull(submodelElement, "submodelElement must be non-null");
+        Ensure.require(!ReferenceHelper.isNullOrEmpty(parent) || !ReferenceHelper.isNullOrEmpty(referenceToSubmodelElement),
+                "either parent or referenceToSubmodelElement must be non-empty");
+        Reference parentRef = ReferenceHelper.isNullOrEmpty(parent)
+                ? ReferenceHelper.getParent(referenceToSubmodelElement)
+                : parent;
+        Ensure.requireNonNull(parentRef, "could not determine parent reference");
+        try (EnvironmentLocks.Handle write = excludeTransactions()) {
+            return putElement(parent, referenceToSubmodelElement, parentRef, submodelElement);
+        }
+    }
+
+
+    private SubmodelElement putElement(Reference parent, Reference referenceToSubmodelElement, Reference parentRef, SubmodelElement submodelElement)
+            throws ResourceNotFoundException {
+        ElementLocation location = locate(live, parentRef);
+        try (EnvironmentLocks.Handle lock = environmentLocks.writeSubmodel(location.submodelId)) {
+            if (!submodels.contains(location.submodelId)) {
+                throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, asString(parentRef)));
+            }
+            if (location.idShortPath.isEmpty()) {
+                submodels.putElement(location.submodelId, submodelElement);
+                journalPut(parent, referenceToSubmodelElement, submodelElement);
+                return submodelElement;
+            }
+            SubmodelElement root = submodels.getElement(location.submodelId, location.idShortPath.get(0));
+            Referable container = resolve(root, location.idShortPath.subList(1, location.idShortPath.size()));
+            if (container == null) {
+                throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, asString(parentRef)));
+            }
+            if (!SubmodelElementCollection.class.isAssignableFrom(container.getClass())) {
+                throw new IllegalArgumentException(String.format("illegal parent type %s, must be one of %s, %s",
+                        container.getClass(),
+                        Submodel.class,
+                        SubmodelElementCollection.class));
+            }
+            Collection<SubmodelElement> values = ((SubmodelElementCollection) container).getValues();
+            SubmodelElement current = values.stream()
+                    .filter(x -> x.getIdShort().equalsIgnoreCase(submodelElement.getIdShort()))
+                    .findFirst()
+                    .orElse(null);
+            CollectionHelper.put(values, current, submodelElement);
+            submodels.putElement(location.submodelId, root);
+            journalPut(parent, referenceToSubmodelElement, submodelElement);
+            return submodelElement;
+        }
+    }
+
+
+    private void journalPut(Reference parent, Reference referenceToSubmodelElement, SubmodelElement submodelElement) {
+        if (ReferenceHelper.isNullOrEmpty(parent)) {
+            changeJournal.append(ChangeType.UPDATED, referenceToSubmodelElement, submodelElement);
+        }
+        else {
+            changeJournal.append(ChangeType.CREATED, AasUtils.toReference(parent, submodelElement), submodelElement);
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Unless the current thread already has an active transaction, the elements are put within a new transaction,
+     * i.e. either all or none of them are put and the store is committed only once.
+     */
+    @Override
+    public void putAll(Map<Reference, SubmodelElement> submodelElements) throws ResourceNotFoundException {
+        ensureInitialized();
+        Ensure.requireNonNull(submodelElements, "submodelElements must be non-null");
+        MVStoreTransaction current = transaction;
+        if (current != null && current.owner == Thread.currentThread()) {
+            for (Map.Entry<Reference, SubmodelElement> entry: submodelElements.entrySet()) {
+                put(null, entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        try (Transaction newTransaction = beginTransaction()) {
+            putAll(submodelElements);
+            newTransaction.commit();
+        }
+    }
+
+
+    @Override
+    public AASXPackage put(String packageId, Set<Identifier> aasIds, AASXPackage file, String fileName) {
+        throw new UnsupportedOperationException("not yet implemented");
+    }
+
+
+    @Override
+    public String put(Set<Identifier> aasIds, AASXPackage file, String fileName) {
+        throw new UnsupportedOperationException("not yet implemented");
+    }
+
+
+    @Override
+    public void remove(Identifier id) throws ResourceNotFoundException {
+        ensureInitialized();
+        if (id == null) {
+            return;
+        }
+        try (EnvironmentLocks.Handle write = excludeTransactions();
+                EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+            String identifier = id.getIdentifier();
+            if (submodels.contains(identifier)) {
+                Reference submodelRef = AasUtils.toReference(submodels.getHeader(identifier));
+                submodels.remove(identifier);
+                changeJournal.append(ChangeType.DELETED, submodelRef, null);
+                shells.stream()
+                        .filter(x -> x.getSubmodels().contains(submodelRef))
+                        .collect(Collectors.toList())
+                        .forEach(x -> {
+                            x.getSubmodels().remove(submodelRef);
+                            shells.put(x);
+                            changeJournal.append(ChangeType.UPDATED, AasUtils.toReference(x), x);
+                        });
+                return;
+            }
+            Identifiable identifiable = findIdentifiable(live, identifier);
+            if (identifiable == null) {
+                throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_ID, IdentifierHelper.asString(id)));
+            }
+            if (!shells.remove(identifier)
+                    && !conceptDescriptions.remove(identifier)) {
+                assets.remove(identifier);
+            }
+            changeJournal.append(ChangeType.DELETED, AasUtils.toReference(identifiable), null);
+        }
+    }
+
+
+    @Override
+    public void remove(Reference reference) throws ResourceNotFoundException {
+        ensureInitialized();
+        if (ReferenceHelper.isNullOrEmpty(reference)) {
+            return;
+        }
+        if (reference.getKeys().size() == 1) {
+            remove(IdentifierHelper.parseIdentifier(reference.getKeys().get(0).getValue()));
+            return;
+        }
+        try (EnvironmentLocks.Handle write = excludeTransactions()) {
+            removeElement(reference);
+        }
+    }
+
+
+    private void removeElement(Reference reference) throws ResourceNotFoundException {
+        ElementLocation location = locate(live, reference);
+        Submodel submodel = location.submodelId != null
+                ? submodels.getHeader(location.submodelId)
+                : null;
+        if (submodel == null) {
+            throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, asString(reference)));
+        }
+        if (location.idShortPath.isEmpty()) {
+            remove(submodel.getIdentification());
+            return;
+        }
+        try (EnvironmentLocks.Handle lock = environmentLocks.writeSubmodel(location.submodelId)) {
+            String idShort = location.idShortPath.get(location.idShortPath.size() - 1);
+            if (location.idShortPath.size() == 1) {
+                if (!submodels.removeElement(location.submodelId, idShort)) {
+                    throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, asString(reference)));
+                }
+                changeJournal.append(ChangeType.DELETED, reference, null);
+                return;
+            }
+            SubmodelElement root = submodels.getElement(location.submodelId, location.idShortPath.get(0));
+            Referable parent = resolve(root, location.idShortPath.subList(1, location.idShortPath.size() - 1));
+            if (parent == null
+                    || !SubmodelElementCollection.class.isAssignableFrom(parent.getClass())
+                    || !((SubmodelElementCollection) parent).getValues().removeIf(x -> x.getIdShort().equalsIgnoreCase(idShort))) {
+                throw new ResourceNotFoundException(String.format(ERROR_MSG_RESOURCE_NOT_FOUND_BY_REF, asString(reference)));
+            }
+            submodels.putElement(location.submodelId, root);
+            changeJournal.append(ChangeType.DELETED, reference, null);
+        }
+    }
+
+
+    @Override
+    public void remove(String packageId) {
+        throw new UnsupportedOperationException("not yet implemented");
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The transaction blocks writes of other threads until it is finished, while reads of other threads are served
+     * from a snapshot of the version at the time the transaction has been started. Background commits are suspended
+     * while the transaction is active.
+     */
+    @Override
+    public Transaction beginTransaction() {
+        ensureInitialized();
+        MVStoreTransaction current = transaction;
+        if (current != null && current.owner == Thread.currentThread()) {
+            throw new IllegalStateException("nested transactions are not supported");
+        }
+        Lock writes = transactionLock.writeLock();
+        writes.lock();
+        try (EnvironmentLocks.Handle lock = environmentLocks.writeAll()) {
+            // commit pending changes first as rolling back reverts all changes since the last commit
+            store.commit();
+            long version = store.getCurrentVersion();
+            transaction = new MVStoreTransaction(writes, version, live.snapshot(version), store.getAutoCommitDelay(), changeJournal.getVersion());
+            store.setAutoCommitDelay(0);
+            return transaction;
+        }
+        catch (RuntimeException e) {
+            writes.unlock();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Gets the view of the store to read from. While another thread has an active transaction, this is the snapshot
+     * taken at the start of the transaction, otherwise the current state. Callers reading from the current state must
+     * hold the appropriate lock.
+     *
+     * @return the view to read from
+     */
+    private StoreView view() {
+        MVStoreTransaction current = transaction;
+        return current != null && current.owner != Thread.currentThread()
+                ? current.snapshot
+                : live;
+    }
+
+
+    /**
+     * Blocks while another thread has an active transaction, as rolling back the transaction would revert concurrent
+     * changes as well.
+     *
+     * @return handle to release the lock
+     */
+    private EnvironmentLocks.Handle excludeTransactions() {
+        Lock lock = transactionLock.readLock();
+        lock.lock();
+        return lock::unlock;
+    }
+
+
+    @Override
+    public ChangeSet getChanges(String journalId, long since, int limit) {
+        ensureInitialized();
+        // changes of a transaction must not be observed before it is finished
+        try (EnvironmentLocks.Handle write = excludeTransactions();
+                EnvironmentLocks.Handle lock = environmentLocks.readAll()) {
+            return changeJournal.getChanges(journalId, since, limit);
+        }
+    }
+
+
+    @Override
+    public List<ValueSample> getValueHistory(Reference reference, long from, long to) {
+        if (!valueHistory.isEnabled()) {
+            throw new UnsupportedOperationException("value history is disabled");
+        }
+        return valueHistory.get(reference, from, to);
+    }
+
+
+    @Override
+    public OperationResult getOperationResult(String handleId) {
+        return operationResultStore.getResult(handleId);
+    }
+
+
+    @Override
+    public OperationHandle putOperationContext(String handleId, String requestId, OperationResult operationResult) {
+        return operationResultStore.put(handleId, requestId, operationResult);
+    }
+
+
+    @Override
+    public TypeInfo<?> getTypeInfo(Reference reference) {
+        ensureInitialized();
+        ElementLocation location = locate(view(), reference);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(location.submodelId)) {
+            return TypeExtractor.extractTypeInfo(resolve(view(), location));
+        }
+    }
+
+
+    @Override
+    public OperationVariable[] getOperationOutputVariables(Reference reference) {
+        ensureInitialized();
+        if (reference == null) {
+            throw new IllegalArgumentException("reference must be non-null");
+        }
+        ElementLocation location = locate(view(), reference);
+        try (EnvironmentLocks.Handle lock = environmentLocks.readSubmodel(location.submodelId)) {
+            Referable referable = resolve(view(), location);
+            if (referable == null) {
+                throw new IllegalArgumentException(String.format("reference could not be resolved (reference: %s)", asString(reference)));
+            }
+            if (!Operation.class.isAssignableFrom(referable.getClass())) {
+                throw new IllegalArgumentException(String.format("reference points to invalid type (reference: %s, expected type: Operation, actual type: %s)",
+                        asString(reference),
+                        referable.getClass()));
+            }
+            return ((Operation) referable).getOutputVariables().toArray(new OperationVariable[0]);
+        }
+    }
+
+
+    /**
+     * Determines the submodel a reference points into as well as the path of idShorts within that submodel. The
+     * submodel is identified by the first key which is the identifier of an existing submodel. Therefore, references do
+     * not need to contain proper key types.
+     *
+     * @param view the view of the store
+     * @param reference the reference
+     * @return the location, submodelId is null if the reference does not point into an existing submodel
+     */
+    private static ElementLocation locate(StoreView view, Reference reference) {
+        List<Key> keys = reference != null && reference.getKeys() != null
+                ? reference.getKeys()
+                : List.of();
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            if ((key.getType() == null || key.getType() == KeyElements.SUBMODEL) && view.submodels.contains(key.getValue())) {
+                return new ElementLocation(key.getValue(), keys.subList(i + 1, keys.size()).stream()
+                        .map(Key::getValue)
+                        .collect(Collectors.toList()));
+            }
+        }
+        return new ElementLocation(null, List.of());
+    }
+
+
+    /**
+     * Resolves a location. Callers must hold the lock of the submodel.
+     *
+     * @param view the view of the store
+     * @param location the location
+     * @return the submodel or submodel element the location points to or null if there is none. The returned instance
+     *         is not shared, i.e. it can be modified.
+     */
+    private static Referable resolve(StoreView view, ElementLocation location) {
+        if (location.submodelId == null) {
+            return null;
+        }
+        if (location.idShortPath.isEmpty()) {
+            return view.submodels.get(location.submodelId);
+        }
+        return resolve(
+                view.submodels.getElement(location.submodelId, location.idShortPath.get(0)),
+                location.idShortPath.subList(1, location.idShortPath.size()));
+    }
+
+
+    private static Referable resolve(SubmodelElement root, List<String> idShortPath) {
+        Referable current = root;
+        for (String idShort: idShortPath) {
+            if (current == null) {
+                return null;
+            }
+            current = getChildren(current).stream()
+                    .filter(x -> x.getIdShort().equalsIgnoreCase(idShort))
+                    .findFirst()
+                    .orElse(null);
+        }
+        return current;
+    }
+
+
+    private static String asString(Reference reference) {
+        // references are not completed with proper key types as this would require the whole environment
+        return reference.getKeys().stream().anyMatch(x -> x.getType() == null)
+                ? reference.getKeys().stream()
+                        .map(Key::getValue)
+                        .collect(Collectors.joining(", ", "[", "]"))
+                : AasUtils.asString(reference);
+    }
+
+
+    private static Collection<? extends SubmodelElement> getChildren(Referable referable) {
+        if (SubmodelElementCollection.class.isAssignableFrom(referable.getClass())) {
+            return ((SubmodelElementCollection) referable).getValues();
+        }
+        if (Entity.class.isAssignableFrom(referable.getClass())) {
+            return ((Entity) referable).getStatements();
+        }
+        if (AnnotatedRelationshipElement.class.isAssignableFrom(referable.getClass())) {
+            return ((AnnotatedRelationshipElement) referable).getAnnotations();
+        }
+        return new ArrayList<>();
+    }
+
+    private static class ElementLocation {
+
+        private final String submodelId;
+        private final List<String> idShortPath;
+
+        private ElementLocation(String submodelId, List<String> idShortPath) {
+            this.submodelId = submodelId;
+            this.idShortPath = idShortPath;
+        }
+    }
+
+    private static class StoreView {
+
+        private final IdentifiableMap<AssetAdministrationShell> shells;
+        private final IdentifiableMap<ConceptDescription> conceptDescriptions;
+        private final IdentifiableMap<Asset> assets;
+        private final SubmodelStore submodels;
+
+        private StoreView(IdentifiableMap<AssetAdministrationShell> shells, IdentifiableMap<ConceptDescription> conceptDescriptions, IdentifiableMap<Asset> assets,
+                SubmodelStore submodels) {
+            this.shells = shells;
+            this.conceptDescriptions = conceptDescriptions;
+            this.assets = assets;
+            this.submodels = submodels;
+        }
+
+
+        private StoreView snapshot(long version) {
+            return new StoreView(shells.snapshot(version), conceptDescriptions.snapshot(version), assets.snapshot(version), submodels.snapshot(version));
+        }
+    }
+
+    private class MVStoreTransaction implements Transaction {
+
+        private final Thread owner;
+        private final Lock lock;
+        private final long version;
+        private final StoreView snapshot;
+        private final int autoCommitDelay;
+        private final long journalVersion;
+        private boolean active;
+
+        private MVStoreTransaction(Lock lock, long version, StoreView snapshot, int autoCommitDelay, long journalVersion) {
+            this.owner = Thread.currentThread();
+            this.lock = lock;
+            this.version = version;
+            this.snapshot = snapshot;
+            this.autoCommitDelay = autoCommitDelay;
+            this.journalVersion = journalVersion;
+            this.active = true;
+        }
+
+
+        @Override
+        public void commit() {
+            ensureActive();
+            try {
+                store.commit();
+            }
+            finally {
+                finish();
+            }
+        }
+
+
+        @Override
+        public void rollback() {
+            ensureActive();
+            try {
+                store.rollbackTo(version);
+                submodels.clearCache();
+                changeJournal.truncate(journalVersion);
+            }
+            finally {
+                finish();
+            }
+        }
+
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+
+        private void ensureActive() {
+            if (!active) {
+                throw new IllegalStateException("transaction is not active");
+            }
+            if (owner != Thread.currentThread()) {
+                throw new IllegalStateException("transaction must be finished by the thread that started it");
+            }
+        }
+
+
+        private void finish() {
+            active = false;
+            transaction = null;
+            try {
+                store.setAutoCommitDelay(autoCommitDelay);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.mvstore;
+
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.PersistenceConfig;
+import java.nio.file.Path;
+import java.util.Objects;
+
+
+/**
+ * Configuration class for {@link PersistenceMVStore}.
+ */
+public class PersistenceMVStoreConfig extends PersistenceConfig<PersistenceMVStore> {
+
+    private static final String DEFAULT_DATA_DIR = Path.of("").toAbsolutePath().toString();
+    private static final int DEFAULT_CACHE_SIZE = 100;
+    private static final boolean DEFAULT_OVERRIDE_EXISTING = false;
+    public static final String DEFAULT_FILENAME = "environment_createdByFAAAST.mv.db";
+
+    private String dataDir;
+
+    private String filename;
+
+    private int cacheSize;
+
+    private boolean overrideExisting;
+
+    public PersistenceMVStoreConfig() {
+        dataDir = DEFAULT_DATA_DIR;
+        filename = DEFAULT_FILENAME;
+        cacheSize = DEFAULT_CACHE_SIZE;
+        overrideExisting = DEFAULT_OVERRIDE_EXISTING;
+    }
+
+
+    /**
+     * Get the path of the store file used by the persistence.
+     *
+     * @return file path of the store
+     */
+    public Path getStorePath() {
+        return Path.of(dataDir, filename);
+    }
+
+
+    public String getDataDir() {
+        return dataDir;
+    }
+
+
+    public void setDataDir(String dataDir) {
+        this.dataDir = dataDir;
+    }
+
+
+    public String getFilename() {
+        return filename;
+    }
+
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+
+    /**
+     * Sets the maximum number of submodels kept in memory. Values less than or equal to 0 disable the cache, i.e.
+     * submodels are always read from the store.
+     *
+     * @param cacheSize the maximum number of cached submodels
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+
+    public boolean isOverrideExisting() {
+        return overrideExisting;
+    }
+
+
+    /**
+     * If true, the content of an existing store is replaced by the initial model on startup. Otherwise the initial
+     * model is only loaded if the store does not exist yet.
+     *
+     * @param overrideExisting flag indicating whether to override an existing store
+     */
+    public void setOverrideExisting(boolean overrideExisting) {
+        this.overrideExisting = overrideExisting;
+    }
+
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final PersistenceMVStoreConfig other = (PersistenceMVStoreConfig) obj;
+        return super.equals(obj)
+                && Objects.equals(this.dataDir, other.dataDir)
+                && Objects.equals(this.filename, other.filename)
+                && Objects.equals(this.cacheSize, other.cacheSize)
+                && Objects.equals(this.overrideExisting, other.overrideExisting);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), this.dataDir, this.filename, this.cacheSize, this.overrideExisting);
+    }
+
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private abstract static class AbstractBuilder<T extends PersistenceMVStoreConfig, B extends AbstractBuilder<T, B>>
+            extends PersistenceConfig.AbstractBuilder<PersistenceMVStore, T, B> {
+
+        public B dataDir(String value) {
+            getBuildingInstance().setDataDir(value);
+            return getSelf();
+        }
+
+
+        public B filename(String value) {
+            getBuildingInstance().setFilename(value);
+            return getSelf();
+        }
+
+
+        public B cacheSize(int value) {
+            getBuildingInstance().setCacheSize(value);
+            return getSelf();
+        }
+
+
+        public B overrideExisting(boolean value) {
+            getBuildingInstance().setOverrideExisting(value);
+            return getSelf();
+        }
+
+    }
+
+    public static class Builder extends AbstractBuilder<PersistenceMVStoreConfig, Builder> {
+
+        @Override
+        protected Builder getSelf() {
+            return this;
+        }
+
+
+        @Override
+        protected PersistenceMVStoreConfig newBuildingInstance() {
+            return new PersistenceMVStoreConfig();
+        }
+    }
+
+}
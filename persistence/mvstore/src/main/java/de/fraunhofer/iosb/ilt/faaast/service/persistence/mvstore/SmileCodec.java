@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.mvstore;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.adminshell.aas.v3.dataformat.json.JsonDeserializer;
+import io.adminshell.aas.v3.dataformat.json.JsonSerializer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+
+/**
+ * Encodes elements of the AAS model to the binary Smile format, i.e. the binary equivalent of their JSON
+ * serialization, and vice versa.
+ */
+class SmileCodec {
+
+    private final SmileFactory factory;
+    private final ObjectMapper serializer;
+    private final ObjectMapper deserializer;
+
+    SmileCodec() {
+        factory = new SmileFactory();
+        serializer = new MapperAccessingSerializer().getMapper();
+        deserializer = new MapperAccessingDeserializer().getMapper();
+    }
+
+
+    /**
+     * Encodes a value.
+     *
+     * @param value the value to encode
+     * @return the encoded value
+     * @throws IllegalStateException if encoding fails
+     */
+    byte[] encode(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            // custom serializers of the AAS model require the generator to have a codec
+            generator.setCodec(serializer);
+            serializer.writeValue(generator, value);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(String.format("encoding value of type %s failed", value.getClass()), e);
+        }
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Encodes a value omitting one of its properties.
+     *
+     * @param value the value to encode
+     * @param property the name of the property to omit
+     * @return the encoded value
+     * @throws IllegalStateException if encoding fails
+     */
+    byte[] encodeWithout(Object value, String property) {
+        JsonNode node = serializer.valueToTree(value);
+        if (node.isObject()) {
+            ((ObjectNode) node).remove(property);
+        }
+        return encode(node);
+    }
+
+
+    /**
+     * Decodes a value.
+     *
+     * @param <T> the type of the value
+     * @param value the encoded value
+     * @param type the type of the value
+     * @return the decoded value
+     * @throws IllegalStateException if decoding fails
+     */
+    <T> T decode(byte[] value, Class<T> type) {
+        try (JsonParser parser = factory.createParser(value)) {
+            parser.setCodec(deserializer);
+            return deserializer.readValue(parser, type);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(String.format("decoding value of type %s failed", type), e);
+        }
+    }
+
+    private static class MapperAccessingSerializer extends JsonSerializer {
+
+        private ObjectMapper getMapper() {
+            return mapper;
+        }
+    }
+
+    private static class MapperAccessingDeserializer extends JsonDeserializer {
+
+        private ObjectMapper getMapper() {
+            return mapper;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.mvstore;
+
+import de.fraunhofer.iosb.ilt.faaast.service.util.DeepCopyHelper;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+
+/**
+ * Stores submodels in an {@link MVStore}. A submodel is split into its header, i.e. the submodel without its
+ * elements, and its top-level submodel elements which are stored under the key
+ * {@code <submodel identifier>/<idShort>} including all of their children. The order of the top-level elements is
+ * stored separately. This way, reading or updating a single element does not require to read or write the whole
+ * submodel.
+ *
+ * <p>The most recently used submodels are kept in memory in assembled form. Instances returned by this class are
+ * never shared with the cache, i.e. they can be modified by the caller. Callers must ensure that a submodel is not
+ * modified concurrently, e.g. via {@link de.fraunhofer.iosb.ilt.faaast.service.persistence.util.EnvironmentLocks}.
+ */
+class SubmodelStore {
+
+    private static final String SUBMODELS = "submodels";
+    private static final String ELEMENTS = "submodelElements";
+    private static final String ELEMENT_ORDER = "submodelElementOrder";
+    private static final String PROPERTY_SUBMODEL_ELEMENTS = "submodelElements";
+    private static final char SEPARATOR = '/';
+    private final SmileCodec codec;
+    private final IdentifiableMap<Submodel> headers;
+    private final MVMap<String, byte[]> elements;
+    private final MVMap<String, byte[]> elementOrder;
+    private final Map<String, Submodel> cache;
+    private final boolean cacheEnabled;
+
+    SubmodelStore(MVStore store, SmileCodec codec, int cacheSize) {
+        this(codec, new IdentifiableMap<>(store, SUBMODELS, Submodel.class, codec), store.openMap(ELEMENTS), store.openMap(ELEMENT_ORDER), cacheSize);
+    }
+
+
+    private SubmodelStore(SmileCodec codec, IdentifiableMap<Submodel> headers, MVMap<String, byte[]> elements, MVMap<String, byte[]> elementOrder,
+            int cacheSize) {
+        this.codec = codec;
+        this.headers = headers;
+        this.elements = elements;
+        this.elementOrder = elementOrder;
+        this.cacheEnabled = cacheSize > 0;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Submodel> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+
+    /**
+     * Creates a read-only view of the submodels at the given version of the store. The view does not use the cache.
+     * Must be called before the current version is modified.
+     *
+     * @param version the current version of the store
+     * @return the read-only view
+     */
+    SubmodelStore snapshot(long version) {
+        return new SubmodelStore(codec, headers.snapshot(version), elements.openVersion(version), elementOrder.openVersion(version), 0);
+    }
+
+
+    /**
+     * Checks whether a submodel with the given identifier exists.
+     *
+     * @param id the identifier
+     * @return true if it exists, otherwise false
+     */
+    boolean contains(String id) {
+        return headers.contains(id);
+    }
+
+
+    /**
+     * Gets a submodel including all of its elements and adds it to the cache.
+     *
+     * @param id the identifier of the submodel
+     * @return the submodel or null if there is none
+     */
+    Submodel get(String id) {
+        Submodel result = getCached(id);
+        if (result != null) {
+            return result;
+        }
+        result = load(id);
+        if (result != null && cacheEnabled) {
+            synchronized (cache) {
+                cache.put(normalize(id), DeepCopyHelper.deepCopy(result, Submodel.class));
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets the header of a submodel, i.e. the submodel without its elements.
+     *
+     * @param id the identifier of the submodel
+     * @return the header or null if there is no such submodel
+     */
+    Submodel getHeader(String id) {
+        return headers.get(id);
+    }
+
+
+    /**
+     * Streams all submodels including their elements in insertion order. Only submodels whose header matches the
+     * filter are loaded. Submodels that are not cached are not added to the cache.
+     *
+     * @param filter filter applied to the header of the submodels, i.e. the submodels without elements
+     * @return the matching submodels
+     */
+    Stream<Submodel> stream(Predicate<Submodel> filter) {
+        return headers.stream()
+                .filter(filter)
+                .map(x -> {
+                    Submodel cached = getCached(x.getIdentification().getIdentifier());
+                    if (cached != null) {
+                        return cached;
+                    }
+                    x.setSubmodelElements(loadElements(x.getIdentification().getIdentifier()));
+                    return x;
+                });
+    }
+
+
+    /**
+     * Gets all top-level elements of a submodel.
+     *
+     * @param id the identifier of the submodel
+     * @return the elements or null if there is no such submodel
+     */
+    List<SubmodelElement> getElements(String id) {
+        Submodel cached = getCached(id);
+        if (cached != null) {
+            return cached.getSubmodelElements();
+        }
+        return contains(id) ? loadElements(id) : null;
+    }
+
+
+    /**
+     * Gets a top-level element of a submodel.
+     *
+     * @param id the identifier of the submodel
+     * @param idShort the idShort of the element
+     * @return the element or null if there is none
+     */
+    SubmodelElement getElement(String id, String idShort) {
+        synchronized (cache) {
+            Submodel cached = cache.get(normalize(id));
+            if (cached != null) {
+                return cached.getSubmodelElements().stream()
+                        .filter(x -> x.getIdShort().equalsIgnoreCase(idShort))
+                        .findFirst()
+                        .map(x -> DeepCopyHelper.deepCopy(x, SubmodelElement.class))
+                        .orElse(null);
+            }
+        }
+        byte[] value = elements.get(key(id, idShort));
+        return value != null ? codec.decode(value, SubmodelElement.class) : null;
+    }
+
+
+    /**
+     * Adds or replaces a submodel including all of its elements. The submodel itself is not referenced afterwards.
+     *
+     * @param submodel the submodel
+     */
+    void put(Submodel submodel) {
+        String id = submodel.getIdentification().getIdentifier();
+        removeElements(id);
+        headers.put(submodel, codec.encodeWithout(submodel, PROPERTY_SUBMODEL_ELEMENTS));
+        List<String> order = new ArrayList<>(submodel.getSubmodelElements().size());
+        for (SubmodelElement element: submodel.getSubmodelElements()) {
+            elements.put(key(id, element.getIdShort()), codec.encode(element));
+            order.add(element.getIdShort());
+        }
+        elementOrder.put(normalize(id), codec.encode(order));
+        synchronized (cache) {
+            cache.remove(normalize(id));
+        }
+    }
+
+
+    /**
+     * Adds or replaces a top-level element of a submodel. An existing element with the same idShort keeps its
+     * position, new elements are appended. The element may be referenced by the cache afterwards, i.e. it must not be
+     * modified by the caller.
+     *
+     * @param id the identifier of the submodel
+     * @param element the element
+     */
+    void putElement(String id, SubmodelElement element) {
+        List<String> order = getOrder(id);
+        int index = indexOf(order, element.getIdShort());
+        if (index < 0) {
+            order.add(element.getIdShort());
+        }
+        else {
+            elements.remove(key(id, order.get(index)));
+            order.set(index, element.getIdShort());
+        }
+        elements.put(key(id, element.getIdShort()), codec.encode(element));
+        elementOrder.put(normalize(id), codec.encode(order));
+        synchronized (cache) {
+            Submodel cached = cache.get(normalize(id));
+            if (cached != null) {
+                if (index < 0) {
+                    cached.getSubmodelElements().add(element);
+                }
+                else {
+                    cached.getSubmodelElements().set(index, element);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Removes a top-level element of a submodel.
+     *
+     * @param id the identifier of the submodel
+     * @param idShort the idShort of the element
+     * @return true if the element existed, otherwise false
+     */
+    boolean removeElement(String id, String idShort) {
+        List<String> order = getOrder(id);
+        int index = indexOf(order, idShort);
+        if (index < 0) {
+            return false;
+        }
+        elements.remove(key(id, order.remove(index)));
+        elementOrder.put(normalize(id), codec.encode(order));
+        synchronized (cache) {
+            Submodel cached = cache.get(normalize(id));
+            if (cached != null) {
+                cached.getSubmodelElements().remove(index);
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Removes a submodel including all of its elements.
+     *
+     * @param id the identifier of the submodel
+     * @return true if the submodel existed, otherwise false
+     */
+    boolean remove(String id) {
+        removeElements(id);
+        elementOrder.remove(normalize(id));
+        synchronized (cache) {
+            cache.remove(normalize(id));
+        }
+        return headers.remove(id);
+    }
+
+
+    /**
+     * Removes all submodels.
+     */
+    void clear() {
+        headers.clear();
+        elements.clear();
+        elementOrder.clear();
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+
+    /**
+     * Removes all submodels from the cache, e.g. after the underlying store has been rolled back.
+     */
+    void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+
+    private Submodel getCached(String id) {
+        synchronized (cache) {
+            Submodel cached = cache.get(normalize(id));
+            return cached != null ? DeepCopyHelper.deepCopy(cached, Submodel.class) : null;
+        }
+    }
+
+
+    private Submodel load(String id) {
+        Submodel result = headers.get(id);
+        if (result != null) {
+            result.setSubmodelElements(loadElements(id));
+        }
+        return result;
+    }
+
+
+    private List<SubmodelElement> loadElements(String id) {
+        return getOrder(id).stream()
+                .map(x -> elements.get(key(id, x)))
+                .filter(Objects::nonNull)
+                .map(x -> codec.decode(x, SubmodelElement.class))
+                .collect(Collectors.toList());
+    }
+
+
+    private void removeElements(String id) {
+        getOrder(id).forEach(x -> elements.remove(key(id, x)));
+    }
+
+
+    private List<String> getOrder(String id) {
+        byte[] value = elementOrder.get(normalize(id));
+        return value != null
+                ? new ArrayList<>(Arrays.asList(codec.decode(value, String[].class)))
+                : new ArrayList<>();
+    }
+
+
+    private static int indexOf(List<String> order, String idShort) {
+        for (int i = 0; i < order.size(); i++) {
+            if (order.get(i).equalsIgnoreCase(idShort)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    private static String key(String id, String idShort) {
+        return normalize(id) + SEPARATOR + idShort.toLowerCase(Locale.ROOT);
+    }
+
+
+    private static String normalize(String id) {
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2021 Fraunhofer IOSB, eine rechtlich nicht selbstaendige
+ * Einrichtung der Fraunhofer-Gesellschaft zur Foerderung der angewandten
+ * Forschung e.V.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.iosb.ilt.faaast.service.persistence.mvstore;
+
+import de.fraunhofer.iosb.ilt.faaast.service.ServiceContext;
+import de.fraunhofer.iosb.ilt.faaast.service.config.CoreConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ConfigurationException;
+import de.fraunhofer.iosb.ilt.faaast.service.exception.ResourceNotFoundException;
+import de.fraunhofer.iosb.ilt.faaast.service.model.AASFull;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.Extent;
+import de.fraunhofer.iosb.ilt.faaast.service.model.api.modifier.QueryModifier;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.AbstractInMemoryPersistenceBaseTest;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Persistence;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.PersistenceConfig;
+import de.fraunhofer.iosb.ilt.faaast.service.persistence.Transaction;
+import de.fraunhofer.iosb.ilt.faaast.service.util.ReferenceHelper;
+import io.adminshell.aas.v3.model.AssetAdministrationShellEnvironment;
+import io.adminshell.aas.v3.model.Identifier;
+import io.adminshell.aas.v3.model.Reference;
+import io.adminshell.aas.v3.model.Submodel;
+import io.adminshell.aas.v3.model.SubmodelElement;
+import io.adminshell.aas.v3.model.SubmodelElementCollection;
+import io.adminshell.aas.v3.model.impl.DefaultIdentifier;
+import io.adminshell.aas.v3.model.impl.DefaultProperty;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+
+public class PersistenceMVStoreTest extends AbstractInMemoryPersistenceBaseTest {
+
+    private static final String AAS_ID = "https://acplt.org/Test_AssetAdministrationShell_Mandatory";
+    private static final String SUBMODEL_ID = "https://acplt.org/Test_Submodel_Mandatory";
+    private static final String COLLECTION_ID_SHORT = "ExampleSubmodelCollectionUnordered";
+    private final Path dataDir;
+
+    public PersistenceMVStoreTest() throws IOException {
+        dataDir = Files.createTempDirectory("faaast-mvstore");
+    }
+
+
+    @Override
+    public Persistence getPersistenceImplementation() {
+        return new PersistenceMVStore();
+    }
+
+
+    @Override
+    public AssetAdministrationShellEnvironment getEnvironment() {
+        return AASFull.createEnvironment();
+    }
+
+
+    @Override
+    public PersistenceConfig getPersistenceConfig() {
+        return createConfig(AASFull.createEnvironment(), 10);
+    }
+
+
+    private PersistenceMVStoreConfig createConfig(AssetAdministrationShellEnvironment environment, int cacheSize) {
+        return PersistenceMVStoreConfig.builder()
+                .environment(environment)
+                .dataDir(dataDir.toString())
+                .cacheSize(cacheSize)
+                .overrideExisting(true)
+                .build();
+    }
+
+
+    @After
+    public void cleanup() throws IOException {
+        persistence.stop();
+        FileUtils.deleteDirectory(dataDir.toFile());
+    }
+
+
+    private void reinit(PersistenceMVStoreConfig config) throws ConfigurationException {
+        persistence.stop();
+        persistence = new PersistenceMVStore();
+        persistence.init(CoreConfig.builder().build(), config, Mockito.mock(ServiceContext.class));
+    }
+
+
+    private static SubmodelElement newProperty() {
+        return new DefaultProperty.Builder()
+                .idShort("NewProperty")
+                .valueType("string")
+                .value("foo")
+                .build();
+    }
+
+
+    @Test
+    public void reopenExistingStoreTest() throws ConfigurationException, ResourceNotFoundException {
+        SubmodelElement expected = newProperty();
+        persistence.put(ReferenceHelper.build(AAS_ID, SUBMODEL_ID, COLLECTION_ID_SHORT), null, expected);
+        PersistenceMVStoreConfig config = createConfig(null, 10);
+        config.setOverrideExisting(false);
+        reinit(config);
+        SubmodelElement actual = persistence.get(ReferenceHelper.build(AAS_ID, SUBMODEL_ID, COLLECTION_ID_SHORT, expected.getIdShort()), QueryModifier.DEFAULT);
+        Assert.assertEquals(expected, actual);
+    }
+
+
+    @Test
+    public void overrideExistingStoreTest() throws ConfigurationException, ResourceNotFoundException {
+        Reference reference = ReferenceHelper.build(AAS_ID, SUBMODEL_ID, COLLECTION_ID_SHORT);
+        persistence.remove(reference);
+        reinit(createConfig(AASFull.createEnvironment(), 10));
+        Assert.assertNotNull(persistence.get(reference, QueryModifier.DEFAULT));
+        Assert.assertEquals(environment, persistence.getEnvironment());
+    }
+
+
+    @Test
+    public void putSubmodelElementUpdatesCachedSubmodelTest() throws ResourceNotFoundException {
+        DefaultIdentifier submodelId = new DefaultIdentifier.Builder()
+                .identifier(SUBMODEL_ID)
+                .build();
+        // load submodel to the cache
+        persistence.get(submodelId, QueryModifier.DEFAULT);
+        SubmodelElement expected = newProperty();
+        persistence.put(ReferenceHelper.build(AAS_ID, SUBMODEL_ID, COLLECTION_ID_SHORT), null, expected);
+        Submodel submodel = (Submodel) persistence.get(submodelId, new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build());
+        SubmodelElementCollection collection = (SubmodelElementCollection) submodel.getSubmodelElements().stream()
+                .filter(x -> x.getIdShort().equals(COLLECTION_ID_SHORT))
+                .findFirst()
+                .get();
+        Assert.assertTrue(collection.getValues().contains(expected));
+    }
+
+
+    @Test
+    public void withoutCacheTest() throws ConfigurationException, ResourceNotFoundException {
+        reinit(createConfig(AASFull.createEnvironment(), 0));
+        SubmodelElement expected = newProperty();
+        persistence.put(ReferenceHelper.build(AAS_ID, SUBMODEL_ID), null, expected);
+        Submodel submodel = (Submodel) persistence.get(new DefaultIdentifier.Builder()
+                .identifier(SUBMODEL_ID)
+                .build(),
+                QueryModifier.DEFAULT);
+        Assert.assertEquals(expected, submodel.getSubmodelElements().get(submodel.getSubmodelElements().size() - 1));
+    }
+
+
+    @Test
+    public void readDuringTransactionTest() throws ResourceNotFoundException, InterruptedException, ExecutionException, TimeoutException {
+        Reference elementRef = ReferenceHelper.build(AAS_ID, SUBMODEL_ID, COLLECTION_ID_SHORT, "NewProperty");
+        Identifier submodelId = new DefaultIdentifier.Builder()
+                .identifier(SUBMODEL_ID)
+                .build();
+        Submodel expected = (Submodel) persistence.get(submodelId, new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Transaction transaction = persistence.beginTransaction()) {
+            persistence.put(ReferenceHelper.build(AAS_ID, SUBMODEL_ID, COLLECTION_ID_SHORT), null, newProperty());
+            Assert.assertNotNull(persistence.get(elementRef, QueryModifier.DEFAULT));
+            // other threads are not blocked and read the state at the start of the transaction
+            Assert.assertEquals(expected, executor.submit(() -> persistence.get(submodelId, new QueryModifier.Builder().extend(Extent.WITH_BLOB_VALUE).build()))
+                    .get(5, TimeUnit.SECONDS));
+            Assert.assertThrows(ExecutionException.class, () -> executor.submit(() -> persistence.get(elementRef, QueryModifier.DEFAULT)).get(5, TimeUnit.SECONDS));
+            persistence.remove(submodelId);
+            Assert.assertTrue(executor.submit(() -> persistence.getEnvironment()).get(5, TimeUnit.SECONDS).getSubmodels().contains(expected));
+            transaction.commit();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        Assert.assertThrows(ResourceNotFoundException.class, () -> persistence.get(submodelId, QueryModifier.DEFAULT));
+    }
+}